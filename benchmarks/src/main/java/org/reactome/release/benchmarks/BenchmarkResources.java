@@ -0,0 +1,137 @@
+package org.reactome.release.benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import org.reactome.release.Resource;
+
+/**
+ * Builds resources and resource manifests shaped like the entries of External_Resources.csv/json for the
+ * benchmarks.
+ */
+final class BenchmarkResources {
+	private static final String[] MANIFEST_HEADERS = {
+		"Release Step", "Main Program", "Dependency in Source Code", "Resource", "Resource Description",
+		"Resource Type", "Resource URL", "Expected Response Text", "Error Response Text", "Expected File Size"
+	};
+
+	private BenchmarkResources() {}
+
+	/**
+	 * Returns the JSON attributes of a resource, e.g. for a manifest or to construct a Resource.
+	 *
+	 * @param resourceName Name of the resource
+	 * @param resourceType Resource type as written in a manifest (e.g. "File" or "REST EndPoint")
+	 * @param resourceURL URL of the resource
+	 * @param expectedResponseText Text expected in the resource's content (empty if none)
+	 * @param expectedFileSizeInBytes Expected size of a file resource in bytes
+	 * @return Resource JSON
+	 */
+	static JsonObject newResourceJson(
+		String resourceName,
+		String resourceType,
+		String resourceURL,
+		String expectedResponseText,
+		long expectedFileSizeInBytes
+	) {
+		String[] values = getManifestValues(
+			resourceName, resourceType, resourceURL, expectedResponseText, expectedFileSizeInBytes
+		);
+
+		JsonObject resourceJson = new JsonObject();
+		for (int column = 0; column < MANIFEST_HEADERS.length; column++) {
+			resourceJson.addProperty(MANIFEST_HEADERS[column], values[column]);
+		}
+		return resourceJson;
+	}
+
+	/**
+	 * Returns a Resource with the given attributes.
+	 *
+	 * @see #newResourceJson(String, String, String, String, long)
+	 */
+	static Resource newResource(
+		String resourceName,
+		String resourceType,
+		String resourceURL,
+		String expectedResponseText,
+		long expectedFileSizeInBytes
+	) {
+		return new Resource(
+			newResourceJson(resourceName, resourceType, resourceURL, expectedResponseText, expectedFileSizeInBytes)
+		);
+	}
+
+	/**
+	 * Writes a CSV manifest of the given number of resources, alternating between FTP files, HTTP files and REST
+	 * endpoints on a spread of hosts.
+	 *
+	 * @param manifestFile Path of the CSV file to write
+	 * @param resourceCount Number of resources in the manifest
+	 * @throws IOException Thrown if the file can not be written
+	 */
+	static void writeCSVManifest(Path manifestFile, int resourceCount) throws IOException {
+		try (
+			Writer manifestWriter = Files.newBufferedWriter(manifestFile, StandardCharsets.UTF_8);
+			CSVPrinter csvPrinter = new CSVPrinter(manifestWriter, CSVFormat.DEFAULT.withHeader(MANIFEST_HEADERS))
+		) {
+			for (int resourceIndex = 0; resourceIndex < resourceCount; resourceIndex++) {
+				csvPrinter.printRecord((Object[]) getManifestValues(resourceIndex));
+			}
+		}
+	}
+
+	/**
+	 * Writes a JSON manifest (an array of resource objects) of the given number of resources.
+	 *
+	 * @param manifestFile Path of the JSON file to write
+	 * @param resourceCount Number of resources in the manifest
+	 * @throws IOException Thrown if the file can not be written
+	 * @see #writeCSVManifest(Path, int)
+	 */
+	static void writeJSONManifest(Path manifestFile, int resourceCount) throws IOException {
+		JsonArray resourcesJson = new JsonArray();
+		for (int resourceIndex = 0; resourceIndex < resourceCount; resourceIndex++) {
+			String[] values = getManifestValues(resourceIndex);
+			resourcesJson.add(newResourceJson(values[3], values[5], values[6], values[7], Long.parseLong(values[9])));
+		}
+		Files.write(manifestFile, resourcesJson.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String[] getManifestValues(int resourceIndex) {
+		String host = "provider" + (resourceIndex % 50) + ".example.org";
+		switch (resourceIndex % 3) {
+			case 0:
+				return getManifestValues("file" + resourceIndex + ".txt.gz", "File",
+					"ftp://" + host + "/pub/release/file" + resourceIndex + ".txt.gz", "", 1024L * resourceIndex);
+			case 1:
+				return getManifestValues("file" + resourceIndex + ".tsv", "File",
+					"https://" + host + "/downloads/file" + resourceIndex + ".tsv", "", 2048L * resourceIndex);
+			default:
+				return getManifestValues("endpoint" + resourceIndex, "REST EndPoint",
+					"https://" + host + "/api/entries/" + resourceIndex, "\"entry\":", 0);
+		}
+	}
+
+	private static String[] getManifestValues(
+		String resourceName,
+		String resourceType,
+		String resourceURL,
+		String expectedResponseText,
+		long expectedFileSizeInBytes
+	) {
+		return new String[] {
+			"Benchmark Step", "benchmark.pl", "Benchmark.pm#L1", resourceName, "Resource used by the benchmarks",
+			resourceType, resourceURL, expectedResponseText, "Error", Long.toString(expectedFileSizeInBytes)
+		};
+	}
+}
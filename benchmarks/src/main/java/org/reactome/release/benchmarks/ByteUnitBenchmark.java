@@ -0,0 +1,35 @@
+package org.reactome.release.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.reactome.release.resourcechecker.FileResourceChecker.ByteUnit;
+
+/**
+ * Formatting of file sizes for the "File Size Found" of file reports, across the byte units.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ByteUnitBenchmark {
+	@Param({"512", "1536000", "5368709120", "549755813888"})
+	private long fileSizeInBytes;
+
+	@Benchmark
+	public String getHumanReadableFileSize() {
+		return ByteUnit.getHumanReadableFileSize(this.fileSizeInBytes);
+	}
+}
@@ -0,0 +1,84 @@
+package org.reactome.release.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.reactome.release.resourcechecker.HTTPResourceChecker.ContentChunkGenerator;
+
+/**
+ * Iteration over a large response body with each of the ContentChunkGenerator views.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContentChunkGeneratorBenchmark {
+	/** Body size in bytes, up to a 100 MB response; run with "-prof gc" to compare allocation rates */
+	@Param({"16777216", "104857600"})
+	private int bodySizeInBytes;
+
+	@Param({"4096", "65536"})
+	private int chunkSizeInBytes;
+
+	private byte[] body;
+
+	@Setup
+	public void createBody() {
+		// Mostly ASCII with some multi-byte characters, as in real HTML and TSV content
+		StringBuilder bodyBuilder = new StringBuilder(this.bodySizeInBytes);
+		Random random = new Random(42);
+		while (bodyBuilder.length() < this.bodySizeInBytes) {
+			bodyBuilder.append(random.nextInt(20) == 0 ? 'é' : (char) ('a' + random.nextInt(26)));
+		}
+		this.body = bodyBuilder.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public void iterateStrings(Blackhole blackhole) {
+		for (String chunk : newContentChunkGenerator()) {
+			blackhole.consume(chunk);
+		}
+	}
+
+	@Benchmark
+	public void iterateCharChunks(Blackhole blackhole) {
+		Iterator<CharBuffer> charChunks = newContentChunkGenerator().charChunks();
+		while (charChunks.hasNext()) {
+			blackhole.consume(charChunks.next().remaining());
+		}
+	}
+
+	@Benchmark
+	public void iterateByteChunks(Blackhole blackhole) {
+		Iterator<ByteBuffer> byteChunks = newContentChunkGenerator().byteChunks();
+		while (byteChunks.hasNext()) {
+			blackhole.consume(byteChunks.next().remaining());
+		}
+	}
+
+	private ContentChunkGenerator newContentChunkGenerator() {
+		return new ContentChunkGenerator(
+			new ByteArrayInputStream(this.body), this.chunkSizeInBytes, StandardCharsets.UTF_8
+		);
+	}
+}
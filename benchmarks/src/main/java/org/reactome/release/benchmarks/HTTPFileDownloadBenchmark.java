@@ -0,0 +1,94 @@
+package org.reactome.release.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.reactome.release.Resource;
+import org.reactome.release.resourcechecker.FileResourceChecker;
+import org.reactome.release.resourcechecker.HTTPFileResourceChecker;
+import org.reactome.release.resourcechecker.ResourceCheckerFactory;
+
+/**
+ * Downloads of HTTP files of up to several gigabytes, the size of the largest UniProt and Ensembl files, from an
+ * in-process server, over a single stream and split into parallel byte ranges.  The file is a block of random bytes
+ * repeated to the file size, so it is never held in memory whole.  Each download is timed on its own, as a
+ * multi-gigabyte download takes far longer than a normal measurement iteration.  The bandwidth limit applies to each
+ * connection, as it does for a provider limiting each connection, so a file large enough to be split into ranges
+ * (64 MiB or more) downloads faster over several streams.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HTTPFileDownloadBenchmark {
+	private static final int CONTENT_BLOCK_SIZE_IN_BYTES = 4 * 1024 * 1024;
+
+	@Param({"67108864", "1073741824", "4294967296"})
+	private long fileSizeInBytes;
+
+	/** Number of byte ranges fetched concurrently (1 for a single stream) */
+	@Param({"1", "4"})
+	private int downloadStreams;
+
+	/** Bandwidth limit of each connection in bytes per second (0 for no limit) */
+	@Param({"0", "104857600"})
+	private long bandwidthBytesPerSecond;
+
+	private InProcessHttpServer httpServer;
+	private Path downloadDirectory;
+	private Resource httpFileResource;
+
+	@Setup(Level.Trial)
+	public void startServer() throws IOException {
+		HTTPFileResourceChecker.setParallelDownloadStreams(this.downloadStreams);
+		this.httpServer = new InProcessHttpServer(new NetworkConditions(0, this.bandwidthBytesPerSecond));
+		this.downloadDirectory = Files.createTempDirectory("http-file-download-benchmark");
+
+		byte[] contentBlock = new byte[CONTENT_BLOCK_SIZE_IN_BYTES];
+		new Random(42).nextBytes(contentBlock);
+		this.httpFileResource = BenchmarkResources.newResource(
+			"http_file.gz", "File", this.httpServer.serve("/files/http_file.gz", contentBlock, this.fileSizeInBytes),
+			"", this.fileSizeInBytes
+		);
+	}
+
+	@TearDown(Level.Trial)
+	public void stopServer() throws IOException {
+		this.httpServer.close();
+		Files.deleteIfExists(this.downloadDirectory.resolve("download"));
+		Files.deleteIfExists(this.downloadDirectory);
+	}
+
+	@Setup(Level.Invocation)
+	public void deletePreviousDownload() throws IOException {
+		Files.deleteIfExists(this.downloadDirectory.resolve("download"));
+	}
+
+	@Benchmark
+	public long downloadHTTPFile() throws IOException {
+		Path fileDestination = this.downloadDirectory.resolve("download");
+		FileResourceChecker fileResourceChecker =
+			(FileResourceChecker) ResourceCheckerFactory.getInstance(this.httpFileResource);
+		fileResourceChecker.saveFileContents(fileDestination);
+		return Files.size(fileDestination);
+	}
+}
@@ -0,0 +1,115 @@
+package org.reactome.release.benchmarks;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.mockftpserver.core.command.Command;
+import org.mockftpserver.core.command.CommandHandler;
+import org.mockftpserver.core.command.CommandNames;
+import org.mockftpserver.core.command.ReplyCodes;
+import org.mockftpserver.core.session.Session;
+import org.mockftpserver.fake.FakeFtpServer;
+import org.mockftpserver.fake.UserAccount;
+import org.mockftpserver.fake.filesystem.DirectoryEntry;
+import org.mockftpserver.fake.filesystem.FileEntry;
+import org.mockftpserver.fake.filesystem.FileSystem;
+import org.mockftpserver.fake.filesystem.UnixFakeFileSystem;
+
+/**
+ * An FTP server on a free local port serving files from an in-memory file system under simulated network conditions.
+ * Every reply to the commands an FTP file check sends is delayed by the latency, and file content is sent at no more
+ * than the bandwidth limit.
+ */
+final class InProcessFtpServer implements AutoCloseable {
+	static final String USER_NAME = "anonymous";
+	static final String PASSWORD = "help@reactome.org";
+
+	private static final String[] DELAYED_COMMANDS = {
+		CommandNames.USER, CommandNames.PASS, CommandNames.TYPE, CommandNames.PASV, CommandNames.EPSV,
+		CommandNames.LIST, CommandNames.NOOP, CommandNames.SYST
+	};
+
+	private final FakeFtpServer fakeFtpServer;
+	private final FileSystem fileSystem;
+	private final NetworkConditions networkConditions;
+	private final Map<String, byte[]> pathToContentMap;
+
+	/**
+	 * Starts a server on a free port accepting the anonymous login of the FTP file resource checker.
+	 *
+	 * @param networkConditions Latency and bandwidth applied to every reply and file transfer
+	 */
+	InProcessFtpServer(NetworkConditions networkConditions) {
+		this.networkConditions = networkConditions;
+		this.pathToContentMap = new ConcurrentHashMap<>();
+
+		this.fileSystem = new UnixFakeFileSystem();
+		this.fileSystem.add(new DirectoryEntry("/"));
+
+		this.fakeFtpServer = new FakeFtpServer();
+		this.fakeFtpServer.setServerControlPort(0);
+		this.fakeFtpServer.setFileSystem(this.fileSystem);
+		this.fakeFtpServer.addUserAccount(new UserAccount(USER_NAME, PASSWORD, "/"));
+		for (String commandName : DELAYED_COMMANDS) {
+			CommandHandler commandHandler = this.fakeFtpServer.getCommandHandler(commandName);
+			if (commandHandler != null) {
+				this.fakeFtpServer.setCommandHandler(commandName, delayed(commandHandler));
+			}
+		}
+		this.fakeFtpServer.setCommandHandler(CommandNames.RETR, this::retrieve);
+		this.fakeFtpServer.start();
+	}
+
+	/**
+	 * Serves the content as a file at the path, creating its parent directories.
+	 *
+	 * @param path Absolute path of the file (e.g. "/pub/data.txt.gz")
+	 * @param content Content of the file
+	 * @return URL of the file
+	 */
+	String serve(String path, byte[] content) {
+		FileEntry fileEntry = new FileEntry(path);
+		fileEntry.setContents(content);
+		this.fileSystem.add(fileEntry);
+		this.pathToContentMap.put(path, content);
+		return "ftp://localhost:" + this.fakeFtpServer.getServerControlPort() + path;
+	}
+
+	@Override
+	public void close() {
+		this.fakeFtpServer.stop();
+	}
+
+	private CommandHandler delayed(CommandHandler commandHandler) {
+		return (command, session) -> {
+			this.networkConditions.awaitLatency();
+			commandHandler.handleCommand(command, session);
+		};
+	}
+
+	/**
+	 * Sends a file over the data connection, paced by the bandwidth limit (the fake server's own RETR handler sends
+	 * the whole file at once).
+	 */
+	private void retrieve(Command command, Session session) throws Exception {
+		this.networkConditions.awaitLatency();
+
+		String path = command.getParameter(0);
+		byte[] content = this.pathToContentMap.get(path.startsWith("/") ? path : "/" + path);
+		if (content == null) {
+			session.sendReply(ReplyCodes.READ_FILE_ERROR, "File not found: " + path);
+			return;
+		}
+
+		session.sendReply(ReplyCodes.TRANSFER_DATA_INITIAL_OK, "Opening binary data connection for " + path);
+		session.openDataConnection();
+		this.networkConditions.send(content, (chunk, offset, length) -> {
+			byte[] chunkBytes = offset == 0 && length == chunk.length ?
+				chunk : Arrays.copyOfRange(chunk, offset, offset + length);
+			session.sendData(chunkBytes, length);
+		});
+		session.closeDataConnection();
+		session.sendReply(ReplyCodes.TRANSFER_DATA_FINAL_OK, "Transfer complete");
+	}
+}
@@ -0,0 +1,125 @@
+package org.reactome.release.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * An HTTP server on the loopback interface serving fixed content under simulated network conditions.  HEAD requests
+ * are answered with the content's length and no body; GET requests with the whole content, or with the requested
+ * byte range (e.g. "bytes=0-1023") if a Range header is sent, so parallel range downloads can be exercised.  Content
+ * may be a block repeated up to a length beyond the size of an array, to serve files of several gigabytes.
+ */
+final class InProcessHttpServer implements AutoCloseable {
+	private static final String BYTES_RANGE_PREFIX = "bytes=";
+
+	private final HttpServer httpServer;
+	private final ExecutorService requestExecutor;
+	private final NetworkConditions networkConditions;
+	private final Map<String, ServedContent> pathToContentMap;
+
+	/**
+	 * Starts a server on a free port.
+	 *
+	 * @param networkConditions Latency and bandwidth applied to every response
+	 * @throws IOException Thrown if the server can not be started
+	 */
+	InProcessHttpServer(NetworkConditions networkConditions) throws IOException {
+		this.networkConditions = networkConditions;
+		this.pathToContentMap = new ConcurrentHashMap<>();
+		this.requestExecutor = Executors.newCachedThreadPool();
+		this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		this.httpServer.setExecutor(this.requestExecutor);
+		this.httpServer.createContext("/", this::handle);
+		this.httpServer.start();
+	}
+
+	/**
+	 * Serves the content at the path.
+	 *
+	 * @param path Absolute path of the content (e.g. "/files/data.tsv")
+	 * @param content Content to serve
+	 * @return URL of the content
+	 */
+	String serve(String path, byte[] content) {
+		return serve(path, content, content.length);
+	}
+
+	/**
+	 * Serves the content block, repeated end to end up to the content length, at the path.
+	 *
+	 * @param path Absolute path of the content (e.g. "/files/data.tsv")
+	 * @param contentBlock Block of bytes from which the content is made
+	 * @param contentLength Length of the served content in bytes
+	 * @return URL of the content
+	 */
+	String serve(String path, byte[] contentBlock, long contentLength) {
+		this.pathToContentMap.put(path, new ServedContent(contentBlock, contentLength));
+		return "http://localhost:" + this.httpServer.getAddress().getPort() + path;
+	}
+
+	@Override
+	public void close() {
+		this.httpServer.stop(0);
+		this.requestExecutor.shutdownNow();
+	}
+
+	private void handle(HttpExchange httpExchange) throws IOException {
+		try (HttpExchange exchange = httpExchange) {
+			this.networkConditions.awaitLatency();
+
+			ServedContent content = this.pathToContentMap.get(exchange.getRequestURI().getPath());
+			if (content == null) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+
+			exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+			if (exchange.getRequestMethod().equals("HEAD")) {
+				exchange.getResponseHeaders().set("Content-Length", Long.toString(content.length));
+				exchange.sendResponseHeaders(200, -1);
+				return;
+			}
+
+			String range = exchange.getRequestHeaders().getFirst("Range");
+			long rangeStart = 0;
+			long rangeEnd = content.length - 1;
+			if (range != null && range.startsWith(BYTES_RANGE_PREFIX)) {
+				String[] rangeBounds = range.substring(BYTES_RANGE_PREFIX.length()).split("-", 2);
+				rangeStart = Long.parseLong(rangeBounds[0].trim());
+				if (!rangeBounds[1].trim().isEmpty()) {
+					rangeEnd = Math.min(Long.parseLong(rangeBounds[1].trim()), content.length - 1);
+				}
+				exchange.getResponseHeaders().set(
+					"Content-Range", "bytes " + rangeStart + "-" + rangeEnd + "/" + content.length
+				);
+			}
+
+			long rangeLength = rangeEnd - rangeStart + 1;
+			exchange.sendResponseHeaders(range != null ? 206 : 200, rangeLength);
+			OutputStream responseBody = exchange.getResponseBody();
+			this.networkConditions.send(content.block, rangeStart, rangeLength, responseBody::write);
+		}
+	}
+
+	/**
+	 * Block of bytes repeated end to end to make content of the given length.
+	 */
+	private static final class ServedContent {
+		private final byte[] block;
+		private final long length;
+
+		private ServedContent(byte[] block, long length) {
+			this.block = block;
+			this.length = length;
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package org.reactome.release.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulated network conditions for the in-process servers: a latency added before every response and a bandwidth
+ * limit applied while content is sent.
+ */
+final class NetworkConditions {
+	private static final int CHUNK_SIZE_IN_BYTES = 16 * 1024;
+
+	private final long latencyMillis;
+	private final long bytesPerSecond;
+
+	/**
+	 * Constructs the conditions.
+	 *
+	 * @param latencyMillis Number of milliseconds to wait before each response
+	 * @param bytesPerSecond Maximum rate at which content is sent or 0 for no limit
+	 */
+	NetworkConditions(long latencyMillis, long bytesPerSecond) {
+		if (latencyMillis < 0 || bytesPerSecond < 0) {
+			throw new IllegalArgumentException("Latency and bandwidth must not be negative");
+		}
+
+		this.latencyMillis = latencyMillis;
+		this.bytesPerSecond = bytesPerSecond;
+	}
+
+	/**
+	 * Waits for the latency.
+	 *
+	 * @throws IOException Thrown if the thread is interrupted while waiting
+	 */
+	void awaitLatency() throws IOException {
+		sleep(TimeUnit.MILLISECONDS.toNanos(this.latencyMillis));
+	}
+
+	/**
+	 * Sends the content in chunks, pacing them so the bandwidth limit is not exceeded.
+	 *
+	 * @param content Bytes to send
+	 * @param chunkSender Sends one chunk
+	 * @throws IOException Thrown if a chunk can not be sent or the thread is interrupted while pacing
+	 */
+	void send(byte[] content, ChunkSender chunkSender) throws IOException {
+		send(content, 0, content.length, chunkSender);
+	}
+
+	/**
+	 * Sends part of the content, repeated end to end as many times as needed, in chunks paced so the bandwidth limit
+	 * is not exceeded.  Repeating the content lets a block of a few megabytes stand in for a file of several
+	 * gigabytes.  The limit applies to each call on its own, as it would to each connection over a link limited per
+	 * connection.
+	 *
+	 * @param content Bytes from which to send, repeated end to end
+	 * @param contentOffset Offset of the first byte to send within the repeated content
+	 * @param contentLength Number of bytes to send
+	 * @param chunkSender Sends one chunk
+	 * @throws IOException Thrown if a chunk can not be sent or the thread is interrupted while pacing
+	 */
+	void send(byte[] content, long contentOffset, long contentLength, ChunkSender chunkSender) throws IOException {
+		long startNanos = System.nanoTime();
+		for (long bytesSent = 0; bytesSent < contentLength; ) {
+			int offset = (int) ((contentOffset + bytesSent) % content.length);
+			int length = (int) Math.min(
+				Math.min(CHUNK_SIZE_IN_BYTES, content.length - offset), contentLength - bytesSent
+			);
+			chunkSender.send(content, offset, length);
+			bytesSent += length;
+
+			if (this.bytesPerSecond > 0) {
+				long dueNanos = TimeUnit.SECONDS.toNanos(bytesSent) / this.bytesPerSecond;
+				sleep(dueNanos - (System.nanoTime() - startNanos));
+			}
+		}
+	}
+
+	private static void sleep(long nanos) throws IOException {
+		if (nanos <= 0) {
+			return;
+		}
+
+		try {
+			TimeUnit.NANOSECONDS.sleep(nanos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while simulating network conditions", e);
+		}
+	}
+
+	@FunctionalInterface
+	interface ChunkSender {
+		void send(byte[] content, int offset, int length) throws IOException;
+	}
+}
@@ -0,0 +1,62 @@
+package org.reactome.release.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.reactome.release.Resource;
+
+/**
+ * Throughput of the Resource getters called by the checkers and the report, which run many times per check.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResourceBenchmark {
+	private Resource resource;
+
+	@Setup
+	public void createResource() {
+		this.resource = BenchmarkResources.newResource(
+			"uniprot_sprot.xml.gz", "File", "ftp://ftp.uniprot.org/pub/databases/uniprot/uniprot_sprot.xml.gz",
+			"", 1024L * 1024 * 1024
+		);
+	}
+
+	@Benchmark
+	public void getCheckAttributes(Blackhole blackhole) {
+		blackhole.consume(this.resource.getResourceURL());
+		blackhole.consume(this.resource.getResourceType());
+		blackhole.consume(this.resource.getExpectedResponseText());
+		blackhole.consume(this.resource.getErrorResponseText());
+		blackhole.consume(this.resource.getExpectedFileSizeInBytes());
+		blackhole.consume(this.resource.isRenderingRequired());
+	}
+
+	@Benchmark
+	public void getDescriptiveAttributes(Blackhole blackhole) {
+		blackhole.consume(this.resource.getReleaseStep());
+		blackhole.consume(this.resource.getMainProgramName());
+		blackhole.consume(this.resource.getSourceCodeDependency());
+		blackhole.consume(this.resource.getResourceName());
+		blackhole.consume(this.resource.getResourceDescription());
+	}
+
+	@Benchmark
+	public Object getResourceAsJsonObject() {
+		return this.resource.getResourceAsJsonObject();
+	}
+}
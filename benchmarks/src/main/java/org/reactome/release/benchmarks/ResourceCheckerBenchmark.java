@@ -0,0 +1,148 @@
+package org.reactome.release.benchmarks;
+
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.reactome.release.Resource;
+import org.reactome.release.resourcechecker.FTPDirectoryListingCache;
+import org.reactome.release.resourcechecker.FTPSessionPool;
+import org.reactome.release.resourcechecker.FileResourceChecker;
+import org.reactome.release.resourcechecker.ResourceChecker;
+import org.reactome.release.resourcechecker.ResourceCheckerFactory;
+
+/**
+ * End-to-end HTTP file, REST endpoint and FTP file checks and downloads against in-process servers with
+ * configurable latency and bandwidth.  A new checker is created for each invocation, as the engine does for each
+ * resource, while FTP sessions stay pooled between invocations as they are between resources on the same host.
+ * Downloads of large HTTP files are measured by {@link HTTPFileDownloadBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResourceCheckerBenchmark {
+	private static final String EXPECTED_RESPONSE_TEXT = "\"stId\":\"R-HSA-109581\"";
+
+	@Param({"0", "25"})
+	private long latencyMillis;
+
+	/** Bandwidth limit of file content in bytes per second (0 for no limit) */
+	@Param({"0", "52428800"})
+	private long bandwidthBytesPerSecond;
+
+	@Param({"1048576"})
+	private int fileSizeInBytes;
+
+	private InProcessHttpServer httpServer;
+	private InProcessFtpServer ftpServer;
+	private Path downloadDirectory;
+
+	private Resource httpFileResource;
+	private Resource restEndpointResource;
+	private Resource ftpFileResource;
+
+	@Setup(Level.Trial)
+	public void startServers() throws IOException {
+		NetworkConditions networkConditions = new NetworkConditions(this.latencyMillis, this.bandwidthBytesPerSecond);
+		this.httpServer = new InProcessHttpServer(networkConditions);
+		this.ftpServer = new InProcessFtpServer(networkConditions);
+		this.downloadDirectory = Files.createTempDirectory("resource-checker-benchmark");
+
+		byte[] fileContent = new byte[this.fileSizeInBytes];
+		new Random(42).nextBytes(fileContent);
+
+		this.httpFileResource = BenchmarkResources.newResource(
+			"http_file.gz", "File", this.httpServer.serve("/files/http_file.gz", fileContent), "",
+			this.fileSizeInBytes
+		);
+		this.restEndpointResource = BenchmarkResources.newResource(
+			"rest_endpoint", "REST EndPoint",
+			this.httpServer.serve("/rest/pathways.json", newRestResponse(this.fileSizeInBytes)),
+			EXPECTED_RESPONSE_TEXT, 0
+		);
+		this.ftpFileResource = BenchmarkResources.newResource(
+			"ftp_file.gz", "File", this.ftpServer.serve("/pub/ftp_file.gz", fileContent), "", this.fileSizeInBytes
+		);
+	}
+
+	@TearDown(Level.Trial)
+	public void stopServers() throws IOException {
+		FTPSessionPool.getSharedInstance().close();
+		this.ftpServer.close();
+		this.httpServer.close();
+		Files.deleteIfExists(this.downloadDirectory.resolve("download"));
+		Files.deleteIfExists(this.downloadDirectory);
+	}
+
+	@Setup(Level.Invocation)
+	public void clearDirectoryListings() {
+		FTPDirectoryListingCache.getSharedInstance().clear();
+	}
+
+	@Benchmark
+	public JsonObject checkHTTPFile() {
+		return ResourceCheckerFactory.getInstance(this.httpFileResource).getReport();
+	}
+
+	@Benchmark
+	public JsonObject checkRESTEndpoint() {
+		return ResourceCheckerFactory.getInstance(this.restEndpointResource).getReport();
+	}
+
+	@Benchmark
+	public JsonObject checkFTPFile() {
+		return ResourceCheckerFactory.getInstance(this.ftpFileResource).getReport();
+	}
+
+	@Benchmark
+	public long downloadFTPFile() throws IOException {
+		return download(this.ftpFileResource);
+	}
+
+	private long download(Resource fileResource) throws IOException {
+		Path fileDestination = this.downloadDirectory.resolve("download");
+		Files.deleteIfExists(fileDestination);
+
+		ResourceChecker resourceChecker = ResourceCheckerFactory.getInstance(fileResource);
+		((FileResourceChecker) resourceChecker).saveFileContents(fileDestination);
+		return Files.size(fileDestination);
+	}
+
+	/**
+	 * Returns a JSON array body of the given size with the expected text in its last element, so a check has to
+	 * read the whole body to find it.
+	 */
+	private static byte[] newRestResponse(int sizeInBytes) {
+		String element = "{\"stId\":\"R-HSA-000000\",\"displayName\":\"Pathway\"},";
+		int elementCount = Math.max(1, sizeInBytes / element.length());
+
+		StringBuilder restResponse = new StringBuilder(sizeInBytes + element.length()).append('[');
+		for (int elementIndex = 0; elementIndex < elementCount - 1; elementIndex++) {
+			restResponse.append(element);
+		}
+		restResponse.append("{").append(EXPECTED_RESPONSE_TEXT).append(",\"displayName\":\"Signaling\"}]");
+		return restResponse.toString().getBytes(StandardCharsets.UTF_8);
+	}
+}
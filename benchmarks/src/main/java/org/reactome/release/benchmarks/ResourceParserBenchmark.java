@@ -0,0 +1,88 @@
+package org.reactome.release.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.reactome.release.Resource;
+import org.reactome.release.ResourceParser;
+
+/**
+ * Parsing of large CSV and JSON resource manifests, both collected into a list and streamed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResourceParserBenchmark {
+	@Param({"1000", "100000"})
+	private int resourceCount;
+
+	private Path manifestDirectory;
+	private String csvManifest;
+	private String jsonManifest;
+	private ResourceParser resourceParser;
+
+	@Setup(Level.Trial)
+	public void writeManifests() throws IOException {
+		this.manifestDirectory = Files.createTempDirectory("resource-parser-benchmark");
+		Path csvManifestFile = this.manifestDirectory.resolve("resources.csv");
+		Path jsonManifestFile = this.manifestDirectory.resolve("resources.json");
+		BenchmarkResources.writeCSVManifest(csvManifestFile, this.resourceCount);
+		BenchmarkResources.writeJSONManifest(jsonManifestFile, this.resourceCount);
+
+		this.csvManifest = csvManifestFile.toString();
+		this.jsonManifest = jsonManifestFile.toString();
+		this.resourceParser = new ResourceParser();
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteManifests() throws IOException {
+		Files.deleteIfExists(Path.of(this.csvManifest));
+		Files.deleteIfExists(Path.of(this.jsonManifest));
+		Files.deleteIfExists(this.manifestDirectory);
+	}
+
+	@Benchmark
+	public List<Resource> getResourcesFromCSV() throws IOException {
+		return this.resourceParser.getResources(this.csvManifest);
+	}
+
+	@Benchmark
+	public List<Resource> getResourcesFromJSON() throws IOException {
+		return this.resourceParser.getResources(this.jsonManifest);
+	}
+
+	@Benchmark
+	public long streamResourcesFromCSV() throws IOException {
+		try (Stream<Resource> resources = this.resourceParser.streamResources(this.csvManifest)) {
+			return resources.count();
+		}
+	}
+
+	@Benchmark
+	public long streamResourcesFromJSON() throws IOException {
+		try (Stream<Resource> resources = this.resourceParser.streamResources(this.jsonManifest)) {
+			return resources.count();
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package org.reactome.release.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.reactome.release.resourcechecker.ResponseTextMatcher;
+import org.reactome.release.resourcechecker.ResponseTextMatcher.ResponseTextMatch;
+
+/**
+ * Expected and error response text matching over a large body.  The expected text is placed at the end of the body
+ * and the error text is absent, so the whole body is scanned (the worst case for a check).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseTextMatcherBenchmark {
+	private static final String EXPECTED_RESPONSE_TEXT = "<title>Reactome Pathway Browser</title>";
+	private static final String ERROR_RESPONSE_TEXT = "Service temporarily unavailable";
+
+	@Param({"1048576", "67108864"})
+	private int bodySizeInBytes;
+
+	private byte[] body;
+	private String bodyText;
+	private ResponseTextMatcher responseTextMatcher;
+
+	@Setup
+	public void createBody() {
+		// Random lower case text with frequent partial prefixes of the texts to exercise the automaton's failure links
+		StringBuilder bodyBuilder = new StringBuilder(this.bodySizeInBytes);
+		Random random = new Random(42);
+		while (bodyBuilder.length() < this.bodySizeInBytes - EXPECTED_RESPONSE_TEXT.length()) {
+			if (random.nextInt(64) == 0) {
+				bodyBuilder.append(EXPECTED_RESPONSE_TEXT, 0, 1 + random.nextInt(EXPECTED_RESPONSE_TEXT.length() - 1));
+			} else {
+				bodyBuilder.append((char) ('a' + random.nextInt(26)));
+			}
+		}
+		bodyBuilder.append(EXPECTED_RESPONSE_TEXT);
+
+		this.bodyText = bodyBuilder.toString();
+		this.body = this.bodyText.getBytes(StandardCharsets.UTF_8);
+		this.responseTextMatcher = new ResponseTextMatcher(EXPECTED_RESPONSE_TEXT, ERROR_RESPONSE_TEXT);
+	}
+
+	@Benchmark
+	public ResponseTextMatch matchStream() throws IOException {
+		return this.responseTextMatcher.match(new ByteArrayInputStream(this.body));
+	}
+
+	@Benchmark
+	public ResponseTextMatch matchString() {
+		return this.responseTextMatcher.match(this.bodyText);
+	}
+
+	@Benchmark
+	public ResponseTextMatcher buildMatcher() {
+		return new ResponseTextMatcher(EXPECTED_RESPONSE_TEXT, ERROR_RESPONSE_TEXT);
+	}
+}
@@ -0,0 +1,426 @@
+package org.reactome.release;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Run-time options for a resource check run, parsed from command line arguments of the form
+ * <code>--option-name=value</code>.  Options which are not provided fall back to their default values.
+ */
+public class Configuration {
+	private static final String OPTION_PREFIX = "--";
+
+	private final Map<String, String> options;
+
+	/**
+	 * Constructs a Configuration object from the command line arguments passed to the program.
+	 *
+	 * @param args Command line arguments, each in the form <code>--option-name=value</code>
+	 * @throws IllegalArgumentException Thrown if an argument is not in the form <code>--option-name=value</code>
+	 */
+	public Configuration(String[] args) {
+		this.options = parseOptions(args);
+	}
+
+	/**
+	 * Returns the name of the CSV or JSON file describing the resources to check.  The name is first looked up as a
+	 * resource on the classpath and then as a path on the file system.
+	 *
+	 * @return Name of the resources file (defaults to "External_Resources_Single_Test_Resource.json")
+	 */
+	public String getResourcesFileName() {
+		return getOption("resources", "External_Resources_Single_Test_Resource.json");
+	}
+
+	/**
+	 * Returns the maximum number of resource checks which may run at the same time.
+	 *
+	 * @return Number of resource checks to run concurrently (defaults to 16)
+	 */
+	public int getParallelism() {
+		return getPositiveIntOption("parallelism", 16);
+	}
+
+	/**
+	 * Returns the number of seconds a single resource check may run before it is reported as timed out.  The connect
+	 * and read timeouts of the checkers' HTTP connections and FTP sessions are derived from it.
+	 *
+	 * @return Timeout for a single resource check in seconds (defaults to 300)
+	 */
+	public long getCheckTimeoutSeconds() {
+		return getPositiveLongOption("check-timeout-seconds", 300);
+	}
+
+	/**
+	 * Returns the maximum number of resource checks which may run against the same host at once.
+	 *
+	 * @return Number of concurrent checks allowed per host (defaults to 2)
+	 */
+	public int getMaxChecksPerHost() {
+		return getPositiveIntOption("max-checks-per-host", 2);
+	}
+
+	/**
+	 * Returns the minimum number of milliseconds between the start of two checks against the same host.  A value of 0
+	 * turns the spacing off.
+	 *
+	 * @return Minimum spacing between checks of the same host in milliseconds (defaults to 250)
+	 */
+	public long getHostSpacingMillis() {
+		return getNonNegativeLongOption("host-spacing-millis", 250);
+	}
+
+	/**
+	 * Returns the maximum number of browser sessions used at once to render web pages.
+	 *
+	 * @return Size of the browser session pool (defaults to 4)
+	 */
+	public int getBrowserPoolSize() {
+		return getPositiveIntOption("browser-pool-size", 4);
+	}
+
+	/**
+	 * Returns the number of pages a browser session may load before it is closed and replaced with a new one.
+	 *
+	 * @return Maximum pages loaded per browser session (defaults to 25)
+	 */
+	public int getBrowserSessionMaxPages() {
+		return getPositiveIntOption("browser-session-max-pages", 25);
+	}
+
+	/**
+	 * Returns the maximum number of seconds to wait for a rendered web page to show its expected or error text or to
+	 * finish loading.
+	 *
+	 * @return Upper bound on waiting for a web page to become ready in seconds (defaults to 10)
+	 */
+	public long getPageReadyTimeoutSeconds() {
+		return getPositiveLongOption("page-ready-timeout-seconds", 10);
+	}
+
+	/**
+	 * Returns the maximum number of idle, logged in FTP sessions kept for re-use per host and credentials.
+	 *
+	 * @return Maximum idle FTP sessions per host (defaults to 4)
+	 */
+	public int getFtpMaxIdleSessionsPerHost() {
+		return getPositiveIntOption("ftp-max-idle-sessions-per-host", 4);
+	}
+
+	/**
+	 * Returns the number of seconds an FTP session may stay idle in the session pool before it is closed.
+	 *
+	 * @return FTP session idle timeout in seconds (defaults to 60)
+	 */
+	public long getFtpIdleTimeoutSeconds() {
+		return getPositiveLongOption("ftp-idle-timeout-seconds", 60);
+	}
+
+	/**
+	 * Returns the number of seconds an FTP directory listing is re-used before the directory is listed again.
+	 *
+	 * @return FTP directory listing time to live in seconds (defaults to 600)
+	 */
+	public long getFtpListingTimeToLiveSeconds() {
+		return getPositiveLongOption("ftp-listing-ttl-seconds", 600);
+	}
+
+	/**
+	 * Returns the number of byte ranges downloaded concurrently for a large HTTP file whose server accepts ranges.
+	 * Every range is a connection to the file's host, so the number used is at most the number of checks allowed per
+	 * host (see {@link #getMaxChecksPerHost()}).
+	 *
+	 * @return Number of concurrent streams per HTTP file download (defaults to 4)
+	 */
+	public int getDownloadStreams() {
+		return getPositiveIntOption("download-streams", 4);
+	}
+
+	/**
+	 * Returns the directory to which file resources are downloaded before being checked or <code>null</code> if file
+	 * resources are not to be downloaded.
+	 *
+	 * @return Download directory for file resources or <code>null</code> if not specified
+	 */
+	public String getDownloadDirectory() {
+		return getOption("download-dir", null);
+	}
+
+	/**
+	 * Returns the file in which the metadata and reports of resource checks are kept between runs, so that resources
+	 * which have not changed are not checked again, or <code>null</code> if no cache is to be used.
+	 *
+	 * @return Resource metadata cache file or <code>null</code> if not specified
+	 */
+	public String getMetadataCacheFileName() {
+		return getOption("metadata-cache", null);
+	}
+
+	/**
+	 * Returns the number of seconds for which the cached report of an unchanged resource may be re-used before the
+	 * resource is checked in full again.
+	 *
+	 * @return Maximum age of a re-used cached report in seconds (defaults to 86400)
+	 */
+	public long getMaxAgeSeconds() {
+		return getPositiveLongOption("max-age-seconds", 86400);
+	}
+
+	/**
+	 * Returns the HTTP client used to check HTTP resources: "url-connection" for a blocking HttpURLConnection per
+	 * request or "http-client" for the shared, asynchronous java.net.http.HttpClient (with HTTP/2 where supported).
+	 *
+	 * @return Name of the HTTP backend (defaults to "url-connection")
+	 * @throws IllegalArgumentException Thrown if the option is not one of the recognized backends
+	 */
+	public String getHttpBackend() {
+		String httpBackend = getOption("http-backend", "url-connection");
+		if (!httpBackend.equals("url-connection") && !httpBackend.equals("http-client")) {
+			throw new IllegalArgumentException(
+				"The option " + OPTION_PREFIX + "http-backend must be url-connection or http-client: " + httpBackend
+			);
+		}
+		return httpBackend;
+	}
+
+	/**
+	 * Returns the number of threads on which the asynchronous HTTP client processes responses.
+	 *
+	 * @return Number of HTTP client threads (defaults to 4)
+	 */
+	public int getHttpClientThreads() {
+		return getPositiveIntOption("http-client-threads", 4);
+	}
+
+	/**
+	 * Returns the maximum number of times a request which fails for a transient reason is attempted.
+	 *
+	 * @return Number of attempts per request (defaults to 3)
+	 */
+	public int getRetryAttempts() {
+		return getPositiveIntOption("retry-attempts", 3);
+	}
+
+	/**
+	 * Returns the upper bound in milliseconds of the randomized delay before the first retry of a request, which is
+	 * doubled for each further retry.
+	 *
+	 * @return Base retry delay in milliseconds (defaults to 500)
+	 */
+	public long getRetryBaseDelayMillis() {
+		return getPositiveLongOption("retry-base-delay-millis", 500);
+	}
+
+	/**
+	 * Returns the upper bound in milliseconds of any delay between attempts of a request, including delays asked for
+	 * by a server's Retry-After header.
+	 *
+	 * @return Maximum retry delay in milliseconds (defaults to 30000)
+	 */
+	public long getRetryMaxDelayMillis() {
+		return getPositiveLongOption("retry-max-delay-millis", 30000);
+	}
+
+	/**
+	 * Returns the number of consecutive failed requests to a host after which no further requests are sent to it
+	 * until its cool down has passed.
+	 *
+	 * @return Number of failures which open a host's circuit breaker (defaults to 5)
+	 */
+	public int getCircuitBreakerFailures() {
+		return getPositiveIntOption("circuit-breaker-failures", 5);
+	}
+
+	/**
+	 * Returns the number of seconds requests to a host with an open circuit breaker fail immediately before a trial
+	 * request is let through.
+	 *
+	 * @return Circuit breaker cool down in seconds (defaults to 60)
+	 */
+	public long getCircuitBreakerCoolDownSeconds() {
+		return getPositiveLongOption("circuit-breaker-cool-down-seconds", 60);
+	}
+
+	/**
+	 * Returns the name of the file to which the run's metrics are written at the end of the run: JSON if the name
+	 * ends with ".json" and Prometheus text (e.g. for a node exporter textfile collector) otherwise.
+	 *
+	 * @return Metrics file name or null if metrics are not written (defaults to null)
+	 */
+	public String getMetricsFileName() {
+		return getOption("metrics-file", null);
+	}
+
+	/**
+	 * Returns the name of the file to which each resource's JSON with its report is written as one line of newline
+	 * delimited JSON as its check finishes.
+	 *
+	 * @return NDJSON report file name or null if the report is not written (defaults to null)
+	 */
+	public String getNDJSONReportFileName() {
+		return getOption("report-ndjson-file", null);
+	}
+
+	/**
+	 * Returns the name of the file to which a single JSON document of all resources with their reports and a per
+	 * release step summary is written.
+	 *
+	 * @return JSON report file name or null if the report is not written (defaults to null)
+	 */
+	public String getJSONReportFileName() {
+		return getOption("report-json-file", null);
+	}
+
+	/**
+	 * Returns the name of the file to which a tab separated summary row is written for each resource.
+	 *
+	 * @return TSV summary file name or null if the summary is not written (defaults to null)
+	 */
+	public String getTSVReportFileName() {
+		return getOption("report-tsv-file", null);
+	}
+
+	/**
+	 * Returns <code>true</code> if each resource's JSON with its report is printed to standard output;
+	 * <code>false</code> otherwise
+	 *
+	 * @return True if reports are printed to standard output (defaults to true unless a report file is written)
+	 */
+	public boolean isConsoleReportEnabled() {
+		boolean reportFileWritten = getNDJSONReportFileName() != null || getJSONReportFileName() != null ||
+			getTSVReportFileName() != null;
+		return Boolean.parseBoolean(getOption("report-stdout", Boolean.toString(!reportFileWritten)));
+	}
+
+	/**
+	 * Returns the release steps, most important first, in whose order resources are checked (e.g.
+	 * --release-step-priority=Orthoinference,AddLinks).  Resources of release steps not listed are checked after
+	 * those of listed steps.
+	 *
+	 * @return Release steps in priority order (defaults to an empty list)
+	 */
+	public List<String> getReleaseStepPriority() {
+		return getListOption("release-step-priority");
+	}
+
+	/**
+	 * Returns the release steps which can not go ahead if any of their resources fails its checks, whose failures
+	 * trigger the fail-fast mode.
+	 *
+	 * @return Names of the blocking release steps (defaults to none)
+	 */
+	public Set<String> getBlockingReleaseSteps() {
+		return new LinkedHashSet<>(getListOption("blocking-release-steps"));
+	}
+
+	/**
+	 * Returns what happens to the remaining checks once a resource of a blocking release step fails: "off" to run
+	 * them all, "deprioritize" to run the checks of the other release steps after those of the blocking ones or
+	 * "abort" to skip every check which has not started.
+	 *
+	 * @return Name of the fail-fast mode (defaults to "off")
+	 * @throws IllegalArgumentException Thrown if the option is not one of the recognized modes
+	 */
+	public String getFailFastMode() {
+		String failFastMode = getOption("fail-fast", "off");
+		if (!failFastMode.equals("off") && !failFastMode.equals("deprioritize") && !failFastMode.equals("abort")) {
+			throw new IllegalArgumentException(
+				"The option " + OPTION_PREFIX + "fail-fast must be off, deprioritize or abort: " + failFastMode
+			);
+		}
+		return failFastMode;
+	}
+
+	/**
+	 * Returns <code>true</code> if checks are run in priority order: by release step priority, then cheapest checks
+	 * (file headers and FTP listings) before REST endpoints and web pages; <code>false</code> otherwise
+	 *
+	 * @return True if checks are prioritized (defaults to true if a release step priority, blocking release steps or
+	 * a fail-fast mode are configured; false otherwise)
+	 */
+	public boolean isPrioritizationEnabled() {
+		boolean prioritizationConfigured = !getReleaseStepPriority().isEmpty() ||
+			!getBlockingReleaseSteps().isEmpty() || !getFailFastMode().equals("off");
+		return Boolean.parseBoolean(getOption("prioritize", Boolean.toString(prioritizationConfigured)));
+	}
+
+	/**
+	 * Returns the maximum number of resources read ahead from the resources file and ordered together when checks
+	 * are prioritized.  Priority applies within each such window, so the default covers a whole typical manifest.
+	 *
+	 * @return Number of resources ordered together (defaults to 10000)
+	 */
+	public int getPriorityLookAhead() {
+		return getPositiveIntOption("priority-look-ahead", 10000);
+	}
+
+	protected String getOption(String optionName, String defaultValue) {
+		return this.options.getOrDefault(optionName, defaultValue);
+	}
+
+	protected int getPositiveIntOption(String optionName, int defaultValue) {
+		return Math.toIntExact(getPositiveLongOption(optionName, defaultValue));
+	}
+
+	protected long getPositiveLongOption(String optionName, long defaultValue) {
+		return getLongOption(optionName, defaultValue, 1, "a positive value");
+	}
+
+	protected long getNonNegativeLongOption(String optionName, long defaultValue) {
+		return getLongOption(optionName, defaultValue, 0, "a value of 0 or more");
+	}
+
+	private long getLongOption(String optionName, long defaultValue, long minimumValue, String valueDescription) {
+		String optionValue = getOption(optionName, null);
+		if (optionValue == null) {
+			return defaultValue;
+		}
+
+		try {
+			long parsedValue = Long.parseLong(optionValue);
+			if (parsedValue < minimumValue) {
+				throw new IllegalArgumentException(
+					"The option " + OPTION_PREFIX + optionName + " must have " + valueDescription + ": " + optionValue
+				);
+			}
+			return parsedValue;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(
+				"The option " + OPTION_PREFIX + optionName + " must be a whole number: " + optionValue, e
+			);
+		}
+	}
+
+	protected List<String> getListOption(String optionName) {
+		String optionValue = getOption(optionName, "");
+		List<String> listValues = new ArrayList<>();
+		for (String listValue : optionValue.split(",")) {
+			if (!listValue.trim().isEmpty()) {
+				listValues.add(listValue.trim());
+			}
+		}
+		return listValues;
+	}
+
+	private Map<String, String> parseOptions(String[] args) {
+		Map<String, String> parsedOptions = new HashMap<>();
+		for (String arg : args) {
+			int separatorIndex = arg.indexOf('=');
+			if (!arg.startsWith(OPTION_PREFIX) || separatorIndex < 0) {
+				throw new IllegalArgumentException(
+					"The argument " + arg + " is not in the form " + OPTION_PREFIX + "option-name=value"
+				);
+			}
+
+			parsedOptions.put(
+				arg.substring(OPTION_PREFIX.length(), separatorIndex),
+				arg.substring(separatorIndex + 1)
+			);
+		}
+		return parsedOptions;
+	}
+}
@@ -1,35 +1,214 @@
 package org.reactome.release;
 
 import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
-import org.reactome.release.resourcechecker.FTPFileResourceChecker;
-import org.reactome.release.resourcechecker.FileResourceChecker.ByteUnit;
-import org.reactome.release.resourcechecker.ResourceChecker;
-import org.reactome.release.resourcechecker.ResourceCheckerFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.reactome.release.checkscheduler.CheckPrioritizer;
+import org.reactome.release.checkscheduler.HostPolitenessScheduler;
+import org.reactome.release.checkscheduler.ResourceCheckEngine;
+import org.reactome.release.checkscheduler.ResourceMetadataCache;
+import org.reactome.release.report.ConsoleReportSink;
+import org.reactome.release.report.JSONReportSink;
+import org.reactome.release.report.NDJSONReportSink;
+import org.reactome.release.report.ReportSink;
+import org.reactome.release.report.ReportWriter;
+import org.reactome.release.report.TSVReportSink;
+import org.reactome.release.resourcechecker.AsyncHttpClientBackend;
+import org.reactome.release.resourcechecker.CheckMetrics;
+import org.reactome.release.resourcechecker.FTPDirectoryListingCache;
+import org.reactome.release.resourcechecker.FTPSessionPool;
+import org.reactome.release.resourcechecker.HTTPFileResourceChecker;
+import org.reactome.release.resourcechecker.NetworkTimeouts;
+import org.reactome.release.resourcechecker.RetryPolicy;
+import org.reactome.release.resourcechecker.WebDriverPool;
+import org.reactome.release.resourcechecker.WebPageResourceChecker;
 
 public class Main {
+	private static final Logger logger = LogManager.getLogger();
+
 	public static void main(String[] args) throws Exception {
-		System.out.println("ResourceExists\tFileSize");
-		for (Resource resourceToCheck: getResourcesToCheck("External_Resources_Single_Test_Resource.json")) {
-			ResourceChecker resourceChecker = ResourceCheckerFactory.getInstance(resourceToCheck);
-//			System.out.println("Host: " + resourceToCheck.getResourceURL().getHost());
-//			System.out.println(resourceToCheck.getResourceURL() + " exists? " + resourceChecker.resourceExists());
-			System.out.println(resourceChecker instanceof FTPFileResourceChecker ? ((FTPFileResourceChecker) resourceChecker).getFileSizeAs(
-				ByteUnit.MEGABYTE) : "");
-			if (resourceChecker instanceof FTPFileResourceChecker) {
-				((FTPFileResourceChecker) resourceChecker).saveFileContents(
-					Paths.get(resourceChecker.getResource().getResourceName()));
+		Configuration configuration = new Configuration(args);
+
+		WebDriverPool.setSharedInstance(new WebDriverPool(
+			configuration.getBrowserPoolSize(),
+			configuration.getBrowserSessionMaxPages(),
+			configuration.getPageReadyTimeoutSeconds(),
+			WebDriverPool::createHeadlessChromeDriver
+		));
+		FTPSessionPool.setSharedInstance(new FTPSessionPool(
+			configuration.getFtpMaxIdleSessionsPerHost(),
+			configuration.getFtpIdleTimeoutSeconds()
+		));
+		if (configuration.getHttpBackend().equals("http-client")) {
+			AsyncHttpClientBackend.setSharedInstance(new AsyncHttpClientBackend(
+				configuration.getHttpClientThreads(),
+				configuration.getCheckTimeoutSeconds()
+			));
+		}
+		NetworkTimeouts.setSharedInstance(new NetworkTimeouts(configuration.getCheckTimeoutSeconds()));
+		RetryPolicy.setSharedInstance(new RetryPolicy(
+			configuration.getRetryAttempts(),
+			configuration.getRetryBaseDelayMillis(),
+			configuration.getRetryMaxDelayMillis(),
+			configuration.getCircuitBreakerFailures(),
+			configuration.getCircuitBreakerCoolDownSeconds()
+		));
+		HTTPFileResourceChecker.setParallelDownloadStreams(getDownloadStreams(configuration));
+		FTPDirectoryListingCache.setSharedInstance(
+			new FTPDirectoryListingCache(configuration.getFtpListingTimeToLiveSeconds())
+		);
+
+		ResourceMetadataCache resourceMetadataCache = getResourceMetadataCache(configuration);
+
+		AtomicInteger checkedResourceCount = new AtomicInteger();
+		ReportWriter reportWriter = new ReportWriter(getReportSinks(configuration));
+		long startTime = System.currentTimeMillis();
+		try (
+			reportWriter;
+			Stream<Resource> resourcesToCheck = getResourcesToCheck(configuration.getResourcesFileName());
+			ResourceCheckEngine resourceCheckEngine = new ResourceCheckEngine(
+				configuration.getParallelism(),
+				configuration.getCheckTimeoutSeconds(),
+				new HostPolitenessScheduler(
+					configuration.getMaxChecksPerHost(), configuration.getHostSpacingMillis()
+				),
+				getDownloadDirectory(configuration),
+				resourceMetadataCache,
+				getCheckPrioritizer(configuration)
+			)
+		) {
+			resourceCheckEngine.checkResources(resourcesToCheck, checkResult -> {
+				reportWriter.accept(checkResult);
+				checkedResourceCount.incrementAndGet();
+			});
+			if (resourceMetadataCache != null) {
+				resourceMetadataCache.save();
 			}
+		} finally {
+			WebDriverPool.getSharedInstance().close();
+			FTPSessionPool.getSharedInstance().close();
+			if (AsyncHttpClientBackend.getSharedInstance() != null) {
+				AsyncHttpClientBackend.getSharedInstance().close();
+			}
+		}
+		logger.info("Checked " + checkedResourceCount.get() + " resources in " +
+			(System.currentTimeMillis() - startTime) + " ms (" + reportWriter.getReleaseStepSummary().getPassedCount() +
+			" passed, " + reportWriter.getReleaseStepSummary().getFailedCount() + " failed, " +
+			reportWriter.getReleaseStepSummary().getSkippedCount() + " skipped)");
+		logger.info("Results by release step:" + System.lineSeparator() + reportWriter.getReleaseStepSummary());
+		logger.info("Web pages checked from static HTML: " + WebPageResourceChecker.getStaticContentHits() +
+			", rendered in a browser: " + WebPageResourceChecker.getBrowserRenderFallbacks());
+		if (resourceMetadataCache != null) {
+			logger.info("Resource metadata cache hits (unchanged resources): " +
+				resourceMetadataCache.getHitCount() + ", misses: " + resourceMetadataCache.getMissCount());
+		}
+		logger.info("Bytes transferred: " + CheckMetrics.getSharedInstance().getBytesTransferred() +
+			", retries: " + CheckMetrics.getSharedInstance().getRetries());
+		writeMetrics(configuration);
+	}
 
+	private static void writeMetrics(Configuration configuration) throws IOException {
+		String metricsFileName = configuration.getMetricsFileName();
+		if (metricsFileName == null) {
+			return;
+		}
+
+		CheckMetrics.getSharedInstance().export(Paths.get(metricsFileName));
+		logger.info("Run metrics written to " + metricsFileName);
+	}
 
-			System.out.println(resourceChecker.getReport());
+	private static List<ReportSink> getReportSinks(Configuration configuration) throws IOException {
+		List<ReportSink> reportSinks = new ArrayList<>();
+		if (configuration.isConsoleReportEnabled()) {
+			reportSinks.add(new ConsoleReportSink());
 		}
+		if (configuration.getNDJSONReportFileName() != null) {
+			reportSinks.add(new NDJSONReportSink(Paths.get(configuration.getNDJSONReportFileName())));
+		}
+		if (configuration.getJSONReportFileName() != null) {
+			reportSinks.add(new JSONReportSink(Paths.get(configuration.getJSONReportFileName())));
+		}
+		if (configuration.getTSVReportFileName() != null) {
+			reportSinks.add(new TSVReportSink(Paths.get(configuration.getTSVReportFileName())));
+		}
+		return reportSinks;
 	}
 
-	private static List<Resource> getResourcesToCheck(String fileName) throws IOException {
-		String resourcesFilePath = Main.class.getClassLoader().getResource(fileName).getPath();
+	private static Stream<Resource> getResourcesToCheck(String fileName) throws IOException {
+		URL resourcesFileURL = Main.class.getClassLoader().getResource(fileName);
+		String resourcesFilePath = resourcesFileURL != null ? resourcesFileURL.getPath() : fileName;
+
 		ResourceParser resourceParser = new ResourceParser();
-		return resourceParser.getResources(resourcesFilePath);
+		return resourceParser.streamResources(resourcesFilePath);
+	}
+
+	private static ResourceMetadataCache getResourceMetadataCache(Configuration configuration) throws IOException {
+		String metadataCacheFileName = configuration.getMetadataCacheFileName();
+		if (metadataCacheFileName == null) {
+			return null;
+		}
+
+		return ResourceMetadataCache.load(Paths.get(metadataCacheFileName), configuration.getMaxAgeSeconds());
+	}
+
+	private static CheckPrioritizer getCheckPrioritizer(Configuration configuration) {
+		if (!configuration.isPrioritizationEnabled()) {
+			return null;
+		}
+
+		if (!configuration.getFailFastMode().equals("off") && configuration.getBlockingReleaseSteps().isEmpty()) {
+			logger.warn("Fail-fast mode " + configuration.getFailFastMode() + " has no effect as no blocking " +
+				"release steps are configured (--blocking-release-steps)");
+		}
+		return new CheckPrioritizer(
+			getPrioritizedReleaseSteps(configuration),
+			configuration.getBlockingReleaseSteps(),
+			CheckPrioritizer.FailFastMode.valueOf(configuration.getFailFastMode().toUpperCase()),
+			configuration.getPriorityLookAhead(),
+			configuration.getDownloadDirectory() != null
+		);
+	}
+
+	/**
+	 * Returns the configured release step priority followed by any blocking release steps it does not list, so the
+	 * dependencies of blocking steps are checked before those of the remaining steps.
+	 */
+	private static List<String> getPrioritizedReleaseSteps(Configuration configuration) {
+		List<String> prioritizedReleaseSteps = new ArrayList<>(configuration.getReleaseStepPriority());
+		for (String blockingReleaseStep : configuration.getBlockingReleaseSteps()) {
+			if (!prioritizedReleaseSteps.contains(blockingReleaseStep)) {
+				prioritizedReleaseSteps.add(blockingReleaseStep);
+			}
+		}
+		return prioritizedReleaseSteps;
+	}
+
+	/**
+	 * Returns the configured number of download streams, capped at the number of checks allowed per host: a parallel
+	 * download runs under its check's single host permit, so more streams would open more connections to the host
+	 * than the politeness limit allows.
+	 */
+	private static int getDownloadStreams(Configuration configuration) {
+		if (configuration.getDownloadStreams() > configuration.getMaxChecksPerHost()) {
+			logger.info("Download streams (--download-streams " + configuration.getDownloadStreams() + ") capped " +
+				"at the number of checks allowed per host (--max-checks-per-host " +
+				configuration.getMaxChecksPerHost() + ")");
+			return configuration.getMaxChecksPerHost();
+		}
+		return configuration.getDownloadStreams();
+	}
+
+	private static Path getDownloadDirectory(Configuration configuration) {
+		String downloadDirectory = configuration.getDownloadDirectory();
+		return downloadDirectory != null ? Paths.get(downloadDirectory) : null;
 	}
 }
@@ -1,143 +1,197 @@
 package org.reactome.release;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
-import com.google.gson.JsonParser;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import org.apache.commons.csv.CSVRecord;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+/**
+ * An external resource on which a release step depends.  All attributes are parsed and validated once, when the
+ * Resource is constructed, into immutable typed values; the original attributes are kept as JSON only so they can be
+ * output alongside the resource's report.
+ */
 public class Resource {
-	private final Logger logger = LogManager.getLogger();
-	private JsonObject resourceAsJson;
+	private static final Logger logger = LogManager.getLogger();
+
+	private static final long FILE_SIZE_NOT_APPLICABLE = -1;
+
+	private final JsonObject resourceAsJson;
+
+	private final String releaseStep;
+	private final String mainProgramName;
+	private final String sourceCodeDependency;
+	private final String resourceName;
+	private final String resourceDescription;
+	private final ResourceType resourceType;
+	private final URL resourceURL;
+	private final String errorResponseText;
+	private final String expectedResponseText;
+	private final long expectedFileSizeInBytes;
+	private final boolean renderingRequired;
+	private final String expectedChecksum;
+	private final String checksumAlgorithm;
+	private final String checksumURL;
 
 	public Resource(CSVRecord resourceInfoCSV) {
-		this.resourceAsJson = convertCSVToJson(resourceInfoCSV);
-		checkMandatoryAttributesExist(this.resourceAsJson.toString());
+		this(convertCSVToJson(resourceInfoCSV));
 	}
 
 	public Resource(JsonObject resourceInfoJson) {
 		this.resourceAsJson = resourceInfoJson;
-		checkMandatoryAttributesExist(this.resourceAsJson.toString());
-	}
-
-	private JsonObject convertCSVToJson(CSVRecord resourceInfoCSV) {
-		String resourceInfoJson = convertCSVToJsonString(resourceInfoCSV);
 
-		return new JsonParser().parse(resourceInfoJson).getAsJsonObject();
+		this.releaseStep = getMandatoryAttribute("Release Step");
+		this.mainProgramName = getMandatoryAttribute("Main Program");
+		this.sourceCodeDependency = getMandatoryAttribute("Dependency in Source Code");
+		this.resourceName = getMandatoryAttribute("Resource");
+		this.resourceDescription = getMandatoryAttribute("Resource Description");
+		this.resourceType = parseResourceType(getMandatoryAttribute("Resource Type"));
+		this.resourceURL = parseResourceURL(getMandatoryAttribute("Resource URL"));
+
+		this.errorResponseText = getOptionalAttribute("Error Response Text");
+		this.expectedResponseText = getOptionalAttribute("Expected Response Text");
+		String expectedFileSize = getOptionalAttribute("Expected File Size");
+		this.expectedFileSizeInBytes = !expectedFileSize.isEmpty() ?
+			Long.parseLong(expectedFileSize) : FILE_SIZE_NOT_APPLICABLE;
+		this.renderingRequired = Boolean.parseBoolean(getOptionalAttribute("Rendering Required"));
+		this.expectedChecksum = getOptionalAttribute("Expected Checksum");
+		this.checksumAlgorithm = getOptionalAttribute("Checksum Algorithm");
+		this.checksumURL = getOptionalAttribute("Checksum URL");
+	}
+
+	/**
+	 * Converts the CSV record's header to value map directly into a JSON object of String attributes, keeping the
+	 * order of the columns.
+	 */
+	private static JsonObject convertCSVToJson(CSVRecord resourceInfoCSV) {
+		JsonObject resourceInfoJson = new JsonObject();
+		for (Map.Entry<String, String> csvAttribute : resourceInfoCSV.toMap().entrySet()) {
+			resourceInfoJson.addProperty(csvAttribute.getKey(), csvAttribute.getValue());
+		}
+		return resourceInfoJson;
 	}
 
-	private String convertCSVToJsonString(CSVRecord resourceInfoCSV) {
-		String resourceInfoJson = "";
-		try {
-			ObjectMapper mapper = new ObjectMapper();
-			mapper.enable(SerializationFeature.INDENT_OUTPUT);
-
-			resourceInfoJson = mapper.writeValueAsString(resourceInfoCSV.toMap());
-		} catch (JsonProcessingException e) {
-			logger.error("Unable to parse the CSV record's header to value map into JSON String", e);
+	private String getMandatoryAttribute(String attributeName) throws IllegalStateException {
+		String attributeValue = getOptionalAttribute(attributeName);
+		if (attributeValue.isEmpty()) {
+			throw new IllegalStateException(attributeName + " is empty or does not exist for " + this.resourceAsJson);
 		}
-
-		return resourceInfoJson;
+		return attributeValue;
 	}
 
-	private void checkMandatoryAttributesExist(String originalRecord) throws IllegalArgumentException {
-		Map<String, String> mandatoryAttributesMap = new HashMap<>();
+	private String getOptionalAttribute(String attributeName) {
+		JsonElement attributeValue = this.resourceAsJson.get(attributeName);
+		return attributeValue != null && !attributeValue.isJsonNull() ? attributeValue.getAsString() : "";
+	}
 
-		mandatoryAttributesMap.put("Release Step", getReleaseStep());
-		mandatoryAttributesMap.put("Main Program", getMainProgramName());
-		mandatoryAttributesMap.put("Dependency in Source Code", getSourceCodeDependency());
-		mandatoryAttributesMap.put("Resource", getResourceName());
-		mandatoryAttributesMap.put("Resource Description", getResourceDescription());
-		mandatoryAttributesMap.put("Resource Type", getResourceType().toString());
-		mandatoryAttributesMap.put("Resource URL", getResourceURL().toString());
+	private static ResourceType parseResourceType(String resourceType) {
+		return ResourceType.valueOf(resourceType.toUpperCase().replace(" ", "_"));
+	}
 
-		for (Entry<String, String> mandatoryAttributeEntry: mandatoryAttributesMap.entrySet()) {
-			String mandatoryAttributeName = mandatoryAttributeEntry.getKey();
-			String mandatoryAttributeValue = mandatoryAttributeEntry.getValue();
+	private static URL parseResourceURL(String resourceURL) {
+		try {
+			return new URL(resourceURL);
+		} catch (MalformedURLException e) {
+			String errorMessage = "Unable to create URL for " + resourceURL;
 
-			if (mandatoryAttributeValue == null || mandatoryAttributeValue.isEmpty()) {
-				throw new IllegalStateException(
-					mandatoryAttributeName + " is empty or does not exist for " + originalRecord
-				);
-			}
+			logger.error(errorMessage, e);
+			throw new RuntimeException(errorMessage, e);
 		}
 	}
 
 	public String getReleaseStep() {
-		return this.resourceAsJson.get("Release Step").getAsString();
+		return this.releaseStep;
 	}
 
 	public String getMainProgramName() {
-		return this.resourceAsJson.get("Main Program").getAsString();
+		return this.mainProgramName;
 	}
 
 	public String getSourceCodeDependency() {
-		return this.resourceAsJson.get("Dependency in Source Code").getAsString();
+		return this.sourceCodeDependency;
 	}
 
 	public String getResourceName() {
-		return this.resourceAsJson.get("Resource").getAsString();
+		return this.resourceName;
 	}
 
 	public String getResourceDescription() {
-		return this.resourceAsJson.get("Resource Description").getAsString();
+		return this.resourceDescription;
 	}
 
 	public ResourceType getResourceType() {
-		String resourceType = this.resourceAsJson.get("Resource Type").getAsString().toUpperCase().replace(" ", "_");
-		return ResourceType.valueOf(resourceType);
+		return this.resourceType;
 	}
 
+	/**
+	 * Returns the resource's original attributes as JSON, for output with its report.  Callers must copy the object
+	 * before changing it.
+	 *
+	 * @return JSON object of the resource's attributes
+	 */
 	public JsonObject getResourceAsJsonObject() {
 		return this.resourceAsJson;
 	}
 
-//	public String getHeaderAsTSVString() {
-//		return String.join("\t", getHeaderNameToValueMap().keySet());
-//	}
-//
-//	public String getValuesAsTSVString() {
-//		return String.join("\t", getHeaderNameToValueMap().values());
-//	}
-
 	public URL getResourceURL() {
-		String resourceURL = this.resourceAsJson.get("Resource URL").getAsString();
-		try {
-			return new URL(resourceURL);
-		} catch (MalformedURLException e) {
-			String errorMessage = "Unable to create URL for " + resourceURL;
-
-			logger.error(errorMessage, e);
-			throw new RuntimeException(errorMessage, e);
-		}
+		return this.resourceURL;
 	}
 
 	public String getErrorResponseText() {
-		JsonElement errorResponseText = this.resourceAsJson.get("Error Response Text");
-		return errorResponseText != null ? errorResponseText.getAsString() : "";
+		return this.errorResponseText;
 	}
 
 	public String getExpectedResponseText() {
-		JsonElement expectedResponseText = this.resourceAsJson.get("Expected Response Text");
-		return expectedResponseText != null ? expectedResponseText.getAsString() : "";
+		return this.expectedResponseText;
 	}
 
 	public long getExpectedFileSizeInBytes() {
-		final long fileSizeNotApplicable = -1;
-
-		JsonElement expectedFileSize = this.resourceAsJson.get("Expected File Size");
-		return expectedFileSize != null ? expectedFileSize.getAsLong() : fileSizeNotApplicable;
+		return this.expectedFileSizeInBytes;
+	}
+
+	/**
+	 * Returns the checksum the resource's file is expected to have (the "Expected Checksum" attribute) or an empty
+	 * String if none is given.
+	 *
+	 * @return Expected checksum of the file or an empty String
+	 */
+	public String getExpectedChecksum() {
+		return this.expectedChecksum;
+	}
+
+	/**
+	 * Returns the name of the algorithm producing the expected checksum (the "Checksum Algorithm" attribute, e.g.
+	 * "SHA-256", "MD5" or "sum") or an empty String if none is given.
+	 *
+	 * @return Name of the checksum algorithm or an empty String
+	 */
+	public String getChecksumAlgorithm() {
+		return this.checksumAlgorithm;
+	}
+
+	/**
+	 * Returns the URL of a checksum file published by the provider which lists the resource's file (the "Checksum URL"
+	 * attribute, e.g. UniProt's RELEASE.metalink or an Ensembl CHECKSUMS file) or an empty String if none is given.
+	 *
+	 * @return URL of the provider's checksum file or an empty String
+	 */
+	public String getChecksumURL() {
+		return this.checksumURL;
+	}
+
+	/**
+	 * Returns <code>true</code> if the resource is a web page which only shows its content once rendered by a browser
+	 * (i.e. the "Rendering Required" attribute is true); <code>false</code> otherwise
+	 *
+	 * @return True if the resource must be rendered by a browser to be checked; false otherwise
+	 */
+	public boolean isRenderingRequired() {
+		return this.renderingRequired;
 	}
 
 	@Override
@@ -1,24 +1,34 @@
 package org.reactome.release;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
 
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 
 public class ResourceParser {
+	private static final JsonFactory jsonFactory = new JsonFactory();
 
 	/**
 	 * Returns a list of Resource objects representing resources as described in a CSV or JSON file.
@@ -30,42 +40,160 @@ public class ResourceParser {
 	 * not be parsed
 	 * @throws IllegalArgumentException Thrown if the resourceFilePath parameter passed does not end with
 	 * a ".csv" or a ".json" extension
+	 * @see #streamResources(String)
 	 */
 	public List<Resource> getResources(String resourceFilePath) throws IOException {
+		try (Stream<Resource> resources = streamResources(resourceFilePath)) {
+			return resources.collect(Collectors.toList());
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Returns a stream of Resource objects read one at a time from a CSV or JSON file, so that a file of any size can
+	 * be checked without holding all of its resources in memory.  The stream holds the file open and must be closed
+	 * (e.g. with try-with-resources) once it is no longer needed.
+	 *
+	 * @param resourceFilePath The path to a CSV of JSON file describing the resources to stream
+	 * @return A lazily parsed stream of Resource objects
+	 * @throws IOException Thrown if the file path passed to the resourceFilePath can not be found or opened.  A file
+	 * which can not be parsed part way through throws an UncheckedIOException from the stream's terminal operation.
+	 * @throws IllegalArgumentException Thrown if the resourceFilePath parameter passed does not end with
+	 * a ".csv" or a ".json" extension
+	 */
+	public Stream<Resource> streamResources(String resourceFilePath) throws IOException {
 		if (resourceFilePath.endsWith(".json")) {
-			return getResourcesFromJSONFile(resourceFilePath);
+			return streamResourcesFromJSONFile(resourceFilePath);
 		} else if (resourceFilePath.endsWith(".csv")) {
-			return getResourcesFromCSVFile(resourceFilePath);
+			return streamResourcesFromCSVFile(resourceFilePath);
 		} else {
 			throw new IllegalArgumentException("Extension for the file " + resourceFilePath + " is not recognized");
 		}
 	}
 
-	private List<Resource> getResourcesFromJSONFile(String jsonResourceFilePath) throws FileNotFoundException {
-		JsonParser jsonParser = new JsonParser();
-		JsonArray jsonResourceArray = jsonParser.parse(new FileReader(jsonResourceFilePath)).getAsJsonArray();
-		Iterator<JsonElement> jsonResourceIterator = jsonResourceArray.iterator();
-
-		List<Resource> resources = new ArrayList<>();
-		while (jsonResourceIterator.hasNext()) {
-			JsonObject jsonResourceObject = jsonResourceIterator.next().getAsJsonObject();
-			resources.add(new Resource(jsonResourceObject));
+	private Stream<Resource> streamResourcesFromJSONFile(String jsonResourceFilePath) throws IOException {
+		JsonParser jsonParser = jsonFactory.createParser(Paths.get(jsonResourceFilePath).toFile());
+		try {
+			if (jsonParser.nextToken() != JsonToken.START_ARRAY) {
+				throw new IOException("The file " + jsonResourceFilePath + " does not contain a JSON array");
+			}
+		} catch (IOException | RuntimeException e) {
+			jsonParser.close();
+			throw e;
 		}
-		return resources;
+
+		Iterator<Resource> jsonResourceIterator = new Iterator<Resource>() {
+			private JsonToken nextToken;
+
+			@Override
+			public boolean hasNext() {
+				if (this.nextToken == null) {
+					try {
+						this.nextToken = jsonParser.nextToken();
+					} catch (IOException e) {
+						throw new UncheckedIOException("Unable to parse " + jsonResourceFilePath, e);
+					}
+				}
+				return this.nextToken != null && this.nextToken != JsonToken.END_ARRAY;
+			}
+
+			@Override
+			public Resource next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+
+				try {
+					JsonElement jsonResourceElement = readJsonElement(jsonParser, this.nextToken);
+					this.nextToken = null;
+					return new Resource(jsonResourceElement.getAsJsonObject());
+				} catch (IOException e) {
+					throw new UncheckedIOException("Unable to parse " + jsonResourceFilePath, e);
+				}
+			}
+		};
+
+		return toStream(jsonResourceIterator).onClose(() -> closeResourceFile(jsonParser));
 	}
 
-	private List<Resource> getResourcesFromCSVFile(String csvResourceFilePath) throws IOException {
+	private Stream<Resource> streamResourcesFromCSVFile(String csvResourceFilePath) throws IOException {
 		CSVParser csvParser = CSVParser.parse(
 			Paths.get(csvResourceFilePath),
 			StandardCharsets.UTF_8,
 			CSVFormat.DEFAULT.withHeader()
 		);
-		List<CSVRecord> csvResourceRecords = csvParser.getRecords();
 
-		List<Resource> resources = new ArrayList<>();
-		for (CSVRecord csvResourceRecord : csvResourceRecords) {
-			resources.add(new Resource(csvResourceRecord));
+		Iterator<CSVRecord> csvResourceRecordIterator = csvParser.iterator();
+		Iterator<Resource> csvResourceIterator = new Iterator<Resource>() {
+			@Override
+			public boolean hasNext() {
+				return csvResourceRecordIterator.hasNext();
+			}
+
+			@Override
+			public Resource next() {
+				return new Resource(csvResourceRecordIterator.next());
+			}
+		};
+
+		return toStream(csvResourceIterator).onClose(() -> closeResourceFile(csvParser));
+	}
+
+	/**
+	 * Reads the JSON value starting at the current token into a Gson element, consuming all of its tokens.
+	 */
+	private JsonElement readJsonElement(JsonParser jsonParser, JsonToken currentToken) throws IOException {
+		if (currentToken == null) {
+			throw new IOException("Unexpected end of JSON input at " + jsonParser.getCurrentLocation());
+		}
+
+		switch (currentToken) {
+			case START_OBJECT:
+				JsonObject jsonObject = new JsonObject();
+				JsonToken fieldToken;
+				while ((fieldToken = jsonParser.nextToken()) != JsonToken.END_OBJECT) {
+					if (fieldToken != JsonToken.FIELD_NAME) {
+						throw new IOException("Expected a field name at " + jsonParser.getCurrentLocation());
+					}
+					String fieldName = jsonParser.getCurrentName();
+					jsonObject.add(fieldName, readJsonElement(jsonParser, jsonParser.nextToken()));
+				}
+				return jsonObject;
+			case START_ARRAY:
+				JsonArray jsonArray = new JsonArray();
+				JsonToken elementToken;
+				while ((elementToken = jsonParser.nextToken()) != JsonToken.END_ARRAY) {
+					jsonArray.add(readJsonElement(jsonParser, elementToken));
+				}
+				return jsonArray;
+			case VALUE_STRING:
+				return new JsonPrimitive(jsonParser.getText());
+			case VALUE_NUMBER_INT:
+			case VALUE_NUMBER_FLOAT:
+				return new JsonPrimitive(jsonParser.getNumberValue());
+			case VALUE_TRUE:
+			case VALUE_FALSE:
+				return new JsonPrimitive(jsonParser.getBooleanValue());
+			case VALUE_NULL:
+				return JsonNull.INSTANCE;
+			default:
+				throw new IOException("Unexpected JSON token " + currentToken + " at " + jsonParser.getCurrentLocation());
+		}
+	}
+
+	private static Stream<Resource> toStream(Iterator<Resource> resourceIterator) {
+		return StreamSupport.stream(
+			Spliterators.spliteratorUnknownSize(resourceIterator, Spliterator.ORDERED | Spliterator.NONNULL),
+			false
+		);
+	}
+
+	private static void closeResourceFile(Closeable resourceFileParser) {
+		try {
+			resourceFileParser.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to close resource file", e);
 		}
-		return resources;
 	}
 }
@@ -0,0 +1,231 @@
+package org.reactome.release.checkscheduler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.reactome.release.Resource;
+
+/**
+ * Orders resource checks so that the dependencies of the most important release steps, and within a release step
+ * the cheapest checks, run first, and stops or defers the remaining work once a blocking release step has a failed
+ * dependency.  A failure of a critical dependency is then known after a few quick checks rather than after every
+ * web page has been rendered.
+ */
+public class CheckPrioritizer {
+	private static final Logger logger = LogManager.getLogger();
+
+	private final Map<String, Integer> releaseStepToRankMap;
+	private final Set<String> blockingReleaseSteps;
+	private final FailFastMode failFastMode;
+	private final int lookAheadSize;
+	private final boolean filesDownloaded;
+	private volatile String blockingFailure;
+
+	/**
+	 * Constructs a CheckPrioritizer with the given release step priority and fail-fast behaviour.
+	 *
+	 * @param releaseStepPriority Release steps in the order their resources are checked; resources of release steps
+	 * not listed are checked after those of listed steps
+	 * @param blockingReleaseSteps Release steps which can not go ahead if any of their resources fails its checks
+	 * @param failFastMode What happens to the remaining checks once a resource of a blocking release step fails
+	 * @param lookAheadSize Maximum number of resources read ahead and ordered together when checking a stream of
+	 * resources
+	 */
+	public CheckPrioritizer(
+		List<String> releaseStepPriority,
+		Set<String> blockingReleaseSteps,
+		FailFastMode failFastMode,
+		int lookAheadSize
+	) {
+		this(releaseStepPriority, blockingReleaseSteps, failFastMode, lookAheadSize, false);
+	}
+
+	/**
+	 * Constructs a CheckPrioritizer with the given release step priority and fail-fast behaviour, for checks which
+	 * may also download file resources.
+	 *
+	 * @param releaseStepPriority Release steps in the order their resources are checked; resources of release steps
+	 * not listed are checked after those of listed steps
+	 * @param blockingReleaseSteps Release steps which can not go ahead if any of their resources fails its checks
+	 * @param failFastMode What happens to the remaining checks once a resource of a blocking release step fails
+	 * @param lookAheadSize Maximum number of resources read ahead and ordered together when checking a stream of
+	 * resources
+	 * @param filesDownloaded <code>true</code> if the check of a file resource downloads the whole file (e.g. to a
+	 * download directory), making it the most expensive kind of check; <code>false</code> otherwise
+	 */
+	public CheckPrioritizer(
+		List<String> releaseStepPriority,
+		Set<String> blockingReleaseSteps,
+		FailFastMode failFastMode,
+		int lookAheadSize,
+		boolean filesDownloaded
+	) {
+		if (lookAheadSize <= 0) {
+			throw new IllegalArgumentException("Look ahead size must be a positive value");
+		}
+
+		this.releaseStepToRankMap = new HashMap<>();
+		for (String releaseStep : releaseStepPriority) {
+			this.releaseStepToRankMap.putIfAbsent(releaseStep, this.releaseStepToRankMap.size());
+		}
+		this.blockingReleaseSteps = new HashSet<>(blockingReleaseSteps);
+		this.failFastMode = failFastMode;
+		this.lookAheadSize = lookAheadSize;
+		this.filesDownloaded = filesDownloaded;
+	}
+
+	/**
+	 * Returns the resources in the order they should be checked: by the priority of their release step, then from
+	 * the cheapest to the most expensive kind of check.  Resources of equal priority and cost keep their relative
+	 * order but are interleaved by host, as the engine does for resources which are not prioritized.
+	 *
+	 * @param resources Resources to order
+	 * @return New list of the same resources in priority order
+	 */
+	public List<Resource> prioritize(List<Resource> resources) {
+		Map<Long, List<Resource>> priorityToResourcesMap = new TreeMap<>();
+		for (Resource resource : resources) {
+			long priority = (long) getReleaseStepRank(resource) * CheckCost.values().length +
+				CheckCost.of(resource, this.filesDownloaded).ordinal();
+			priorityToResourcesMap.computeIfAbsent(priority, key -> new ArrayList<>()).add(resource);
+		}
+
+		List<Resource> prioritizedResources = new ArrayList<>(resources.size());
+		for (List<Resource> resourcesOfEqualPriority : priorityToResourcesMap.values()) {
+			prioritizedResources.addAll(HostPolitenessScheduler.interleaveByHost(resourcesOfEqualPriority));
+		}
+		return prioritizedResources;
+	}
+
+	public int getLookAheadSize() {
+		return this.lookAheadSize;
+	}
+
+	/**
+	 * Records the result of a check and, if it is the first failure of a resource of a blocking release step and
+	 * fail-fast is enabled, switches the remaining checks to being skipped or deferred.
+	 *
+	 * @param checkResult Result of a resource's check
+	 */
+	public void recordResult(ResourceCheckResult checkResult) {
+		Resource resource = checkResult.getResource();
+		if (this.failFastMode == FailFastMode.OFF || checkResult.getStatus() == ResourceCheckResult.Status.SKIPPED ||
+			checkResult.passedChecks() || !isBlocking(resource)) {
+			return;
+		}
+
+		synchronized (this) {
+			if (this.blockingFailure != null) {
+				return;
+			}
+			this.blockingFailure = "Blocking release step " + resource.getReleaseStep() + " has a failed dependency: " +
+				resource.getResourceName();
+		}
+		logger.warn(this.blockingFailure + "; " + (this.failFastMode == FailFastMode.ABORT ?
+			"remaining checks will be skipped" : "checks of non-blocking release steps are deferred to the end"));
+	}
+
+	/**
+	 * Returns <code>true</code> if checks which have not started should not be run because fail-fast is set to abort
+	 * and a blocking release step has already failed; <code>false</code> otherwise.  Aborting skips every remaining
+	 * check, whatever its release step.
+	 *
+	 * @return True if the remaining checks should be skipped; false otherwise
+	 */
+	public boolean isSkipped() {
+		return this.failFastMode == FailFastMode.ABORT && this.blockingFailure != null;
+	}
+
+	/**
+	 * Returns <code>true</code> if the check of the resource should be put off until all other checks have been
+	 * submitted because fail-fast is set to deprioritize, a blocking release step has already failed and the resource
+	 * is not itself of a blocking release step; <code>false</code> otherwise
+	 *
+	 * @param resource Resource about to be checked
+	 * @return True if the check should be deferred; false otherwise
+	 */
+	public boolean isDeferred(Resource resource) {
+		return this.failFastMode == FailFastMode.DEPRIORITIZE && this.blockingFailure != null &&
+			!isBlocking(resource);
+	}
+
+	/**
+	 * Returns the description of the first failed dependency of a blocking release step or <code>null</code> if
+	 * there has been none (or fail-fast is off).
+	 *
+	 * @return Description of the blocking failure or null
+	 */
+	public String getBlockingFailure() {
+		return this.blockingFailure;
+	}
+
+	private boolean isBlocking(Resource resource) {
+		return this.blockingReleaseSteps.contains(resource.getReleaseStep());
+	}
+
+	private int getReleaseStepRank(Resource resource) {
+		return this.releaseStepToRankMap.getOrDefault(resource.getReleaseStep(), this.releaseStepToRankMap.size());
+	}
+
+	/**
+	 * What happens to the remaining checks once a resource of a blocking release step has failed.
+	 */
+	public enum FailFastMode {
+		/** All checks run in priority order regardless of failures */
+		OFF,
+		/** Checks of blocking release steps continue; checks of the other release steps run after them */
+		DEPRIORITIZE,
+		/** Checks which have not started are skipped and reported as such */
+		ABORT
+	}
+
+	/**
+	 * The relative cost of checking a resource, from a resource type which can not be checked (and fails at once) to
+	 * downloading a whole file.  File checks are otherwise among the cheapest as their size comes from a HEAD request
+	 * or FTP listing.
+	 */
+	enum CheckCost {
+		NOT_CHECKABLE,
+		HEADERS_ONLY,
+		RESPONSE_BODY,
+		STATIC_PAGE,
+		BROWSER_RENDER,
+		FILE_DOWNLOAD;
+
+		static CheckCost of(Resource resource, boolean filesDownloaded) {
+			switch (resource.getResourceType()) {
+				case FILE:
+					if (!isFileProtocolSupported(resource)) {
+						return NOT_CHECKABLE;
+					}
+					return filesDownloaded ? FILE_DOWNLOAD : HEADERS_ONLY;
+				case REST_ENDPOINT:
+					return RESPONSE_BODY;
+				case WEB_PAGE:
+					return resource.isRenderingRequired() ? BROWSER_RENDER : STATIC_PAGE;
+				case WEB_SERVICE:
+				case FTP_SERVER:
+					// Rejected by the ResourceCheckerFactory without contacting the host
+					return NOT_CHECKABLE;
+				default:
+					return BROWSER_RENDER;
+			}
+		}
+
+		/**
+		 * Returns true if the file's protocol is one the ResourceCheckerFactory has a checker for.
+		 */
+		private static boolean isFileProtocolSupported(Resource resource) {
+			String protocol = resource.getResourceURL().getProtocol();
+			return protocol.equals("ftp") || protocol.startsWith("http");
+		}
+	}
+}
@@ -0,0 +1,254 @@
+package org.reactome.release.checkscheduler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.reactome.release.Resource;
+
+/**
+ * Limits how hard resource checks may hit any single host.  At most a fixed number of checks may run against a host
+ * at once and consecutive checks against the same host start no closer together than a minimum spacing.  Checks
+ * against different hosts are not limited by each other.
+ */
+public class HostPolitenessScheduler {
+	private static final Logger logger = LogManager.getLogger();
+
+	private final int maxConcurrentChecksPerHost;
+	private final long minimumSpacingNanos;
+	private final Map<String, HostPermits> hostPermitsMap;
+
+	/**
+	 * Constructs a HostPolitenessScheduler with the given per host limits.
+	 *
+	 * @param maxConcurrentChecksPerHost Maximum number of checks which may run against a single host at once
+	 * @param minimumSpacingMillis Minimum number of milliseconds between the start of two checks against the same
+	 * host
+	 */
+	public HostPolitenessScheduler(int maxConcurrentChecksPerHost, long minimumSpacingMillis) {
+		if (maxConcurrentChecksPerHost <= 0 || minimumSpacingMillis < 0) {
+			throw new IllegalArgumentException(
+				"Checks per host must be positive and minimum spacing must not be negative"
+			);
+		}
+
+		this.maxConcurrentChecksPerHost = maxConcurrentChecksPerHost;
+		this.minimumSpacingNanos = TimeUnit.MILLISECONDS.toNanos(minimumSpacingMillis);
+		this.hostPermitsMap = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Returns the resources re-ordered so that consecutive resources are on different hosts where possible.  Resources
+	 * are grouped by the host of their URL and the groups are then taken from in turn, so a worker pool fed in this
+	 * order spreads its work across hosts instead of queueing behind the per host limit of one busy host.
+	 *
+	 * @param resources Resources to re-order
+	 * @return New list of the same resources interleaved by host
+	 */
+	public static List<Resource> interleaveByHost(List<Resource> resources) {
+		Map<String, Iterator<Resource>> hostToResourcesMap = new LinkedHashMap<>();
+		for (Map.Entry<String, List<Resource>> hostGroup : groupByHost(resources).entrySet()) {
+			hostToResourcesMap.put(hostGroup.getKey(), hostGroup.getValue().iterator());
+		}
+
+		List<Resource> interleavedResources = new ArrayList<>(resources.size());
+		while (!hostToResourcesMap.isEmpty()) {
+			Iterator<Iterator<Resource>> hostGroupIterator = hostToResourcesMap.values().iterator();
+			while (hostGroupIterator.hasNext()) {
+				Iterator<Resource> hostResources = hostGroupIterator.next();
+				interleavedResources.add(hostResources.next());
+				if (!hostResources.hasNext()) {
+					hostGroupIterator.remove();
+				}
+			}
+		}
+		return interleavedResources;
+	}
+
+	/**
+	 * Returns the resources grouped by the host of their URL, with hosts in the order they first appear.
+	 *
+	 * @param resources Resources to group
+	 * @return Map of host name to the resources on that host
+	 */
+	public static Map<String, List<Resource>> groupByHost(List<Resource> resources) {
+		Map<String, List<Resource>> hostToResourcesMap = new LinkedHashMap<>();
+		for (Resource resource : resources) {
+			hostToResourcesMap.computeIfAbsent(getHost(resource), host -> new ArrayList<>()).add(resource);
+		}
+		return hostToResourcesMap;
+	}
+
+	/**
+	 * Runs the check on the executor once it may start against the resource's host: fewer than the maximum number of
+	 * checks are running against the host and the minimum spacing since the previous check against the host has
+	 * passed.  A check which can not start yet waits in a queue for its host, in submission order, rather than
+	 * occupying an executor thread, so a slow or hung host never holds up the checks of other hosts.  The check is
+	 * counted against its host until it returns.
+	 *
+	 * If the executor thread is interrupted while waiting out the spacing, the check is run with the thread's
+	 * interrupt status set, so it can abandon itself.  If the executor rejects the check (e.g. it has been shut down),
+	 * whether when the check is submitted or once it has waited for its host, the rejection handler is run instead on
+	 * the rejecting thread, so no check is dropped without its submitter knowing.
+	 *
+	 * @param resource Resource to be checked
+	 * @param check Check of the resource
+	 * @param checkExecutor Executor on which the check is run
+	 * @param rejectionHandler Run instead of the check if the executor does not accept it
+	 */
+	public void execute(Resource resource, Runnable check, Executor checkExecutor, Runnable rejectionHandler) {
+		executeAsync(resource, () -> {
+			check.run();
+			return CompletableFuture.completedFuture(null);
+		}, checkExecutor, rejectionHandler);
+	}
+
+	/**
+	 * Starts the check on the executor once it may start against the resource's host, as
+	 * {@link #execute(Resource, Runnable, Executor)} does, but counts the check against its host until the stage it
+	 * returns completes rather than until it returns.  A check waiting on a response can so hand its executor thread
+	 * back while it keeps its place in the host's limit.
+	 *
+	 * @param resource Resource to be checked
+	 * @param check Starts the check of the resource and returns a stage completed once the check has finished
+	 * @param checkExecutor Executor on which the check is started
+	 * @param rejectionHandler Run instead of the check if the executor does not accept it
+	 */
+	public void executeAsync(
+		Resource resource, Supplier<CompletionStage<?>> check, Executor checkExecutor, Runnable rejectionHandler) {
+
+		HostPermits hostPermits = getHostPermits(resource);
+		PendingCheck pendingCheck = new PendingCheck(check, checkExecutor, rejectionHandler);
+		if (hostPermits.admit(pendingCheck)) {
+			dispatch(hostPermits, pendingCheck);
+		}
+	}
+
+	private void dispatch(HostPermits hostPermits, PendingCheck pendingCheck) {
+		long startTime = hostPermits.reserveStartTime();
+		try {
+			pendingCheck.checkExecutor.execute(() -> {
+				CompletionStage<?> checkCompletion;
+				try {
+					waitUntil(startTime);
+					checkCompletion = pendingCheck.check.get();
+				} catch (RuntimeException | Error e) {
+					finish(hostPermits);
+					throw e;
+				}
+				checkCompletion.whenComplete((result, throwable) -> finish(hostPermits));
+			});
+		} catch (RejectedExecutionException e) {
+			List<PendingCheck> waitingChecks = hostPermits.abandon();
+			logger.warn("Check executor rejected a check; rejecting it and the " + waitingChecks.size() +
+				" checks waiting for the same host", e);
+			pendingCheck.rejectionHandler.run();
+			for (PendingCheck waitingCheck : waitingChecks) {
+				waitingCheck.rejectionHandler.run();
+			}
+		}
+	}
+
+	private void finish(HostPermits hostPermits) {
+		PendingCheck nextCheck = hostPermits.finish();
+		if (nextCheck != null) {
+			dispatch(hostPermits, nextCheck);
+		}
+	}
+
+	private static void waitUntil(long startTime) {
+		long waitNanos = startTime - System.nanoTime();
+		if (waitNanos <= 0) {
+			return;
+		}
+
+		try {
+			TimeUnit.NANOSECONDS.sleep(waitNanos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private HostPermits getHostPermits(Resource resource) {
+		return this.hostPermitsMap.computeIfAbsent(getHost(resource), host -> new HostPermits());
+	}
+
+	private static String getHost(Resource resource) {
+		return resource.getResourceURL().getHost().toLowerCase();
+	}
+
+	private class HostPermits {
+		private final Deque<PendingCheck> waitingChecks = new ArrayDeque<>();
+		private int runningChecks;
+		private long nextPermittedStartTime = System.nanoTime();
+
+		/**
+		 * Counts the check as running if the host has a free permit and returns <code>true</code>; otherwise queues
+		 * it and returns <code>false</code>.
+		 */
+		private synchronized boolean admit(PendingCheck pendingCheck) {
+			if (this.runningChecks < maxConcurrentChecksPerHost) {
+				this.runningChecks += 1;
+				return true;
+			}
+
+			this.waitingChecks.add(pendingCheck);
+			return false;
+		}
+
+		/**
+		 * Hands the permit of a finished check to the next waiting check, which is returned, or frees it if no check
+		 * is waiting.
+		 */
+		private synchronized PendingCheck finish() {
+			PendingCheck nextCheck = this.waitingChecks.poll();
+			if (nextCheck == null) {
+				this.runningChecks -= 1;
+			}
+			return nextCheck;
+		}
+
+		/**
+		 * Frees the permit of a check which could not be started and returns the checks waiting behind it, which are
+		 * removed from the queue as they can not be started either.
+		 */
+		private synchronized List<PendingCheck> abandon() {
+			List<PendingCheck> abandonedChecks = new ArrayList<>(this.waitingChecks);
+			this.waitingChecks.clear();
+			this.runningChecks -= 1;
+			return abandonedChecks;
+		}
+
+		private synchronized long reserveStartTime() {
+			long startTime = Math.max(System.nanoTime(), this.nextPermittedStartTime);
+			this.nextPermittedStartTime = startTime + minimumSpacingNanos;
+			return startTime;
+		}
+	}
+
+	private static class PendingCheck {
+		private final Supplier<CompletionStage<?>> check;
+		private final Executor checkExecutor;
+		private final Runnable rejectionHandler;
+
+		private PendingCheck(Supplier<CompletionStage<?>> check, Executor checkExecutor, Runnable rejectionHandler) {
+			this.check = check;
+			this.checkExecutor = checkExecutor;
+			this.rejectionHandler = rejectionHandler;
+		}
+	}
+}
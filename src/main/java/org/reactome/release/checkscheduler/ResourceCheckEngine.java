@@ -0,0 +1,527 @@
+package org.reactome.release.checkscheduler;
+
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.reactome.release.Resource;
+import org.reactome.release.resourcechecker.AsyncHttpClientBackend;
+import org.reactome.release.resourcechecker.CheckMetrics;
+import org.reactome.release.resourcechecker.FileResourceChecker;
+import org.reactome.release.resourcechecker.HTTPResourceChecker;
+import org.reactome.release.resourcechecker.ResourceChecker;
+import org.reactome.release.resourcechecker.ResourceCheckerFactory;
+import org.reactome.release.resourcechecker.RetryPolicy;
+
+/**
+ * Runs resource checks concurrently on a bounded pool of worker threads.  Each check is given its own time limit
+ * (measured from when the check starts, not from when it was submitted).  Results of a list of resources are returned
+ * in the order of the list, while results of a stream of resources are handed over in the order their checks finish.
+ * Checks are submitted interleaved by host and each waits for its host's
+ * politeness permit before starting, so no single provider is hit by the full parallelism at once.  A check waiting
+ * for a permit is queued for its host rather than holding a worker thread, so a slow host never starves the others.
+ */
+public class ResourceCheckEngine implements AutoCloseable {
+	private static final Logger logger = LogManager.getLogger();
+
+	private static final int IN_FLIGHT_CHECKS_PER_WORKER = 4;
+
+	private final ExecutorService checkExecutor;
+	private final ScheduledExecutorService timeoutScheduler;
+	private final long checkTimeoutSeconds;
+	private final HostPolitenessScheduler hostPolitenessScheduler;
+	private final Path downloadDirectory;
+	private final ResourceMetadataCache resourceMetadataCache;
+	private final CheckPrioritizer checkPrioritizer;
+	private final int maxInFlightChecks;
+
+	/**
+	 * Constructs a ResourceCheckEngine which does not download file resources and does not limit checks per host
+	 * beyond the overall parallelism.
+	 *
+	 * @param parallelism Maximum number of resource checks to run at the same time
+	 * @param checkTimeoutSeconds Number of seconds a single check may run before it is reported as timed out
+	 */
+	public ResourceCheckEngine(int parallelism, long checkTimeoutSeconds) {
+		this(parallelism, checkTimeoutSeconds, new HostPolitenessScheduler(parallelism, 0), null);
+	}
+
+	/**
+	 * Constructs a ResourceCheckEngine which downloads file resources to the given directory before checking them.
+	 *
+	 * @param parallelism Maximum number of resource checks to run at the same time
+	 * @param checkTimeoutSeconds Number of seconds a single check may run before it is reported as timed out
+	 * @param hostPolitenessScheduler Per host limits applied to the checks
+	 * @param downloadDirectory Directory to which file resources are saved or <code>null</code> to skip downloading
+	 */
+	public ResourceCheckEngine(
+		int parallelism,
+		long checkTimeoutSeconds,
+		HostPolitenessScheduler hostPolitenessScheduler,
+		Path downloadDirectory
+	) {
+		this(parallelism, checkTimeoutSeconds, hostPolitenessScheduler, downloadDirectory, null);
+	}
+
+	/**
+	 * Constructs a ResourceCheckEngine which re-uses the cached report of a resource that has not changed since its
+	 * last check instead of checking (and downloading) it again.
+	 *
+	 * @param parallelism Maximum number of resource checks to run at the same time
+	 * @param checkTimeoutSeconds Number of seconds a single check may run before it is reported as timed out
+	 * @param hostPolitenessScheduler Per host limits applied to the checks
+	 * @param downloadDirectory Directory to which file resources are saved or <code>null</code> to skip downloading
+	 * @param resourceMetadataCache Cache of the metadata and reports of earlier checks or <code>null</code> to always
+	 * check resources in full
+	 */
+	public ResourceCheckEngine(
+		int parallelism,
+		long checkTimeoutSeconds,
+		HostPolitenessScheduler hostPolitenessScheduler,
+		Path downloadDirectory,
+		ResourceMetadataCache resourceMetadataCache
+	) {
+		this(
+			parallelism, checkTimeoutSeconds, hostPolitenessScheduler, downloadDirectory, resourceMetadataCache, null
+		);
+	}
+
+	/**
+	 * Constructs a ResourceCheckEngine which submits checks in the order given by a CheckPrioritizer and skips or
+	 * defers checks as its fail-fast mode requires.
+	 *
+	 * @param parallelism Maximum number of resource checks to run at the same time
+	 * @param checkTimeoutSeconds Number of seconds a single check may run before it is reported as timed out
+	 * @param hostPolitenessScheduler Per host limits applied to the checks
+	 * @param downloadDirectory Directory to which file resources are saved or <code>null</code> to skip downloading
+	 * @param resourceMetadataCache Cache of the metadata and reports of earlier checks or <code>null</code> to always
+	 * check resources in full
+	 * @param checkPrioritizer Priority order and fail-fast behaviour of the checks or <code>null</code> to check
+	 * resources in the order passed (interleaved by host)
+	 */
+	public ResourceCheckEngine(
+		int parallelism,
+		long checkTimeoutSeconds,
+		HostPolitenessScheduler hostPolitenessScheduler,
+		Path downloadDirectory,
+		ResourceMetadataCache resourceMetadataCache,
+		CheckPrioritizer checkPrioritizer
+	) {
+		if (parallelism <= 0 || checkTimeoutSeconds <= 0) {
+			throw new IllegalArgumentException("Parallelism and check timeout must be positive values");
+		}
+
+		this.checkExecutor = Executors.newFixedThreadPool(parallelism, namedDaemonThreadFactory("resource-check"));
+		this.timeoutScheduler = Executors.newSingleThreadScheduledExecutor(
+			namedDaemonThreadFactory("resource-check-timeout")
+		);
+		this.checkTimeoutSeconds = checkTimeoutSeconds;
+		this.hostPolitenessScheduler = hostPolitenessScheduler;
+		this.downloadDirectory = downloadDirectory;
+		this.resourceMetadataCache = resourceMetadataCache;
+		this.checkPrioritizer = checkPrioritizer;
+		this.maxInFlightChecks = parallelism * IN_FLIGHT_CHECKS_PER_WORKER;
+	}
+
+	/**
+	 * Checks all resources passed, running up to the configured parallelism at once, and returns the results in
+	 * the same order as the resources were passed.  A check which throws or exceeds the check timeout produces a
+	 * failed or timed out result rather than stopping the other checks.
+	 *
+	 * @param resources Resources to check
+	 * @return List of check results ordered as the resources passed
+	 */
+	public List<ResourceCheckResult> checkResources(List<Resource> resources) {
+		Map<Resource, FutureTask<ResourceCheckResult>> resourceToCheckTaskMap = new IdentityHashMap<>();
+		for (Resource resource : orderForSubmission(resources)) {
+			resourceToCheckTaskMap.put(resource, submitCheck(resource, checkTask -> {}));
+		}
+
+		List<ResourceCheckResult> checkResults = new ArrayList<>();
+		for (Resource resource : resources) {
+			checkResults.add(getResult(resource, resourceToCheckTaskMap.get(resource)));
+		}
+		return checkResults;
+	}
+
+	/**
+	 * Checks the resources of a stream of any length, handing each result to the consumer as soon as its check
+	 * finishes (so results arrive in completion order, not stream order).  Resources are pulled from the stream only
+	 * as checks finish: at most a fixed multiple of the parallelism is held at once, and each window of that many
+	 * resources is interleaved by host before being submitted.  With a CheckPrioritizer, windows of up to its look
+	 * ahead size (fewer once every in-flight permit is taken) are read and submitted in its priority order instead,
+	 * and checks it defers are submitted after the rest of the stream.  The consumer is never called concurrently.
+	 * Returns once every resource has been checked; the stream is not closed.
+	 *
+	 * @param resources Stream of resources to check
+	 * @param resultConsumer Receives the result of each check
+	 */
+	public void checkResources(Stream<Resource> resources, Consumer<ResourceCheckResult> resultConsumer) {
+		Semaphore inFlightChecks = new Semaphore(this.maxInFlightChecks);
+		Object resultConsumerLock = new Object();
+		Consumer<ResourceCheckResult> serializedResultConsumer = checkResult -> {
+			synchronized (resultConsumerLock) {
+				resultConsumer.accept(checkResult);
+			}
+		};
+
+		int windowSize = this.checkPrioritizer != null ?
+			this.checkPrioritizer.getLookAheadSize() : this.maxInFlightChecks;
+		Iterator<Resource> resourceIterator = resources.iterator();
+		List<Resource> resourceWindow = new ArrayList<>();
+		List<Resource> deferredResources = new ArrayList<>();
+		try {
+			while (true) {
+				// A resource is only pulled (which hasNext() may already do) once its check has an in-flight permit;
+				// if none is free, the window read so far is submitted rather than waiting for it to fill
+				if (!inFlightChecks.tryAcquire()) {
+					submitStreamedWindow(resourceWindow, inFlightChecks, deferredResources, serializedResultConsumer);
+					inFlightChecks.acquire();
+				}
+				if (!resourceIterator.hasNext()) {
+					inFlightChecks.release();
+					break;
+				}
+
+				resourceWindow.add(resourceIterator.next());
+				if (resourceWindow.size() == windowSize) {
+					submitStreamedWindow(resourceWindow, inFlightChecks, deferredResources, serializedResultConsumer);
+				}
+			}
+			submitStreamedWindow(resourceWindow, inFlightChecks, deferredResources, serializedResultConsumer);
+			for (Resource resource : orderForSubmission(deferredResources)) {
+				inFlightChecks.acquire();
+				submitStreamedCheck(resource, inFlightChecks, serializedResultConsumer);
+			}
+			inFlightChecks.acquire(this.maxInFlightChecks);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Submits the checks of a window of streamed resources, each of which holds an in-flight permit, in submission
+	 * order and empties the window.  Checks deferred by the CheckPrioritizer give their permit back and are added to
+	 * the deferred resources instead.
+	 */
+	private void submitStreamedWindow(
+		List<Resource> resourceWindow,
+		Semaphore inFlightChecks,
+		List<Resource> deferredResources,
+		Consumer<ResourceCheckResult> resultConsumer
+	) {
+		for (Resource resource : orderForSubmission(resourceWindow)) {
+			// Deferral is decided only once a check could start, so it reflects the latest failures
+			if (this.checkPrioritizer != null && this.checkPrioritizer.isDeferred(resource)) {
+				inFlightChecks.release();
+				deferredResources.add(resource);
+			} else {
+				submitStreamedCheck(resource, inFlightChecks, resultConsumer);
+			}
+		}
+		resourceWindow.clear();
+	}
+
+	/**
+	 * Submits the check of a streamed resource, for which an in-flight permit has been acquired, handing its result to
+	 * the consumer and releasing the permit once it finishes.
+	 */
+	private void submitStreamedCheck(
+		Resource resource, Semaphore inFlightChecks, Consumer<ResourceCheckResult> resultConsumer) {
+
+		submitCheck(resource, checkTask -> {
+			try {
+				resultConsumer.accept(getResult(resource, checkTask));
+			} finally {
+				inFlightChecks.release();
+			}
+		});
+	}
+
+	@Override
+	public void close() {
+		this.checkExecutor.shutdownNow();
+		this.timeoutScheduler.shutdownNow();
+	}
+
+	/**
+	 * Submits the check of the resource to the worker pool.  The completion callback is called with the check's task
+	 * once it has finished, failed or been cancelled by its timeout.  A check cancelled by its timeout keeps its host
+	 * permit until its thread has actually left the check (e.g. once a blocked socket read times out), so a slow host
+	 * is never sent more than its limit of concurrent checks.
+	 *
+	 * When HTTP resources are requested through an asynchronous backend, the check's response is requested first and
+	 * the worker is handed back while it arrives; the rest of the check then runs on whichever worker is free.  The
+	 * check keeps its host permit, and its timeout keeps running, while it waits for the response.  Requests retried by
+	 * the check are not retried after a delay which would run past its timeout.
+	 */
+	private FutureTask<ResourceCheckResult> submitCheck(
+		Resource resource, Consumer<FutureTask<ResourceCheckResult>> completionCallback) {
+
+		CheckRun checkRun = new CheckRun(resource);
+		CompletableFuture<Void> checkFinished = new CompletableFuture<>();
+		FutureTask<ResourceCheckResult> checkTask = new FutureTask<ResourceCheckResult>(checkRun::run) {
+			@Override
+			public void run() {
+				try {
+					super.run();
+				} finally {
+					// Returns only once the check itself has returned, even if it was cancelled while running
+					checkFinished.complete(null);
+				}
+			}
+
+			@Override
+			protected void done() {
+				completionCallback.accept(this);
+			}
+		};
+
+		if (isSkipped()) {
+			// Nothing is requested from the host, so there is no need to wait for its permit
+			this.checkExecutor.execute(checkTask);
+			return checkTask;
+		}
+
+		this.hostPolitenessScheduler.executeAsync(resource, () -> {
+			if (Thread.currentThread().isInterrupted()) {
+				checkRun.abandon("its thread was interrupted before it started");
+				checkTask.run();
+				return checkFinished;
+			}
+
+			checkRun.start(System.nanoTime() + TimeUnit.SECONDS.toNanos(this.checkTimeoutSeconds));
+			CompletableFuture<Void> responsePrefetch = checkRun.prefetchResponse();
+			ScheduledFuture<?> timeout = this.timeoutScheduler.schedule(() -> {
+				responsePrefetch.cancel(true);
+				checkTask.cancel(true);
+			}, this.checkTimeoutSeconds, TimeUnit.SECONDS);
+			checkFinished.whenComplete((result, throwable) -> timeout.cancel(false));
+
+			if (responsePrefetch.isDone()) {
+				checkTask.run();
+			} else {
+				responsePrefetch.whenComplete((result, throwable) -> runOnWorker(checkRun, checkTask));
+			}
+			return checkFinished;
+		}, this.checkExecutor, () -> {
+			checkRun.abandon("the engine has been closed");
+			checkTask.run();
+		});
+
+		return checkTask;
+	}
+
+	private void runOnWorker(CheckRun checkRun, FutureTask<ResourceCheckResult> checkTask) {
+		try {
+			this.checkExecutor.execute(checkTask);
+		} catch (RejectedExecutionException e) {
+			checkRun.abandon("the engine has been closed");
+			checkTask.run();
+		}
+	}
+
+	private ResourceCheckResult runCheck(Resource resource, ResourceChecker prefetchedResourceChecker) {
+		if (isSkipped()) {
+			return ResourceCheckResult.skipped(resource, this.checkPrioritizer.getBlockingFailure());
+		}
+
+		long startTime = System.currentTimeMillis();
+		try {
+			ResourceChecker resourceChecker = prefetchedResourceChecker != null ?
+				prefetchedResourceChecker : ResourceCheckerFactory.getInstance(resource);
+			if (this.resourceMetadataCache != null) {
+				JsonObject cachedReport = this.resourceMetadataCache.getUnchangedReport(resourceChecker);
+				if (cachedReport != null) {
+					return ResourceCheckResult.completed(
+						resource, cachedReport, System.currentTimeMillis() - startTime
+					);
+				}
+			}
+
+			downloadFileResource(resourceChecker);
+			JsonObject report = resourceChecker.getReport();
+			if (this.resourceMetadataCache != null) {
+				this.resourceMetadataCache.record(resource, resourceChecker.getResourceMetadata(), report);
+			}
+
+			return ResourceCheckResult.completed(resource, report, System.currentTimeMillis() - startTime);
+		} catch (Exception e) {
+			logger.error("Unable to check resource " + resource.getResourceName(), e);
+			return ResourceCheckResult.failed(resource, e, System.currentTimeMillis() - startTime);
+		}
+	}
+
+	private void downloadFileResource(ResourceChecker resourceChecker) throws IOException {
+		if (this.downloadDirectory == null || !(resourceChecker instanceof FileResourceChecker)) {
+			return;
+		}
+
+		String fileName = resourceChecker.getResourceName().replace('/', '_');
+		((FileResourceChecker) resourceChecker).saveFileContents(this.downloadDirectory.resolve(fileName));
+	}
+
+	private boolean isSkipped() {
+		return this.checkPrioritizer != null && this.checkPrioritizer.isSkipped();
+	}
+
+	/**
+	 * Returns the resources in the order their checks are submitted: the CheckPrioritizer's order if there is one,
+	 * otherwise interleaved by host.
+	 */
+	private List<Resource> orderForSubmission(List<Resource> resources) {
+		return this.checkPrioritizer != null ?
+			this.checkPrioritizer.prioritize(resources) : HostPolitenessScheduler.interleaveByHost(resources);
+	}
+
+	/**
+	 * Returns the result of the check's task, records its duration in the check latency histogram of the resource's
+	 * host and passes it to the CheckPrioritizer (if any) for fail-fast.
+	 */
+	private ResourceCheckResult getResult(Resource resource, FutureTask<ResourceCheckResult> checkTask) {
+		ResourceCheckResult checkResult = waitForResult(resource, checkTask);
+		if (checkResult.getStatus() != ResourceCheckResult.Status.SKIPPED) {
+			CheckMetrics.getSharedInstance().recordCheckLatency(
+				resource.getResourceURL().getHost(), checkResult.getElapsedMillis()
+			);
+		}
+		if (this.checkPrioritizer != null) {
+			this.checkPrioritizer.recordResult(checkResult);
+		}
+		return checkResult;
+	}
+
+	/**
+	 * Returns the result of the check's task, which is only ever cancelled by its timeout (a check which could not be
+	 * started still runs its task, which reports it as failed).
+	 */
+	private ResourceCheckResult waitForResult(Resource resource, FutureTask<ResourceCheckResult> checkTask) {
+		try {
+			return checkTask.get();
+		} catch (CancellationException e) {
+			logger.warn("Check of " + resource.getResourceName() + " timed out after " +
+				this.checkTimeoutSeconds + " seconds");
+			return ResourceCheckResult.timedOut(resource, this.checkTimeoutSeconds);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return ResourceCheckResult.failed(resource, e, 0);
+		} catch (ExecutionException e) {
+			return ResourceCheckResult.failed(resource, e.getCause(), 0);
+		}
+	}
+
+	/**
+	 * The check of one resource, whose HTTP response may be fetched asynchronously before the check runs.
+	 */
+	private class CheckRun {
+		private final Resource resource;
+		private volatile ResourceChecker prefetchedResourceChecker;
+		private volatile Long deadlineNanos;
+		private volatile String notStartedReason;
+
+		private CheckRun(Resource resource) {
+			this.resource = resource;
+		}
+
+		/**
+		 * Records that the check has been given its host permit and must finish by the deadline.
+		 *
+		 * @param deadlineNanos Value of <code>System.nanoTime()</code> at which the check times out
+		 */
+		private void start(long deadlineNanos) {
+			this.deadlineNanos = deadlineNanos;
+		}
+
+		/**
+		 * Records that the check will not be started, so running it only reports it as failed for the reason given.
+		 *
+		 * @param notStartedReason Why the check was not started
+		 */
+		private void abandon(String notStartedReason) {
+			this.notStartedReason = notStartedReason;
+		}
+
+		/**
+		 * Starts fetching the response of an HTTP resource through the asynchronous backend, if one is set, and returns
+		 * a future completed once the checker holds it.  Nothing is fetched (and the future is already complete) for
+		 * other resources, without a backend, or if the resource has a cached report whose conditional request may
+		 * make the full response unnecessary.
+		 */
+		private CompletableFuture<Void> prefetchResponse() {
+			return RetryPolicy.runWithinDeadline(this.deadlineNanos, this::startResponsePrefetch);
+		}
+
+		private CompletableFuture<Void> startResponsePrefetch() {
+			if (AsyncHttpClientBackend.getSharedInstance() == null ||
+				(resourceMetadataCache != null && resourceMetadataCache.hasFreshEntry(this.resource))) {
+
+				return CompletableFuture.completedFuture(null);
+			}
+
+			ResourceChecker resourceChecker;
+			try {
+				resourceChecker = ResourceCheckerFactory.getInstance(this.resource);
+			} catch (RuntimeException e) {
+				// Reported by the check itself, which creates its checker again
+				return CompletableFuture.completedFuture(null);
+			}
+
+			this.prefetchedResourceChecker = resourceChecker;
+			return resourceChecker instanceof HTTPResourceChecker ?
+				((HTTPResourceChecker) resourceChecker).getResponseSnapshotHolder().prefetch() :
+				CompletableFuture.completedFuture(null);
+		}
+
+		private ResourceCheckResult run() {
+			if (this.notStartedReason != null) {
+				logger.warn("Check of " + this.resource.getResourceName() + " was not started as " +
+					this.notStartedReason);
+				return ResourceCheckResult.failed(
+					this.resource, new CancellationException("Check not started as " + this.notStartedReason), 0
+				);
+			}
+
+			Long deadlineNanos = this.deadlineNanos;
+			if (deadlineNanos == null) {
+				// A skipped check, which is run without a host permit and requests nothing
+				return runCheck(this.resource, this.prefetchedResourceChecker);
+			}
+			return RetryPolicy.runWithinDeadline(
+				deadlineNanos, () -> runCheck(this.resource, this.prefetchedResourceChecker)
+			);
+		}
+	}
+
+	private static ThreadFactory namedDaemonThreadFactory(String threadNamePrefix) {
+		AtomicInteger threadCount = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, threadNamePrefix + "-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+}
@@ -0,0 +1,133 @@
+package org.reactome.release.checkscheduler;
+
+import com.google.gson.JsonObject;
+
+import org.reactome.release.Resource;
+import org.reactome.release.resourcechecker.ResourceChecker;
+
+/**
+ * The outcome of checking a single resource: the report produced by its resource checker or, if the check could
+ * not complete, the reason it did not.
+ */
+public class ResourceCheckResult {
+	private final Resource resource;
+	private final Status status;
+	private final JsonObject report;
+	private final String errorMessage;
+	private final long elapsedMillis;
+
+	private ResourceCheckResult(
+		Resource resource, Status status, JsonObject report, String errorMessage, long elapsedMillis) {
+
+		this.resource = resource;
+		this.status = status;
+		this.report = report;
+		this.errorMessage = errorMessage;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	static ResourceCheckResult completed(Resource resource, JsonObject report, long elapsedMillis) {
+		return new ResourceCheckResult(resource, Status.COMPLETED, report, null, elapsedMillis);
+	}
+
+	static ResourceCheckResult failed(Resource resource, Throwable cause, long elapsedMillis) {
+		String errorMessage = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName();
+		return new ResourceCheckResult(resource, Status.FAILED, null, errorMessage, elapsedMillis);
+	}
+
+	static ResourceCheckResult timedOut(Resource resource, long timeoutSeconds) {
+		return new ResourceCheckResult(
+			resource, Status.TIMED_OUT, null, "Check did not finish within " + timeoutSeconds + " seconds",
+			timeoutSeconds * 1000
+		);
+	}
+
+	static ResourceCheckResult skipped(Resource resource, String reason) {
+		return new ResourceCheckResult(resource, Status.SKIPPED, null, "Check skipped: " + reason, 0);
+	}
+
+	public Resource getResource() {
+		return this.resource;
+	}
+
+	public Status getStatus() {
+		return this.status;
+	}
+
+	/**
+	 * Returns the report produced by the resource checker or <code>null</code> if the check did not complete.
+	 *
+	 * @return Report JSON of the resource checker or null
+	 */
+	public JsonObject getReport() {
+		return this.report;
+	}
+
+	public String getErrorMessage() {
+		return this.errorMessage;
+	}
+
+	public long getElapsedMillis() {
+		return this.elapsedMillis;
+	}
+
+	/**
+	 * Returns <code>true</code> if the check completed and the resource passed all of its checks; <code>false</code>
+	 * otherwise
+	 *
+	 * @return True if the resource passed all checks; false otherwise
+	 */
+	public boolean passedChecks() {
+		return this.status == Status.COMPLETED &&
+			this.report.has("Passed Checks") && this.report.get("Passed Checks").getAsBoolean();
+	}
+
+	/**
+	 * Returns the resource's JSON with the report (or the reason the check did not complete) added as the "Report"
+	 * attribute.
+	 *
+	 * @return Pretty printed JSON String of the resource and its report
+	 */
+	public String getResourceJsonWithReport() {
+		JsonObject resourceJson = getResource().getResourceAsJsonObject().deepCopy();
+		resourceJson.add("Report", getReportOrErrorJson());
+
+		return ResourceChecker.prettyPrintingGson.toJson(resourceJson);
+	}
+
+	/**
+	 * Returns the report produced by the resource checker or, if the check did not complete, a failed report with
+	 * the check's status and the reason it did not complete.
+	 *
+	 * @return Report JSON of the resource checker or error report JSON
+	 */
+	public JsonObject getReportOrErrorJson() {
+		if (this.status == Status.COMPLETED) {
+			return this.report;
+		}
+
+		JsonObject errorReportJson = new JsonObject();
+		errorReportJson.addProperty("Passed Checks", false);
+		errorReportJson.addProperty("Check Status", this.status.toString());
+		errorReportJson.addProperty("Error", this.errorMessage);
+		return errorReportJson;
+	}
+
+	public enum Status {
+		COMPLETED("Completed"),
+		FAILED("Failed"),
+		TIMED_OUT("Timed Out"),
+		SKIPPED("Skipped");
+
+		private final String status;
+
+		Status(final String status) {
+			this.status = status;
+		}
+
+		@Override
+		public String toString() {
+			return this.status;
+		}
+	}
+}
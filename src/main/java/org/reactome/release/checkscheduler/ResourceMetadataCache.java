@@ -0,0 +1,224 @@
+package org.reactome.release.checkscheduler;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.reactome.release.Resource;
+import org.reactome.release.resourcechecker.CheckMetrics;
+import org.reactome.release.resourcechecker.ResourceChecker;
+import org.reactome.release.resourcechecker.ResourceMetadata;
+
+/**
+ * Keeps, between runs, the validators (ETag, Last-Modified, Content-Length or FTP MDTM and size) and the report of
+ * each resource's last completed check in a JSON file keyed by resource URL.  A resource whose cached entry is
+ * younger than the maximum age is first asked, with a cheap conditional request, whether it has changed; if it has
+ * not, the cached report is re-used instead of running the full check.
+ */
+public class ResourceMetadataCache {
+	private static final Logger logger = LogManager.getLogger();
+
+	private static final String ENTITY_TAG = "ETag";
+	private static final String LAST_MODIFIED = "Last-Modified";
+	private static final String CONTENT_LENGTH = "Content-Length";
+	private static final String FTP_MODIFICATION_TIME = "FTP Modification Time";
+	private static final String FTP_SIZE = "FTP Size";
+	private static final String CHECKED_TIME = "Checked Time";
+	private static final String REPORT = "Report";
+
+	private final Path cacheFile;
+	private final long maxAgeMillis;
+	private final Map<String, JsonObject> urlToCacheEntryMap;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	private ResourceMetadataCache(Path cacheFile, long maxAgeSeconds, Map<String, JsonObject> urlToCacheEntryMap) {
+		if (maxAgeSeconds <= 0) {
+			throw new IllegalArgumentException("The maximum age must be a positive value");
+		}
+
+		this.cacheFile = cacheFile;
+		this.maxAgeMillis = TimeUnit.SECONDS.toMillis(maxAgeSeconds);
+		this.urlToCacheEntryMap = urlToCacheEntryMap;
+	}
+
+	/**
+	 * Creates a ResourceMetadataCache backed by the given file, loading the entries saved by a previous run if the
+	 * file exists.  A file which can not be parsed is logged and ignored (the cache starts empty and the file is
+	 * replaced on the next save).
+	 *
+	 * @param cacheFile JSON file in which the cache is kept between runs
+	 * @param maxAgeSeconds Number of seconds a cached report may be re-used for an unchanged resource
+	 * @return ResourceMetadataCache with the entries of the cache file
+	 * @throws IOException Thrown if the cache file exists but can not be read
+	 */
+	public static ResourceMetadataCache load(Path cacheFile, long maxAgeSeconds) throws IOException {
+		Map<String, JsonObject> urlToCacheEntryMap = new ConcurrentHashMap<>();
+		if (Files.exists(cacheFile)) {
+			try (Reader cacheFileReader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+				JsonObject cacheJson = new JsonParser().parse(cacheFileReader).getAsJsonObject();
+				for (Map.Entry<String, JsonElement> cacheEntry : cacheJson.entrySet()) {
+					urlToCacheEntryMap.put(cacheEntry.getKey(), cacheEntry.getValue().getAsJsonObject());
+				}
+			} catch (RuntimeException e) {
+				logger.warn("Ignoring unreadable resource metadata cache " + cacheFile, e);
+				urlToCacheEntryMap.clear();
+			}
+		}
+
+		return new ResourceMetadataCache(cacheFile, maxAgeSeconds, urlToCacheEntryMap);
+	}
+
+	/**
+	 * Returns the cached report for the checker's resource if it was recorded within the maximum age and the checker
+	 * confirms the resource has not changed since; returns <code>null</code> otherwise, in which case the resource
+	 * must be checked in full.  Each call counts as a cache hit or miss, which is also recorded in the run's
+	 * {@link CheckMetrics}.
+	 *
+	 * @param resourceChecker Checker for the resource, used to test whether the resource has changed
+	 * @return Copy of the cached report (noting when it was produced) or null
+	 */
+	public JsonObject getUnchangedReport(ResourceChecker resourceChecker) {
+		JsonObject cacheEntry = this.urlToCacheEntryMap.get(getKey(resourceChecker.getResource()));
+		if (cacheEntry == null || isExpired(cacheEntry) ||
+			!resourceChecker.isUnchangedSince(toResourceMetadata(cacheEntry))) {
+
+			this.missCount.incrementAndGet();
+			CheckMetrics.getSharedInstance().recordMetadataCacheMiss();
+			return null;
+		}
+
+		this.hitCount.incrementAndGet();
+		CheckMetrics.getSharedInstance().recordMetadataCacheHit();
+		JsonObject reportJson = cacheEntry.getAsJsonObject(REPORT).deepCopy();
+		reportJson.addProperty(
+			"Cached Report From", Instant.ofEpochMilli(cacheEntry.get(CHECKED_TIME).getAsLong()).toString()
+		);
+		return reportJson;
+	}
+
+	/**
+	 * Returns <code>true</code> if a report for the resource was recorded within the maximum age, so its check may be
+	 * answered from the cache if the resource has not changed; <code>false</code> otherwise.  Does not count as a
+	 * cache hit or miss.
+	 *
+	 * @param resource Resource to look up
+	 * @return True if the cache holds a fresh report for the resource; false otherwise
+	 */
+	public boolean hasFreshEntry(Resource resource) {
+		JsonObject cacheEntry = this.urlToCacheEntryMap.get(getKey(resource));
+		return cacheEntry != null && !isExpired(cacheEntry);
+	}
+
+	/**
+	 * Records the metadata and report of a completed check of the resource, replacing any previous entry.  Nothing
+	 * is recorded if the metadata has no validator with which the resource could later be shown to be unchanged.
+	 *
+	 * @param resource Resource which was checked
+	 * @param resourceMetadata Validators of the version of the resource which was checked (may be null)
+	 * @param report Report produced by the check
+	 */
+	public void record(Resource resource, ResourceMetadata resourceMetadata, JsonObject report) {
+		if (resourceMetadata == null || !resourceMetadata.hasValidator()) {
+			this.urlToCacheEntryMap.remove(getKey(resource));
+			return;
+		}
+
+		JsonObject cacheEntry = new JsonObject();
+		cacheEntry.addProperty(ENTITY_TAG, resourceMetadata.getEntityTag());
+		cacheEntry.addProperty(LAST_MODIFIED, resourceMetadata.getLastModified());
+		cacheEntry.addProperty(CONTENT_LENGTH, resourceMetadata.getContentLength());
+		cacheEntry.addProperty(FTP_MODIFICATION_TIME, resourceMetadata.getFtpModificationTime());
+		cacheEntry.addProperty(FTP_SIZE, resourceMetadata.getFtpSize());
+		cacheEntry.addProperty(CHECKED_TIME, System.currentTimeMillis());
+		cacheEntry.add(REPORT, report);
+		this.urlToCacheEntryMap.put(getKey(resource), cacheEntry);
+	}
+
+	/**
+	 * Writes all entries to the cache file.  The file is written to a temporary file first and moved into place, so
+	 * an interrupted save leaves the previous cache intact.
+	 *
+	 * @throws IOException Thrown if the cache file can not be written
+	 */
+	public void save() throws IOException {
+		JsonObject cacheJson = new JsonObject();
+		for (Map.Entry<String, JsonObject> cacheEntry : this.urlToCacheEntryMap.entrySet()) {
+			cacheJson.add(cacheEntry.getKey(), cacheEntry.getValue());
+		}
+
+		Path absoluteCacheFile = this.cacheFile.toAbsolutePath();
+		Path temporaryCacheFile = absoluteCacheFile.resolveSibling(absoluteCacheFile.getFileName() + ".tmp");
+		Gson gson = new GsonBuilder().serializeNulls().create();
+		try (Writer cacheFileWriter = Files.newBufferedWriter(temporaryCacheFile, StandardCharsets.UTF_8)) {
+			gson.toJson(cacheJson, cacheFileWriter);
+		}
+		Files.move(temporaryCacheFile, absoluteCacheFile, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Returns the number of resources whose cached report was re-used.
+	 *
+	 * @return Number of cache hits
+	 */
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	/**
+	 * Returns the number of resources which had no fresh cached report or had changed since it was recorded.
+	 *
+	 * @return Number of cache misses
+	 */
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	private boolean isExpired(JsonObject cacheEntry) {
+		return !cacheEntry.has(CHECKED_TIME) || !cacheEntry.has(REPORT) ||
+			System.currentTimeMillis() - cacheEntry.get(CHECKED_TIME).getAsLong() > this.maxAgeMillis;
+	}
+
+	private static ResourceMetadata toResourceMetadata(JsonObject cacheEntry) {
+		return ResourceMetadata.of(
+			getStringOrNull(cacheEntry, ENTITY_TAG),
+			getStringOrNull(cacheEntry, LAST_MODIFIED),
+			getLongOrDefault(cacheEntry, CONTENT_LENGTH),
+			getStringOrNull(cacheEntry, FTP_MODIFICATION_TIME),
+			getLongOrDefault(cacheEntry, FTP_SIZE)
+		);
+	}
+
+	private static String getStringOrNull(JsonObject cacheEntry, String attributeName) {
+		JsonElement attributeValue = cacheEntry.get(attributeName);
+		return attributeValue != null && !attributeValue.isJsonNull() ? attributeValue.getAsString() : null;
+	}
+
+	private static long getLongOrDefault(JsonObject cacheEntry, String attributeName) {
+		JsonElement attributeValue = cacheEntry.get(attributeName);
+		return attributeValue != null && !attributeValue.isJsonNull() ? attributeValue.getAsLong() : -1;
+	}
+
+	private static String getKey(Resource resource) {
+		return resource.getResourceURL().toString();
+	}
+}
@@ -0,0 +1,32 @@
+package org.reactome.release.report;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.reactome.release.checkscheduler.ResourceCheckResult;
+
+/**
+ * Prints each resource's JSON with its report to standard output, pretty printed, through a buffer rather than with
+ * a separate System.out call per result.  Standard output is flushed, not closed, when the sink is closed.
+ */
+public class ConsoleReportSink implements ReportSink {
+	private final Writer writer;
+
+	public ConsoleReportSink() {
+		this.writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public void write(ResourceCheckResult checkResult) throws IOException {
+		this.writer.write(checkResult.getResourceJsonWithReport());
+		this.writer.write(System.lineSeparator());
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.writer.flush();
+	}
+}
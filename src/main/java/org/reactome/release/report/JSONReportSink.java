@@ -0,0 +1,53 @@
+package org.reactome.release.report;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.reactome.release.checkscheduler.ResourceCheckResult;
+
+/**
+ * Writes all results to one JSON document of the form {"Resources": [...], "Summary": {...}}.  Each result is
+ * streamed into the "Resources" array as it arrives; the per release step summary is written when the sink is
+ * closed, which also completes the document.
+ */
+public class JSONReportSink implements ReportSink {
+	private final JsonWriter jsonWriter;
+	private final ReleaseStepSummary releaseStepSummary;
+
+	/**
+	 * Creates the file (replacing any existing one) to which the document is written and opens the "Resources"
+	 * array.
+	 *
+	 * @param reportFile Path of the JSON file
+	 * @throws IOException Thrown if the file can not be created
+	 */
+	public JSONReportSink(Path reportFile) throws IOException {
+		this.jsonWriter = new JsonWriter(Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8));
+		this.jsonWriter.setIndent("\t");
+		this.releaseStepSummary = new ReleaseStepSummary();
+
+		this.jsonWriter.beginObject();
+		this.jsonWriter.name("Resources");
+		this.jsonWriter.beginArray();
+	}
+
+	@Override
+	public void write(ResourceCheckResult checkResult) throws IOException {
+		ReportSink.writeResourceJsonWithReport(this.jsonWriter, checkResult);
+		this.releaseStepSummary.record(checkResult);
+	}
+
+	@Override
+	public void close() throws IOException {
+		try (JsonWriter jsonWriter = this.jsonWriter) {
+			jsonWriter.endArray();
+			jsonWriter.name("Summary");
+			gson.toJson(this.releaseStepSummary.toJson(), jsonWriter);
+			jsonWriter.endObject();
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package org.reactome.release.report;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.reactome.release.checkscheduler.ResourceCheckResult;
+
+/**
+ * Writes each result as one line of newline delimited JSON (the resource's attributes with its report), so the file
+ * can be followed or processed line by line while the checks are still running.
+ */
+public class NDJSONReportSink implements ReportSink {
+	private final Writer writer;
+
+	/**
+	 * Creates the file (replacing any existing one) to which the results are written.
+	 *
+	 * @param reportFile Path of the NDJSON file
+	 * @throws IOException Thrown if the file can not be created
+	 */
+	public NDJSONReportSink(Path reportFile) throws IOException {
+		this.writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void write(ResourceCheckResult checkResult) throws IOException {
+		// A JsonWriter per line keeps each record a complete document; closing it would close the file
+		JsonWriter jsonWriter = new JsonWriter(this.writer);
+		ReportSink.writeResourceJsonWithReport(jsonWriter, checkResult);
+		this.writer.write('\n');
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.writer.close();
+	}
+}
@@ -0,0 +1,104 @@
+package org.reactome.release.report;
+
+import com.google.gson.JsonObject;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.reactome.release.checkscheduler.ResourceCheckResult;
+import org.reactome.release.resourcechecker.CheckMetrics;
+
+/**
+ * Counts of the resources which passed and failed their checks, and of those whose checks were skipped by
+ * fail-fast, for each release step.  Only the counts are kept, so the summary's size depends on the number of release
+ * steps rather than the number of resources.  The JSON summary also includes the check latency histogram of each
+ * host from the run's {@link CheckMetrics}.
+ */
+public class ReleaseStepSummary {
+	private final Map<String, Counts> releaseStepToCountsMap = new TreeMap<>();
+
+	/**
+	 * Counts the result against the release step of its resource.
+	 *
+	 * @param checkResult Result of a resource's check
+	 */
+	public void record(ResourceCheckResult checkResult) {
+		Counts counts = this.releaseStepToCountsMap.computeIfAbsent(
+			checkResult.getResource().getReleaseStep(), releaseStep -> new Counts()
+		);
+		if (checkResult.passedChecks()) {
+			counts.passed += 1;
+		} else if (checkResult.getStatus() == ResourceCheckResult.Status.SKIPPED) {
+			counts.skipped += 1;
+		} else {
+			counts.failed += 1;
+		}
+	}
+
+	public int getPassedCount() {
+		return this.releaseStepToCountsMap.values().stream().mapToInt(counts -> counts.passed).sum();
+	}
+
+	public int getFailedCount() {
+		return this.releaseStepToCountsMap.values().stream().mapToInt(counts -> counts.failed).sum();
+	}
+
+	public int getSkippedCount() {
+		return this.releaseStepToCountsMap.values().stream().mapToInt(counts -> counts.skipped).sum();
+	}
+
+	/**
+	 * Returns the summary as JSON: the total passed, failed and skipped counts, under "Release Steps" the counts for
+	 * each release step in alphabetical order and, under "Check Latency By Host", the latency histogram of the checks
+	 * of each host (see {@link CheckMetrics#getCheckLatencyByHostJson()}).
+	 *
+	 * @return Summary JSON
+	 */
+	public JsonObject toJson() {
+		JsonObject releaseStepsJson = new JsonObject();
+		for (Map.Entry<String, Counts> releaseStepCounts : this.releaseStepToCountsMap.entrySet()) {
+			releaseStepsJson.add(releaseStepCounts.getKey(), releaseStepCounts.getValue().toJson());
+		}
+
+		JsonObject summaryJson = new JsonObject();
+		summaryJson.addProperty("Passed", getPassedCount());
+		summaryJson.addProperty("Failed", getFailedCount());
+		summaryJson.addProperty("Skipped", getSkippedCount());
+		summaryJson.add("Release Steps", releaseStepsJson);
+		summaryJson.add("Check Latency By Host", CheckMetrics.getSharedInstance().getCheckLatencyByHostJson());
+		return summaryJson;
+	}
+
+	/**
+	 * Returns one line per release step with its passed, failed and skipped counts, in alphabetical order of release
+	 * step.
+	 *
+	 * @return Summary text
+	 */
+	@Override
+	public String toString() {
+		StringBuilder summary = new StringBuilder();
+		for (Map.Entry<String, Counts> releaseStepCounts : this.releaseStepToCountsMap.entrySet()) {
+			summary.append(releaseStepCounts.getKey())
+				.append(": ").append(releaseStepCounts.getValue().passed).append(" passed, ")
+				.append(releaseStepCounts.getValue().failed).append(" failed, ")
+				.append(releaseStepCounts.getValue().skipped).append(" skipped")
+				.append(System.lineSeparator());
+		}
+		return summary.toString();
+	}
+
+	private static class Counts {
+		private int passed;
+		private int failed;
+		private int skipped;
+
+		private JsonObject toJson() {
+			JsonObject countsJson = new JsonObject();
+			countsJson.addProperty("Passed", this.passed);
+			countsJson.addProperty("Failed", this.failed);
+			countsJson.addProperty("Skipped", this.skipped);
+			return countsJson;
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package org.reactome.release.report;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+import org.reactome.release.checkscheduler.ResourceCheckResult;
+
+/**
+ * A destination for resource check results, written one at a time as the checks finish.  A sink holds no more than
+ * its output buffer and per release step counts, so the memory used does not grow with the number of resources.
+ * Sinks are not thread safe: the ReportWriter calls them from one thread at a time.
+ */
+public interface ReportSink extends Closeable {
+	/**
+	 * Serializes the reports of every sink.  Gson is thread safe, so one instance is shared rather than one being
+	 * built for each result.
+	 */
+	Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+
+	/**
+	 * Writes the result of a resource's check.
+	 *
+	 * @param checkResult Result of the check
+	 * @throws IOException Thrown if the result can not be written
+	 */
+	void write(ResourceCheckResult checkResult) throws IOException;
+
+	/**
+	 * Writes the resource's JSON with its report (or the reason the check did not complete) added as the "Report"
+	 * attribute, streaming the resource's attributes rather than copying them into a new JSON object first.
+	 *
+	 * @param jsonWriter Writer to which the JSON is written
+	 * @param checkResult Result of the resource's check
+	 * @throws IOException Thrown if the JSON can not be written
+	 */
+	static void writeResourceJsonWithReport(JsonWriter jsonWriter, ResourceCheckResult checkResult)
+		throws IOException {
+
+		jsonWriter.beginObject();
+		for (Map.Entry<String, JsonElement> resourceAttribute :
+			checkResult.getResource().getResourceAsJsonObject().entrySet()) {
+
+			jsonWriter.name(resourceAttribute.getKey());
+			gson.toJson(resourceAttribute.getValue(), jsonWriter);
+		}
+		jsonWriter.name("Report");
+		gson.toJson(checkResult.getReportOrErrorJson(), jsonWriter);
+		jsonWriter.endObject();
+	}
+}
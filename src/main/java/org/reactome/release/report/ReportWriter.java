@@ -0,0 +1,100 @@
+package org.reactome.release.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.reactome.release.checkscheduler.ResourceCheckResult;
+
+/**
+ * Writes each check result once to every report sink as the result arrives, and keeps the per release step summary
+ * of the run.  Intended as the result consumer of ResourceCheckEngine.checkResources, which never calls it
+ * concurrently; nothing is kept per result, so memory stays flat however many resources are checked.
+ *
+ * A sink which fails to write is logged and skipped for the rest of the run, so one unwritable file does not stop
+ * the others (or the checks) and the first failure is thrown when the writer is closed.
+ */
+public class ReportWriter implements Consumer<ResourceCheckResult>, Closeable {
+	private static final Logger logger = LogManager.getLogger();
+
+	private final List<ReportSink> reportSinks;
+	private final List<ReportSink> failedReportSinks;
+	private final ReleaseStepSummary releaseStepSummary;
+	private IOException firstWriteFailure;
+
+	/**
+	 * Creates a writer for the report sinks passed, which are closed when the writer is closed.
+	 *
+	 * @param reportSinks Sinks to which each result is written
+	 */
+	public ReportWriter(List<ReportSink> reportSinks) {
+		this.reportSinks = new ArrayList<>(reportSinks);
+		this.failedReportSinks = new ArrayList<>();
+		this.releaseStepSummary = new ReleaseStepSummary();
+	}
+
+	@Override
+	public void accept(ResourceCheckResult checkResult) {
+		this.releaseStepSummary.record(checkResult);
+		for (ReportSink reportSink : this.reportSinks) {
+			if (this.failedReportSinks.contains(reportSink)) {
+				continue;
+			}
+
+			try {
+				reportSink.write(checkResult);
+			} catch (IOException e) {
+				logger.error("Unable to write report of " + checkResult.getResource().getResourceName() +
+					" to " + reportSink.getClass().getSimpleName() + "; no further reports will be written to it", e);
+				this.failedReportSinks.add(reportSink);
+				if (this.firstWriteFailure == null) {
+					this.firstWriteFailure = e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the counts of passed and failed resources for each release step of the results written so far.
+	 *
+	 * @return Release step summary
+	 */
+	public ReleaseStepSummary getReleaseStepSummary() {
+		return this.releaseStepSummary;
+	}
+
+	/**
+	 * Closes (and so completes and flushes) every report sink.
+	 *
+	 * @throws IOException Thrown if a result could not be written to a sink during the run or a sink could not be
+	 * closed
+	 */
+	@Override
+	public void close() throws IOException {
+		IOException failure = this.firstWriteFailure;
+		for (ReportSink reportSink : this.reportSinks) {
+			try {
+				reportSink.close();
+			} catch (IOException | RuntimeException e) {
+				// A sink whose write failed part way through may not be able to complete its document
+				IOException closeFailure = e instanceof IOException ? (IOException) e : new IOException(
+					"Unable to complete " + reportSink.getClass().getSimpleName(), e
+				);
+				if (failure == null) {
+					failure = closeFailure;
+				} else {
+					failure.addSuppressed(closeFailure);
+				}
+			}
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package org.reactome.release.report;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.reactome.release.Resource;
+import org.reactome.release.checkscheduler.ResourceCheckResult;
+
+/**
+ * Writes a tab separated summary with one row per resource: its release step, name, type and URL, whether the check
+ * completed and passed, how long it took and, for a check which did not complete, why.
+ */
+public class TSVReportSink implements ReportSink {
+	private static final String[] COLUMN_HEADERS = {
+		"Release Step", "Resource", "Resource Type", "Resource URL", "Check Status", "Passed Checks",
+		"Elapsed Milliseconds", "Error"
+	};
+
+	private final Writer writer;
+
+	/**
+	 * Creates the file (replacing any existing one) to which the summary is written and writes its header row.
+	 *
+	 * @param reportFile Path of the TSV file
+	 * @throws IOException Thrown if the file can not be created
+	 */
+	public TSVReportSink(Path reportFile) throws IOException {
+		this.writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8);
+		writeRow(COLUMN_HEADERS);
+	}
+
+	@Override
+	public void write(ResourceCheckResult checkResult) throws IOException {
+		Resource resource = checkResult.getResource();
+		writeRow(
+			resource.getReleaseStep(),
+			resource.getResourceName(),
+			resource.getResourceType().toString(),
+			resource.getResourceURL().toString(),
+			checkResult.getStatus().toString(),
+			Boolean.toString(checkResult.passedChecks()),
+			Long.toString(checkResult.getElapsedMillis()),
+			checkResult.getErrorMessage() != null ? checkResult.getErrorMessage() : ""
+		);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.writer.close();
+	}
+
+	private void writeRow(String... values) throws IOException {
+		for (int column = 0; column < values.length; column++) {
+			if (column > 0) {
+				this.writer.write('\t');
+			}
+			// Tabs and line breaks in a value (e.g. a multi-line error message) would break the row
+			this.writer.write(values[column].replaceAll("[\\t\\r\\n]+", " "));
+		}
+		this.writer.write('\n');
+	}
+}
@@ -0,0 +1,239 @@
+package org.reactome.release.resourcechecker;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactome.release.resourcechecker.ResponseTextMatcher.IncrementalMatch;
+import org.reactome.release.resourcechecker.ResponseTextMatcher.ResponseTextMatch;
+
+/**
+ * Fetches HTTP response snapshots with a single shared {@link HttpClient} instead of a blocking
+ * <code>HttpURLConnection</code> per request.  Connections are pooled and re-used by the client, HTTP/2 is negotiated
+ * where the server supports it (so requests to the same host are multiplexed over one connection) and response
+ * bodies are matched as they arrive, block by block, by a body subscriber feeding the resource's
+ * {@link ResponseTextMatcher}.  All network I/O runs on the client's selector thread and a small fixed pool.
+ *
+ * The backend is only used by HTTP resource checkers once set as the shared instance; otherwise they use
+ * <code>HttpURLConnection</code>.
+ */
+public class AsyncHttpClientBackend implements AutoCloseable {
+	private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+
+	private static volatile AsyncHttpClientBackend sharedInstance;
+
+	private final ExecutorService clientExecutor;
+	private final HttpClient httpClient;
+	private final Duration requestTimeout;
+
+	/**
+	 * Constructs an AsyncHttpClientBackend whose client runs its work on the given number of threads.
+	 *
+	 * @param threads Number of threads on which responses are processed
+	 * @param requestTimeoutSeconds Number of seconds a request may take to receive its complete response
+	 */
+	public AsyncHttpClientBackend(int threads, long requestTimeoutSeconds) {
+		if (threads <= 0 || requestTimeoutSeconds <= 0) {
+			throw new IllegalArgumentException("Threads and request timeout must be positive values");
+		}
+
+		AtomicInteger threadCount = new AtomicInteger();
+		this.clientExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "http-client-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.httpClient = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_2)
+			.followRedirects(HttpClient.Redirect.NORMAL)
+			.connectTimeout(CONNECT_TIMEOUT)
+			.executor(this.clientExecutor)
+			.build();
+		this.requestTimeout = Duration.ofSeconds(requestTimeoutSeconds);
+	}
+
+	/**
+	 * Returns the backend shared by HTTP resource checkers or <code>null</code> if none has been set, in which case
+	 * checkers use <code>HttpURLConnection</code>.
+	 *
+	 * @return Shared AsyncHttpClientBackend or null
+	 * @see #setSharedInstance(AsyncHttpClientBackend)
+	 */
+	public static AsyncHttpClientBackend getSharedInstance() {
+		return sharedInstance;
+	}
+
+	/**
+	 * Sets the backend shared by HTTP resource checkers.
+	 *
+	 * @param asyncHttpClientBackend Backend to share or <code>null</code> to use <code>HttpURLConnection</code>
+	 */
+	public static void setSharedInstance(AsyncHttpClientBackend asyncHttpClientBackend) {
+		sharedInstance = asyncHttpClientBackend;
+	}
+
+	/**
+	 * Sends the request for the resource without blocking and returns the pending snapshot of its response.  A GET
+	 * request whose body is streamed through the matcher is sent if the response texts are needed and a HEAD request
+	 * otherwise; the body subscription is cancelled as soon as every response text has been found.  As with
+	 * <code>HttpURLConnection</code>, the body of an error (4xx or 5xx) response is not matched.
+	 *
+	 * The request timeout bounds the whole response, body included, so a body which trickles in is abandoned rather
+	 * than holding the check open.  Cancelling the returned future, or the timeout passing, cancels the request itself.
+	 *
+	 * @param resourceURI URI of the resource
+	 * @param responseTextMatcher Matcher for the resource's response texts or <code>null</code> if the body is not
+	 * needed
+	 * @return Future completed with the snapshot of the response, or exceptionally (with an HttpTimeoutException if
+	 * the response was not complete within the request timeout) if no complete response was received
+	 */
+	public CompletableFuture<HttpResponseSnapshot> fetchResponseSnapshot(
+		URI resourceURI, ResponseTextMatcher responseTextMatcher) {
+
+		CheckMetrics checkMetrics = CheckMetrics.getSharedInstance();
+		checkMetrics.recordHttpRequest();
+		long requestStartNanos = System.nanoTime();
+
+		HttpRequest.Builder httpRequestBuilder = HttpRequest.newBuilder(resourceURI).timeout(this.requestTimeout);
+		if (responseTextMatcher == null) {
+			CompletableFuture<HttpResponse<Void>> httpResponseFuture = this.httpClient.sendAsync(
+				httpRequestBuilder.method("HEAD", HttpRequest.BodyPublishers.noBody()).build(),
+				HttpResponse.BodyHandlers.discarding()
+			);
+			return withDeadline(resourceURI, httpResponseFuture, httpResponseFuture.thenApply(httpResponse -> {
+				checkMetrics.recordPhase(CheckMetrics.Phase.HEAD, requestStartNanos);
+				return HttpResponseSnapshot.capture(httpResponse, null);
+			}));
+		}
+
+		AtomicLong bodyStartNanos = new AtomicLong();
+		CompletableFuture<HttpResponse<ResponseTextMatch>> httpResponseFuture = this.httpClient.sendAsync(
+			httpRequestBuilder.GET().build(),
+			responseInfo -> {
+				checkMetrics.recordPhase(CheckMetrics.Phase.FIRST_BYTE, requestStartNanos);
+				bodyStartNanos.set(System.nanoTime());
+				return responseInfo.statusCode() >= 400 ?
+					BodySubscribers.replacing(new ResponseTextMatch(false, false)) :
+					new ResponseTextMatchSubscriber(responseTextMatcher.newIncrementalMatch());
+			}
+		);
+		return withDeadline(resourceURI, httpResponseFuture, httpResponseFuture.thenApply(httpResponse -> {
+			checkMetrics.recordPhase(CheckMetrics.Phase.BODY_TRANSFER, bodyStartNanos.get());
+			return HttpResponseSnapshot.capture(httpResponse, httpResponse.body());
+		}));
+	}
+
+	/**
+	 * Completes the snapshot future with an HttpTimeoutException if it is not complete within the request timeout and
+	 * cancels the request (the future returned by <code>sendAsync</code>) whenever the snapshot future completes
+	 * without a snapshot, whether by the timeout or by being cancelled.
+	 */
+	private <T> CompletableFuture<HttpResponseSnapshot> withDeadline(
+		URI resourceURI,
+		CompletableFuture<HttpResponse<T>> httpResponseFuture,
+		CompletableFuture<HttpResponseSnapshot> responseSnapshotFuture
+	) {
+		CompletableFuture.delayedExecutor(this.requestTimeout.toMillis(), TimeUnit.MILLISECONDS).execute(() ->
+			responseSnapshotFuture.completeExceptionally(new HttpTimeoutException(
+				"Response from " + resourceURI + " not complete within " + this.requestTimeout.getSeconds() +
+				" seconds"
+			))
+		);
+		cancelOnFailure(responseSnapshotFuture, httpResponseFuture);
+		return responseSnapshotFuture;
+	}
+
+	/**
+	 * Cancels the source future if the future depending on it completes exceptionally or is cancelled, as cancelling
+	 * a dependent stage of a CompletableFuture does not reach the stage it depends on.
+	 *
+	 * @param dependentFuture Future derived from the source
+	 * @param sourceFuture Future to cancel
+	 */
+	static void cancelOnFailure(CompletableFuture<?> dependentFuture, Future<?> sourceFuture) {
+		dependentFuture.whenComplete((result, throwable) -> {
+			if (throwable != null) {
+				sourceFuture.cancel(true);
+			}
+		});
+	}
+
+	@Override
+	public void close() {
+		this.clientExecutor.shutdownNow();
+	}
+
+	/**
+	 * Feeds each block of a response body to an incremental match as it arrives, requesting one block at a time and
+	 * cancelling the rest of the body once the match is complete.
+	 */
+	private static class ResponseTextMatchSubscriber implements BodySubscriber<ResponseTextMatch> {
+		private final IncrementalMatch incrementalMatch;
+		private final CompletableFuture<ResponseTextMatch> responseTextMatchFuture = new CompletableFuture<>();
+		private Flow.Subscription subscription;
+
+		private ResponseTextMatchSubscriber(IncrementalMatch incrementalMatch) {
+			this.incrementalMatch = incrementalMatch;
+		}
+
+		@Override
+		public CompletionStage<ResponseTextMatch> getBody() {
+			return this.responseTextMatchFuture;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			if (this.incrementalMatch.isComplete()) {
+				completeEarly();
+			} else {
+				subscription.request(1);
+			}
+		}
+
+		@Override
+		public void onNext(List<ByteBuffer> bodyBlocks) {
+			for (ByteBuffer bodyBlock : bodyBlocks) {
+				CheckMetrics.getSharedInstance().addBytesTransferred(bodyBlock.remaining());
+				this.incrementalMatch.update(bodyBlock);
+			}
+
+			if (this.incrementalMatch.isComplete()) {
+				completeEarly();
+			} else {
+				this.subscription.request(1);
+			}
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			this.responseTextMatchFuture.completeExceptionally(throwable);
+		}
+
+		@Override
+		public void onComplete() {
+			this.responseTextMatchFuture.complete(this.incrementalMatch.getResponseTextMatch());
+		}
+
+		private void completeEarly() {
+			this.responseTextMatchFuture.complete(this.incrementalMatch.getResponseTextMatch());
+			this.subscription.cancel();
+		}
+	}
+}
@@ -0,0 +1,443 @@
+package org.reactome.release.resourcechecker;
+
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Run-level metrics of the resource checks: time spent in each phase of a check, bytes transferred, retries, sessions
+ * opened versus re-used, resource metadata cache hits and misses and a latency histogram of whole checks per host.
+ * Recording is lock free so checkers on any number of threads can record into the shared instance.  The metrics can
+ * be exported at the end of a run as a Prometheus text exposition file or as JSON.
+ */
+public class CheckMetrics {
+	private static final long[] LATENCY_BUCKET_BOUNDS_MILLIS =
+		{100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000, 120000, 300000};
+
+	private static volatile CheckMetrics sharedInstance = new CheckMetrics();
+
+	private final Map<Phase, PhaseTiming> phaseTimings;
+	private final Map<SessionType, LongAdder> sessionsOpened;
+	private final Map<SessionType, LongAdder> sessionsReused;
+	private final Map<String, LatencyHistogram> hostLatencyHistograms;
+	private final LongAdder httpRequests;
+	private final LongAdder bytesTransferred;
+	private final LongAdder retries;
+	private final LongAdder metadataCacheHits;
+	private final LongAdder metadataCacheMisses;
+
+	/**
+	 * Constructs a CheckMetrics object with every metric at zero.
+	 */
+	public CheckMetrics() {
+		this.phaseTimings = new EnumMap<>(Phase.class);
+		for (Phase phase : Phase.values()) {
+			this.phaseTimings.put(phase, new PhaseTiming());
+		}
+		this.sessionsOpened = new EnumMap<>(SessionType.class);
+		this.sessionsReused = new EnumMap<>(SessionType.class);
+		for (SessionType sessionType : SessionType.values()) {
+			this.sessionsOpened.put(sessionType, new LongAdder());
+			this.sessionsReused.put(sessionType, new LongAdder());
+		}
+		this.hostLatencyHistograms = new ConcurrentHashMap<>();
+		this.httpRequests = new LongAdder();
+		this.bytesTransferred = new LongAdder();
+		this.retries = new LongAdder();
+		this.metadataCacheHits = new LongAdder();
+		this.metadataCacheMisses = new LongAdder();
+	}
+
+	/**
+	 * Returns the metrics shared by resource checkers.
+	 *
+	 * @return Shared CheckMetrics
+	 * @see #setSharedInstance(CheckMetrics)
+	 */
+	public static CheckMetrics getSharedInstance() {
+		return sharedInstance;
+	}
+
+	/**
+	 * Sets the metrics shared by resource checkers.
+	 *
+	 * @param checkMetrics Metrics to share
+	 */
+	public static void setSharedInstance(CheckMetrics checkMetrics) {
+		sharedInstance = checkMetrics;
+	}
+
+	/**
+	 * Records the time from the given start (a value of {@link System#nanoTime()}) until now as spent in the phase.
+	 *
+	 * @param phase Phase of the check
+	 * @param startNanos Value of System.nanoTime() when the phase started
+	 */
+	public void recordPhase(Phase phase, long startNanos) {
+		this.phaseTimings.get(phase).record(System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * Records that a session was opened (connected and, where needed, logged in or started) rather than re-used.
+	 *
+	 * @param sessionType Type of the session
+	 */
+	public void recordSessionOpened(SessionType sessionType) {
+		this.sessionsOpened.get(sessionType).increment();
+	}
+
+	/**
+	 * Records that an idle session was re-used instead of opening a new one.
+	 *
+	 * @param sessionType Type of the session
+	 */
+	public void recordSessionReused(SessionType sessionType) {
+		this.sessionsReused.get(sessionType).increment();
+	}
+
+	/**
+	 * Records that an HTTP request was sent.
+	 */
+	public void recordHttpRequest() {
+		this.httpRequests.increment();
+	}
+
+	/**
+	 * Adds to the number of bytes of response bodies and downloaded files transferred.
+	 *
+	 * @param bytes Number of bytes transferred
+	 */
+	public void addBytesTransferred(long bytes) {
+		if (bytes > 0) {
+			this.bytesTransferred.add(bytes);
+		}
+	}
+
+	/**
+	 * Records that a failed request, transfer or browser session was retried.
+	 */
+	public void recordRetry() {
+		this.retries.increment();
+	}
+
+	/**
+	 * Records that the cached report of an unchanged resource was re-used instead of checking it in full.
+	 */
+	public void recordMetadataCacheHit() {
+		this.metadataCacheHits.increment();
+	}
+
+	/**
+	 * Records that a resource looked up in the metadata cache had no fresh report or had changed, so was checked in
+	 * full.
+	 */
+	public void recordMetadataCacheMiss() {
+		this.metadataCacheMisses.increment();
+	}
+
+	/**
+	 * Records the time a whole check of a resource on the host took.
+	 *
+	 * @param host Host of the resource
+	 * @param elapsedMillis Duration of the check in milliseconds
+	 */
+	public void recordCheckLatency(String host, long elapsedMillis) {
+		this.hostLatencyHistograms.computeIfAbsent(host.toLowerCase(), hostName -> new LatencyHistogram())
+			.record(elapsedMillis);
+	}
+
+	/**
+	 * Returns the number of bytes transferred so far.
+	 *
+	 * @return Bytes of response bodies and downloaded files transferred
+	 */
+	public long getBytesTransferred() {
+		return this.bytesTransferred.sum();
+	}
+
+	/**
+	 * Returns the number of retries so far.
+	 *
+	 * @return Number of retried requests, transfers and browser sessions
+	 */
+	public long getRetries() {
+		return this.retries.sum();
+	}
+
+	/**
+	 * Returns the metrics as JSON: for each phase its count, total and maximum time; the counters; and for each host
+	 * the number of checks, their total time and the cumulative count of checks per latency bucket.
+	 *
+	 * @return Metrics JSON
+	 */
+	public JsonObject toJson() {
+		JsonObject metricsJson = new JsonObject();
+
+		JsonObject phasesJson = new JsonObject();
+		for (Map.Entry<Phase, PhaseTiming> phaseTiming : this.phaseTimings.entrySet()) {
+			PhaseTiming timing = phaseTiming.getValue();
+			JsonObject phaseJson = new JsonObject();
+			phaseJson.addProperty("Count", timing.count.sum());
+			phaseJson.addProperty("Total Millis", TimeUnit.NANOSECONDS.toMillis(timing.totalNanos.sum()));
+			phaseJson.addProperty("Max Millis", TimeUnit.NANOSECONDS.toMillis(timing.maxNanos.get()));
+			phasesJson.add(phaseTiming.getKey().toString(), phaseJson);
+		}
+		metricsJson.add("Phases", phasesJson);
+
+		metricsJson.addProperty("HTTP Requests", this.httpRequests.sum());
+		metricsJson.addProperty("Bytes Transferred", getBytesTransferred());
+		metricsJson.addProperty("Retries", getRetries());
+
+		JsonObject sessionsJson = new JsonObject();
+		for (SessionType sessionType : SessionType.values()) {
+			JsonObject sessionJson = new JsonObject();
+			sessionJson.addProperty("Opened", this.sessionsOpened.get(sessionType).sum());
+			sessionJson.addProperty("Reused", this.sessionsReused.get(sessionType).sum());
+			sessionsJson.add(sessionType.toString(), sessionJson);
+		}
+		metricsJson.add("Sessions", sessionsJson);
+
+		JsonObject metadataCacheJson = new JsonObject();
+		metadataCacheJson.addProperty("Hits", this.metadataCacheHits.sum());
+		metadataCacheJson.addProperty("Misses", this.metadataCacheMisses.sum());
+		metricsJson.add("Metadata Cache", metadataCacheJson);
+
+		metricsJson.add("Check Latency By Host", getCheckLatencyByHostJson());
+
+		return metricsJson;
+	}
+
+	/**
+	 * Returns the latency histogram of the checks of each host as JSON, in alphabetical order of host: the number of
+	 * checks, their total time and the cumulative count of checks per latency bucket.
+	 *
+	 * @return Check latency by host JSON
+	 */
+	public JsonObject getCheckLatencyByHostJson() {
+		JsonObject hostLatencyJson = new JsonObject();
+		for (Map.Entry<String, LatencyHistogram> hostLatency : new TreeMap<>(this.hostLatencyHistograms).entrySet()) {
+			LatencyHistogram latencyHistogram = hostLatency.getValue();
+			long[] cumulativeCounts = latencyHistogram.getCumulativeCounts();
+
+			JsonObject bucketsJson = new JsonObject();
+			for (int bucket = 0; bucket < LATENCY_BUCKET_BOUNDS_MILLIS.length; bucket++) {
+				bucketsJson.addProperty(
+					"<= " + LATENCY_BUCKET_BOUNDS_MILLIS[bucket] + " ms", cumulativeCounts[bucket]
+				);
+			}
+			bucketsJson.addProperty("All", cumulativeCounts[LATENCY_BUCKET_BOUNDS_MILLIS.length]);
+
+			JsonObject histogramJson = new JsonObject();
+			histogramJson.addProperty("Count", cumulativeCounts[LATENCY_BUCKET_BOUNDS_MILLIS.length]);
+			histogramJson.addProperty("Total Millis", latencyHistogram.totalMillis.sum());
+			histogramJson.add("Buckets", bucketsJson);
+			hostLatencyJson.add(hostLatency.getKey(), histogramJson);
+		}
+		return hostLatencyJson;
+	}
+
+	/**
+	 * Returns the metrics in the Prometheus text exposition format, e.g. for the node exporter's textfile collector.
+	 * Phase timings are summaries, counters are totals and check latencies are a histogram labelled by host.
+	 *
+	 * @return Prometheus text of the metrics
+	 */
+	public String toPrometheusText() {
+		StringBuilder prometheusText = new StringBuilder();
+
+		prometheusText.append("# HELP resource_check_phase_seconds Time spent in each phase of the resource checks\n");
+		prometheusText.append("# TYPE resource_check_phase_seconds summary\n");
+		for (Map.Entry<Phase, PhaseTiming> phaseTiming : this.phaseTimings.entrySet()) {
+			String labels = "{phase=\"" + phaseTiming.getKey() + "\"}";
+			appendSample(prometheusText, "resource_check_phase_seconds_count", labels,
+				phaseTiming.getValue().count.sum());
+			appendSample(prometheusText, "resource_check_phase_seconds_sum", labels,
+				phaseTiming.getValue().totalNanos.sum() / 1e9);
+		}
+
+		appendCounter(prometheusText, "resource_check_http_requests_total", "HTTP requests sent",
+			this.httpRequests.sum());
+		appendCounter(prometheusText, "resource_check_transferred_bytes_total",
+			"Bytes of response bodies and downloaded files transferred", getBytesTransferred());
+		appendCounter(prometheusText, "resource_check_retries_total",
+			"Requests, transfers and browser sessions retried", getRetries());
+
+		prometheusText.append("# HELP resource_check_sessions_total FTP and browser sessions opened or re-used\n");
+		prometheusText.append("# TYPE resource_check_sessions_total counter\n");
+		for (SessionType sessionType : SessionType.values()) {
+			appendSample(prometheusText, "resource_check_sessions_total",
+				"{type=\"" + sessionType + "\",outcome=\"opened\"}", this.sessionsOpened.get(sessionType).sum());
+			appendSample(prometheusText, "resource_check_sessions_total",
+				"{type=\"" + sessionType + "\",outcome=\"reused\"}", this.sessionsReused.get(sessionType).sum());
+		}
+
+		prometheusText.append(
+			"# HELP resource_check_metadata_cache_total Resource metadata cache look ups by outcome\n"
+		);
+		prometheusText.append("# TYPE resource_check_metadata_cache_total counter\n");
+		appendSample(prometheusText, "resource_check_metadata_cache_total", "{outcome=\"hit\"}",
+			this.metadataCacheHits.sum());
+		appendSample(prometheusText, "resource_check_metadata_cache_total", "{outcome=\"miss\"}",
+			this.metadataCacheMisses.sum());
+
+		prometheusText.append("# HELP resource_check_duration_seconds Duration of whole resource checks by host\n");
+		prometheusText.append("# TYPE resource_check_duration_seconds histogram\n");
+		for (Map.Entry<String, LatencyHistogram> hostLatency : new TreeMap<>(this.hostLatencyHistograms).entrySet()) {
+			String hostLabel = "host=\"" + escapeLabelValue(hostLatency.getKey()) + "\"";
+			long[] cumulativeCounts = hostLatency.getValue().getCumulativeCounts();
+			for (int bucket = 0; bucket < LATENCY_BUCKET_BOUNDS_MILLIS.length; bucket++) {
+				appendSample(prometheusText, "resource_check_duration_seconds_bucket",
+					"{" + hostLabel + ",le=\"" + LATENCY_BUCKET_BOUNDS_MILLIS[bucket] / 1e3 + "\"}",
+					cumulativeCounts[bucket]);
+			}
+			long checkCount = cumulativeCounts[LATENCY_BUCKET_BOUNDS_MILLIS.length];
+			appendSample(prometheusText, "resource_check_duration_seconds_bucket",
+				"{" + hostLabel + ",le=\"+Inf\"}", checkCount);
+			appendSample(prometheusText, "resource_check_duration_seconds_sum", "{" + hostLabel + "}",
+				hostLatency.getValue().totalMillis.sum() / 1e3);
+			appendSample(prometheusText, "resource_check_duration_seconds_count", "{" + hostLabel + "}", checkCount);
+		}
+
+		return prometheusText.toString();
+	}
+
+	/**
+	 * Writes the metrics to the file, replacing it: as JSON if the file name ends with ".json" and as Prometheus text
+	 * otherwise (e.g. a ".prom" file).  The file is written to a temporary file first and then moved into place, so
+	 * a collector never reads a partly written file.
+	 *
+	 * @param metricsFile Path of the file to write
+	 * @throws IOException Thrown if the file can not be written
+	 */
+	public void export(Path metricsFile) throws IOException {
+		Path absoluteMetricsFile = metricsFile.toAbsolutePath();
+		Path temporaryMetricsFile = absoluteMetricsFile.resolveSibling(absoluteMetricsFile.getFileName() + ".tmp");
+		try (Writer metricsFileWriter = Files.newBufferedWriter(temporaryMetricsFile, StandardCharsets.UTF_8)) {
+			if (absoluteMetricsFile.getFileName().toString().endsWith(".json")) {
+				ResourceChecker.prettyPrintingGson.toJson(toJson(), metricsFileWriter);
+			} else {
+				metricsFileWriter.write(toPrometheusText());
+			}
+		}
+		Files.move(temporaryMetricsFile, absoluteMetricsFile, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private static void appendCounter(StringBuilder prometheusText, String name, String help, long value) {
+		prometheusText.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		prometheusText.append("# TYPE ").append(name).append(" counter\n");
+		appendSample(prometheusText, name, "", value);
+	}
+
+	private static void appendSample(StringBuilder prometheusText, String name, String labels, Number value) {
+		prometheusText.append(name).append(labels).append(' ').append(value).append('\n');
+	}
+
+	private static String escapeLabelValue(String labelValue) {
+		return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	/**
+	 * A phase of a resource check which is timed.
+	 */
+	public enum Phase {
+		/** DNS lookup and connection (including TLS handshake) of an HTTP URL Connection or an FTP session */
+		CONNECT("connect"),
+		/** Login of a new FTP session */
+		FTP_LOGIN("ftp_login"),
+		/** Listing of an FTP directory (not counted when served from the listing cache) */
+		FTP_LISTING("ftp_listing"),
+		/** Whole HEAD request for a resource */
+		HEAD("head"),
+		/** Time from sending a GET request until its response headers are received */
+		FIRST_BYTE("first_byte"),
+		/** Reading a response body or downloading a file, including the response text matching done as it streams */
+		BODY_TRANSFER("body_transfer"),
+		/** Loading and waiting for a web page in a browser */
+		BROWSER_RENDER("browser_render"),
+		/** Matching response texts in content already in memory (e.g. a rendered page's source) */
+		MATCH("match");
+
+		private final String phaseName;
+
+		Phase(String phaseName) {
+			this.phaseName = phaseName;
+		}
+
+		@Override
+		public String toString() {
+			return this.phaseName;
+		}
+	}
+
+	/**
+	 * A kind of pooled session which is either opened or re-used.
+	 */
+	public enum SessionType {
+		FTP("ftp"),
+		BROWSER("browser");
+
+		private final String sessionTypeName;
+
+		SessionType(String sessionTypeName) {
+			this.sessionTypeName = sessionTypeName;
+		}
+
+		@Override
+		public String toString() {
+			return this.sessionTypeName;
+		}
+	}
+
+	private static class PhaseTiming {
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+		private void record(long elapsedNanos) {
+			this.count.increment();
+			this.totalNanos.add(elapsedNanos);
+			this.maxNanos.accumulate(elapsedNanos);
+		}
+	}
+
+	private static class LatencyHistogram {
+		// One count per bucket bound plus a final overflow bucket
+		private final AtomicLongArray bucketCounts = new AtomicLongArray(LATENCY_BUCKET_BOUNDS_MILLIS.length + 1);
+		private final LongAdder totalMillis = new LongAdder();
+
+		private void record(long elapsedMillis) {
+			int bucket = 0;
+			while (bucket < LATENCY_BUCKET_BOUNDS_MILLIS.length && elapsedMillis > LATENCY_BUCKET_BOUNDS_MILLIS[bucket]) {
+				bucket++;
+			}
+			this.bucketCounts.incrementAndGet(bucket);
+			this.totalMillis.add(elapsedMillis);
+		}
+
+		/**
+		 * Returns, for each bucket bound and then for all checks, the number of checks no slower than the bound.
+		 */
+		private long[] getCumulativeCounts() {
+			long[] cumulativeCounts = new long[this.bucketCounts.length()];
+			long runningCount = 0;
+			for (int bucket = 0; bucket < cumulativeCounts.length; bucket++) {
+				runningCount += this.bucketCounts.get(bucket);
+				cumulativeCounts[bucket] = runningCount;
+			}
+			return cumulativeCounts;
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package org.reactome.release.resourcechecker;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Algorithms with which a downloaded file's content can be checksummed while it is being written.  Providers publish
+ * either message digests (e.g. MD5 in UniProt's RELEASE.metalink, SHA-256 in sha256sum style files) or the BSD
+ * <code>sum</code> checksum and 1 KB block count (e.g. Ensembl's CHECKSUMS files).
+ */
+public enum ChecksumAlgorithm {
+	MD5("MD5"),
+	SHA_1("SHA-1"),
+	SHA_256("SHA-256"),
+	BSD_SUM("BSD sum");
+
+	private final String algorithmName;
+
+	ChecksumAlgorithm(final String algorithmName) {
+		this.algorithmName = algorithmName;
+	}
+
+	/**
+	 * Returns a new calculator for this algorithm which has not yet been given any content.
+	 *
+	 * @return ChecksumCalculator for this algorithm
+	 */
+	public ChecksumCalculator newCalculator() {
+		if (this == BSD_SUM) {
+			return new BsdSumCalculator();
+		}
+
+		try {
+			return new MessageDigestCalculator(MessageDigest.getInstance(this.algorithmName));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Message digest " + this.algorithmName + " is not available", e);
+		}
+	}
+
+	/**
+	 * Returns the algorithm with the given name, ignoring case and punctuation (e.g. "sha256", "SHA-256" and "sha_256"
+	 * all give SHA_256; "sum" gives BSD_SUM).
+	 *
+	 * @param algorithmName Name of the algorithm
+	 * @return ChecksumAlgorithm with the given name
+	 * @throws IllegalArgumentException Thrown if no algorithm has the given name
+	 */
+	public static ChecksumAlgorithm fromName(String algorithmName) {
+		String normalizedName = algorithmName.replaceAll("[^A-Za-z0-9]", "").toUpperCase();
+		for (ChecksumAlgorithm checksumAlgorithm : values()) {
+			if (checksumAlgorithm.name().replace("_", "").equals(normalizedName) ||
+				(checksumAlgorithm == BSD_SUM && normalizedName.equals("SUM"))) {
+				return checksumAlgorithm;
+			}
+		}
+		throw new IllegalArgumentException("Unknown checksum algorithm: " + algorithmName);
+	}
+
+	/**
+	 * Returns the message digest algorithm producing hexadecimal checksums of the given length: 32 for MD5, 40 for
+	 * SHA-1 and 64 (or any other length) for SHA-256.
+	 *
+	 * @param hexadecimalChecksum Checksum whose algorithm is not otherwise stated
+	 * @return ChecksumAlgorithm most likely to have produced the checksum
+	 */
+	public static ChecksumAlgorithm fromHexadecimalChecksum(String hexadecimalChecksum) {
+		switch (hexadecimalChecksum.length()) {
+			case 32:
+				return MD5;
+			case 40:
+				return SHA_1;
+			default:
+				return SHA_256;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return this.algorithmName;
+	}
+
+	/**
+	 * Accumulates a checksum over content given to it in successive blocks.
+	 */
+	public interface ChecksumCalculator {
+		void update(byte[] bytes, int offset, int length);
+
+		/**
+		 * Returns the checksum of all content given so far, as published by providers: lower case hexadecimal for
+		 * message digests, or the checksum and the number of 1 KB blocks separated by a space for BSD sum.
+		 *
+		 * @return Checksum of the content
+		 */
+		String getChecksum();
+	}
+
+	private static class MessageDigestCalculator implements ChecksumCalculator {
+		private final MessageDigest messageDigest;
+
+		private MessageDigestCalculator(MessageDigest messageDigest) {
+			this.messageDigest = messageDigest;
+		}
+
+		@Override
+		public void update(byte[] bytes, int offset, int length) {
+			this.messageDigest.update(bytes, offset, length);
+		}
+
+		@Override
+		public String getChecksum() {
+			StringBuilder hexadecimalChecksum = new StringBuilder();
+			for (byte digestByte : this.messageDigest.digest()) {
+				hexadecimalChecksum.append(String.format("%02x", digestByte));
+			}
+			return hexadecimalChecksum.toString();
+		}
+	}
+
+	/**
+	 * The 16 bit rotating checksum of the BSD <code>sum</code> command (also <code>sum -r</code> in GNU coreutils).
+	 */
+	private static class BsdSumCalculator implements ChecksumCalculator {
+		private static final int BLOCK_SIZE_IN_BYTES = 1024;
+
+		private int checksum;
+		private long totalBytes;
+
+		@Override
+		public void update(byte[] bytes, int offset, int length) {
+			for (int i = offset; i < offset + length; i++) {
+				this.checksum = (this.checksum >> 1) + ((this.checksum & 1) << 15);
+				this.checksum = (this.checksum + (bytes[i] & 0xff)) & 0xffff;
+			}
+			this.totalBytes += length;
+		}
+
+		@Override
+		public String getChecksum() {
+			long blocks = (this.totalBytes + BLOCK_SIZE_IN_BYTES - 1) / BLOCK_SIZE_IN_BYTES;
+			return this.checksum + " " + blocks;
+		}
+	}
+}
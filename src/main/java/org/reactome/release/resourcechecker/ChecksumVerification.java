@@ -0,0 +1,280 @@
+package org.reactome.release.resourcechecker;
+
+import com.google.gson.JsonObject;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.reactome.release.Resource;
+import org.reactome.release.resourcechecker.ChecksumAlgorithm.ChecksumCalculator;
+import org.reactome.release.resourcechecker.ProviderChecksumFile.ExpectedChecksum;
+
+/**
+ * Verifies a downloaded file against the checksum expected for its resource: the "Expected Checksum" attribute or
+ * the entry for the file in the provider's checksum file ("Checksum URL" attribute).  The checksum is computed from
+ * the bytes as they are written to disk, so no second read of the downloaded file is needed (only the already
+ * written part of a resumed download is read back).  A file which is not downloaded is reported as not verified, and
+ * the provider's checksum file is only fetched once a download starts.
+ */
+public class ChecksumVerification {
+	private static final Logger logger = LogManager.getLogger();
+
+	private static final int PART_FILE_BUFFER_SIZE_IN_BYTES = 1024 * 1024;
+
+	private static final String VERIFIED = "Verified";
+	private static final String MISMATCH = "Mismatch";
+	private static final String EXPECTED_CHECKSUM_UNAVAILABLE = "Expected Checksum Unavailable";
+	private static final String NOT_DOWNLOADED = "Not Downloaded";
+
+	private final Resource resource;
+
+	private boolean expectedChecksumResolved;
+	private ExpectedChecksum expectedChecksum;
+	private String expectedChecksumError;
+
+	private ChecksumCalculator downloadChecksumCalculator;
+	private String computedChecksum;
+
+	/**
+	 * Constructs a ChecksumVerification for the resource.  Nothing is fetched until the expected checksum is needed.
+	 *
+	 * @param resource File resource to verify
+	 */
+	public ChecksumVerification(Resource resource) {
+		this.resource = resource;
+	}
+
+	/**
+	 * Returns <code>true</code> if the resource has an expected checksum or a provider checksum file;
+	 * <code>false</code> otherwise
+	 *
+	 * @return True if the downloaded file should be checksummed; false otherwise
+	 */
+	public boolean isRequired() {
+		return !this.resource.getExpectedChecksum().isEmpty() || !this.resource.getChecksumURL().isEmpty();
+	}
+
+	/**
+	 * Returns the download's content stream wrapped so that every byte read from it is added to the checksum.  When a
+	 * download resumes from an offset, the bytes already in the part file before the offset are checksummed first.
+	 * The checksum is only kept once {@link #completeDownload()} is called.  The stream is returned unchanged if no
+	 * checksum is required.
+	 *
+	 * @param content Stream of the remote file's content from the offset onwards
+	 * @param partFile File holding the bytes before the offset
+	 * @param offset Number of bytes of the part file preceding the content
+	 * @return Stream of the same content which computes its checksum as it is read
+	 * @throws IOException Thrown if the part file can not be read
+	 */
+	InputStream track(InputStream content, Path partFile, long offset) throws IOException {
+		this.downloadChecksumCalculator = null;
+		if (!isRequired()) {
+			return content;
+		}
+
+		ChecksumCalculator checksumCalculator = getChecksumAlgorithm().newCalculator();
+		if (offset > 0) {
+			try (InputStream partFileStream = Files.newInputStream(partFile)) {
+				byte[] buffer = new byte[PART_FILE_BUFFER_SIZE_IN_BYTES];
+				long bytesRemaining = offset;
+				int bytesRead;
+				while (bytesRemaining > 0 &&
+					(bytesRead = partFileStream.read(buffer, 0, (int) Math.min(buffer.length, bytesRemaining))) != -1) {
+
+					checksumCalculator.update(buffer, 0, bytesRead);
+					bytesRemaining -= bytesRead;
+				}
+			}
+		}
+
+		this.downloadChecksumCalculator = checksumCalculator;
+		return new ChecksumInputStream(content, checksumCalculator);
+	}
+
+	/**
+	 * Keeps the checksum of the content read through the stream last returned by
+	 * {@link #track(InputStream, Path, long)}, once the download it belongs to has completed.
+	 */
+	void completeDownload() {
+		if (this.downloadChecksumCalculator != null) {
+			this.computedChecksum = this.downloadChecksumCalculator.getChecksum();
+			this.downloadChecksumCalculator = null;
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if a download of the file has completed and its checksum has been computed;
+	 * <code>false</code> otherwise
+	 *
+	 * @return True if the downloaded file can be verified; false if it has not been downloaded
+	 */
+	public boolean isDownloaded() {
+		return this.computedChecksum != null;
+	}
+
+	/**
+	 * Returns whether the downloaded file's checksum matches the expected checksum: <code>null</code> if the file has
+	 * not been downloaded (or no checksum is required), so it has not been verified.
+	 *
+	 * @return True if the checksums match, false if they do not or the expected checksum can not be found, or null if
+	 * the file has not been verified
+	 */
+	public Boolean getChecksumMatches() {
+		if (!isRequired() || !isDownloaded()) {
+			return null;
+		}
+
+		ExpectedChecksum expectedChecksum = getExpectedChecksum();
+		return expectedChecksum != null && expectedChecksum.matches(this.computedChecksum);
+	}
+
+	/**
+	 * Returns <code>false</code> if the downloaded file has been verified and its checksum does not match the expected
+	 * checksum (or the expected checksum can not be found); <code>true</code> otherwise, including when the file has
+	 * not been downloaded and so has not been verified (see {@link #getChecksumMatches()})
+	 *
+	 * @return False if the file failed verification; true otherwise
+	 */
+	public boolean isChecksumAcceptable() {
+		return !Boolean.FALSE.equals(getChecksumMatches());
+	}
+
+	/**
+	 * Returns the report of the checksum verification: its status ("Verified", "Mismatch", "Expected Checksum
+	 * Unavailable" or "Not Downloaded") and whether the checksums match and, once the file has been downloaded, the
+	 * algorithm and the expected and computed checksums.  "Checksum Matches" is <code>null</code> if the file has not
+	 * been downloaded, in which case the provider's checksum file is not fetched.
+	 *
+	 * @return Checksum report JSON
+	 */
+	public JsonObject getReport() {
+		JsonObject checksumReportJson = new JsonObject();
+		if (!isDownloaded()) {
+			checksumReportJson.addProperty("Status", NOT_DOWNLOADED);
+			checksumReportJson.addProperty("Checksum Matches", (Boolean) null);
+			return checksumReportJson;
+		}
+
+		ExpectedChecksum expectedChecksum = getExpectedChecksum();
+		boolean checksumMatches = expectedChecksum != null && expectedChecksum.matches(this.computedChecksum);
+		if (checksumMatches) {
+			checksumReportJson.addProperty("Status", VERIFIED);
+		} else if (expectedChecksum != null) {
+			checksumReportJson.addProperty("Status", MISMATCH);
+		} else {
+			checksumReportJson.addProperty("Status", EXPECTED_CHECKSUM_UNAVAILABLE);
+		}
+		checksumReportJson.addProperty("Algorithm", getChecksumAlgorithm().toString());
+		checksumReportJson.addProperty(
+			"Expected Checksum", expectedChecksum != null ? expectedChecksum.getChecksum() : null
+		);
+		if (this.expectedChecksumError != null) {
+			checksumReportJson.addProperty("Expected Checksum Error", this.expectedChecksumError);
+		}
+		checksumReportJson.addProperty("Computed Checksum", this.computedChecksum);
+		checksumReportJson.addProperty("Checksum Matches", checksumMatches);
+		return checksumReportJson;
+	}
+
+	private ChecksumAlgorithm getChecksumAlgorithm() {
+		ExpectedChecksum expectedChecksum = getExpectedChecksum();
+		if (expectedChecksum != null) {
+			return expectedChecksum.getChecksumAlgorithm();
+		}
+
+		return !this.resource.getChecksumAlgorithm().isEmpty() ?
+			ChecksumAlgorithm.fromName(this.resource.getChecksumAlgorithm()) :
+			ChecksumAlgorithm.SHA_256;
+	}
+
+	/**
+	 * Resolves the expected checksum once: from the resource's "Expected Checksum" attribute if given, otherwise from
+	 * the provider's checksum file.  Returns <code>null</code> if it can not be found.
+	 */
+	private ExpectedChecksum getExpectedChecksum() {
+		if (!this.expectedChecksumResolved) {
+			this.expectedChecksumResolved = true;
+			try {
+				this.expectedChecksum = resolveExpectedChecksum();
+			} catch (IOException | IllegalArgumentException e) {
+				logger.error("Unable to get expected checksum for " + this.resource.getResourceURL(), e);
+				this.expectedChecksumError = e.getMessage();
+			}
+		}
+
+		return this.expectedChecksum;
+	}
+
+	private ExpectedChecksum resolveExpectedChecksum() throws IOException {
+		String expectedChecksum = this.resource.getExpectedChecksum();
+		if (!expectedChecksum.isEmpty()) {
+			ChecksumAlgorithm checksumAlgorithm = !this.resource.getChecksumAlgorithm().isEmpty() ?
+				ChecksumAlgorithm.fromName(this.resource.getChecksumAlgorithm()) :
+				ChecksumAlgorithm.fromHexadecimalChecksum(expectedChecksum);
+			return new ExpectedChecksum(checksumAlgorithm, expectedChecksum.trim());
+		}
+
+		if (this.resource.getChecksumURL().isEmpty()) {
+			return null;
+		}
+
+		String resourcePath = this.resource.getResourceURL().getPath();
+		String fileName = resourcePath.substring(resourcePath.lastIndexOf('/') + 1);
+		ExpectedChecksum fileChecksum = ProviderChecksumFile.getChecksums(
+			new URL(this.resource.getChecksumURL())
+		).get(fileName);
+		if (fileChecksum == null) {
+			throw new IOException(fileName + " is not listed in checksum file " + this.resource.getChecksumURL());
+		}
+		return fileChecksum;
+	}
+
+	/**
+	 * Stream which adds every byte read through it to a checksum.
+	 */
+	private static class ChecksumInputStream extends FilterInputStream {
+		private final ChecksumCalculator checksumCalculator;
+
+		private ChecksumInputStream(InputStream inputStream, ChecksumCalculator checksumCalculator) {
+			super(inputStream);
+			this.checksumCalculator = checksumCalculator;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int byteRead = super.read();
+			if (byteRead != -1) {
+				this.checksumCalculator.update(new byte[] {(byte) byteRead}, 0, 1);
+			}
+			return byteRead;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) throws IOException {
+			int bytesRead = super.read(bytes, offset, length);
+			if (bytesRead > 0) {
+				this.checksumCalculator.update(bytes, offset, bytesRead);
+			}
+			return bytesRead;
+		}
+
+		@Override
+		public long skip(long bytesToSkip) throws IOException {
+			byte[] skippedBytes = new byte[(int) Math.min(bytesToSkip, PART_FILE_BUFFER_SIZE_IN_BYTES)];
+			int bytesRead = read(skippedBytes, 0, skippedBytes.length);
+			return Math.max(bytesRead, 0);
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+	}
+}
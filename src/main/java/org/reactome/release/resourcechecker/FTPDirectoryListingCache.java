@@ -0,0 +1,189 @@
+package org.reactome.release.resourcechecker;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.net.ftp.FTPFile;
+
+/**
+ * Caches FTP directory listings so that all FTP file resources in the same directory are resolved from one LIST
+ * request.  Listings are kept per host, credentials and directory for a time to live; concurrent requests for a
+ * directory which is being listed wait for that listing rather than sending their own.
+ */
+public class FTPDirectoryListingCache {
+	private static final long DEFAULT_TIME_TO_LIVE_SECONDS = 600;
+
+	private static FTPDirectoryListingCache sharedInstance;
+
+	private final long timeToLiveMillis;
+	private final Map<ListingKey, CachedListing> cachedListingsMap;
+
+	/**
+	 * Constructs an FTPDirectoryListingCache whose listings expire after the given number of seconds.
+	 *
+	 * @param timeToLiveSeconds Number of seconds a directory listing is re-used before the directory is listed again
+	 */
+	public FTPDirectoryListingCache(long timeToLiveSeconds) {
+		if (timeToLiveSeconds <= 0) {
+			throw new IllegalArgumentException("The time to live must be a positive value");
+		}
+
+		this.timeToLiveMillis = TimeUnit.SECONDS.toMillis(timeToLiveSeconds);
+		this.cachedListingsMap = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Returns the cache shared by FTP file resource checkers, creating one with default settings if one has not been
+	 * set.
+	 *
+	 * @return Shared FTPDirectoryListingCache
+	 * @see #setSharedInstance(FTPDirectoryListingCache)
+	 */
+	public static synchronized FTPDirectoryListingCache getSharedInstance() {
+		if (sharedInstance == null) {
+			sharedInstance = new FTPDirectoryListingCache(DEFAULT_TIME_TO_LIVE_SECONDS);
+		}
+
+		return sharedInstance;
+	}
+
+	/**
+	 * Sets the cache shared by FTP file resource checkers.
+	 *
+	 * @param ftpDirectoryListingCache Cache to share
+	 */
+	public static synchronized void setSharedInstance(FTPDirectoryListingCache ftpDirectoryListingCache) {
+		sharedInstance = ftpDirectoryListingCache;
+	}
+
+	/**
+	 * Returns the listing of the directory as a map of file name to FTP file, listing the directory with the given
+	 * directory lister only if there is no unexpired cached listing for it.
+	 *
+	 * @param ftpSessionKey Host and credentials with which the directory is listed
+	 * @param directory Path of the directory on the FTP server
+	 * @param directoryLister Lists the directory if it is not cached
+	 * @return Map of file name to FTPFile for the files in the directory
+	 * @throws IOException Thrown if the directory can not be listed
+	 */
+	public Map<String, FTPFile> getListing(
+		FTPSessionPool.FTPSessionKey ftpSessionKey, String directory, DirectoryLister directoryLister)
+		throws IOException {
+
+		ListingKey listingKey = new ListingKey(ftpSessionKey, directory);
+		while (true) {
+			CachedListing cachedListing = this.cachedListingsMap.get(listingKey);
+			if (cachedListing != null && !cachedListing.isExpired()) {
+				return cachedListing.await();
+			}
+
+			CachedListing newListing = new CachedListing();
+			boolean listingClaimed = cachedListing == null ?
+				this.cachedListingsMap.putIfAbsent(listingKey, newListing) == null :
+				this.cachedListingsMap.replace(listingKey, cachedListing, newListing);
+
+			if (listingClaimed) {
+				try {
+					newListing.complete(indexByFileName(directoryLister.listFiles(directory)));
+				} catch (IOException | RuntimeException e) {
+					this.cachedListingsMap.remove(listingKey, newListing);
+					newListing.fail(e);
+					throw e;
+				}
+				return newListing.await();
+			}
+		}
+	}
+
+	/**
+	 * Removes all cached listings.
+	 */
+	public void clear() {
+		this.cachedListingsMap.clear();
+	}
+
+	private Map<String, FTPFile> indexByFileName(FTPFile[] ftpFiles) {
+		Map<String, FTPFile> fileNameToFtpFileMap = new HashMap<>();
+		for (FTPFile ftpFile : ftpFiles) {
+			if (ftpFile == null || ftpFile.getName() == null) {
+				continue;
+			}
+
+			String fileName = ftpFile.getName();
+			fileNameToFtpFileMap.put(fileName.substring(fileName.lastIndexOf('/') + 1), ftpFile);
+		}
+		return Collections.unmodifiableMap(fileNameToFtpFileMap);
+	}
+
+	/**
+	 * Lists the files in a directory on an FTP server.
+	 */
+	@FunctionalInterface
+	public interface DirectoryLister {
+		FTPFile[] listFiles(String directory) throws IOException;
+	}
+
+	private class CachedListing {
+		private final CompletableFuture<Map<String, FTPFile>> listingFuture = new CompletableFuture<>();
+		private volatile long listedTime;
+
+		private void complete(Map<String, FTPFile> listing) {
+			this.listedTime = System.currentTimeMillis();
+			this.listingFuture.complete(listing);
+		}
+
+		private void fail(Throwable cause) {
+			this.listingFuture.completeExceptionally(cause);
+		}
+
+		private boolean isExpired() {
+			return this.listingFuture.isDone() && System.currentTimeMillis() - this.listedTime > timeToLiveMillis;
+		}
+
+		private Map<String, FTPFile> await() throws IOException {
+			try {
+				return this.listingFuture.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while waiting for FTP directory listing", e);
+			} catch (ExecutionException e) {
+				throw new IOException("Unable to list FTP directory", e.getCause());
+			}
+		}
+	}
+
+	private static class ListingKey {
+		private final FTPSessionPool.FTPSessionKey ftpSessionKey;
+		private final String directory;
+
+		private ListingKey(FTPSessionPool.FTPSessionKey ftpSessionKey, String directory) {
+			this.ftpSessionKey = ftpSessionKey;
+			this.directory = directory;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof ListingKey)) {
+				return false;
+			}
+
+			ListingKey that = (ListingKey) o;
+			return this.ftpSessionKey.equals(that.ftpSessionKey) && this.directory.equals(that.directory);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.ftpSessionKey, this.directory);
+		}
+	}
+}
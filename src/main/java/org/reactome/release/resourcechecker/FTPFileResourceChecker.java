@@ -1,14 +1,13 @@
 package org.reactome.release.resourcechecker;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
-import java.nio.file.Files;
 import java.nio.file.Path;
 
-import java.util.Arrays;
-import java.util.List;
+import java.util.Map;
 
+import org.apache.commons.net.ftp.FTP;
 import org.apache.commons.net.ftp.FTPClient;
 import org.apache.commons.net.ftp.FTPFile;
 
@@ -24,10 +23,14 @@ public class FTPFileResourceChecker implements FileResourceChecker {
 	// accessing their service (https://stackoverflow.com/a/20031581)
 	private static final String DEFAULT_PASSWORD  = "help@reactome.org";
 
+	private static final int MAX_DOWNLOAD_ATTEMPTS = 3;
+
 	private String userName;
 	private String password;
 
 	private FTPFile ftpFile;
+	private ResourceMetadata resourceMetadata;
+	private final ChecksumVerification checksumVerification;
 
 	/**
 	 * Constructs an FTPFileResourceChecker object for the given resource.  Connection to the relevant FTP Server will
@@ -41,7 +44,8 @@ public class FTPFileResourceChecker implements FileResourceChecker {
 
 	/**
 	 * Constructs an FTPFileResourceChecker object for the given resource.  Connection to the relevant FTP server will
-	 * be passive and using the provided user name and password credentials.
+	 * be passive and using the provided user name and password credentials.  No connection is made until the FTP
+	 * file's metadata is first needed.
 	 *
 	 * @param resource The FTP file resource to be checked
 	 * @param userName User name used to connect to the FTP server
@@ -51,8 +55,7 @@ public class FTPFileResourceChecker implements FileResourceChecker {
 		this.resource = resource;
 		this.userName = userName;
 		this.password = password;
-
-		getFtpFile();
+		this.checksumVerification = new ChecksumVerification(resource);
 	}
 
 	@Override
@@ -71,17 +74,71 @@ public class FTPFileResourceChecker implements FileResourceChecker {
 		return getFtpFile().getName() != null && !getFtpFile().getName().isEmpty();
 	}
 
+	/**
+	 * Downloads the file to the destination through a ".part" file.  If the transfer drops, it is retried on a new
+	 * session from the last checkpointed offset using the FTP REST command, provided the server reports the file's
+	 * modification time (MDTM) and it has not changed.  A partial download left by a previous run is resumed in the
+	 * same way.  A download whose thread is interrupted is not retried.
+	 *
+	 * @param downloadDestination Path to which the file is saved (replaced if it exists)
+	 * @throws IOException Thrown if the file can not be downloaded or written within the allowed attempts
+	 */
 	@Override
 	public void saveFileContents(Path downloadDestination) throws IOException {
-		FTPClient ftpClient = connectToFTPClient();
+		PartialDownload partialDownload = new PartialDownload(downloadDestination);
+
+		for (int attempt = 1; ; attempt++) {
+			try {
+				withPooledFTPClient(ftpClient -> {
+					downloadRemainingContent(ftpClient, partialDownload);
+					return null;
+				});
+				partialDownload.complete();
+				this.checksumVerification.completeDownload();
+				return;
+			} catch (IOException e) {
+				if (attempt >= MAX_DOWNLOAD_ATTEMPTS || Thread.currentThread().isInterrupted()) {
+					throw e;
+				}
+				logger.warn("Download of " + getFtpFilePath() + " from FTP Server " + getFtpServer() +
+					" interrupted (attempt " + attempt + " of " + MAX_DOWNLOAD_ATTEMPTS + ") - resuming", e);
+				CheckMetrics.getSharedInstance().recordRetry();
+			}
+		}
+	}
+
+	private void downloadRemainingContent(FTPClient ftpClient, PartialDownload partialDownload) throws IOException {
+		String validator = ftpClient.getModificationTime(getFtpFilePath());
+		long resumeOffset = partialDownload.getResumeOffset(validator);
+		if (resumeOffset > 0) {
+			logger.info("Resuming download of " + getFtpFilePath() + " from FTP Server " + getFtpServer() +
+				" from byte " + resumeOffset);
+		}
+
+		ftpClient.setRestartOffset(resumeOffset);
+		InputStream contentStream = ftpClient.retrieveFileStream(getFtpFilePath());
+		if (contentStream == null) {
+			throw new IOException("Unable to download " + getFtpFilePath() + " from FTP Server " +
+				getFtpServer() + ": " + ftpClient.getReplyString());
+		}
 
-		Files.deleteIfExists(downloadDestination);
-		ftpClient.retrieveFile(
-			getFtpFilePath(),
-			new FileOutputStream(downloadDestination.toFile())
+		partialDownload.writeFrom(
+			this.checksumVerification.track(contentStream, partialDownload.getPartFile(), resumeOffset),
+			resumeOffset,
+			validator
 		);
+		if (!ftpClient.completePendingCommand()) {
+			throw new IOException("Download of " + getFtpFilePath() + " from FTP Server " + getFtpServer() +
+				" did not complete: " + ftpClient.getReplyString());
+		}
+		if (validator != null) {
+			this.resourceMetadata = ResourceMetadata.forFtp(validator, getFileSize());
+		}
+	}
 
-		logoutAndDisconnect(ftpClient);
+	@Override
+	public ChecksumVerification getChecksumVerification() {
+		return this.checksumVerification;
 	}
 
 	/**
@@ -94,6 +151,45 @@ public class FTPFileResourceChecker implements FileResourceChecker {
 		return getFtpFile().getSize();
 	}
 
+	/**
+	 * Returns the FTP file's modification time (from the MDTM command) and size, or <code>null</code> if the file does
+	 * not exist or its modification time can not be retrieved.  Only the resource metadata cache asks for it, so no
+	 * MDTM command is sent for a check without the cache.  If the file has been downloaded, the modification time
+	 * read for the download is re-used rather than sent for again.
+	 *
+	 * @return FTP validators of the checked version of the file or null
+	 */
+	@Override
+	public ResourceMetadata getResourceMetadata() {
+		if (this.resourceMetadata == null && resourceExists()) {
+			try {
+				String modificationTime = withFTPClient(ftpClient -> ftpClient.getModificationTime(getFtpFilePath()));
+				if (modificationTime != null) {
+					this.resourceMetadata = ResourceMetadata.forFtp(modificationTime, getFileSize());
+				}
+			} catch (IOException e) {
+				logger.warn("Unable to get modification time of " + getFtpFilePath() + " from FTP Server " +
+					getFtpServer(), e);
+			}
+		}
+
+		return this.resourceMetadata;
+	}
+
+	/**
+	 * Returns <code>true</code> if the FTP file's modification time and size both match the previous metadata;
+	 * <code>false</code> otherwise.  The size comes from the (shared) directory listing and the modification time
+	 * from a single MDTM command, so no data is transferred.
+	 *
+	 * @param previousMetadata Metadata recorded by an earlier check of the file
+	 * @return True if the FTP file has not changed since the earlier check; false otherwise
+	 */
+	@Override
+	public boolean isUnchangedSince(ResourceMetadata previousMetadata) {
+		ResourceMetadata currentMetadata = getResourceMetadata();
+		return currentMetadata != null && currentMetadata.hasSameFtpVersionAs(previousMetadata);
+	}
+
 	/**
 	 * Returns the name of the host server on which the FTP file being checked resides (e.g. ftp.uniprot.org)
 	 *
@@ -141,63 +237,91 @@ public class FTPFileResourceChecker implements FileResourceChecker {
 		return this.password;
 	}
 
+	/**
+	 * Returns the FTP file's metadata, retrieving it the first time this method is called and re-using it afterwards.
+	 *
+	 * @return FTP file (an empty FTPFile if it could not be found or retrieved)
+	 */
 	private FTPFile getFtpFile() {
 		if (this.ftpFile == null) {
-			try {
-				this.ftpFile = retrieveFtpFile();
-			} catch (IOException e) {
-				logger.error("Unable to retrieve file " + getFtpFilePath() + " from FTP Server " + getFtpServer(), e);
-			}
+			this.ftpFile = fetchFtpFile();
 		}
 
 		return this.ftpFile;
 	}
 
-	private FTPFile retrieveFtpFile() throws IOException {
-		FTPClient ftpClient = connectToFTPClient();
-
-		List<FTPFile> ftpFiles = Arrays.asList(
-			ftpClient.listFiles(getFtpFilePath())
-		);
-
-		logoutAndDisconnect(ftpClient);
-
-		if (ftpFiles.size() == 1) {
-			return ftpFiles.get(0);
-		} else {
-			logger.error(getErrorMessageForNonUniqueFile(ftpFiles, getFtpFilePath()));
+	private FTPFile fetchFtpFile() {
+		try {
+			return retrieveFtpFile();
+		} catch (IOException e) {
+			logger.error("Unable to retrieve file " + getFtpFilePath() + " from FTP Server " + getFtpServer(), e);
 			return new FTPFile();
 		}
 	}
 
-	private FTPClient connectToFTPClient() throws IOException {
-		FTPClient ftpClient = new FTPClient();
-
-		ftpClient.connect(getFtpServer());
-		ftpClient.enterLocalPassiveMode();
+	/**
+	 * Resolves the FTP file from the listing of its parent directory.  The listing is taken from the shared directory
+	 * listing cache, so all resources in the same directory cost a single LIST request.
+	 */
+	private FTPFile retrieveFtpFile() throws IOException {
+		String ftpFilePath = getFtpFilePath();
+		int lastSeparatorIndex = ftpFilePath.lastIndexOf('/');
+		String ftpDirectory = lastSeparatorIndex > 0 ? ftpFilePath.substring(0, lastSeparatorIndex) : "/";
+		String ftpFileName = ftpFilePath.substring(lastSeparatorIndex + 1);
+
+		Map<String, FTPFile> directoryListing = FTPDirectoryListingCache.getSharedInstance().getListing(
+			getFtpSessionKey(),
+			ftpDirectory,
+			directory -> withFTPClient(ftpClient -> {
+				long listingStartNanos = System.nanoTime();
+				FTPFile[] directoryFiles = ftpClient.listFiles(directory);
+				CheckMetrics.getSharedInstance().recordPhase(CheckMetrics.Phase.FTP_LISTING, listingStartNanos);
+				return directoryFiles;
+			})
+		);
 
-		if (ftpClient.login(getUserName(), getPassword())) {
-			logger.info("Login successful to " + getFtpServer());
-		} else {
-			logger.error("Login to " + getFtpServer() + " failed");
+		FTPFile ftpFile = directoryListing.get(ftpFileName);
+		if (ftpFile == null) {
+			logger.error("No file found on " + getFtpServer() + " for path " + ftpFilePath);
+			return new FTPFile();
 		}
+		return ftpFile;
+	}
 
-		return ftpClient;
+	private FTPSessionPool.FTPSessionKey getFtpSessionKey() {
+		return new FTPSessionPool.FTPSessionKey(
+			getFtpServer(), getResourceURL().getPort() != -1 ? getResourceURL().getPort() : FTP.DEFAULT_PORT,
+			getUserName(), getPassword()
+		);
 	}
 
-	private void logoutAndDisconnect(FTPClient ftpClient) {
-		final String ftpCloseConnectionErrorMessage = "Unable to close connection to FTP Server " + getFtpServer();
+	/**
+	 * Runs the FTP request through the shared retry policy, so that a dropped connection or a 421 (service not
+	 * available) reply is retried on a new session and a failing server's circuit is opened.
+	 */
+	private <T> T withFTPClient(FTPRequest<T> ftpRequest) throws IOException {
+		return RetryPolicy.getSharedInstance().execute(getFtpServer(), () -> withPooledFTPClient(ftpRequest));
+	}
 
+	/**
+	 * Runs the FTP request once with a logged in session borrowed from the shared FTP session pool.  The session is
+	 * returned to the pool if the request succeeds and closed if it fails.
+	 */
+	private <T> T withPooledFTPClient(FTPRequest<T> ftpRequest) throws IOException {
+		FTPSessionPool ftpSessionPool = FTPSessionPool.getSharedInstance();
+		FTPClient ftpClient = ftpSessionPool.borrow(getFtpSessionKey());
 		try {
-			ftpClient.logout();
-			ftpClient.disconnect();
-		} catch (IOException e) {
-			logger.error(ftpCloseConnectionErrorMessage, e);
+			T result = ftpRequest.execute(ftpClient);
+			ftpSessionPool.release(getFtpSessionKey(), ftpClient);
+			return result;
+		} catch (IOException | RuntimeException e) {
+			ftpSessionPool.invalidate(ftpClient);
+			throw e;
 		}
 	}
 
-	private String getErrorMessageForNonUniqueFile(List<FTPFile> ftpFiles, String ftpFilePath) {
-		return ftpFiles.isEmpty() ? "No file " : "Multiple files " +
-			"found on " + getFtpServer() + " for path " + ftpFilePath;
+	@FunctionalInterface
+	private interface FTPRequest<T> {
+		T execute(FTPClient ftpClient) throws IOException;
 	}
-}
\ No newline at end of file
+}
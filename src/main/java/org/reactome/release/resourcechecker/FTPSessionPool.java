@@ -0,0 +1,297 @@
+package org.reactome.release.resourcechecker;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.net.ftp.FTP;
+import org.apache.commons.net.ftp.FTPClient;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A pool of logged in FTP sessions shared by all FTP file resource checkers.  Sessions are kept per (host, user name,
+ * password) and re-used across checkers instead of connecting and logging in for every request.  An idle session is
+ * checked with a NOOP before it is lent out again and sessions idle for longer than the idle timeout are closed.
+ */
+public class FTPSessionPool implements AutoCloseable {
+	private static final Logger logger = LogManager.getLogger();
+
+	private static final int DEFAULT_MAX_IDLE_SESSIONS_PER_KEY = 4;
+	private static final long DEFAULT_IDLE_TIMEOUT_SECONDS = 60;
+	private static final long CONTROL_KEEP_ALIVE_SECONDS = 30;
+
+	private static FTPSessionPool sharedInstance;
+
+	private final int maxIdleSessionsPerKey;
+	private final long idleTimeoutMillis;
+	private final Map<FTPSessionKey, ConcurrentLinkedDeque<IdleSession>> idleSessionsMap;
+
+	/**
+	 * Constructs an FTPSessionPool with the given idle session limits.
+	 *
+	 * @param maxIdleSessionsPerKey Maximum number of idle sessions kept for each host and credentials
+	 * @param idleTimeoutSeconds Number of seconds a session may stay idle before it is closed
+	 */
+	public FTPSessionPool(int maxIdleSessionsPerKey, long idleTimeoutSeconds) {
+		if (maxIdleSessionsPerKey <= 0 || idleTimeoutSeconds <= 0) {
+			throw new IllegalArgumentException("Maximum idle sessions and idle timeout must be positive values");
+		}
+
+		this.maxIdleSessionsPerKey = maxIdleSessionsPerKey;
+		this.idleTimeoutMillis = TimeUnit.SECONDS.toMillis(idleTimeoutSeconds);
+		this.idleSessionsMap = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Returns the pool shared by FTP file resource checkers, creating one with default settings if one has not been
+	 * set.
+	 *
+	 * @return Shared FTPSessionPool
+	 * @see #setSharedInstance(FTPSessionPool)
+	 */
+	public static synchronized FTPSessionPool getSharedInstance() {
+		if (sharedInstance == null) {
+			sharedInstance = new FTPSessionPool(DEFAULT_MAX_IDLE_SESSIONS_PER_KEY, DEFAULT_IDLE_TIMEOUT_SECONDS);
+		}
+
+		return sharedInstance;
+	}
+
+	/**
+	 * Sets the pool shared by FTP file resource checkers.  Any previously shared pool is closed.
+	 *
+	 * @param ftpSessionPool Pool to share
+	 */
+	public static synchronized void setSharedInstance(FTPSessionPool ftpSessionPool) {
+		if (sharedInstance != null && sharedInstance != ftpSessionPool) {
+			sharedInstance.close();
+		}
+
+		sharedInstance = ftpSessionPool;
+	}
+
+	/**
+	 * Returns a logged in FTP session for the host and credentials.  An idle session which still answers a NOOP is
+	 * re-used if available; otherwise a new session is connected and logged in.  The session must be handed back with
+	 * {@link #release(FTPSessionKey, FTPClient)} or {@link #invalidate(FTPClient)}.
+	 *
+	 * @param ftpSessionKey Host and credentials of the session
+	 * @return Logged in FTPClient
+	 * @throws IOException Thrown if a new session can not be connected or logged in
+	 */
+	public FTPClient borrow(FTPSessionKey ftpSessionKey) throws IOException {
+		evictIdleSessions();
+
+		ConcurrentLinkedDeque<IdleSession> idleSessions = getIdleSessions(ftpSessionKey);
+		IdleSession idleSession;
+		while ((idleSession = idleSessions.pollFirst()) != null) {
+			if (isHealthy(idleSession.ftpClient)) {
+				CheckMetrics.getSharedInstance().recordSessionReused(CheckMetrics.SessionType.FTP);
+				return idleSession.ftpClient;
+			}
+			disconnect(idleSession.ftpClient, ftpSessionKey);
+		}
+
+		return connect(ftpSessionKey);
+	}
+
+	/**
+	 * Returns a session, after a successful request, to the pool so it can be re-used.  The session is closed instead
+	 * if the pool already holds the maximum number of idle sessions for the host and credentials.
+	 *
+	 * @param ftpSessionKey Host and credentials of the session
+	 * @param ftpClient Session to return
+	 */
+	public void release(FTPSessionKey ftpSessionKey, FTPClient ftpClient) {
+		ConcurrentLinkedDeque<IdleSession> idleSessions = getIdleSessions(ftpSessionKey);
+		if (!ftpClient.isConnected() || idleSessions.size() >= this.maxIdleSessionsPerKey) {
+			logoutAndDisconnect(ftpClient, ftpSessionKey);
+		} else {
+			idleSessions.offerFirst(new IdleSession(ftpClient));
+		}
+	}
+
+	/**
+	 * Closes a session which failed during a request so it is not re-used.
+	 *
+	 * @param ftpClient Session to close
+	 */
+	public void invalidate(FTPClient ftpClient) {
+		try {
+			ftpClient.disconnect();
+		} catch (IOException e) {
+			logger.warn("Unable to disconnect failed FTP session", e);
+		}
+	}
+
+	/**
+	 * Logs out and disconnects all idle sessions.
+	 */
+	@Override
+	public void close() {
+		for (Map.Entry<FTPSessionKey, ConcurrentLinkedDeque<IdleSession>> idleSessionsEntry :
+			this.idleSessionsMap.entrySet()) {
+
+			IdleSession idleSession;
+			while ((idleSession = idleSessionsEntry.getValue().pollFirst()) != null) {
+				logoutAndDisconnect(idleSession.ftpClient, idleSessionsEntry.getKey());
+			}
+		}
+	}
+
+	private ConcurrentLinkedDeque<IdleSession> getIdleSessions(FTPSessionKey ftpSessionKey) {
+		return this.idleSessionsMap.computeIfAbsent(ftpSessionKey, key -> new ConcurrentLinkedDeque<>());
+	}
+
+	private void evictIdleSessions() {
+		long evictBeforeTime = System.currentTimeMillis() - this.idleTimeoutMillis;
+		for (Map.Entry<FTPSessionKey, ConcurrentLinkedDeque<IdleSession>> idleSessionsEntry :
+			this.idleSessionsMap.entrySet()) {
+
+			List<IdleSession> expiredSessions = new ArrayList<>();
+			Iterator<IdleSession> idleSessionIterator = idleSessionsEntry.getValue().iterator();
+			while (idleSessionIterator.hasNext()) {
+				IdleSession idleSession = idleSessionIterator.next();
+				if (idleSession.idleSinceTime < evictBeforeTime && idleSessionsEntry.getValue().remove(idleSession)) {
+					expiredSessions.add(idleSession);
+				}
+			}
+
+			for (IdleSession expiredSession : expiredSessions) {
+				logoutAndDisconnect(expiredSession.ftpClient, idleSessionsEntry.getKey());
+			}
+		}
+	}
+
+	private boolean isHealthy(FTPClient ftpClient) {
+		try {
+			return ftpClient.isConnected() && ftpClient.sendNoOp();
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	private FTPClient connect(FTPSessionKey ftpSessionKey) throws IOException {
+		FTPClient ftpClient = new FTPClient();
+		ftpClient.setControlKeepAliveTimeout(CONTROL_KEEP_ALIVE_SECONDS);
+		NetworkTimeouts.getSharedInstance().applyTo(ftpClient);
+
+		CheckMetrics checkMetrics = CheckMetrics.getSharedInstance();
+		long connectStartNanos = System.nanoTime();
+		ftpClient.connect(ftpSessionKey.getHost(), ftpSessionKey.getPort());
+		checkMetrics.recordPhase(CheckMetrics.Phase.CONNECT, connectStartNanos);
+		ftpClient.enterLocalPassiveMode();
+
+		long loginStartNanos = System.nanoTime();
+		if (!ftpClient.login(ftpSessionKey.getUserName(), ftpSessionKey.getPassword())) {
+			invalidate(ftpClient);
+			throw new IOException("Login to " + ftpSessionKey.getHost() + " failed");
+		}
+		checkMetrics.recordPhase(CheckMetrics.Phase.FTP_LOGIN, loginStartNanos);
+		checkMetrics.recordSessionOpened(CheckMetrics.SessionType.FTP);
+		logger.info("Login successful to " + ftpSessionKey.getHost());
+		ftpClient.setFileType(FTP.BINARY_FILE_TYPE);
+
+		return ftpClient;
+	}
+
+	private void logoutAndDisconnect(FTPClient ftpClient, FTPSessionKey ftpSessionKey) {
+		final String ftpCloseConnectionErrorMessage =
+			"Unable to close connection to FTP Server " + ftpSessionKey.getHost();
+
+		try {
+			if (ftpClient.isConnected()) {
+				ftpClient.logout();
+			}
+			ftpClient.disconnect();
+		} catch (IOException e) {
+			logger.error(ftpCloseConnectionErrorMessage, e);
+		}
+	}
+
+	private void disconnect(FTPClient ftpClient, FTPSessionKey ftpSessionKey) {
+		logger.info("Discarding stale FTP session to " + ftpSessionKey.getHost());
+		invalidate(ftpClient);
+	}
+
+	/**
+	 * Identifies the FTP sessions which can be shared: those to the same host and port logged in with the same
+	 * credentials.
+	 */
+	public static class FTPSessionKey {
+		private final String host;
+		private final int port;
+		private final String userName;
+		private final String password;
+
+		public FTPSessionKey(String host, String userName, String password) {
+			this(host, FTP.DEFAULT_PORT, userName, password);
+		}
+
+		public FTPSessionKey(String host, int port, String userName, String password) {
+			this.host = host;
+			this.port = port;
+			this.userName = userName;
+			this.password = password;
+		}
+
+		public String getHost() {
+			return this.host;
+		}
+
+		public int getPort() {
+			return this.port;
+		}
+
+		public String getUserName() {
+			return this.userName;
+		}
+
+		public String getPassword() {
+			return this.password;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof FTPSessionKey)) {
+				return false;
+			}
+
+			FTPSessionKey that = (FTPSessionKey) o;
+			return this.host.equalsIgnoreCase(that.host) &&
+				this.port == that.port &&
+				this.userName.equals(that.userName) &&
+				this.password.equals(that.password);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.host.toLowerCase(), this.port, this.userName, this.password);
+		}
+
+		@Override
+		public String toString() {
+			return this.userName + "@" + this.host + (this.port != FTP.DEFAULT_PORT ? ":" + this.port : "");
+		}
+	}
+
+	private static class IdleSession {
+		private final FTPClient ftpClient;
+		private final long idleSinceTime;
+
+		private IdleSession(FTPClient ftpClient) {
+			this.ftpClient = ftpClient;
+			this.idleSinceTime = System.currentTimeMillis();
+		}
+	}
+}
@@ -11,6 +11,14 @@ public interface FileResourceChecker extends ResourceChecker {
 
 	long getFileSize();
 
+	/**
+	 * Returns the verification of the downloaded file's checksum, which is computed while
+	 * {@link #saveFileContents(Path)} writes the file.
+	 *
+	 * @return ChecksumVerification for the file resource
+	 */
+	ChecksumVerification getChecksumVerification();
+
 	/**
 	 * Returns true if the current file size has not dropped more than an acceptable percentage when compared with
 	 * the previous file size.
@@ -47,6 +55,9 @@ public interface FileResourceChecker extends ResourceChecker {
 		reportJson.addProperty("Passed Checks", resourcePassesAllChecks());
 		reportJson.addProperty("Resource Exists", resourceExists());
 		reportJson.add("File Size", getFileSizeReport(getResource().getExpectedFileSizeInBytes()));
+		if (getChecksumVerification().isRequired()) {
+			reportJson.add("Checksum", getChecksumVerification().getReport());
+		}
 
 		return reportJson;
 	}
@@ -70,7 +81,8 @@ public interface FileResourceChecker extends ResourceChecker {
 
 	@Override
 	default boolean resourcePassesAllChecks() {
-		return resourceExists() && isFileSizeAcceptable(getResource().getExpectedFileSizeInBytes());
+		return resourceExists() && isFileSizeAcceptable(getResource().getExpectedFileSizeInBytes()) &&
+			getChecksumVerification().isChecksumAcceptable();
 	}
 
 	enum ByteUnit {
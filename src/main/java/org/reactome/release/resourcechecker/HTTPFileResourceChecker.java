@@ -1,44 +1,281 @@
 package org.reactome.release.resourcechecker;
 
 import com.google.gson.JsonObject;
-import java.io.IOException;
 
-import java.nio.file.Files;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
-import java.util.Iterator;
 import org.reactome.release.Resource;
 
 public class HTTPFileResourceChecker implements HTTPResourceChecker, FileResourceChecker {
+	private static final int MAX_DOWNLOAD_ATTEMPTS = 3;
+	private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+	private static final long MINIMUM_PARALLEL_DOWNLOAD_SIZE_IN_BYTES = 64 * 1024 * 1024;
+
+	private static volatile int parallelDownloadStreams = 4;
+
 	private Resource resource;
+	private final ResponseSnapshotHolder responseSnapshotHolder = new ResponseSnapshotHolder(this);
+	private Long fileSize;
+	private final ChecksumVerification checksumVerification;
 
 	public HTTPFileResourceChecker(Resource resource) {
 		this.resource = resource;
+		this.checksumVerification = new ChecksumVerification(resource);
 	}
 
+	/**
+	 * Returns the size of the file in bytes, or -1 if it can not be determined.  The size is resolved once per check
+	 * and re-used by every size-based check: it is the Content-Length of the response snapshot if the request
+	 * succeeded and the length is known.  Only if the server does not allow or implement HEAD requests (405 or 501), or
+	 * gives no length for them, is the size the total length in the Content-Range of a ranged GET request for the
+	 * first byte; any other failed request leaves the size unknown.
+	 *
+	 * @return Size of the file in bytes or -1
+	 */
 	@Override
 	public long getFileSize() {
+		if (this.fileSize == null) {
+			this.fileSize = resolveFileSize();
+		}
+
+		return this.fileSize;
+	}
+
+	private long resolveFileSize() {
+		HttpResponseSnapshot responseSnapshot = getResponseSnapshot();
+		int responseCode = responseSnapshot.getResponseCode();
+		if (responseCode == HttpURLConnection.HTTP_OK && responseSnapshot.getContentLength() >= 0) {
+			return responseSnapshot.getContentLength();
+		}
+
+		if (responseCode != HttpURLConnection.HTTP_OK && responseCode != HttpURLConnection.HTTP_BAD_METHOD &&
+			responseCode != HttpURLConnection.HTTP_NOT_IMPLEMENTED) {
+			// The file is missing or unavailable, which a GET request would not change
+			return -1;
+		}
+
 		try {
-			return getHttpURLConnection().getContentLength();
+			return RetryPolicy.getSharedInstance().execute(getResourceURL().getHost(), this::requestFirstByteFileSize);
 		} catch (IOException e) {
 			logger.error("Unable to get file size for HTTP URL Connection to " + getResourceURL(), e);
 			return -1;
 		}
 	}
 
+	/**
+	 * Requests only the first byte of the file and returns the total length from the response's Content-Range, or the
+	 * Content-Length if the server ignores the range and sends the whole file (whose body is not read).
+	 */
+	private long requestFirstByteFileSize() throws IOException {
+		HttpURLConnection httpURLConnection = getHttpURLConnection(
+			"GET", Collections.singletonMap("Range", "bytes=0-0")
+		);
+		try {
+			int responseCode = httpURLConnection.getResponseCode();
+			if (responseCode == HttpURLConnection.HTTP_PARTIAL) {
+				return getCompleteLength(httpURLConnection.getHeaderField("Content-Range"));
+			} else if (responseCode == HttpURLConnection.HTTP_OK) {
+				return httpURLConnection.getContentLengthLong();
+			}
+			return -1;
+		} finally {
+			httpURLConnection.disconnect();
+		}
+	}
+
+	/**
+	 * Returns the complete length from a Content-Range header (e.g. 1234 from "bytes 0-0/1234") or -1 if it is missing
+	 * or unknown ("*").
+	 */
+	private static long getCompleteLength(String contentRange) {
+		if (contentRange == null || contentRange.indexOf('/') == -1) {
+			return -1;
+		}
+
+		try {
+			return Long.parseLong(contentRange.substring(contentRange.lastIndexOf('/') + 1).trim());
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Returns the first byte position from a Content-Range header (e.g. 100 from "bytes 100-199/200") or -1 if it is
+	 * missing or malformed.
+	 */
+	private static long getRangeStart(String contentRange) {
+		if (contentRange == null || !contentRange.startsWith("bytes ") || contentRange.indexOf('-') == -1) {
+			return -1;
+		}
+
+		try {
+			return Long.parseLong(contentRange.substring("bytes ".length(), contentRange.indexOf('-')).trim());
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Downloads the file to the destination as raw bytes through a ".part" file.  If the connection drops, the download
+	 * is retried from the last checkpointed offset with an HTTP Range request, provided the server identifies the file
+	 * with an ETag or Last-Modified header and it has not changed.  A partial download left by a previous run is
+	 * resumed in the same way.  If the server rejects the range (416) or answers with a range starting anywhere but
+	 * the checkpointed offset, the checkpoint is discarded and the download restarts from byte zero.  A download whose
+	 * thread is interrupted is not retried.
+	 *
+	 * A fresh download of a large file from a server which accepts byte ranges is split into ranges fetched over
+	 * several connections at once (see {@link #setParallelDownloadStreams(int)}), falling back to the single stream
+	 * download if the ranges can not be fetched (but not if the download's thread is interrupted).  A file whose
+	 * checksum is verified is always downloaded over a single stream, as its checksum is computed from the bytes in
+	 * order while they are written.
+	 *
+	 * @param downloadDestination Path to which the file is saved (replaced if it exists)
+	 * @throws IOException Thrown if the file can not be downloaded or written within the allowed attempts
+	 */
 	@Override
 	public void saveFileContents(Path downloadDestination) throws IOException {
-		Files.deleteIfExists(downloadDestination);
-
-		Iterator<String> contentIterator = getContentIterator();
-		while (contentIterator.hasNext()) {
-			Files.write(
-				downloadDestination,
-				contentIterator.next().getBytes(),
-				StandardOpenOption.CREATE, StandardOpenOption.APPEND
+		PartialDownload partialDownload = new PartialDownload(downloadDestination);
+		String validator = getValidator();
+
+		if (partialDownload.getResumeOffset(validator) == 0 && !this.checksumVerification.isRequired() &&
+			isParallelDownloadSupported()) {
+
+			try {
+				new ParallelRangeDownload(
+					this, getResponseSnapshot().getContentLength(), validator, parallelDownloadStreams
+				).downloadTo(partialDownload.getPartFile());
+				partialDownload.complete();
+				return;
+			} catch (IOException e) {
+				partialDownload.discard();
+				if (e instanceof InterruptedIOException || Thread.currentThread().isInterrupted()) {
+					throw e;
+				}
+				logger.warn(
+					"Parallel download of " + getResourceURL() + " failed - falling back to a single stream", e
+				);
+			}
+		}
+
+		for (int attempt = 1; ; attempt++) {
+			try {
+				downloadRemainingContent(partialDownload, validator);
+				partialDownload.complete();
+				this.checksumVerification.completeDownload();
+				return;
+			} catch (IOException e) {
+				if (attempt >= MAX_DOWNLOAD_ATTEMPTS || Thread.currentThread().isInterrupted()) {
+					throw e;
+				}
+				logger.warn("Download of " + getResourceURL() + " interrupted (attempt " + attempt + " of " +
+					MAX_DOWNLOAD_ATTEMPTS + ") - resuming", e);
+				CheckMetrics.getSharedInstance().recordRetry();
+			}
+		}
+	}
+
+	private void downloadRemainingContent(PartialDownload partialDownload, String validator) throws IOException {
+		long resumeOffset = partialDownload.getResumeOffset(validator);
+
+		HttpURLConnection httpURLConnection = requestContentFrom(resumeOffset, validator);
+		try {
+			if (resumeOffset > 0 && !isRangeAccepted(httpURLConnection, resumeOffset)) {
+				logger.info("Checkpoint of " + getResourceURL() + " at byte " + resumeOffset + " does not match the " +
+					"server's response (" + httpURLConnection.getResponseCode() + ") - restarting download");
+				httpURLConnection.disconnect();
+				partialDownload.discard();
+
+				resumeOffset = 0;
+				httpURLConnection = requestContentFrom(resumeOffset, validator);
+			}
+
+			long contentOffset = httpURLConnection.getResponseCode() == HttpURLConnection.HTTP_PARTIAL ?
+				resumeOffset : 0;
+			if (resumeOffset > 0) {
+				logger.info(contentOffset > 0 ?
+					"Resuming download of " + getResourceURL() + " from byte " + contentOffset :
+					"Server did not honour range request for " + getResourceURL() + " - restarting download"
+				);
+			}
+
+			long contentLength = httpURLConnection.getContentLengthLong();
+			long bytesCompleted = partialDownload.writeFrom(
+				this.checksumVerification.track(
+					getContentStream(httpURLConnection), partialDownload.getPartFile(), contentOffset
+				),
+				contentOffset,
+				validator
 			);
+			// A connection closed part way through the body reads as the end of the content
+			if (contentLength >= 0 && bytesCompleted < contentOffset + contentLength) {
+				throw new IOException("Connection to " + getResourceURL() + " closed after " + bytesCompleted +
+					" of " + (contentOffset + contentLength) + " bytes");
+			}
+		} finally {
+			httpURLConnection.disconnect();
+		}
+	}
+
+	private HttpURLConnection requestContentFrom(long offset, String validator) throws IOException {
+		Map<String, String> requestProperties = new HashMap<>();
+		if (offset > 0) {
+			requestProperties.put("Range", "bytes=" + offset + "-");
+			requestProperties.put("If-Range", validator);
+		}
+
+		return getHttpURLConnection("GET", requestProperties);
+	}
+
+	/**
+	 * Returns <code>false</code> if the server rejected the range request (e.g. for a stale checkpoint at the full
+	 * length of the file) or sent a range which does not start at the requested offset; <code>true</code> otherwise,
+	 * including when the server ignores the range and sends the whole file.
+	 */
+	private static boolean isRangeAccepted(HttpURLConnection httpURLConnection, long offset) throws IOException {
+		int responseCode = httpURLConnection.getResponseCode();
+		if (responseCode == HTTP_RANGE_NOT_SATISFIABLE) {
+			return false;
 		}
+
+		return responseCode != HttpURLConnection.HTTP_PARTIAL ||
+			getRangeStart(httpURLConnection.getHeaderField("Content-Range")) == offset;
+	}
+
+	/**
+	 * Sets the number of byte ranges fetched concurrently when a large file is downloaded from a server accepting
+	 * byte ranges.  A value of 1 always downloads over a single stream.
+	 *
+	 * @param streams Number of concurrent range requests per file download
+	 */
+	public static void setParallelDownloadStreams(int streams) {
+		if (streams <= 0) {
+			throw new IllegalArgumentException("The number of download streams must be a positive value");
+		}
+
+		parallelDownloadStreams = streams;
+	}
+
+	private boolean isParallelDownloadSupported() {
+		return parallelDownloadStreams > 1 &&
+			ParallelRangeDownload.isSupported(getResponseSnapshot(), MINIMUM_PARALLEL_DOWNLOAD_SIZE_IN_BYTES);
+	}
+
+	private String getValidator() {
+		HttpResponseSnapshot responseSnapshot = getResponseSnapshot();
+		String entityTag = responseSnapshot.getHeader("ETag");
+		return entityTag != null && !entityTag.startsWith("W/") ?
+			entityTag : responseSnapshot.getHeader("Last-Modified");
+	}
+
+	@Override
+	public ChecksumVerification getChecksumVerification() {
+		return this.checksumVerification;
 	}
 
 	@Override
@@ -46,6 +283,11 @@ public class HTTPFileResourceChecker implements HTTPResourceChecker, FileResourc
 		return this.resource;
 	}
 
+	@Override
+	public ResponseSnapshotHolder getResponseSnapshotHolder() {
+		return this.responseSnapshotHolder;
+	}
+
 	@Override
 	public boolean resourcePassesAllChecks() {
 		return HTTPResourceChecker.super.resourcePassesAllChecks() &&
@@ -4,13 +4,27 @@ import com.google.gson.JsonObject;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.reactome.release.resourcechecker.ResponseTextMatcher.ResponseTextMatch;
 
 public interface HTTPResourceChecker extends ResourceChecker {
 	default HttpURLConnection getHttpURLConnection() throws IOException {
@@ -21,12 +35,18 @@ public interface HTTPResourceChecker extends ResourceChecker {
 		throws IOException {
 
 		HttpURLConnection httpURLConnection = (HttpURLConnection) getResourceURL().openConnection();
+		NetworkTimeouts.getSharedInstance().applyTo(httpURLConnection);
 		httpURLConnection.setRequestMethod(requestMethod);
 		for (Entry<String, String> requestProperty : requestProperties.entrySet()) {
 			httpURLConnection.setRequestProperty(requestProperty.getKey(), requestProperty.getValue());
 		}
 		httpURLConnection.setInstanceFollowRedirects(true);
+
+		CheckMetrics checkMetrics = CheckMetrics.getSharedInstance();
+		checkMetrics.recordHttpRequest();
+		long connectStartNanos = System.nanoTime();
 		httpURLConnection.connect();
+		checkMetrics.recordPhase(CheckMetrics.Phase.CONNECT, connectStartNanos);
 
 		return httpURLConnection;
 	}
@@ -51,7 +71,9 @@ public interface HTTPResourceChecker extends ResourceChecker {
 	}
 
 	default String getAllContent(HttpURLConnection httpURLConnection) throws IOException {
-		Iterator<String> contentIterator = getContentIterator(httpURLConnection);
+		Iterator<CharBuffer> contentIterator = new ContentChunkGenerator(
+			getContentStream(httpURLConnection)
+		).charChunks();
 
 		StringBuilder stringBuilder = new StringBuilder();
 		while (contentIterator.hasNext()) {
@@ -69,36 +91,280 @@ public interface HTTPResourceChecker extends ResourceChecker {
 		}
 	}
 
-	default Date getLastModifiedDateTime() {
+	/**
+	 * Returns the response to a single request for the resource, made the first time this method is called and
+	 * re-used afterwards.  All response code, metadata and response text checks are evaluated against this snapshot
+	 * so a report costs one network round trip.
+	 *
+	 * @return Snapshot of the response for the resource
+	 * @see #getResponseSnapshotHolder()
+	 */
+	default HttpResponseSnapshot getResponseSnapshot() {
+		return getResponseSnapshotHolder().get();
+	}
+
+	/**
+	 * Returns the holder of this checker's response snapshot.  Implementations should create one holder for the
+	 * checker and return it on every call.
+	 *
+	 * @return Holder of the response snapshot
+	 */
+	ResponseSnapshotHolder getResponseSnapshotHolder();
+
+	/**
+	 * Makes a request for the resource and captures the response, retrying transient failures (connection resets,
+	 * timeouts, 5xx and 429 responses) according to the shared {@link RetryPolicy}.
+	 *
+	 * @return Snapshot of the response for the resource (with a response code of -1 if the request failed)
+	 * @see #requestResponseSnapshot()
+	 * @see #getRetryDelayMillis(HttpResponseSnapshot)
+	 */
+	default HttpResponseSnapshot fetchResponseSnapshot() {
 		try {
-			return new Date(getHttpURLConnection().getLastModified());
+			return RetryPolicy.getSharedInstance().execute(
+				getResourceURL().getHost(), this::requestResponseSnapshot, this::getRetryDelayMillis
+			);
 		} catch (IOException e) {
-			logger.error("Unable to get last modified datetime for HTTP URL Connection to " + getResourceURL(), e);
+			logger.error("Unable to get response for HTTP request to " + getResourceURL(), e);
+			return HttpResponseSnapshot.failedRequest();
+		}
+	}
+
+	/**
+	 * Requests the resource through the asynchronous backend without blocking, retrying transient failures according
+	 * to the shared {@link RetryPolicy} as {@link #fetchResponseSnapshot()} does but waiting out retry delays without
+	 * holding a thread.  Cancelling the returned future cancels the request in progress.
+	 *
+	 * @param asyncHttpClientBackend Backend through which the requests are sent
+	 * @return Future completed with the snapshot of the response (with a response code of -1 if the request failed),
+	 * or <code>null</code> if the resource's URL is not a valid URI and must be requested with an HTTP URL Connection
+	 */
+	default CompletableFuture<HttpResponseSnapshot> fetchResponseSnapshotAsync(
+		AsyncHttpClientBackend asyncHttpClientBackend) {
+
+		URI resourceURI;
+		try {
+			resourceURI = getResourceURL().toURI();
+		} catch (URISyntaxException e) {
 			return null;
 		}
+
+		ResponseTextMatcher responseTextMatcher = isResponseContentNeeded() ? getResponseTextMatcher() : null;
+		CompletableFuture<HttpResponseSnapshot> retriedSnapshotFuture = RetryPolicy.getSharedInstance().executeAsync(
+			getResourceURL().getHost(),
+			() -> asyncHttpClientBackend.fetchResponseSnapshot(resourceURI, responseTextMatcher),
+			this::getRetryDelayMillis
+		);
+		CompletableFuture<HttpResponseSnapshot> responseSnapshotFuture = retriedSnapshotFuture.exceptionally(
+			throwable -> {
+				logger.error("Unable to get response for HTTP request to " + getResourceURL(), throwable);
+				return HttpResponseSnapshot.failedRequest();
+			}
+		);
+		AsyncHttpClientBackend.cancelOnFailure(responseSnapshotFuture, retriedSnapshotFuture);
+		return responseSnapshotFuture;
 	}
 
-	default int getResponseCode() {
+	/**
+	 * Makes a single request for the resource and captures the response.  A GET request is made if the response text
+	 * checks need the body and a HEAD request otherwise.  The body is not buffered: it is streamed through a
+	 * {@link ResponseTextMatcher} and the connection is closed as soon as both response texts are found.  If a shared
+	 * {@link AsyncHttpClientBackend} is set, the request is made through it instead of an HTTP URL Connection.
+	 *
+	 * @return Snapshot of the response for the resource
+	 * @throws IOException Thrown if no response is received or the body is cut off by a retryable failure
+	 * @see #isResponseContentNeeded()
+	 */
+	default HttpResponseSnapshot requestResponseSnapshot() throws IOException {
+		AsyncHttpClientBackend asyncHttpClientBackend = AsyncHttpClientBackend.getSharedInstance();
+		if (asyncHttpClientBackend != null) {
+			try {
+				return awaitResponseSnapshot(asyncHttpClientBackend.fetchResponseSnapshot(
+					getResourceURL().toURI(), isResponseContentNeeded() ? getResponseTextMatcher() : null
+				));
+			} catch (URISyntaxException e) {
+				logger.warn(getResourceURL() + " is not a valid URI - requesting with an HTTP URL Connection", e);
+			}
+		}
+
+		CheckMetrics checkMetrics = CheckMetrics.getSharedInstance();
+		long requestStartNanos = System.nanoTime();
+		if (!isResponseContentNeeded()) {
+			HttpResponseSnapshot responseSnapshot = HttpResponseSnapshot.capture(getHttpURLConnection("HEAD"), null);
+			checkMetrics.recordPhase(CheckMetrics.Phase.HEAD, requestStartNanos);
+			return responseSnapshot;
+		}
+
+		HttpURLConnection httpURLConnection = getHttpURLConnection("GET");
 		try {
-			return getHttpURLConnection().getResponseCode();
-		} catch (IOException e) {
-			logger.error("Unable to get response code for HTTP URL Connection to " + getResourceURL(), e);
-			return -1;
+			httpURLConnection.getResponseCode();
+			checkMetrics.recordPhase(CheckMetrics.Phase.FIRST_BYTE, requestStartNanos);
+
+			long bodyStartNanos = System.nanoTime();
+			ResponseTextMatch responseTextMatch;
+			try {
+				responseTextMatch = getResponseTextMatcher().match(getContentStream(httpURLConnection));
+			} catch (IOException e) {
+				if (RetryPolicy.isRetryable(e)) {
+					throw e;
+				}
+				logger.error("Unable to get content for " + getResourceURL(), e);
+				responseTextMatch = new ResponseTextMatch(false, false);
+			} finally {
+				checkMetrics.recordPhase(CheckMetrics.Phase.BODY_TRANSFER, bodyStartNanos);
+			}
+			return HttpResponseSnapshot.capture(httpURLConnection, responseTextMatch);
+		} finally {
+			httpURLConnection.disconnect();
+		}
+	}
+
+	/**
+	 * Waits for a snapshot requested through the asynchronous backend.  If the waiting thread is interrupted (e.g. the
+	 * check timed out), the request is abandoned.
+	 *
+	 * @param responseSnapshotFuture Pending snapshot of the response
+	 * @return Snapshot of the response for the resource
+	 * @throws IOException Thrown if the request failed or the waiting thread was interrupted
+	 */
+	default HttpResponseSnapshot awaitResponseSnapshot(CompletableFuture<HttpResponseSnapshot> responseSnapshotFuture)
+		throws IOException {
+
+		try {
+			return responseSnapshotFuture.get();
+		} catch (InterruptedException e) {
+			responseSnapshotFuture.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for response from " + getResourceURL());
+		} catch (ExecutionException e) {
+			throw new IOException("Unable to get response for HTTP request to " + getResourceURL(), e.getCause());
 		}
 	}
 
+	/**
+	 * Classifies a response for the retry policy: a 429 (Too Many Requests) or 503 (Service Unavailable) response is
+	 * retried after at least the delay given by its Retry-After header and any other 5xx response after the backoff
+	 * delay alone.  Any other response is final.
+	 *
+	 * @param responseSnapshot Snapshot of a response for the resource
+	 * @return RetryPolicy.ResultClassifier.NO_RETRY or the minimum delay in milliseconds before retrying
+	 */
+	default long getRetryDelayMillis(HttpResponseSnapshot responseSnapshot) {
+		int responseCode = responseSnapshot.getResponseCode();
+		if (responseCode == 429 || responseCode == HttpURLConnection.HTTP_UNAVAILABLE) {
+			return RetryPolicy.getSharedInstance().getRetryAfterMillis(responseSnapshot.getHeader("Retry-After"));
+		} else if (responseCode >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+			return 0;
+		}
+		return RetryPolicy.ResultClassifier.NO_RETRY;
+	}
+
+	/**
+	 * Returns <code>true</code> if the response body is needed to evaluate the resource's expected or error response
+	 * text; <code>false</code> otherwise
+	 *
+	 * @return True if the response snapshot should include the response body; false otherwise
+	 */
+	default boolean isResponseContentNeeded() {
+		return !getResource().getExpectedResponseText().isEmpty() || !getResource().getErrorResponseText().isEmpty();
+	}
+
+	/**
+	 * Returns a matcher for the resource's expected and error response texts.
+	 *
+	 * @return ResponseTextMatcher for the resource
+	 */
+	default ResponseTextMatcher getResponseTextMatcher() {
+		return new ResponseTextMatcher(getResource().getExpectedResponseText(), getResource().getErrorResponseText());
+	}
+
+	/**
+	 * Returns which of the resource's response texts were found in the response body captured by the response
+	 * snapshot (neither if the body was not requested as there were no response texts to look for).
+	 *
+	 * @return Response texts found in the resource's content
+	 */
+	default ResponseTextMatch getResponseTextMatch() {
+		ResponseTextMatch responseTextMatch = getResponseSnapshot().getResponseTextMatch();
+		return responseTextMatch != null ? responseTextMatch : new ResponseTextMatch(false, false);
+	}
+
+	default Date getLastModifiedDateTime() {
+		HttpResponseSnapshot responseSnapshot = getResponseSnapshot();
+		return responseSnapshot.getResponseCode() != -1 ? new Date(responseSnapshot.getLastModified()) : null;
+	}
+
+	default int getResponseCode() {
+		return getResponseSnapshot().getResponseCode();
+	}
+
 	default boolean hasExpectedContent() {
 		return !isErrorResponseTextPresent() && isExpectedResponseTextPresent();
 	}
 
 	default boolean isErrorResponseTextPresent() {
 		return !getResource().getErrorResponseText().isEmpty() &&
-			getAllContent().contains(getResource().getErrorResponseText());
+			getResponseTextMatch().isErrorResponseTextFound();
 	}
 
 	default boolean isExpectedResponseTextPresent() {
 		return getResource().getExpectedResponseText().isEmpty() ||
-			getAllContent().contains(getResource().getExpectedResponseText());
+			getResponseTextMatch().isExpectedResponseTextFound();
+	}
+
+	/**
+	 * Returns the ETag, Last-Modified and Content-Length of the response snapshot, or <code>null</code> if the
+	 * resource did not respond successfully.
+	 *
+	 * @return HTTP validators of the checked version of the resource or null
+	 */
+	@Override
+	default ResourceMetadata getResourceMetadata() {
+		HttpResponseSnapshot responseSnapshot = getResponseSnapshot();
+		if (responseSnapshot.getResponseCode() != HttpURLConnection.HTTP_OK) {
+			return null;
+		}
+
+		return ResourceMetadata.forHttp(
+			responseSnapshot.getHeader("ETag"),
+			responseSnapshot.getHeader("Last-Modified"),
+			responseSnapshot.getContentLength()
+		);
+	}
+
+	/**
+	 * Sends a conditional HEAD request with If-None-Match and If-Modified-Since built from the previous metadata and
+	 * returns <code>true</code> if the server answers 304 (Not Modified); <code>false</code> otherwise
+	 *
+	 * @param previousMetadata Metadata recorded by an earlier check of the resource
+	 * @return True if the server reports the resource as not modified; false otherwise
+	 */
+	@Override
+	default boolean isUnchangedSince(ResourceMetadata previousMetadata) {
+		Map<String, String> conditionalRequestProperties = new HashMap<>();
+		if (previousMetadata.getEntityTag() != null) {
+			conditionalRequestProperties.put("If-None-Match", previousMetadata.getEntityTag());
+		}
+		if (previousMetadata.getLastModified() != null) {
+			conditionalRequestProperties.put("If-Modified-Since", previousMetadata.getLastModified());
+		}
+		if (conditionalRequestProperties.isEmpty()) {
+			return false;
+		}
+
+		long requestStartNanos = System.nanoTime();
+		try {
+			HttpURLConnection httpURLConnection = getHttpURLConnection("HEAD", conditionalRequestProperties);
+			try {
+				return httpURLConnection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED;
+			} finally {
+				httpURLConnection.disconnect();
+				CheckMetrics.getSharedInstance().recordPhase(CheckMetrics.Phase.HEAD, requestStartNanos);
+			}
+		} catch (IOException e) {
+			logger.warn("Unable to make conditional request to " + getResourceURL(), e);
+			return false;
+		}
 	}
 
 	@Override
@@ -129,44 +395,181 @@ public interface HTTPResourceChecker extends ResourceChecker {
 		return resourceExists() && hasExpectedContent();
 	}
 
+	/**
+	 * Reads an input stream in chunks.  Chunks can be viewed as raw bytes, as decoded characters or as Strings.  The
+	 * byte and character views re-use a single buffer for every chunk (a returned buffer is only valid until the next
+	 * chunk is requested) and decoding carries its state from one chunk to the next, so a multi-byte character split
+	 * across two reads is decoded correctly.  The stream is closed once it is exhausted or can not be read.
+	 */
 	class ContentChunkGenerator implements Iterable<String> {
-		private InputStream inputStream;
+		public static final int DEFAULT_CHUNK_SIZE_IN_BYTES = 4096;
+		// Large enough to always hold the longest encoded character, so decoding can make progress every read
+		private static final int MINIMUM_CHUNK_SIZE_IN_BYTES = 16;
+
+		private final InputStream inputStream;
+		private final int chunkSizeInBytes;
+		private final Charset charset;
 
 		public ContentChunkGenerator(InputStream inputStream) {
+			this(inputStream, DEFAULT_CHUNK_SIZE_IN_BYTES, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Constructs a ContentChunkGenerator reading the stream in chunks of the given size.
+		 *
+		 * @param inputStream Stream to read
+		 * @param chunkSizeInBytes Maximum number of bytes read per chunk (at least 16)
+		 * @param charset Character set used to decode the bytes for the character and String views
+		 */
+		public ContentChunkGenerator(InputStream inputStream, int chunkSizeInBytes, Charset charset) {
+			if (chunkSizeInBytes < MINIMUM_CHUNK_SIZE_IN_BYTES) {
+				throw new IllegalArgumentException(
+					"The chunk size must be at least " + MINIMUM_CHUNK_SIZE_IN_BYTES + " bytes"
+				);
+			}
+
 			this.inputStream = inputStream;
+			this.chunkSizeInBytes = chunkSizeInBytes;
+			this.charset = charset;
 		}
 
+		/**
+		 * Returns an iterator of the content decoded into Strings, one per chunk.
+		 *
+		 * @return Iterator of decoded content chunks
+		 */
 		@Override
 		public Iterator<String> iterator() {
-			return new ContentChunkGeneratorIterator();
+			Iterator<CharBuffer> charChunkIterator = charChunks();
+			return new Iterator<String>() {
+				@Override
+				public boolean hasNext() {
+					return charChunkIterator.hasNext();
+				}
+
+				@Override
+				public String next() {
+					return charChunkIterator.next().toString();
+				}
+			};
 		}
 
-		private class ContentChunkGeneratorIterator implements Iterator<String> {
-			private String contentChunk;
+		/**
+		 * Returns an iterator of the raw content.  Every chunk is returned in the same buffer, positioned at the start of
+		 * the chunk's bytes and limited to their end.
+		 *
+		 * @return Iterator of raw content chunks sharing one buffer
+		 */
+		public Iterator<ByteBuffer> byteChunks() {
+			ByteBuffer byteBuffer = ByteBuffer.allocate(this.chunkSizeInBytes);
+			return new ChunkIterator<ByteBuffer>() {
+				@Override
+				protected ByteBuffer readChunk() throws IOException {
+					int bytesRead = inputStream.read(byteBuffer.array(), 0, byteBuffer.capacity());
+					if (bytesRead < 0) {
+						return null;
+					}
+
+					byteBuffer.clear();
+					byteBuffer.limit(bytesRead);
+					return byteBuffer;
+				}
+			};
+		}
+
+		/**
+		 * Returns an iterator of the decoded content.  Every chunk is returned in the same buffer, positioned at the start
+		 * of the chunk's characters and limited to their end.  Bytes of a character which is incomplete at the end of a
+		 * read are kept and decoded with the next read.
+		 *
+		 * @return Iterator of decoded content chunks sharing one buffer
+		 */
+		public Iterator<CharBuffer> charChunks() {
+			CharsetDecoder charsetDecoder = this.charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			ByteBuffer byteBuffer = ByteBuffer.allocate(this.chunkSizeInBytes);
+			CharBuffer charBuffer = CharBuffer.allocate(
+				(int) Math.ceil(this.chunkSizeInBytes * (double) charsetDecoder.maxCharsPerByte())
+			);
+
+			return new ChunkIterator<CharBuffer>() {
+				private boolean endOfInput;
+
+				@Override
+				protected CharBuffer readChunk() throws IOException {
+					charBuffer.clear();
+					while (charBuffer.position() == 0 && !this.endOfInput) {
+						int bytesRead = inputStream.read(
+							byteBuffer.array(), byteBuffer.position(), byteBuffer.remaining()
+						);
+						if (bytesRead < 0) {
+							this.endOfInput = true;
+						} else {
+							byteBuffer.position(byteBuffer.position() + bytesRead);
+						}
+
+						byteBuffer.flip();
+						charsetDecoder.decode(byteBuffer, charBuffer, this.endOfInput);
+						if (this.endOfInput) {
+							charsetDecoder.flush(charBuffer);
+						}
+						byteBuffer.compact();
+					}
+
+					charBuffer.flip();
+					return charBuffer.hasRemaining() ? charBuffer : null;
+				}
+			};
+		}
+
+		/**
+		 * Iterator which reads one chunk ahead, so that hasNext() may be called any number of times (or not at all)
+		 * before next().
+		 */
+		private abstract class ChunkIterator<T> implements Iterator<T> {
+			private T nextChunk;
+			private boolean finished;
+
+			/**
+			 * Reads the next chunk or returns <code>null</code> if the content is exhausted.
+			 */
+			protected abstract T readChunk() throws IOException;
 
 			@Override
 			public boolean hasNext() {
-				byte[] buffer = new byte[4096];
-				try {
-					int bytesRead;
-					if ((bytesRead = inputStream.read(buffer, 0, buffer.length)) > 0) {
-						this.contentChunk = new String(buffer, 0, bytesRead, StandardCharsets.UTF_8);
-						return true;
-					}
-				} catch (IOException e) {
-					logger.error("Unable to fetch next chunk of content from HTTP Resource", e);
+				if (this.nextChunk == null && !this.finished) {
 					try {
-						inputStream.close();
-					} catch (IOException ex) {
-						logger.error("Unable to close the input stream for HTTP Resource", e);
+						this.nextChunk = readChunk();
+					} catch (IOException e) {
+						logger.error("Unable to fetch next chunk of content from HTTP Resource", e);
+					}
+
+					if (this.nextChunk == null) {
+						this.finished = true;
+						closeInputStream();
 					}
 				}
-				return false;
+				return this.nextChunk != null;
 			}
 
 			@Override
-			public String next() {
-				return this.contentChunk;
+			public T next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException("No more content chunks from HTTP Resource");
+				}
+
+				T chunk = this.nextChunk;
+				this.nextChunk = null;
+				return chunk;
+			}
+
+			private void closeInputStream() {
+				try {
+					inputStream.close();
+				} catch (IOException e) {
+					logger.error("Unable to close the input stream for HTTP Resource", e);
+				}
 			}
 		}
 	}
@@ -0,0 +1,158 @@
+package org.reactome.release.resourcechecker;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.http.HttpResponse;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.reactome.release.resourcechecker.ResponseTextMatcher.ResponseTextMatch;
+
+/**
+ * The result of a single HTTP request for a resource: status, headers, content length, last modified time and
+ * (when the body was requested) which of the resource's response texts the body contains.  A checker captures one
+ * snapshot and evaluates all of its report methods against it rather than opening a new connection for each.
+ */
+public class HttpResponseSnapshot {
+	private static final int NO_RESPONSE_CODE = -1;
+
+	private final int responseCode;
+	private final Map<String, List<String>> headers;
+	private final long contentLength;
+	private final long lastModified;
+	private final ResponseTextMatch responseTextMatch;
+
+	HttpResponseSnapshot(
+		int responseCode,
+		Map<String, List<String>> headers,
+		long contentLength,
+		long lastModified,
+		ResponseTextMatch responseTextMatch
+	) {
+
+		this.responseCode = responseCode;
+		this.headers = headers;
+		this.contentLength = contentLength;
+		this.lastModified = lastModified;
+		this.responseTextMatch = responseTextMatch;
+	}
+
+	/**
+	 * Returns a snapshot for a request which could not be made (i.e. with a response code of -1, no headers and
+	 * neither response text found).
+	 *
+	 * @return Snapshot representing a failed request
+	 */
+	static HttpResponseSnapshot failedRequest() {
+		return new HttpResponseSnapshot(
+			NO_RESPONSE_CODE, Collections.emptyMap(), -1, 0, new ResponseTextMatch(false, false)
+		);
+	}
+
+	/**
+	 * Captures the status, headers and metadata of an HTTP URL Connection whose request has been sent.
+	 *
+	 * @param httpURLConnection Connection for which to capture the response
+	 * @param responseTextMatch Response texts found in the connection's body or <code>null</code> if the body was not
+	 * requested
+	 * @return Snapshot of the connection's response
+	 * @throws IOException Thrown if the response code can not be read from the connection
+	 */
+	static HttpResponseSnapshot capture(HttpURLConnection httpURLConnection, ResponseTextMatch responseTextMatch)
+		throws IOException {
+
+		return new HttpResponseSnapshot(
+			httpURLConnection.getResponseCode(),
+			httpURLConnection.getHeaderFields(),
+			httpURLConnection.getContentLengthLong(),
+			httpURLConnection.getLastModified(),
+			responseTextMatch
+		);
+	}
+
+	/**
+	 * Captures the status, headers and metadata of a response received by the asynchronous HTTP client.
+	 *
+	 * @param httpResponse Response for which to capture the snapshot
+	 * @param responseTextMatch Response texts found in the response's body or <code>null</code> if the body was not
+	 * requested
+	 * @return Snapshot of the response
+	 */
+	static HttpResponseSnapshot capture(HttpResponse<?> httpResponse, ResponseTextMatch responseTextMatch) {
+		return new HttpResponseSnapshot(
+			httpResponse.statusCode(),
+			httpResponse.headers().map(),
+			httpResponse.headers().firstValueAsLong("Content-Length").orElse(-1),
+			parseHttpDate(httpResponse.headers().firstValue("Last-Modified").orElse(null)),
+			responseTextMatch
+		);
+	}
+
+	private static long parseHttpDate(String httpDate) {
+		if (httpDate == null) {
+			return 0;
+		}
+
+		try {
+			return ZonedDateTime.parse(httpDate, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+		} catch (DateTimeParseException e) {
+			return 0;
+		}
+	}
+
+	public int getResponseCode() {
+		return this.responseCode;
+	}
+
+	public Map<String, List<String>> getHeaders() {
+		return Collections.unmodifiableMap(this.headers);
+	}
+
+	/**
+	 * Returns the value of the first response header with the given name (ignoring case) or <code>null</code> if
+	 * the header was not sent.
+	 *
+	 * @param headerName Name of the header
+	 * @return Value of the header or null
+	 */
+	public String getHeader(String headerName) {
+		for (Map.Entry<String, List<String>> header : this.headers.entrySet()) {
+			if (headerName.equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+				return header.getValue().get(0);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the content length of the response in bytes or -1 if it is not known.
+	 *
+	 * @return Content length in bytes
+	 */
+	public long getContentLength() {
+		return this.contentLength;
+	}
+
+	/**
+	 * Returns the last modified time of the resource in milliseconds since the epoch or 0 if it is not known.
+	 *
+	 * @return Last modified time in milliseconds
+	 */
+	public long getLastModified() {
+		return this.lastModified;
+	}
+
+	/**
+	 * Returns which of the resource's response texts were found in the response body or <code>null</code> if the body
+	 * was not requested.
+	 *
+	 * @return Response texts found in the body or null
+	 */
+	public ResponseTextMatch getResponseTextMatch() {
+		return this.responseTextMatch;
+	}
+}
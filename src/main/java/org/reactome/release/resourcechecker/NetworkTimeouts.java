@@ -0,0 +1,87 @@
+package org.reactome.release.resourcechecker;
+
+import java.net.URLConnection;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.net.ftp.FTPClient;
+
+/**
+ * Connect and read timeouts applied to every HTTP connection and FTP session the checkers open.  The engine's check
+ * timeout cancels a check by interrupting its thread, which does not unblock a socket read; these timeouts make a
+ * stalled connect or read fail instead, so the thread of a cancelled check is released rather than held by a server
+ * which stops responding.
+ */
+public class NetworkTimeouts {
+	private static final long DEFAULT_CHECK_TIMEOUT_SECONDS = 300;
+	private static final long MAX_CONNECT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+	private static volatile NetworkTimeouts sharedInstance = new NetworkTimeouts(DEFAULT_CHECK_TIMEOUT_SECONDS);
+
+	private final int connectTimeoutMillis;
+	private final int readTimeoutMillis;
+
+	/**
+	 * Constructs NetworkTimeouts derived from the time a whole check may take: no single read may block for longer
+	 * than the check itself and connecting may take at most 30 seconds of it.
+	 *
+	 * @param checkTimeoutSeconds Number of seconds a single check may run before it is reported as timed out
+	 */
+	public NetworkTimeouts(long checkTimeoutSeconds) {
+		if (checkTimeoutSeconds <= 0) {
+			throw new IllegalArgumentException("Check timeout must be a positive value");
+		}
+
+		long checkTimeoutMillis = Math.min(TimeUnit.SECONDS.toMillis(checkTimeoutSeconds), Integer.MAX_VALUE);
+		this.connectTimeoutMillis = (int) Math.min(checkTimeoutMillis, MAX_CONNECT_TIMEOUT_MILLIS);
+		this.readTimeoutMillis = (int) checkTimeoutMillis;
+	}
+
+	/**
+	 * Returns the timeouts applied by the checkers, derived from the default check timeout if none have been set.
+	 *
+	 * @return Shared NetworkTimeouts
+	 * @see #setSharedInstance(NetworkTimeouts)
+	 */
+	public static NetworkTimeouts getSharedInstance() {
+		return sharedInstance;
+	}
+
+	/**
+	 * Sets the timeouts applied by the checkers to connections opened from now on.
+	 *
+	 * @param networkTimeouts Timeouts to share
+	 */
+	public static void setSharedInstance(NetworkTimeouts networkTimeouts) {
+		sharedInstance = networkTimeouts;
+	}
+
+	public int getConnectTimeoutMillis() {
+		return this.connectTimeoutMillis;
+	}
+
+	public int getReadTimeoutMillis() {
+		return this.readTimeoutMillis;
+	}
+
+	/**
+	 * Sets the connect and read timeouts of a connection which has not yet connected.
+	 *
+	 * @param urlConnection Connection to configure
+	 */
+	public void applyTo(URLConnection urlConnection) {
+		urlConnection.setConnectTimeout(this.connectTimeoutMillis);
+		urlConnection.setReadTimeout(this.readTimeoutMillis);
+	}
+
+	/**
+	 * Sets the connect timeout and the read timeouts of the control and data connections of an FTP client which has
+	 * not yet connected.
+	 *
+	 * @param ftpClient FTP client to configure
+	 */
+	public void applyTo(FTPClient ftpClient) {
+		ftpClient.setConnectTimeout(this.connectTimeoutMillis);
+		ftpClient.setDefaultTimeout(this.readTimeoutMillis);
+		ftpClient.setDataTimeout(this.readTimeoutMillis);
+	}
+}
@@ -0,0 +1,84 @@
+package org.reactome.release.resourcechecker;
+
+import java.util.function.Function;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+/**
+ * Wait condition deciding when a loaded web page is ready to be checked.  The page is ready as soon as either its
+ * expected or its error response text appears in the page source.  Otherwise, it is ready once the document has
+ * finished loading and the network has been idle (no new resources requested by the page) for a quiet period, as
+ * the text is then not going to appear.
+ */
+public class PageReadinessCondition implements Function<WebDriver, Boolean> {
+	private static final long NETWORK_QUIET_PERIOD_MILLIS = 500;
+
+	private static final String DOCUMENT_READY_STATE_SCRIPT = "return document.readyState;";
+	private static final String RESOURCE_REQUEST_COUNT_SCRIPT =
+		"return window.performance ? window.performance.getEntriesByType('resource').length : 0;";
+
+	private final String expectedResponseText;
+	private final String errorResponseText;
+
+	private long lastResourceRequestCount = -1;
+	private long lastNetworkActivityTime;
+
+	/**
+	 * Constructs a PageReadinessCondition looking for the given response texts (either may be empty).
+	 *
+	 * @param expectedResponseText Text whose presence means the page has rendered the expected content
+	 * @param errorResponseText Text whose presence means the page has rendered an error
+	 */
+	public PageReadinessCondition(String expectedResponseText, String errorResponseText) {
+		this.expectedResponseText = expectedResponseText;
+		this.errorResponseText = errorResponseText;
+	}
+
+	@Override
+	public Boolean apply(WebDriver webDriver) {
+		String pageSource = webDriver.getPageSource();
+		if (containsText(pageSource, this.expectedResponseText) || containsText(pageSource, this.errorResponseText)) {
+			return true;
+		}
+
+		return isDocumentComplete(webDriver) && isNetworkIdle(webDriver);
+	}
+
+	private boolean containsText(String pageSource, String text) {
+		return !text.isEmpty() && pageSource.contains(text);
+	}
+
+	private boolean isDocumentComplete(WebDriver webDriver) {
+		Object readyState = executeScript(webDriver, DOCUMENT_READY_STATE_SCRIPT);
+		return readyState == null || "complete".equals(readyState);
+	}
+
+	private boolean isNetworkIdle(WebDriver webDriver) {
+		Object resourceRequestCountValue = executeScript(webDriver, RESOURCE_REQUEST_COUNT_SCRIPT);
+		long resourceRequestCount = resourceRequestCountValue instanceof Number ?
+			((Number) resourceRequestCountValue).longValue() : 0;
+
+		long currentTime = System.currentTimeMillis();
+		if (resourceRequestCount != this.lastResourceRequestCount) {
+			this.lastResourceRequestCount = resourceRequestCount;
+			this.lastNetworkActivityTime = currentTime;
+			return false;
+		}
+
+		return currentTime - this.lastNetworkActivityTime >= NETWORK_QUIET_PERIOD_MILLIS;
+	}
+
+	private Object executeScript(WebDriver webDriver, String script) {
+		if (!(webDriver instanceof JavascriptExecutor)) {
+			return null;
+		}
+
+		try {
+			return ((JavascriptExecutor) webDriver).executeScript(script);
+		} catch (WebDriverException e) {
+			return null;
+		}
+	}
+}
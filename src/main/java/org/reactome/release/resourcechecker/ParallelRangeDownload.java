@@ -0,0 +1,197 @@
+package org.reactome.release.resourcechecker;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Downloads a file over several HTTP connections at once, each fetching one byte range of the file and writing it at
+ * its offset in a file preallocated to the full length.  Each range is retried on its own, from the last byte it
+ * wrote, if its connection fails.  Only usable when the server accepts byte ranges and reports the file's length.
+ */
+class ParallelRangeDownload {
+	private static final Logger logger = LogManager.getLogger();
+
+	private static final int RANGE_BUFFER_SIZE_IN_BYTES = 1024 * 1024;
+	private static final int MAX_RANGE_ATTEMPTS = 3;
+
+	private final HTTPResourceChecker httpResourceChecker;
+	private final long contentLength;
+	private final String validator;
+	private final int numberOfRanges;
+
+	/**
+	 * Constructs a ParallelRangeDownload of the checker's resource.
+	 *
+	 * @param httpResourceChecker Checker whose resource is downloaded (and which opens the HTTP connections)
+	 * @param contentLength Length of the file in bytes
+	 * @param validator ETag or Last-Modified value sent with If-Range so a file changed mid-download is detected
+	 * @param numberOfRanges Number of byte ranges fetched concurrently
+	 */
+	ParallelRangeDownload(
+		HTTPResourceChecker httpResourceChecker, long contentLength, String validator, int numberOfRanges) {
+
+		this.httpResourceChecker = httpResourceChecker;
+		this.contentLength = contentLength;
+		this.validator = validator;
+		this.numberOfRanges = numberOfRanges;
+	}
+
+	/**
+	 * Returns <code>true</code> if the response advertises byte range support and a known length at least as large as
+	 * the minimum size worth splitting; <code>false</code> otherwise
+	 *
+	 * @param responseSnapshot Response to a request for the file
+	 * @param minimumSizeInBytes Smallest file size for which a parallel download is used
+	 * @return True if the file can and should be downloaded in parallel ranges; false otherwise
+	 */
+	static boolean isSupported(HttpResponseSnapshot responseSnapshot, long minimumSizeInBytes) {
+		return "bytes".equalsIgnoreCase(responseSnapshot.getHeader("Accept-Ranges")) &&
+			responseSnapshot.getContentLength() >= minimumSizeInBytes;
+	}
+
+	/**
+	 * Downloads all ranges concurrently into the file, which is created (or replaced) with the full content length.
+	 *
+	 * @param file File to which the content is written
+	 * @throws IOException Thrown if any range can not be downloaded within its allowed attempts
+	 * @throws InterruptedIOException Thrown if the downloading thread is interrupted, after the ranges still being
+	 * fetched are abandoned
+	 */
+	void downloadTo(Path file) throws IOException {
+		ExecutorService rangeExecutor = Executors.newFixedThreadPool(this.numberOfRanges);
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw")) {
+			randomAccessFile.setLength(this.contentLength);
+			FileChannel fileChannel = randomAccessFile.getChannel();
+
+			List<Future<?>> rangeFutures = new ArrayList<>();
+			long rangeSize = (this.contentLength + this.numberOfRanges - 1) / this.numberOfRanges;
+			for (long rangeStart = 0; rangeStart < this.contentLength; rangeStart += rangeSize) {
+				long rangeEnd = Math.min(rangeStart + rangeSize, this.contentLength) - 1;
+				long start = rangeStart;
+				rangeFutures.add(rangeExecutor.submit(() -> {
+					downloadRange(fileChannel, start, rangeEnd);
+					return null;
+				}));
+			}
+
+			for (Future<?> rangeFuture : rangeFutures) {
+				awaitRange(rangeFuture);
+			}
+		} finally {
+			rangeExecutor.shutdownNow();
+		}
+	}
+
+	private void downloadRange(FileChannel fileChannel, long rangeStart, long rangeEnd) throws IOException {
+		long position = rangeStart;
+		for (int attempt = 1; ; attempt++) {
+			try {
+				position = transferRange(fileChannel, position, rangeEnd);
+				return;
+			} catch (IOException e) {
+				if (attempt >= MAX_RANGE_ATTEMPTS || Thread.currentThread().isInterrupted()) {
+					throw e;
+				}
+				if (e instanceof RangeInterruptedException) {
+					position = ((RangeInterruptedException) e).position;
+				}
+				CheckMetrics.getSharedInstance().recordRetry();
+				logger.warn("Range " + rangeStart + "-" + rangeEnd + " of " +
+					this.httpResourceChecker.getResourceURL() + " interrupted at byte " + position + " - retrying", e);
+			}
+		}
+	}
+
+	private long transferRange(FileChannel fileChannel, long rangeStart, long rangeEnd) throws IOException {
+		Map<String, String> requestProperties = new HashMap<>();
+		requestProperties.put("Range", "bytes=" + rangeStart + "-" + rangeEnd);
+		if (this.validator != null) {
+			requestProperties.put("If-Range", this.validator);
+		}
+
+		long transferStartNanos = System.nanoTime();
+		HttpURLConnection httpURLConnection = this.httpResourceChecker.getHttpURLConnection("GET", requestProperties);
+		long position = rangeStart;
+		// Read as a plain stream, as interrupting a thread reading from a channel wrapping it blocks until the read
+		// returns
+		try (InputStream rangeStream = this.httpResourceChecker.getContentStream(httpURLConnection)) {
+
+			if (httpURLConnection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL) {
+				throw new IOException("Server did not return range " + rangeStart + "-" + rangeEnd + " of " +
+					this.httpResourceChecker.getResourceURL() + " (response code " +
+					httpURLConnection.getResponseCode() + ")");
+			}
+
+			byte[] buffer = new byte[RANGE_BUFFER_SIZE_IN_BYTES];
+			while (position <= rangeEnd) {
+				int bytesRead = rangeStream.read(buffer, 0, (int) Math.min(buffer.length, rangeEnd - position + 1));
+				if (bytesRead < 0) {
+					break;
+				}
+				ByteBuffer bufferedBytes = ByteBuffer.wrap(buffer, 0, bytesRead);
+				while (bufferedBytes.hasRemaining()) {
+					position += fileChannel.write(bufferedBytes, position);
+				}
+			}
+		} catch (IOException e) {
+			throw new RangeInterruptedException(e, position);
+		} finally {
+			httpURLConnection.disconnect();
+			CheckMetrics checkMetrics = CheckMetrics.getSharedInstance();
+			checkMetrics.addBytesTransferred(position - rangeStart);
+			checkMetrics.recordPhase(CheckMetrics.Phase.BODY_TRANSFER, transferStartNanos);
+		}
+
+		if (position <= rangeEnd) {
+			throw new RangeInterruptedException(
+				new IOException("Range ended early at byte " + position + " of " + rangeEnd), position
+			);
+		}
+		return position;
+	}
+
+	private void awaitRange(Future<?> rangeFuture) throws IOException {
+		try {
+			rangeFuture.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			InterruptedIOException interruptedIOException = new InterruptedIOException(
+				"Interrupted while downloading ranges of " + this.httpResourceChecker.getResourceURL()
+			);
+			interruptedIOException.initCause(e);
+			throw interruptedIOException;
+		} catch (ExecutionException e) {
+			throw new IOException("Unable to download range of " + this.httpResourceChecker.getResourceURL(),
+				e.getCause());
+		}
+	}
+
+	/**
+	 * Range transfer failure which carries the position reached, so the retry can continue from it.
+	 */
+	private static class RangeInterruptedException extends IOException {
+		private final long position;
+
+		private RangeInterruptedException(IOException cause, long position) {
+			super(cause.getMessage(), cause);
+			this.position = position;
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package org.reactome.release.resourcechecker;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+
+/**
+ * A download written to a ".part" file next to its destination, with a ".part.checkpoint" sidecar recording how many
+ * bytes have been completed and the validator (e.g. ETag, Last-Modified or FTP MDTM) of the remote file they came
+ * from.  If a download is interrupted, a later attempt for the same unchanged remote file resumes from the recorded
+ * offset instead of starting again from byte zero.  The part file is moved to the destination once complete.
+ */
+class PartialDownload {
+	private static final long TRANSFER_CHUNK_SIZE_IN_BYTES = 8 * 1024 * 1024;
+	private static final int TRANSFER_BUFFER_SIZE_IN_BYTES = 64 * 1024;
+
+	private static final String VALIDATOR_PROPERTY = "validator";
+	private static final String BYTES_COMPLETED_PROPERTY = "bytesCompleted";
+
+	private final Path destination;
+	private final Path partFile;
+	private final Path checkpointFile;
+
+	PartialDownload(Path destination) {
+		this.destination = destination;
+		this.partFile = destination.resolveSibling(destination.getFileName() + ".part");
+		this.checkpointFile = destination.resolveSibling(destination.getFileName() + ".part.checkpoint");
+	}
+
+	Path getPartFile() {
+		return this.partFile;
+	}
+
+	/**
+	 * Returns the offset from which the download can resume: the number of bytes recorded as completed if the
+	 * checkpoint was written for the same validator, or 0 if there is no usable checkpoint (in which case any previous
+	 * partial download is discarded).  A <code>null</code> or empty validator never resumes, as there is no way to
+	 * tell whether the remote file has changed.
+	 *
+	 * @param validator Validator of the remote file as it is now
+	 * @return Offset in bytes from which to resume the download
+	 * @throws IOException Thrown if the checkpoint or part file can not be read or discarded
+	 */
+	long getResumeOffset(String validator) throws IOException {
+		Properties checkpoint = readCheckpoint();
+		if (validator == null || validator.isEmpty() || checkpoint == null ||
+			!validator.equals(checkpoint.getProperty(VALIDATOR_PROPERTY)) || !Files.exists(this.partFile)) {
+
+			discard();
+			return 0;
+		}
+
+		long bytesCompleted = Math.min(
+			Long.parseLong(checkpoint.getProperty(BYTES_COMPLETED_PROPERTY, "0")),
+			Files.size(this.partFile)
+		);
+		try (FileChannel partFileChannel = FileChannel.open(this.partFile, StandardOpenOption.WRITE)) {
+			partFileChannel.truncate(bytesCompleted);
+		}
+		return bytesCompleted;
+	}
+
+	/**
+	 * Writes the content to the part file starting at the offset (truncating anything after it), recording a
+	 * checkpoint after each chunk so an interruption loses at most one chunk of progress.
+	 *
+	 * @param content Stream of the remote file's content from the offset onwards
+	 * @param offset Position in the part file at which the content starts
+	 * @param validator Validator of the remote file the content comes from
+	 * @return Total number of bytes in the part file once the content is exhausted
+	 * @throws IOException Thrown if the content can not be read or the part file can not be written
+	 */
+	long writeFrom(InputStream content, long offset, String validator) throws IOException {
+		long transferStartNanos = System.nanoTime();
+		long position = offset;
+		// The content is read as a plain stream: wrapping it in a channel would make interrupting this thread (e.g. a
+		// timed out check being cancelled) block on the stream until its read returns
+		try (FileChannel partFileChannel = FileChannel.open(
+			this.partFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+
+			partFileChannel.truncate(offset);
+
+			byte[] buffer = new byte[TRANSFER_BUFFER_SIZE_IN_BYTES];
+			long checkpointPosition = position;
+			int bytesRead;
+			while ((bytesRead = content.read(buffer)) >= 0) {
+				ByteBuffer bufferedBytes = ByteBuffer.wrap(buffer, 0, bytesRead);
+				while (bufferedBytes.hasRemaining()) {
+					position += partFileChannel.write(bufferedBytes, position);
+				}
+				if (position - checkpointPosition >= TRANSFER_CHUNK_SIZE_IN_BYTES) {
+					writeCheckpoint(validator, position);
+					checkpointPosition = position;
+				}
+			}
+		} finally {
+			CheckMetrics checkMetrics = CheckMetrics.getSharedInstance();
+			checkMetrics.addBytesTransferred(position - offset);
+			checkMetrics.recordPhase(CheckMetrics.Phase.BODY_TRANSFER, transferStartNanos);
+			writeCheckpoint(validator, position);
+		}
+		return position;
+	}
+
+	/**
+	 * Moves the completed part file to the destination (replacing it if it exists) and removes the checkpoint.
+	 *
+	 * @throws IOException Thrown if the part file can not be moved or the checkpoint removed
+	 */
+	void complete() throws IOException {
+		Files.move(this.partFile, this.destination, StandardCopyOption.REPLACE_EXISTING);
+		Files.deleteIfExists(this.checkpointFile);
+	}
+
+	/**
+	 * Removes the part file and its checkpoint.
+	 *
+	 * @throws IOException Thrown if either file exists and can not be removed
+	 */
+	void discard() throws IOException {
+		Files.deleteIfExists(this.partFile);
+		Files.deleteIfExists(this.checkpointFile);
+	}
+
+	private Properties readCheckpoint() throws IOException {
+		if (!Files.exists(this.checkpointFile)) {
+			return null;
+		}
+
+		Properties checkpoint = new Properties();
+		try (Reader checkpointReader = Files.newBufferedReader(this.checkpointFile, StandardCharsets.UTF_8)) {
+			checkpoint.load(checkpointReader);
+		}
+		return checkpoint;
+	}
+
+	private void writeCheckpoint(String validator, long bytesCompleted) throws IOException {
+		if (validator == null || validator.isEmpty()) {
+			return;
+		}
+
+		Properties checkpoint = new Properties();
+		checkpoint.setProperty(VALIDATOR_PROPERTY, validator);
+		checkpoint.setProperty(BYTES_COMPLETED_PROPERTY, Long.toString(bytesCompleted));
+		try (Writer checkpointWriter = Files.newBufferedWriter(this.checkpointFile, StandardCharsets.UTF_8)) {
+			checkpoint.store(checkpointWriter, "Partial download of " + this.destination.getFileName());
+		}
+	}
+}
@@ -0,0 +1,215 @@
+package org.reactome.release.resourcechecker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * A checksum file published by a provider alongside its data files, read into a map of file name to expected
+ * checksum.  Three formats are understood: metalink XML (e.g. UniProt's RELEASE.metalink), BSD <code>sum</code>
+ * output of checksum, block count and file name (e.g. Ensembl's CHECKSUMS) and md5sum/sha1sum/sha256sum output of
+ * hexadecimal digest and file name.  Each file is fetched once per run however many resources refer to it.
+ */
+class ProviderChecksumFile {
+	private static final Map<String, CompletableFuture<Map<String, ExpectedChecksum>>> urlToChecksumsMap =
+		new ConcurrentHashMap<>();
+
+	private ProviderChecksumFile() {}
+
+	/**
+	 * Returns the expected checksums listed in the checksum file, fetching and parsing it if it has not already been
+	 * read during this run.  A checksum file which can not be read is not cached, so a later resource retries it.
+	 *
+	 * @param checksumFileURL HTTP(S) or FTP URL of the checksum file
+	 * @return Map of file name to the expected checksum of the file
+	 * @throws IOException Thrown if the checksum file can not be fetched or parsed
+	 */
+	static Map<String, ExpectedChecksum> getChecksums(URL checksumFileURL) throws IOException {
+		String checksumFileKey = checksumFileURL.toString();
+		CompletableFuture<Map<String, ExpectedChecksum>> newChecksumsFuture = new CompletableFuture<>();
+		CompletableFuture<Map<String, ExpectedChecksum>> checksumsFuture =
+			urlToChecksumsMap.putIfAbsent(checksumFileKey, newChecksumsFuture);
+
+		if (checksumsFuture == null) {
+			try {
+				newChecksumsFuture.complete(parse(fetch(checksumFileURL)));
+			} catch (IOException | RuntimeException e) {
+				urlToChecksumsMap.remove(checksumFileKey, newChecksumsFuture);
+				newChecksumsFuture.completeExceptionally(e);
+				throw e;
+			}
+			checksumsFuture = newChecksumsFuture;
+		}
+
+		try {
+			return checksumsFuture.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for checksum file " + checksumFileURL, e);
+		} catch (ExecutionException e) {
+			throw new IOException("Unable to read checksum file " + checksumFileURL, e.getCause());
+		}
+	}
+
+	private static String fetch(URL checksumFileURL) throws IOException {
+		URLConnection checksumFileConnection = checksumFileURL.openConnection();
+		NetworkTimeouts.getSharedInstance().applyTo(checksumFileConnection);
+		try (
+			InputStream checksumFileStream = checksumFileConnection.getInputStream();
+			BufferedReader checksumFileReader = new BufferedReader(
+				new InputStreamReader(checksumFileStream, StandardCharsets.UTF_8)
+			)
+		) {
+			return checksumFileReader.lines().collect(Collectors.joining("\n"));
+		}
+	}
+
+	private static Map<String, ExpectedChecksum> parse(String checksumFileContent) throws IOException {
+		String trimmedContent = checksumFileContent.trim();
+		if (trimmedContent.startsWith("<")) {
+			return parseMetalink(trimmedContent);
+		}
+
+		Map<String, ExpectedChecksum> fileNameToChecksumMap = new HashMap<>();
+		for (String line : trimmedContent.split("\n")) {
+			String[] fields = line.trim().split("\\s+");
+			if (fields.length == 3 && fields[0].matches("\\d+") && fields[1].matches("\\d+")) {
+				fileNameToChecksumMap.put(
+					getFileName(fields[2]),
+					new ExpectedChecksum(
+						ChecksumAlgorithm.BSD_SUM, Integer.parseInt(fields[0]) + " " + Long.parseLong(fields[1])
+					)
+				);
+			} else if (fields.length == 2 && fields[0].matches("[0-9A-Fa-f]+")) {
+				fileNameToChecksumMap.put(
+					getFileName(fields[1]),
+					new ExpectedChecksum(ChecksumAlgorithm.fromHexadecimalChecksum(fields[0]), fields[0])
+				);
+			}
+		}
+		return Collections.unmodifiableMap(fileNameToChecksumMap);
+	}
+
+	private static Map<String, ExpectedChecksum> parseMetalink(String metalinkContent) throws IOException {
+		Document metalinkDocument;
+		try {
+			DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+			documentBuilderFactory.setNamespaceAware(true);
+			documentBuilderFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+			documentBuilderFactory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+			metalinkDocument = documentBuilderFactory.newDocumentBuilder().parse(
+				new InputSource(new StringReader(metalinkContent))
+			);
+		} catch (ParserConfigurationException | SAXException e) {
+			throw new IOException("Unable to parse metalink checksum file", e);
+		}
+
+		Map<String, ExpectedChecksum> fileNameToChecksumMap = new HashMap<>();
+		NodeList fileElements = metalinkDocument.getElementsByTagNameNS("*", "file");
+		for (int fileIndex = 0; fileIndex < fileElements.getLength(); fileIndex++) {
+			Element fileElement = (Element) fileElements.item(fileIndex);
+			ExpectedChecksum strongestChecksum = null;
+
+			NodeList hashElements = fileElement.getElementsByTagNameNS("*", "hash");
+			for (int hashIndex = 0; hashIndex < hashElements.getLength(); hashIndex++) {
+				Element hashElement = (Element) hashElements.item(hashIndex);
+				ChecksumAlgorithm checksumAlgorithm;
+				try {
+					checksumAlgorithm = ChecksumAlgorithm.fromName(hashElement.getAttribute("type"));
+				} catch (IllegalArgumentException e) {
+					continue;
+				}
+				if (checksumAlgorithm == ChecksumAlgorithm.BSD_SUM) {
+					continue;
+				}
+
+				if (strongestChecksum == null ||
+					checksumAlgorithm.compareTo(strongestChecksum.getChecksumAlgorithm()) > 0) {
+					strongestChecksum = new ExpectedChecksum(checksumAlgorithm, hashElement.getTextContent().trim());
+				}
+			}
+
+			if (strongestChecksum != null) {
+				fileNameToChecksumMap.put(getFileName(fileElement.getAttribute("name")), strongestChecksum);
+			}
+		}
+		return Collections.unmodifiableMap(fileNameToChecksumMap);
+	}
+
+	private static String getFileName(String filePath) {
+		String fileName = filePath.startsWith("*") ? filePath.substring(1) : filePath;
+		return fileName.substring(fileName.lastIndexOf('/') + 1);
+	}
+
+	/**
+	 * A checksum published for a file and the algorithm which produced it.
+	 */
+	static class ExpectedChecksum {
+		private final ChecksumAlgorithm checksumAlgorithm;
+		private final String checksum;
+
+		ExpectedChecksum(ChecksumAlgorithm checksumAlgorithm, String checksum) {
+			this.checksumAlgorithm = checksumAlgorithm;
+			this.checksum = checksum;
+		}
+
+		ChecksumAlgorithm getChecksumAlgorithm() {
+			return this.checksumAlgorithm;
+		}
+
+		String getChecksum() {
+			return this.checksum;
+		}
+
+		/**
+		 * Returns <code>true</code> if the computed checksum is the same as this one (ignoring the case of hexadecimal
+		 * digits, and the zero padding and spacing of a BSD sum checksum and block count); <code>false</code>
+		 * otherwise
+		 *
+		 * @param computedChecksum Checksum computed with this checksum's algorithm
+		 * @return True if the checksums match; false otherwise
+		 */
+		boolean matches(String computedChecksum) {
+			if (this.checksumAlgorithm == ChecksumAlgorithm.BSD_SUM) {
+				return normalizeBsdSum(this.checksum).equals(normalizeBsdSum(computedChecksum));
+			}
+
+			return this.checksum.equalsIgnoreCase(computedChecksum);
+		}
+
+		/**
+		 * Returns the BSD sum checksum and block count without leading zeros and separated by a single space (e.g.
+		 * "4567 3" from sum's "04567     3"), or the checksum trimmed if it is not in that form.
+		 */
+		private static String normalizeBsdSum(String bsdSumChecksum) {
+			String[] fields = bsdSumChecksum.trim().split("\\s+");
+			if (fields.length != 2 || !fields[0].matches("\\d+") || !fields[1].matches("\\d+")) {
+				return bsdSumChecksum.trim();
+			}
+
+			return Long.parseLong(fields[0]) + " " + Long.parseLong(fields[1]);
+		}
+	}
+}
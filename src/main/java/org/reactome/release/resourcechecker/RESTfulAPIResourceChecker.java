@@ -8,6 +8,7 @@ import org.reactome.release.Resource;
 
 public class RESTfulAPIResourceChecker implements HTTPResourceChecker {
 	private Resource resource;
+	private final ResponseSnapshotHolder responseSnapshotHolder = new ResponseSnapshotHolder(this);
 
 	public RESTfulAPIResourceChecker(Resource resource) {
 		this.resource = resource;
@@ -18,6 +19,11 @@ public class RESTfulAPIResourceChecker implements HTTPResourceChecker {
 		return this.resource;
 	}
 
+	@Override
+	public ResponseSnapshotHolder getResponseSnapshotHolder() {
+		return this.responseSnapshotHolder;
+	}
+
 	public String getContentsAsJSON() {
 		return getContents("json");
 	}
@@ -12,6 +12,7 @@ import org.reactome.release.Resource;
 
 public interface ResourceChecker {
 	Logger logger = LogManager.getLogger();
+	Gson prettyPrintingGson = new GsonBuilder().setPrettyPrinting().create();
 
 	Resource getResource();
 
@@ -27,12 +28,32 @@ public interface ResourceChecker {
 		JsonObject resourceJson = getResource().getResourceAsJsonObject().deepCopy();
 		resourceJson.add("Report", getReport());
 
-		Gson gson = new GsonBuilder().setPrettyPrinting().create();
-		return gson.toJson(resourceJson);
+		return prettyPrintingGson.toJson(resourceJson);
 	}
 
 	boolean resourcePassesAllChecks();
 
+	/**
+	 * Returns the validators identifying the version of the resource seen by this checker, used to tell on a later
+	 * run whether the resource has changed.  Returns <code>null</code> if the resource type has no such validators.
+	 *
+	 * @return Metadata of the checked version of the resource or null
+	 */
+	default ResourceMetadata getResourceMetadata() {
+		return null;
+	}
+
+	/**
+	 * Returns <code>true</code> if the resource can be shown, more cheaply than by checking it in full, to be unchanged
+	 * since the given metadata was recorded; <code>false</code> otherwise (including if it can not be determined)
+	 *
+	 * @param previousMetadata Metadata recorded by an earlier check of the resource
+	 * @return True if the resource has not changed since the earlier check; false otherwise
+	 */
+	default boolean isUnchangedSince(ResourceMetadata previousMetadata) {
+		return false;
+	}
+
 	default String getResourceName() {
 		return getResource().getResourceName();
 	};
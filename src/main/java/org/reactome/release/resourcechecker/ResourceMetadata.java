@@ -0,0 +1,132 @@
+package org.reactome.release.resourcechecker;
+
+import java.util.Objects;
+
+/**
+ * Validators identifying a version of a remote resource: the HTTP ETag, Last-Modified and Content-Length headers or
+ * the FTP modification time (MDTM) and size.  Any value not reported by the server is <code>null</code> (or -1 for
+ * sizes).  Used to tell whether a resource has changed since it was last checked.
+ */
+public class ResourceMetadata {
+	private final String entityTag;
+	private final String lastModified;
+	private final long contentLength;
+	private final String ftpModificationTime;
+	private final long ftpSize;
+
+	private ResourceMetadata(
+		String entityTag, String lastModified, long contentLength, String ftpModificationTime, long ftpSize) {
+
+		this.entityTag = entityTag;
+		this.lastModified = lastModified;
+		this.contentLength = contentLength;
+		this.ftpModificationTime = ftpModificationTime;
+		this.ftpSize = ftpSize;
+	}
+
+	/**
+	 * Creates metadata from the validators of an HTTP response.
+	 *
+	 * @param entityTag Value of the ETag header or null
+	 * @param lastModified Value of the Last-Modified header or null
+	 * @param contentLength Value of the Content-Length header or -1
+	 * @return ResourceMetadata for an HTTP resource
+	 */
+	public static ResourceMetadata forHttp(String entityTag, String lastModified, long contentLength) {
+		return new ResourceMetadata(entityTag, lastModified, contentLength, null, -1);
+	}
+
+	/**
+	 * Creates metadata from the modification time and size of an FTP file.
+	 *
+	 * @param ftpModificationTime Modification time reported by the MDTM command or null
+	 * @param ftpSize Size of the file in bytes or -1
+	 * @return ResourceMetadata for an FTP resource
+	 */
+	public static ResourceMetadata forFtp(String ftpModificationTime, long ftpSize) {
+		return new ResourceMetadata(null, null, -1, ftpModificationTime, ftpSize);
+	}
+
+	/**
+	 * Creates metadata from all validator values (e.g. when read back from a cache).
+	 *
+	 * @param entityTag HTTP ETag or null
+	 * @param lastModified HTTP Last-Modified or null
+	 * @param contentLength HTTP Content-Length or -1
+	 * @param ftpModificationTime FTP modification time or null
+	 * @param ftpSize FTP file size or -1
+	 * @return ResourceMetadata with the given values
+	 */
+	public static ResourceMetadata of(
+		String entityTag, String lastModified, long contentLength, String ftpModificationTime, long ftpSize) {
+
+		return new ResourceMetadata(entityTag, lastModified, contentLength, ftpModificationTime, ftpSize);
+	}
+
+	public String getEntityTag() {
+		return this.entityTag;
+	}
+
+	public String getLastModified() {
+		return this.lastModified;
+	}
+
+	public long getContentLength() {
+		return this.contentLength;
+	}
+
+	public String getFtpModificationTime() {
+		return this.ftpModificationTime;
+	}
+
+	public long getFtpSize() {
+		return this.ftpSize;
+	}
+
+	/**
+	 * Returns <code>true</code> if the metadata has at least one validator which can show the resource is unchanged;
+	 * <code>false</code> otherwise
+	 *
+	 * @return True if the metadata can be used to validate the resource; false otherwise
+	 */
+	public boolean hasValidator() {
+		return this.entityTag != null || this.lastModified != null || this.ftpModificationTime != null;
+	}
+
+	/**
+	 * Returns <code>true</code> if the FTP modification time and size of this metadata both match those of the other
+	 * metadata; <code>false</code> otherwise (including if this metadata has no FTP modification time)
+	 *
+	 * @param otherMetadata Metadata to compare with
+	 * @return True if the FTP file is unchanged between the two; false otherwise
+	 */
+	public boolean hasSameFtpVersionAs(ResourceMetadata otherMetadata) {
+		return this.ftpModificationTime != null &&
+			this.ftpModificationTime.equals(otherMetadata.ftpModificationTime) &&
+			this.ftpSize == otherMetadata.ftpSize;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof ResourceMetadata)) {
+			return false;
+		}
+
+		ResourceMetadata that = (ResourceMetadata) o;
+		return this.contentLength == that.contentLength &&
+			this.ftpSize == that.ftpSize &&
+			Objects.equals(this.entityTag, that.entityTag) &&
+			Objects.equals(this.lastModified, that.lastModified) &&
+			Objects.equals(this.ftpModificationTime, that.ftpModificationTime);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(
+			this.entityTag, this.lastModified, this.contentLength, this.ftpModificationTime, this.ftpSize
+		);
+	}
+}
@@ -0,0 +1,63 @@
+package org.reactome.release.resourcechecker;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Holds the response snapshot of an HTTP resource checker.  The snapshot is fetched with
+ * {@link HTTPResourceChecker#fetchResponseSnapshot()} the first time it is needed and re-used by every check which
+ * follows, so a report costs one network round trip whichever checker it comes from.
+ */
+public class ResponseSnapshotHolder {
+	private final HTTPResourceChecker httpResourceChecker;
+	private volatile HttpResponseSnapshot responseSnapshot;
+
+	/**
+	 * Constructs an empty ResponseSnapshotHolder for the checker.
+	 *
+	 * @param httpResourceChecker Checker whose response snapshot is held
+	 */
+	public ResponseSnapshotHolder(HTTPResourceChecker httpResourceChecker) {
+		this.httpResourceChecker = httpResourceChecker;
+	}
+
+	/**
+	 * Returns the checker's response snapshot, fetching it the first time this method is called.
+	 *
+	 * @return Snapshot of the response for the checker's resource
+	 */
+	public HttpResponseSnapshot get() {
+		if (this.responseSnapshot == null) {
+			this.responseSnapshot = this.httpResourceChecker.fetchResponseSnapshot();
+		}
+
+		return this.responseSnapshot;
+	}
+
+	/**
+	 * Starts fetching the snapshot through the shared {@link AsyncHttpClientBackend}, if one is set and no snapshot is
+	 * held yet, without blocking.  Once the returned future completes the snapshot is held and {@link #get()} returns
+	 * it without making a request, so a caller can wait for the response without holding a thread.  Cancelling the
+	 * returned future cancels the request.
+	 *
+	 * @return Future completed once the snapshot is held (or at once if there is no backend to fetch it through, in
+	 * which case {@link #get()} makes a blocking request)
+	 */
+	public CompletableFuture<Void> prefetch() {
+		AsyncHttpClientBackend asyncHttpClientBackend = AsyncHttpClientBackend.getSharedInstance();
+		if (this.responseSnapshot != null || asyncHttpClientBackend == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		CompletableFuture<HttpResponseSnapshot> responseSnapshotFuture =
+			this.httpResourceChecker.fetchResponseSnapshotAsync(asyncHttpClientBackend);
+		if (responseSnapshotFuture == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		CompletableFuture<Void> prefetchFuture = responseSnapshotFuture.thenAccept(
+			responseSnapshot -> this.responseSnapshot = responseSnapshot
+		);
+		AsyncHttpClientBackend.cancelOnFailure(prefetchFuture, responseSnapshotFuture);
+		return prefetchFuture;
+	}
+}
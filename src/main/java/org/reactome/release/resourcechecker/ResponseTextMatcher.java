@@ -0,0 +1,247 @@
+package org.reactome.release.resourcechecker;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Looks for a resource's expected and error response texts in a response body in a single streaming pass.  Both texts
+ * are matched at once over the UTF-8 bytes of the body with an Aho-Corasick automaton, so a text split across two
+ * reads is still found and memory use does not grow with the size of the body.  Reading stops as soon as every
+ * configured text has been found.
+ */
+public class ResponseTextMatcher {
+	private static final int BUFFER_SIZE_IN_BYTES = 8 * 1024;
+	private static final int ALPHABET_SIZE = 256;
+
+	private static final int EXPECTED_TEXT_FLAG = 1;
+	private static final int ERROR_TEXT_FLAG = 2;
+
+	private final int[][] transitions;
+	private final int[] matchedTextFlags;
+	private final int allTextFlags;
+
+	/**
+	 * Constructs a ResponseTextMatcher for the given texts.  An empty text is not looked for.
+	 *
+	 * @param expectedResponseText Text whose presence means the response has the expected content
+	 * @param errorResponseText Text whose presence means the response is an error
+	 */
+	public ResponseTextMatcher(String expectedResponseText, String errorResponseText) {
+		List<int[]> gotoTransitions = new ArrayList<>();
+		List<Integer> outputFlags = new ArrayList<>();
+		gotoTransitions.add(newTransitionRow());
+		outputFlags.add(0);
+
+		int textFlags = 0;
+		textFlags |= addText(expectedResponseText, EXPECTED_TEXT_FLAG, gotoTransitions, outputFlags);
+		textFlags |= addText(errorResponseText, ERROR_TEXT_FLAG, gotoTransitions, outputFlags);
+
+		this.allTextFlags = textFlags;
+		this.transitions = gotoTransitions.toArray(new int[0][]);
+		this.matchedTextFlags = new int[outputFlags.size()];
+		for (int state = 0; state < outputFlags.size(); state++) {
+			this.matchedTextFlags[state] = outputFlags.get(state);
+		}
+		buildFailureTransitions();
+	}
+
+	/**
+	 * Reads the stream until every configured text has been found or the stream ends, and closes it.
+	 *
+	 * @param content Stream of the response body
+	 * @return Which of the texts were found
+	 * @throws IOException Thrown if the stream can not be read
+	 */
+	public ResponseTextMatch match(InputStream content) throws IOException {
+		IncrementalMatch incrementalMatch = newIncrementalMatch();
+		long totalBytesRead = 0;
+		try (InputStream contentStream = content) {
+			byte[] buffer = new byte[BUFFER_SIZE_IN_BYTES];
+			int bytesRead;
+			while (!incrementalMatch.isComplete() && (bytesRead = contentStream.read(buffer)) != -1) {
+				incrementalMatch.update(buffer, 0, bytesRead);
+				totalBytesRead += bytesRead;
+			}
+		} finally {
+			CheckMetrics.getSharedInstance().addBytesTransferred(totalBytesRead);
+		}
+
+		return incrementalMatch.getResponseTextMatch();
+	}
+
+	/**
+	 * Starts a match which is given the response body in blocks as they arrive (e.g. from an asynchronous HTTP
+	 * client) rather than reading it from a stream.
+	 *
+	 * @return New IncrementalMatch which has not yet been given any content
+	 */
+	public IncrementalMatch newIncrementalMatch() {
+		return new IncrementalMatch();
+	}
+
+	/**
+	 * Looks for the texts in content which has already been read (e.g. the source of a rendered web page).
+	 *
+	 * @param content Response body as a String
+	 * @return Which of the texts were found
+	 */
+	public ResponseTextMatch match(String content) {
+		byte[] contentBytes = content.getBytes(StandardCharsets.UTF_8);
+		IncrementalMatch incrementalMatch = newIncrementalMatch();
+		incrementalMatch.update(contentBytes, 0, contentBytes.length);
+		return incrementalMatch.getResponseTextMatch();
+	}
+
+	private static int[] newTransitionRow() {
+		int[] transitionRow = new int[ALPHABET_SIZE];
+		Arrays.fill(transitionRow, -1);
+		return transitionRow;
+	}
+
+	private static int addText(String text, int textFlag, List<int[]> gotoTransitions, List<Integer> outputFlags) {
+		if (text == null || text.isEmpty()) {
+			return 0;
+		}
+
+		int state = 0;
+		for (byte textByte : text.getBytes(StandardCharsets.UTF_8)) {
+			int nextState = gotoTransitions.get(state)[textByte & 0xff];
+			if (nextState == -1) {
+				nextState = gotoTransitions.size();
+				gotoTransitions.get(state)[textByte & 0xff] = nextState;
+				gotoTransitions.add(newTransitionRow());
+				outputFlags.add(0);
+			}
+			state = nextState;
+		}
+		outputFlags.set(state, outputFlags.get(state) | textFlag);
+		return textFlag;
+	}
+
+	/**
+	 * Completes the goto transitions into a full automaton: missing transitions follow the failure link of their
+	 * state, and each state also reports the texts matched by the state its failure link points to.
+	 */
+	private void buildFailureTransitions() {
+		int[] failureLinks = new int[this.transitions.length];
+		Deque<Integer> statesToVisit = new ArrayDeque<>();
+
+		for (int symbol = 0; symbol < ALPHABET_SIZE; symbol++) {
+			int nextState = this.transitions[0][symbol];
+			if (nextState == -1) {
+				this.transitions[0][symbol] = 0;
+			} else {
+				failureLinks[nextState] = 0;
+				statesToVisit.add(nextState);
+			}
+		}
+
+		while (!statesToVisit.isEmpty()) {
+			int state = statesToVisit.poll();
+			for (int symbol = 0; symbol < ALPHABET_SIZE; symbol++) {
+				int nextState = this.transitions[state][symbol];
+				int failureState = this.transitions[failureLinks[state]][symbol];
+				if (nextState == -1) {
+					this.transitions[state][symbol] = failureState;
+				} else {
+					failureLinks[nextState] = failureState;
+					this.matchedTextFlags[nextState] |= this.matchedTextFlags[failureState];
+					statesToVisit.add(nextState);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A match in progress over a response body given to it block by block.  Matching carries over between blocks, so
+	 * a text split across two blocks is still found.  Not thread safe: blocks must be given one at a time.
+	 */
+	public class IncrementalMatch {
+		private int state;
+		private int foundTextFlags;
+
+		private IncrementalMatch() {}
+
+		/**
+		 * Matches the block's remaining bytes, stopping early (leaving the buffer's position after the last byte used)
+		 * once every configured text has been found.
+		 *
+		 * @param block Next block of the response body
+		 */
+		public void update(ByteBuffer block) {
+			while (block.hasRemaining() && !isComplete()) {
+				advance(block.get());
+			}
+		}
+
+		void update(byte[] block, int offset, int length) {
+			for (int i = offset; i < offset + length && !isComplete(); i++) {
+				advance(block[i]);
+			}
+		}
+
+		/**
+		 * Returns <code>true</code> if every configured text has been found (or there are no texts to find), so no
+		 * more of the body is needed; <code>false</code> otherwise
+		 *
+		 * @return True if the rest of the body can not change the result; false otherwise
+		 */
+		public boolean isComplete() {
+			return this.foundTextFlags == allTextFlags;
+		}
+
+		/**
+		 * Returns which of the texts have been found in the content given so far.
+		 *
+		 * @return Response texts found
+		 */
+		public ResponseTextMatch getResponseTextMatch() {
+			return new ResponseTextMatch(
+				(this.foundTextFlags & EXPECTED_TEXT_FLAG) != 0,
+				(this.foundTextFlags & ERROR_TEXT_FLAG) != 0
+			);
+		}
+
+		private void advance(byte contentByte) {
+			this.state = transitions[this.state][contentByte & 0xff];
+			this.foundTextFlags |= matchedTextFlags[this.state];
+		}
+	}
+
+	/**
+	 * Which of a resource's response texts were found in a response body.
+	 */
+	public static class ResponseTextMatch {
+		private final boolean expectedResponseTextFound;
+		private final boolean errorResponseTextFound;
+
+		public ResponseTextMatch(boolean expectedResponseTextFound, boolean errorResponseTextFound) {
+			this.expectedResponseTextFound = expectedResponseTextFound;
+			this.errorResponseTextFound = errorResponseTextFound;
+		}
+
+		public boolean isExpectedResponseTextFound() {
+			return this.expectedResponseTextFound;
+		}
+
+		public boolean isErrorResponseTextFound() {
+			return this.errorResponseTextFound;
+		}
+
+		/**
+		 * Returns <code>true</code> if either response text was found; <code>false</code> otherwise
+		 *
+		 * @return True if the expected or error response text was found; false otherwise
+		 */
+		public boolean isAnyResponseTextFound() {
+			return this.expectedResponseTextFound || this.errorResponseTextFound;
+		}
+	}
+}
@@ -0,0 +1,489 @@
+package org.reactome.release.resourcechecker;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.apache.commons.net.ftp.FTPConnectionClosedException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Retries checker I/O which fails for a transient reason and stops sending requests to hosts which keep failing.
+ *
+ * An operation is retried, up to a maximum number of attempts, if it throws a retryable exception (a connection
+ * reset, refused or timed out connection, an unexpected end of stream or an FTP 421 "service not available") or its
+ * result is classified as retryable (e.g. an HTTP 5xx or 429 response).  Retries wait an exponentially growing delay
+ * with full jitter, or longer if the server asked for it (e.g. with Retry-After).  Every exception and retryable
+ * result counts as a failed attempt against the host; any other result as a successful one.
+ *
+ * A retry is not attempted if its delay would run past the deadline of the check it belongs to (see
+ * {@link #runWithinDeadline(long, Supplier)}); the last response is returned, or the last failure thrown, instead, so
+ * waiting to retry never uses up the time the check has left and holds its host permit for nothing.
+ *
+ * Each host has a circuit breaker: after a number of consecutive failed attempts the circuit opens and operations on
+ * the host fail immediately with a {@link HostUnavailableException} for a cool down period.  After the cool down one
+ * trial attempt is let through; if it fails the circuit opens again, otherwise the host is usable again.
+ */
+public class RetryPolicy {
+	private static final Logger logger = LogManager.getLogger();
+
+	private static final int DEFAULT_MAX_ATTEMPTS = 3;
+	private static final long DEFAULT_BASE_DELAY_MILLIS = 500;
+	private static final long DEFAULT_MAX_DELAY_MILLIS = 30000;
+	private static final int DEFAULT_FAILURES_TO_OPEN_CIRCUIT = 5;
+	private static final long DEFAULT_CIRCUIT_COOL_DOWN_SECONDS = 60;
+
+	private static final ThreadLocal<Long> checkDeadlineNanos = new ThreadLocal<>();
+
+	private static volatile RetryPolicy sharedInstance = new RetryPolicy(
+		DEFAULT_MAX_ATTEMPTS,
+		DEFAULT_BASE_DELAY_MILLIS,
+		DEFAULT_MAX_DELAY_MILLIS,
+		DEFAULT_FAILURES_TO_OPEN_CIRCUIT,
+		DEFAULT_CIRCUIT_COOL_DOWN_SECONDS
+	);
+
+	private final int maxAttempts;
+	private final long baseDelayMillis;
+	private final long maxDelayMillis;
+	private final int failuresToOpenCircuit;
+	private final long circuitCoolDownMillis;
+	private final Map<String, HostCircuit> hostCircuitMap;
+
+	/**
+	 * Constructs a RetryPolicy with the given retry and circuit breaker settings.
+	 *
+	 * @param maxAttempts Maximum number of times an operation is attempted (1 disables retries)
+	 * @param baseDelayMillis Upper bound of the delay before the first retry, doubled for each further retry
+	 * @param maxDelayMillis Upper bound of any delay between attempts
+	 * @param failuresToOpenCircuit Number of consecutive failed attempts against a host which opens its circuit
+	 * @param circuitCoolDownSeconds Number of seconds an open circuit fails operations before letting a trial through
+	 */
+	public RetryPolicy(
+		int maxAttempts,
+		long baseDelayMillis,
+		long maxDelayMillis,
+		int failuresToOpenCircuit,
+		long circuitCoolDownSeconds
+	) {
+		if (maxAttempts <= 0 || baseDelayMillis <= 0 || maxDelayMillis < baseDelayMillis ||
+			failuresToOpenCircuit <= 0 || circuitCoolDownSeconds <= 0) {
+
+			throw new IllegalArgumentException(
+				"Attempts, delays, failures and cool down must be positive and the maximum delay must not be less " +
+				"than the base delay"
+			);
+		}
+
+		this.maxAttempts = maxAttempts;
+		this.baseDelayMillis = baseDelayMillis;
+		this.maxDelayMillis = maxDelayMillis;
+		this.failuresToOpenCircuit = failuresToOpenCircuit;
+		this.circuitCoolDownMillis = TimeUnit.SECONDS.toMillis(circuitCoolDownSeconds);
+		this.hostCircuitMap = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Returns the retry policy shared by resource checkers, with default settings if none has been set.
+	 *
+	 * @return Shared RetryPolicy
+	 * @see #setSharedInstance(RetryPolicy)
+	 */
+	public static RetryPolicy getSharedInstance() {
+		return sharedInstance;
+	}
+
+	/**
+	 * Sets the retry policy shared by resource checkers.
+	 *
+	 * @param retryPolicy Retry policy to share
+	 */
+	public static void setSharedInstance(RetryPolicy retryPolicy) {
+		sharedInstance = retryPolicy;
+	}
+
+	/**
+	 * Runs a check on the current thread with the time by which it must finish.  Operations retried by the check,
+	 * including asynchronous ones started from this thread, are not retried if the retry delay would run past the
+	 * deadline.
+	 *
+	 * @param deadlineNanos Value of <code>System.nanoTime()</code> by which the check must finish
+	 * @param check Check to run
+	 * @param <T> Type of the check's result
+	 * @return Result of the check
+	 */
+	public static <T> T runWithinDeadline(long deadlineNanos, Supplier<T> check) {
+		Long enclosingDeadlineNanos = checkDeadlineNanos.get();
+		checkDeadlineNanos.set(deadlineNanos);
+		try {
+			return check.get();
+		} finally {
+			if (enclosingDeadlineNanos != null) {
+				checkDeadlineNanos.set(enclosingDeadlineNanos);
+			} else {
+				checkDeadlineNanos.remove();
+			}
+		}
+	}
+
+	/**
+	 * Runs the operation against the host, retrying it if it throws a retryable exception.
+	 *
+	 * @param host Host the operation sends requests to
+	 * @param operation Operation to run
+	 * @param <T> Type of the operation's result
+	 * @return Result of the first successful attempt
+	 * @throws IOException Thrown by the last attempt, if it is not retryable or no attempts remain, or a
+	 * HostUnavailableException if the host's circuit is open
+	 * @see #execute(String, Operation, ResultClassifier)
+	 */
+	public <T> T execute(String host, Operation<T> operation) throws IOException {
+		return execute(host, operation, result -> ResultClassifier.NO_RETRY);
+	}
+
+	/**
+	 * Runs the operation against the host, retrying it if it throws a retryable exception or its result is classified
+	 * as retryable.  If no attempts remain, or the retry delay would run past the check's deadline, the last
+	 * (retryable) result is returned.
+	 *
+	 * @param host Host the operation sends requests to
+	 * @param operation Operation to run
+	 * @param resultClassifier Decides whether a result should be retried and how long to wait first
+	 * @param <T> Type of the operation's result
+	 * @return Result of the first attempt not needing a retry or of the last attempt
+	 * @throws IOException Thrown by the last attempt, if it is not retryable or no attempts (or no time before the
+	 * check's deadline) remain, or a HostUnavailableException if the host's circuit is open
+	 */
+	public <T> T execute(String host, Operation<T> operation, ResultClassifier<T> resultClassifier)
+		throws IOException {
+
+		HostCircuit hostCircuit = getHostCircuit(host);
+		Long deadlineNanos = checkDeadlineNanos.get();
+		for (int attempt = 1; ; attempt++) {
+			if (!hostCircuit.allowAttempt()) {
+				throw new HostUnavailableException(host);
+			}
+
+			T result = null;
+			IOException failure = null;
+			long retryDelayMillis;
+			try {
+				result = operation.run();
+				retryDelayMillis = resultClassifier.getRetryDelayMillis(result);
+				if (retryDelayMillis == ResultClassifier.NO_RETRY) {
+					hostCircuit.recordSuccess();
+					return result;
+				}
+
+				hostCircuit.recordFailure();
+				if (attempt >= this.maxAttempts) {
+					return result;
+				}
+				logger.warn("Retryable response from " + host + " (attempt " + attempt + " of " +
+					this.maxAttempts + ")");
+			} catch (IOException e) {
+				hostCircuit.recordFailure();
+				if (!isRetryable(e) || attempt >= this.maxAttempts) {
+					throw e;
+				}
+				logger.warn("Retryable failure from " + host + " (attempt " + attempt + " of " +
+					this.maxAttempts + "): " + e);
+				failure = e;
+				retryDelayMillis = 0;
+			} catch (RuntimeException e) {
+				hostCircuit.endTrial();
+				throw e;
+			}
+
+			long delayMillis = Math.max(retryDelayMillis, getBackoffDelayMillis(attempt));
+			if (!isBeforeDeadline(deadlineNanos, delayMillis)) {
+				logger.warn("Not retrying " + host + ": a delay of " + delayMillis + " milliseconds would pass the " +
+					"check's deadline");
+				if (failure != null) {
+					throw failure;
+				}
+				return result;
+			}
+
+			CheckMetrics.getSharedInstance().recordRetry();
+			sleep(delayMillis);
+		}
+	}
+
+	/**
+	 * Starts the asynchronous operation against the host and retries it, without blocking, as
+	 * {@link #execute(String, Operation, ResultClassifier)} does: if its future completes with a retryable exception or
+	 * a result classified as retryable, the operation is started again after the retry delay.  Cancelling the returned
+	 * future cancels the attempt in progress and any attempt not yet started.
+	 *
+	 * @param host Host the operation sends requests to
+	 * @param asyncOperation Operation to start
+	 * @param resultClassifier Decides whether a result should be retried and how long to wait first
+	 * @param <T> Type of the operation's result
+	 * @return Future completed with the result of the first attempt not needing a retry or of the last attempt, or
+	 * exceptionally as {@link #execute(String, Operation, ResultClassifier)} would throw (the deadline is that of the
+	 * check running on the thread which calls this method)
+	 */
+	public <T> CompletableFuture<T> executeAsync(
+		String host, AsyncOperation<T> asyncOperation, ResultClassifier<T> resultClassifier) {
+
+		CompletableFuture<T> resultFuture = new CompletableFuture<>();
+		attemptAsync(
+			host, getHostCircuit(host), checkDeadlineNanos.get(), asyncOperation, resultClassifier, 1, resultFuture
+		);
+		return resultFuture;
+	}
+
+	private <T> void attemptAsync(
+		String host,
+		HostCircuit hostCircuit,
+		Long deadlineNanos,
+		AsyncOperation<T> asyncOperation,
+		ResultClassifier<T> resultClassifier,
+		int attempt,
+		CompletableFuture<T> resultFuture
+	) {
+		if (resultFuture.isDone()) {
+			return;
+		}
+		if (!hostCircuit.allowAttempt()) {
+			resultFuture.completeExceptionally(new HostUnavailableException(host));
+			return;
+		}
+
+		CompletableFuture<T> attemptFuture;
+		try {
+			attemptFuture = asyncOperation.start();
+		} catch (RuntimeException e) {
+			hostCircuit.endTrial();
+			resultFuture.completeExceptionally(e);
+			return;
+		}
+		resultFuture.whenComplete((result, throwable) -> attemptFuture.cancel(true));
+
+		attemptFuture.whenComplete((result, throwable) -> {
+			if (resultFuture.isDone()) {
+				hostCircuit.endTrial();
+				return;
+			}
+
+			long retryDelayMillis;
+			Throwable failure = null;
+			if (throwable == null) {
+				retryDelayMillis = resultClassifier.getRetryDelayMillis(result);
+				if (retryDelayMillis == ResultClassifier.NO_RETRY) {
+					hostCircuit.recordSuccess();
+					resultFuture.complete(result);
+					return;
+				}
+
+				hostCircuit.recordFailure();
+				if (attempt >= this.maxAttempts) {
+					resultFuture.complete(result);
+					return;
+				}
+				logger.warn("Retryable response from " + host + " (attempt " + attempt + " of " +
+					this.maxAttempts + ")");
+			} else {
+				Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ?
+					throwable.getCause() : throwable;
+				if (!(cause instanceof IOException)) {
+					hostCircuit.endTrial();
+					resultFuture.completeExceptionally(cause);
+					return;
+				}
+
+				hostCircuit.recordFailure();
+				if (!isRetryable((IOException) cause) || attempt >= this.maxAttempts) {
+					resultFuture.completeExceptionally(cause);
+					return;
+				}
+				logger.warn("Retryable failure from " + host + " (attempt " + attempt + " of " +
+					this.maxAttempts + "): " + cause);
+				failure = cause;
+				retryDelayMillis = 0;
+			}
+
+			long delayMillis = Math.max(retryDelayMillis, getBackoffDelayMillis(attempt));
+			if (!isBeforeDeadline(deadlineNanos, delayMillis)) {
+				logger.warn("Not retrying " + host + ": a delay of " + delayMillis + " milliseconds would pass the " +
+					"check's deadline");
+				if (failure != null) {
+					resultFuture.completeExceptionally(failure);
+				} else {
+					resultFuture.complete(result);
+				}
+				return;
+			}
+
+			CheckMetrics.getSharedInstance().recordRetry();
+			CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS).execute(() -> attemptAsync(
+				host, hostCircuit, deadlineNanos, asyncOperation, resultClassifier, attempt + 1, resultFuture
+			));
+		});
+	}
+
+	/**
+	 * Returns true if there is no deadline or waiting the delay would still end before it.
+	 */
+	private static boolean isBeforeDeadline(Long deadlineNanos, long delayMillis) {
+		return deadlineNanos == null ||
+			System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis) - deadlineNanos < 0;
+	}
+
+	private HostCircuit getHostCircuit(String host) {
+		return this.hostCircuitMap.computeIfAbsent(host.toLowerCase(), hostName -> new HostCircuit());
+	}
+
+	/**
+	 * Returns <code>true</code> if the exception is a transient network failure worth retrying; <code>false</code>
+	 * otherwise
+	 *
+	 * @param e Exception thrown by an attempt
+	 * @return True if the attempt should be retried; false otherwise
+	 */
+	public static boolean isRetryable(IOException e) {
+		return e instanceof FTPConnectionClosedException ||
+			e instanceof SocketException ||
+			e instanceof SocketTimeoutException ||
+			e instanceof HttpTimeoutException ||
+			e instanceof EOFException ||
+			(e.getMessage() != null && e.getMessage().toLowerCase().contains("connection reset")) ||
+			(e.getCause() instanceof IOException && e.getCause() != e && isRetryable((IOException) e.getCause()));
+	}
+
+	/**
+	 * Returns the delay in milliseconds indicated by an HTTP Retry-After header given in seconds, capped at the
+	 * maximum delay, or 0 if the header is missing or is not a number of seconds.
+	 *
+	 * @param retryAfter Value of the Retry-After header or null
+	 * @return Requested delay in milliseconds
+	 */
+	public long getRetryAfterMillis(String retryAfter) {
+		if (retryAfter == null) {
+			return 0;
+		}
+
+		try {
+			return Math.min(TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim())), this.maxDelayMillis);
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Full jitter: a random delay between zero and the base delay doubled once per previous retry, capped at the
+	 * maximum delay.
+	 */
+	private long getBackoffDelayMillis(int attempt) {
+		long exponentialDelayMillis = this.baseDelayMillis << Math.min(attempt - 1, 30);
+		long delayCapMillis = Math.min(Math.max(exponentialDelayMillis, 0), this.maxDelayMillis);
+		return ThreadLocalRandom.current().nextLong(delayCapMillis + 1);
+	}
+
+	private static void sleep(long delayMillis) throws InterruptedIOException {
+		try {
+			TimeUnit.MILLISECONDS.sleep(delayMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting to retry");
+		}
+	}
+
+	/**
+	 * An I/O operation against a single host.
+	 */
+	@FunctionalInterface
+	public interface Operation<T> {
+		T run() throws IOException;
+	}
+
+	/**
+	 * An asynchronous I/O operation against a single host, started once per attempt.
+	 */
+	@FunctionalInterface
+	public interface AsyncOperation<T> {
+		/**
+		 * Starts an attempt of the operation.
+		 *
+		 * @return Future completed with the attempt's result, or exceptionally if the attempt failed
+		 */
+		CompletableFuture<T> start();
+	}
+
+	/**
+	 * Decides whether the result of an attempt needs to be retried.
+	 */
+	@FunctionalInterface
+	public interface ResultClassifier<T> {
+		long NO_RETRY = -1;
+
+		/**
+		 * Returns {@link #NO_RETRY} if the result is final, otherwise the minimum number of milliseconds to wait before
+		 * retrying (0 to use only the exponential backoff).
+		 *
+		 * @param result Result of an attempt
+		 * @return NO_RETRY or the minimum delay before the next attempt
+		 */
+		long getRetryDelayMillis(T result);
+	}
+
+	/**
+	 * Thrown instead of attempting an operation on a host whose circuit is open.
+	 */
+	public static class HostUnavailableException extends IOException {
+		private HostUnavailableException(String host) {
+			super("Not contacting " + host + ": too many consecutive failures (circuit open)");
+		}
+	}
+
+	private class HostCircuit {
+		private int consecutiveFailures;
+		private long openUntilMillis;
+		private boolean trialInProgress;
+
+		/**
+		 * Returns true if the circuit is closed or, once the cool down of an open circuit has passed, for the single
+		 * trial attempt which decides whether it closes.
+		 */
+		private synchronized boolean allowAttempt() {
+			if (this.consecutiveFailures < failuresToOpenCircuit) {
+				return true;
+			}
+			if (System.currentTimeMillis() < this.openUntilMillis || this.trialInProgress) {
+				return false;
+			}
+
+			this.trialInProgress = true;
+			return true;
+		}
+
+		private synchronized void recordSuccess() {
+			this.consecutiveFailures = 0;
+			this.trialInProgress = false;
+		}
+
+		private synchronized void endTrial() {
+			this.trialInProgress = false;
+		}
+
+		private synchronized void recordFailure() {
+			this.consecutiveFailures++;
+			this.trialInProgress = false;
+			if (this.consecutiveFailures >= failuresToOpenCircuit) {
+				this.openUntilMillis = System.currentTimeMillis() + circuitCoolDownMillis;
+			}
+		}
+	}
+}
@@ -0,0 +1,224 @@
+package org.reactome.release.resourcechecker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+/**
+ * A pool of browser sessions shared by all web page resource checkers.  Sessions are started on demand (up to the
+ * pool size), lent to one checker at a time and kept warm between pages.  A session is replaced after it has
+ * loaded a set number of pages or when the browser behind it fails.
+ */
+public class WebDriverPool implements AutoCloseable {
+	private static final Logger logger = LogManager.getLogger();
+
+	private static final int DEFAULT_POOL_SIZE = 4;
+	private static final int DEFAULT_MAX_PAGES_PER_SESSION = 25;
+	private static final long DEFAULT_PAGE_READY_TIMEOUT_SECONDS = 10;
+
+	private static WebDriverPool sharedInstance;
+
+	private final int maxPagesPerSession;
+	private final long pageReadyTimeoutSeconds;
+	private final Supplier<WebDriver> webDriverFactory;
+	private final Semaphore sessionPermits;
+	private final LinkedBlockingDeque<PooledWebDriver> idleSessions;
+	private volatile boolean closed;
+
+	/**
+	 * Constructs a WebDriverPool which starts its browser sessions with the given factory.
+	 *
+	 * @param poolSize Maximum number of browser sessions open at once
+	 * @param maxPagesPerSession Number of pages a session may load before it is closed and replaced
+	 * @param pageReadyTimeoutSeconds Maximum number of seconds to wait for a loaded page to become ready
+	 * @param webDriverFactory Creates a new browser session when the pool needs one
+	 */
+	public WebDriverPool(
+		int poolSize, int maxPagesPerSession, long pageReadyTimeoutSeconds, Supplier<WebDriver> webDriverFactory) {
+
+		if (poolSize <= 0 || maxPagesPerSession <= 0 || pageReadyTimeoutSeconds <= 0) {
+			throw new IllegalArgumentException(
+				"Pool size, maximum pages per session and page ready timeout must be positive values"
+			);
+		}
+
+		this.maxPagesPerSession = maxPagesPerSession;
+		this.pageReadyTimeoutSeconds = pageReadyTimeoutSeconds;
+		this.webDriverFactory = webDriverFactory;
+		this.sessionPermits = new Semaphore(poolSize, true);
+		this.idleSessions = new LinkedBlockingDeque<>();
+	}
+
+	/**
+	 * Returns the pool shared by web page resource checkers, creating a pool of headless Chrome sessions with default
+	 * settings if one has not been set.
+	 *
+	 * @return Shared WebDriverPool
+	 * @see #setSharedInstance(WebDriverPool)
+	 */
+	public static synchronized WebDriverPool getSharedInstance() {
+		if (sharedInstance == null) {
+			sharedInstance = new WebDriverPool(
+				DEFAULT_POOL_SIZE,
+				DEFAULT_MAX_PAGES_PER_SESSION,
+				DEFAULT_PAGE_READY_TIMEOUT_SECONDS,
+				WebDriverPool::createHeadlessChromeDriver
+			);
+		}
+
+		return sharedInstance;
+	}
+
+	/**
+	 * Sets the pool shared by web page resource checkers.  Any previously shared pool is closed.
+	 *
+	 * @param webDriverPool Pool to share
+	 */
+	public static synchronized void setSharedInstance(WebDriverPool webDriverPool) {
+		if (sharedInstance != null && sharedInstance != webDriverPool) {
+			sharedInstance.close();
+		}
+
+		sharedInstance = webDriverPool;
+	}
+
+	/**
+	 * Creates a headless Chrome browser session using the chromedriver installed at /usr/bin/chromedriver.
+	 *
+	 * @return New headless Chrome WebDriver
+	 */
+	public static WebDriver createHeadlessChromeDriver() {
+		// TODO: Create instructions and/or script to install chromedriver
+		String chromeDriverPath = "/usr/bin/chromedriver" ;
+		System.setProperty("webdriver.chrome.driver", chromeDriverPath);
+		ChromeOptions options = new ChromeOptions();
+		options.addArguments("--headless", "--disable-gpu", "--window-size=1920,1200","--ignore-certificate-errors");
+		return new ChromeDriver(options);
+	}
+
+	/**
+	 * Returns the maximum number of seconds to wait for a page loaded by one of this pool's sessions to become ready.
+	 *
+	 * @return Page ready timeout in seconds
+	 */
+	public long getPageReadyTimeoutSeconds() {
+		return this.pageReadyTimeoutSeconds;
+	}
+
+	/**
+	 * Borrows a browser session, applies the page action to it and returns the session to the pool.  If the browser
+	 * fails while the action runs, the session is discarded and the action is retried once on a new session.
+	 *
+	 * @param pageAction Action to perform with the browser (e.g. load a page and return its source)
+	 * @param <T> Type of the result of the page action
+	 * @return Result of the page action
+	 * @throws WebDriverException Thrown if the page action fails on both the original and the replacement session
+	 * @throws IllegalStateException Thrown if the pool is closed or the calling thread is interrupted while waiting
+	 * for a session
+	 */
+	public <T> T withWebDriver(Function<WebDriver, T> pageAction) {
+		try {
+			return applyPageAction(pageAction);
+		} catch (WebDriverException e) {
+			logger.warn("Browser session failed - retrying with a new session", e);
+			CheckMetrics.getSharedInstance().recordRetry();
+			return applyPageAction(pageAction);
+		}
+	}
+
+	@Override
+	public void close() {
+		this.closed = true;
+
+		List<PooledWebDriver> sessionsToClose = new ArrayList<>();
+		this.idleSessions.drainTo(sessionsToClose);
+		for (PooledWebDriver session : sessionsToClose) {
+			quit(session);
+		}
+	}
+
+	private <T> T applyPageAction(Function<WebDriver, T> pageAction) {
+		PooledWebDriver session = borrow();
+		try {
+			session.pagesLoaded++;
+			T result = pageAction.apply(session.webDriver);
+			release(session);
+			return result;
+		} catch (WebDriverException e) {
+			invalidate(session);
+			throw e;
+		} catch (RuntimeException e) {
+			release(session);
+			throw e;
+		}
+	}
+
+	private PooledWebDriver borrow() {
+		if (this.closed) {
+			throw new IllegalStateException("The browser session pool is closed");
+		}
+
+		try {
+			this.sessionPermits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a browser session", e);
+		}
+
+		PooledWebDriver session = this.idleSessions.pollFirst();
+		if (session != null) {
+			CheckMetrics.getSharedInstance().recordSessionReused(CheckMetrics.SessionType.BROWSER);
+			return session;
+		}
+
+		try {
+			PooledWebDriver newSession = new PooledWebDriver(this.webDriverFactory.get());
+			CheckMetrics.getSharedInstance().recordSessionOpened(CheckMetrics.SessionType.BROWSER);
+			return newSession;
+		} catch (RuntimeException e) {
+			this.sessionPermits.release();
+			throw e;
+		}
+	}
+
+	private void release(PooledWebDriver session) {
+		if (this.closed || session.pagesLoaded >= this.maxPagesPerSession) {
+			quit(session);
+		} else {
+			this.idleSessions.offerFirst(session);
+		}
+		this.sessionPermits.release();
+	}
+
+	private void invalidate(PooledWebDriver session) {
+		quit(session);
+		this.sessionPermits.release();
+	}
+
+	private void quit(PooledWebDriver session) {
+		try {
+			session.webDriver.quit();
+		} catch (WebDriverException e) {
+			logger.warn("Unable to quit browser session", e);
+		}
+	}
+
+	private static class PooledWebDriver {
+		private final WebDriver webDriver;
+		private int pagesLoaded;
+
+		private PooledWebDriver(WebDriver webDriver) {
+			this.webDriver = webDriver;
+		}
+	}
+}
@@ -1,12 +1,23 @@
 package org.reactome.release.resourcechecker;
 
-import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.support.ui.FluentWait;
 import org.reactome.release.Resource;
+import org.reactome.release.resourcechecker.ResponseTextMatcher.ResponseTextMatch;
 
 public class WebPageResourceChecker implements HTTPResourceChecker {
+	private static final long PAGE_READY_POLLING_INTERVAL_MILLIS = 250;
+
+	private static final AtomicLong staticContentHits = new AtomicLong();
+	private static final AtomicLong browserRenderFallbacks = new AtomicLong();
+
 	private Resource resource;
+	private final ResponseSnapshotHolder responseSnapshotHolder = new ResponseSnapshotHolder(this);
+	private ResponseTextMatch responseTextMatch;
+	private String renderedContent;
 
 	public WebPageResourceChecker(Resource resource) {
 		this.resource = resource;
@@ -17,36 +28,110 @@ public class WebPageResourceChecker implements HTTPResourceChecker {
 		return this.resource;
 	}
 
+	@Override
+	public ResponseSnapshotHolder getResponseSnapshotHolder() {
+		return this.responseSnapshotHolder;
+	}
+
+	/**
+	 * Returns the number of web page checks, across all checkers, whose response text was found in the static HTML
+	 * without rendering the page in a browser.
+	 *
+	 * @return Number of static HTML fast path hits
+	 */
+	public static long getStaticContentHits() {
+		return staticContentHits.get();
+	}
+
+	/**
+	 * Returns the number of web page checks, across all checkers, which had to render the page in a browser.
+	 *
+	 * @return Number of browser render fallbacks
+	 */
+	public static long getBrowserRenderFallbacks() {
+		return browserRenderFallbacks.get();
+	}
+
+	/**
+	 * Returns <code>true</code> if the static HTML of the page should be fetched to look for the response texts before
+	 * falling back to rendering the page in a browser; <code>false</code> if there are no response texts to look for
+	 * or the resource is marked as requiring rendering
+	 *
+	 * @return True if the response snapshot should include the static HTML; false otherwise
+	 */
+	@Override
+	public boolean isResponseContentNeeded() {
+		return !getResource().isRenderingRequired() && HTTPResourceChecker.super.isResponseContentNeeded();
+	}
+
 	@Override
 	public boolean resourceExists() {
 		return HTTPResourceChecker.super.resourceExists() && hasExpectedContent();
 	}
 
+	/**
+	 * Returns which of the resource's response texts appear on the web page.  The result from the static HTML is used
+	 * if it already contains the expected or error response text; otherwise (or if the resource is marked as requiring
+	 * rendering) the page is rendered by a browser and the rendered source is searched.  The result is determined the
+	 * first time this method is called and re-used for the response text checks which follow.
+	 *
+	 * @return Response texts found on the web page
+	 */
+	@Override
+	public ResponseTextMatch getResponseTextMatch() {
+		if (this.responseTextMatch == null) {
+			ResponseTextMatch staticTextMatch = getResponseSnapshot().getResponseTextMatch();
+			if (staticTextMatch != null && staticTextMatch.isAnyResponseTextFound()) {
+				staticContentHits.incrementAndGet();
+				this.responseTextMatch = staticTextMatch;
+			} else {
+				browserRenderFallbacks.incrementAndGet();
+				String renderedContent = getAllContent();
+				long matchStartNanos = System.nanoTime();
+				this.responseTextMatch = getResponseTextMatcher().match(renderedContent);
+				CheckMetrics.getSharedInstance().recordPhase(CheckMetrics.Phase.MATCH, matchStartNanos);
+			}
+		}
+
+		return this.responseTextMatch;
+	}
+
+	/**
+	 * Returns the source of the web page after it has been rendered by a browser.  The page is rendered the first time
+	 * this method is called and the result is re-used afterwards.
+	 *
+	 * @return Rendered source of the web page
+	 */
 	@Override
 	public String getAllContent() {
-		// Init chromedriver
-		// TODO: Create instructions and/or script to install chromedriver
-		String chromeDriverPath = "/usr/bin/chromedriver" ;
-		System.setProperty("webdriver.chrome.driver", chromeDriverPath);
-		ChromeOptions options = new ChromeOptions();
-		options.addArguments("--headless", "--disable-gpu", "--window-size=1920,1200","--ignore-certificate-errors");
-		WebDriver driver = new ChromeDriver(options);
-
-		driver.get(getResourceURL().toString());
-		try {
-			Thread.sleep(10000);
-		} catch (InterruptedException e) {
-			e.printStackTrace();
+		if (this.renderedContent == null) {
+			this.renderedContent = renderPage();
 		}
 
-		String page = driver.getPageSource();
-		driver.close();
-		driver.quit();
+		return this.renderedContent;
+	}
 
-//		Path exampleFile = Paths.get(".", "example.html");
-//		Files.deleteIfExists(exampleFile);
-//		Files.write(exampleFile, page.getBytes(), StandardOpenOption.CREATE);
+	private String renderPage() {
+		WebDriverPool webDriverPool = WebDriverPool.getSharedInstance();
+		return webDriverPool.withWebDriver(driver -> {
+			long renderStartNanos = System.nanoTime();
+			driver.get(getResourceURL().toString());
+			try {
+				new FluentWait<>(driver)
+					.withTimeout(webDriverPool.getPageReadyTimeoutSeconds(), TimeUnit.SECONDS)
+					.pollingEvery(PAGE_READY_POLLING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)
+					.until(new PageReadinessCondition(
+						getResource().getExpectedResponseText(),
+						getResource().getErrorResponseText()
+					));
+			} catch (TimeoutException e) {
+				logger.warn("Page " + getResourceURL() + " was not ready after " +
+					webDriverPool.getPageReadyTimeoutSeconds() + " seconds - checking the page as loaded so far");
+			}
 
-		return page;
+			String pageSource = driver.getPageSource();
+			CheckMetrics.getSharedInstance().recordPhase(CheckMetrics.Phase.BROWSER_RENDER, renderStartNanos);
+			return pageSource;
+		});
 	}
 }
@@ -0,0 +1,102 @@
+package org.reactome.release;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Resources streamed from small JSON and CSV manifests whose later entries are malformed, so a resource can only be
+ * returned if the manifest is parsed one resource at a time.
+ */
+class ResourceParserTest {
+	private static final String JSON_RESOURCE =
+		"{\"Release Step\": \"UniProt Update\", \"Main Program\": \"uniprot.pl\", " +
+		"\"Dependency in Source Code\": \"Uniprot.pm#L32\", \"Resource\": \"uniprot_sprot.xml.gz\", " +
+		"\"Resource Description\": \"Swiss-Prot entries\", \"Resource Type\": \"File\", " +
+		"\"Resource URL\": \"ftp://ftp.uniprot.org/pub/uniprot_sprot.xml.gz\", \"Expected File Size\": 1024}";
+	private static final String CSV_HEADER = "Release Step,Main Program,Dependency in Source Code,Resource," +
+		"Resource Description,Resource Type,Resource URL";
+	private static final String CSV_RESOURCE = "GO Update,go_obo_update.pl,go_obo_update.pl#L445,GO Term page," +
+		"Quick GO summary page,Web Page,https://www.ebi.ac.uk/QuickGO/GTerm?id=GO:0000001";
+
+	@TempDir
+	Path manifestDirectory;
+
+	@Test
+	void streamsJSONResourcesBeforeReadingRestOfFile() throws IOException {
+		Path jsonManifest = writeManifest(
+			"resources.json", "[" + JSON_RESOURCE + ", " + JSON_RESOURCE + ", {\"Resource\":"
+		);
+
+		try (Stream<Resource> resources = new ResourceParser().streamResources(jsonManifest.toString())) {
+			Iterator<Resource> resourceIterator = resources.iterator();
+
+			assertThat(resourceIterator.next().getResourceName(), equalTo("uniprot_sprot.xml.gz"));
+			assertThat(resourceIterator.next().getExpectedFileSizeInBytes(), equalTo(1024L));
+			assertThrows(UncheckedIOException.class, resourceIterator::hasNext);
+		}
+	}
+
+	@Test
+	void streamsCSVResourcesBeforeReadingRestOfFile() throws IOException {
+		Path csvManifest = writeManifest(
+			"resources.csv", CSV_HEADER + "\n" + CSV_RESOURCE + "\n" + CSV_RESOURCE + "\n\"unterminated quote\n"
+		);
+
+		try (Stream<Resource> resources = new ResourceParser().streamResources(csvManifest.toString())) {
+			Iterator<Resource> resourceIterator = resources.iterator();
+
+			assertThat(resourceIterator.next().getResourceName(), equalTo("GO Term page"));
+			assertThat(resourceIterator.next().getResourceType(), equalTo(Resource.ResourceType.WEB_PAGE));
+			assertThrows(RuntimeException.class, resourceIterator::hasNext);
+		}
+	}
+
+	@Test
+	void closingStreamClosesManifestFile() throws IOException {
+		// Open files are found through the process's file descriptors, which are only listed this way on Linux
+		assumeTrue(Files.isDirectory(Paths.get("/proc/self/fd")));
+		Path jsonManifest = writeManifest("resources.json", "[" + JSON_RESOURCE + ", " + JSON_RESOURCE + "]");
+		Path csvManifest = writeManifest("resources.csv", CSV_HEADER + "\n" + CSV_RESOURCE + "\n" + CSV_RESOURCE);
+
+		for (Path manifest : new Path[] {jsonManifest, csvManifest}) {
+			Stream<Resource> resources = new ResourceParser().streamResources(manifest.toString());
+			resources.iterator().next();
+			assertThat(countOpenFileDescriptors(manifest), equalTo(1L));
+
+			resources.close();
+			assertThat(countOpenFileDescriptors(manifest), equalTo(0L));
+		}
+	}
+
+	private Path writeManifest(String fileName, String content) throws IOException {
+		return Files.write(this.manifestDirectory.resolve(fileName), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static long countOpenFileDescriptors(Path file) throws IOException {
+		Path realFile = file.toRealPath();
+		try (Stream<Path> fileDescriptors = Files.list(Paths.get("/proc/self/fd"))) {
+			return fileDescriptors.filter(fileDescriptor -> {
+				try {
+					return Files.readSymbolicLink(fileDescriptor).equals(realFile);
+				} catch (IOException e) {
+					// The descriptor was closed (e.g. the one listing the directory) while being listed
+					return false;
+				}
+			}).count();
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package org.reactome.release.checkscheduler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.reactome.release.Resource;
+import org.reactome.release.resourcechecker.TestResources;
+
+/**
+ * Ordering of resources by release step and cost of check, and the skipping or deferring of the remaining checks
+ * once a resource of a blocking release step fails.
+ */
+class CheckPrioritizerTest {
+	private static final String BLOCKING_STEP = "UniProt Update";
+	private static final String OTHER_STEP = "GO Update";
+
+	@Test
+	void ordersByReleaseStepThenCostOfCheck() {
+		List<Resource> resources = Arrays.asList(
+			newResource("unlisted step file", "Unlisted Step", "File", "https://files.example.org/file.gz"),
+			newResource("rendered page", OTHER_STEP, "Web Page", "https://pages.example.org/rendered", true),
+			newResource("static page", OTHER_STEP, "Web Page", "https://pages.example.org/static"),
+			newResource("REST endpoint", OTHER_STEP, "REST EndPoint", "https://rest.example.org/endpoint"),
+			newResource("HTTP file", OTHER_STEP, "File", "https://files.example.org/other.gz"),
+			newResource("web service", OTHER_STEP, "Web Service", "https://services.example.org/service"),
+			newResource("blocking page", BLOCKING_STEP, "Web Page", "https://pages.example.org/blocking")
+		);
+
+		assertThat(resourceNames(newCheckPrioritizer(CheckPrioritizer.FailFastMode.OFF, false).prioritize(resources)),
+			contains(
+				"blocking page", "web service", "HTTP file", "REST endpoint", "static page", "rendered page",
+				"unlisted step file"
+			)
+		);
+	}
+
+	@Test
+	void ordersDownloadedFilesAfterEveryOtherCheckOfTheirReleaseStep() {
+		List<Resource> resources = Arrays.asList(
+			newResource("FTP file", OTHER_STEP, "File", "ftp://ftp.example.org/pub/file.gz"),
+			newResource("rendered page", OTHER_STEP, "Web Page", "https://pages.example.org/rendered", true),
+			newResource("local file", OTHER_STEP, "File", "file:///data/file.gz")
+		);
+
+		assertThat(resourceNames(newCheckPrioritizer(CheckPrioritizer.FailFastMode.OFF, true).prioritize(resources)),
+			contains("local file", "rendered page", "FTP file")
+		);
+	}
+
+	@Test
+	void abortSkipsRemainingChecksOnceBlockingReleaseStepFails() {
+		CheckPrioritizer checkPrioritizer = newCheckPrioritizer(CheckPrioritizer.FailFastMode.ABORT, false);
+
+		checkPrioritizer.recordResult(failedResult(OTHER_STEP));
+		assertThat(checkPrioritizer.isSkipped(), is(false));
+		assertThat(checkPrioritizer.getBlockingFailure(), is(nullValue()));
+
+		checkPrioritizer.recordResult(failedResult(BLOCKING_STEP));
+		assertThat(checkPrioritizer.isSkipped(), is(true));
+		assertThat(checkPrioritizer.getBlockingFailure(), is(notNullValue()));
+		assertThat(checkPrioritizer.isDeferred(newResource("other", OTHER_STEP)), is(false));
+	}
+
+	@Test
+	void deprioritizeDefersChecksOfNonBlockingReleaseStepsOnceBlockingReleaseStepFails() {
+		CheckPrioritizer checkPrioritizer = newCheckPrioritizer(CheckPrioritizer.FailFastMode.DEPRIORITIZE, false);
+		Resource otherResource = newResource("other", OTHER_STEP);
+		Resource blockingResource = newResource("blocking", BLOCKING_STEP);
+		assertThat(checkPrioritizer.isDeferred(otherResource), is(false));
+
+		checkPrioritizer.recordResult(failedResult(BLOCKING_STEP));
+
+		assertThat(checkPrioritizer.isDeferred(otherResource), is(true));
+		assertThat(checkPrioritizer.isDeferred(blockingResource), is(false));
+		assertThat(checkPrioritizer.isSkipped(), is(false));
+	}
+
+	@Test
+	void passedOrSkippedChecksAndFailFastOffDoNotStopOtherChecks() {
+		CheckPrioritizer failFastPrioritizer = newCheckPrioritizer(CheckPrioritizer.FailFastMode.ABORT, false);
+		JsonObject passedReport = new JsonObject();
+		passedReport.addProperty("Passed Checks", true);
+		Resource blockingResource = newResource("blocking", BLOCKING_STEP);
+		failFastPrioritizer.recordResult(ResourceCheckResult.completed(blockingResource, passedReport, 10));
+		failFastPrioritizer.recordResult(ResourceCheckResult.skipped(blockingResource, "earlier failure"));
+		assertThat(failFastPrioritizer.isSkipped(), is(false));
+
+		CheckPrioritizer offPrioritizer = newCheckPrioritizer(CheckPrioritizer.FailFastMode.OFF, false);
+		offPrioritizer.recordResult(failedResult(BLOCKING_STEP));
+		assertThat(offPrioritizer.isSkipped(), is(false));
+		assertThat(offPrioritizer.isDeferred(newResource("other", OTHER_STEP)), is(false));
+	}
+
+	private static CheckPrioritizer newCheckPrioritizer(
+		CheckPrioritizer.FailFastMode failFastMode, boolean filesDownloaded) {
+
+		return new CheckPrioritizer(
+			Arrays.asList(BLOCKING_STEP, OTHER_STEP), Collections.singleton(BLOCKING_STEP), failFastMode, 100,
+			filesDownloaded
+		);
+	}
+
+	private static ResourceCheckResult failedResult(String releaseStep) {
+		return ResourceCheckResult.failed(
+			newResource("failed", releaseStep), new IOException("Connection refused"), 10
+		);
+	}
+
+	private static Resource newResource(String resourceName, String releaseStep) {
+		return newResource(resourceName, releaseStep, "File", "https://files.example.org/" + resourceName);
+	}
+
+	private static Resource newResource(String resourceName, String releaseStep, String resourceType, String url) {
+		return newResource(resourceName, releaseStep, resourceType, url, false);
+	}
+
+	private static Resource newResource(
+		String resourceName, String releaseStep, String resourceType, String url, boolean renderingRequired) {
+
+		JsonObject resourceJson = TestResources.newResourceJson(resourceType, url);
+		resourceJson.addProperty("Resource", resourceName);
+		resourceJson.addProperty("Release Step", releaseStep);
+		resourceJson.addProperty("Rendering Required", renderingRequired);
+		return new Resource(resourceJson);
+	}
+
+	private static List<String> resourceNames(List<Resource> resources) {
+		return resources.stream().map(Resource::getResourceName).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,137 @@
+package org.reactome.release.checkscheduler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.reactome.release.Resource;
+import org.reactome.release.resourcechecker.TestResources;
+
+/**
+ * Per host limits of the HostPolitenessScheduler, with checks started on an executor which runs them inline and counts
+ * them, so which checks have started can be asserted on as soon as each check is submitted or finishes.
+ */
+class HostPolitenessSchedulerTest {
+	private static final long MINIMUM_SPACING_MILLIS = 200;
+
+	private final CountingExecutor countingExecutor = new CountingExecutor();
+	private final List<String> startedChecks = new ArrayList<>();
+	private final List<String> rejectedChecks = new ArrayList<>();
+
+	@Test
+	void runsAtMostMaximumChecksPerHostAtOnce() {
+		HostPolitenessScheduler hostPolitenessScheduler = new HostPolitenessScheduler(2, 0);
+
+		for (int checkNumber = 1; checkNumber <= 4; checkNumber++) {
+			submitHeldCheck(hostPolitenessScheduler, "busy.example.org", "busy " + checkNumber);
+		}
+		submitHeldCheck(hostPolitenessScheduler, "other.example.org", "other 1");
+
+		assertThat(this.startedChecks, contains("busy 1", "busy 2", "other 1"));
+		assertThat(this.countingExecutor.executions.get(), equalTo(3));
+	}
+
+	@Test
+	void finishedCheckHandsItsPermitToNextWaitingCheck() {
+		HostPolitenessScheduler hostPolitenessScheduler = new HostPolitenessScheduler(1, 0);
+
+		CompletableFuture<Void> firstCheck = submitHeldCheck(hostPolitenessScheduler, "example.org", "first");
+		CompletableFuture<Void> secondCheck = submitHeldCheck(hostPolitenessScheduler, "example.org", "second");
+		submitHeldCheck(hostPolitenessScheduler, "example.org", "third");
+		assertThat(this.startedChecks, contains("first"));
+
+		firstCheck.complete(null);
+		assertThat(this.startedChecks, contains("first", "second"));
+
+		secondCheck.complete(null);
+		assertThat(this.startedChecks, contains("first", "second", "third"));
+		assertThat(this.countingExecutor.executions.get(), equalTo(3));
+	}
+
+	@Test
+	void spacesConsecutiveChecksAgainstSameHost() {
+		HostPolitenessScheduler hostPolitenessScheduler = new HostPolitenessScheduler(3, MINIMUM_SPACING_MILLIS);
+		List<Long> startTimesNanos = new ArrayList<>();
+
+		for (int checkNumber = 1; checkNumber <= 3; checkNumber++) {
+			hostPolitenessScheduler.execute(
+				newResource("example.org"),
+				() -> startTimesNanos.add(System.nanoTime()),
+				this.countingExecutor,
+				() -> this.rejectedChecks.add("check")
+			);
+		}
+
+		assertThat(startTimesNanos.size(), equalTo(3));
+		for (int checkIndex = 1; checkIndex < startTimesNanos.size(); checkIndex++) {
+			long spacingMillis = TimeUnit.NANOSECONDS.toMillis(
+				startTimesNanos.get(checkIndex) - startTimesNanos.get(checkIndex - 1)
+			);
+			assertThat(spacingMillis, greaterThanOrEqualTo(MINIMUM_SPACING_MILLIS - 10));
+		}
+	}
+
+	@Test
+	void rejectedCheckAndChecksWaitingBehindItRunTheirRejectionHandlers() {
+		HostPolitenessScheduler hostPolitenessScheduler = new HostPolitenessScheduler(1, 0);
+
+		CompletableFuture<Void> firstCheck = submitHeldCheck(hostPolitenessScheduler, "example.org", "first");
+		submitHeldCheck(hostPolitenessScheduler, "example.org", "second");
+		submitHeldCheck(hostPolitenessScheduler, "example.org", "third");
+		this.countingExecutor.rejecting = true;
+		firstCheck.complete(null);
+
+		assertThat(this.startedChecks, contains("first"));
+		assertThat(this.rejectedChecks, contains("second", "third"));
+
+		// The abandoned permits are freed, so a later check is offered to the executor straight away
+		submitHeldCheck(hostPolitenessScheduler, "example.org", "fourth");
+		assertThat(this.rejectedChecks, contains("second", "third", "fourth"));
+	}
+
+	/**
+	 * Submits a check which records that it has started and then holds its host permit until the returned future is
+	 * completed.
+	 */
+	private CompletableFuture<Void> submitHeldCheck(
+		HostPolitenessScheduler hostPolitenessScheduler, String host, String checkName) {
+
+		CompletableFuture<Void> checkFinished = new CompletableFuture<>();
+		hostPolitenessScheduler.executeAsync(newResource(host), () -> {
+			this.startedChecks.add(checkName);
+			return checkFinished;
+		}, this.countingExecutor, () -> this.rejectedChecks.add(checkName));
+		return checkFinished;
+	}
+
+	private static Resource newResource(String host) {
+		return TestResources.newResource("File", "https://" + host + "/file.gz");
+	}
+
+	/**
+	 * Runs each task on the calling thread and counts it, or rejects it once told to.
+	 */
+	private static class CountingExecutor implements Executor {
+		private final AtomicInteger executions = new AtomicInteger();
+		private volatile boolean rejecting;
+
+		@Override
+		public void execute(Runnable task) {
+			if (this.rejecting) {
+				throw new RejectedExecutionException("Executor is rejecting checks");
+			}
+			this.executions.incrementAndGet();
+			task.run();
+		}
+	}
+}
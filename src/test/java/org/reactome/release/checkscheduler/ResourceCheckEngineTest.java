@@ -0,0 +1,155 @@
+package org.reactome.release.checkscheduler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reactome.release.Resource;
+import org.reactome.release.resourcechecker.AsyncHttpClientBackend;
+import org.reactome.release.resourcechecker.LocalHttpServer;
+import org.reactome.release.resourcechecker.NetworkTimeouts;
+import org.reactome.release.resourcechecker.TestResources;
+
+/**
+ * Checks run by the engine against a local HTTP server, checking the host limit still holds while the thread of a
+ * timed out check is blocked on its socket and that a stream of resources is only read a bounded window ahead of the
+ * checks which have finished.
+ */
+class ResourceCheckEngineTest {
+	private static final long CHECK_TIMEOUT_SECONDS = 1;
+	private static final long READ_TIMEOUT_SECONDS = 3;
+	private static final int FILE_SIZE_IN_BYTES = 1024;
+	private static final int IN_FLIGHT_CHECKS_PER_WORKER = 4;
+
+	@TempDir
+	Path downloadDirectory;
+
+	private LocalHttpServer httpServer;
+
+	@BeforeEach
+	void setNetworkTimeouts() {
+		NetworkTimeouts.setSharedInstance(new NetworkTimeouts(READ_TIMEOUT_SECONDS));
+	}
+
+	@AfterEach
+	void stopServer() throws IOException {
+		if (this.httpServer != null) {
+			this.httpServer.close();
+		}
+		if (AsyncHttpClientBackend.getSharedInstance() != null) {
+			AsyncHttpClientBackend.getSharedInstance().close();
+			AsyncHttpClientBackend.setSharedInstance(null);
+		}
+		NetworkTimeouts.setSharedInstance(new NetworkTimeouts(300));
+	}
+
+	@Test
+	void timedOutCheckKeepsHostPermitUntilItsThreadIsReleased() throws IOException {
+		Map<String, Long> firstRequestTimesNanos = new ConcurrentHashMap<>();
+		AsyncHttpClientBackend.setSharedInstance(new AsyncHttpClientBackend(2, READ_TIMEOUT_SECONDS));
+		this.httpServer = new LocalHttpServer((request, response) -> {
+			firstRequestTimesNanos.putIfAbsent(request.getMethod() + " " + request.getPath(), System.nanoTime());
+			response.setHeader("Content-Length", Integer.toString(FILE_SIZE_IN_BYTES)).sendHeaders(200, "OK");
+			if (request.getMethod().equals("GET")) {
+				// The body is never sent, so the download's read blocks until its read timeout
+				sleep(TimeUnit.SECONDS.toMillis(READ_TIMEOUT_SECONDS * 2));
+			}
+		});
+		List<Resource> resources = Arrays.asList(newResource("File", "/first.gz"), newResource("File", "/second.gz"));
+
+		List<ResourceCheckResult> checkResults;
+		try (ResourceCheckEngine resourceCheckEngine = new ResourceCheckEngine(
+			2, CHECK_TIMEOUT_SECONDS, new HostPolitenessScheduler(1, 0), this.downloadDirectory)) {
+
+			checkResults = resourceCheckEngine.checkResources(resources);
+		}
+
+		assertThat(
+			checkResults.stream().map(ResourceCheckResult::getStatus).collect(Collectors.toList()),
+			everyItem(is(ResourceCheckResult.Status.TIMED_OUT))
+		);
+		// The second check may only reach the host once the first download's read has timed out, not as soon as the
+		// first check has timed out
+		long millisBetweenChecks = TimeUnit.NANOSECONDS.toMillis(
+			firstRequestTimesNanos.get("HEAD /second.gz") - firstRequestTimesNanos.get("GET /first.gz")
+		);
+		assertThat(millisBetweenChecks, greaterThanOrEqualTo(TimeUnit.SECONDS.toMillis(READ_TIMEOUT_SECONDS) - 500));
+	}
+
+	@Test
+	void pullsAtMostInFlightWindowOfStreamedResourcesBeforeResultsArrive() throws Exception {
+		int parallelism = 2;
+		int resourceCount = 40;
+		CountDownLatch responsesReleased = new CountDownLatch(1);
+		this.httpServer = new LocalHttpServer((request, response) -> {
+			try {
+				responsesReleased.await(30, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			response.setHeader("Content-Length", "0").sendHeaders(200, "OK");
+		});
+		AtomicInteger pulledResources = new AtomicInteger();
+		Stream<Resource> resources = IntStream.range(0, resourceCount).mapToObj(resourceNumber -> {
+			pulledResources.incrementAndGet();
+			return newResource("REST EndPoint", "/resource" + resourceNumber);
+		});
+		List<ResourceCheckResult> checkResults = Collections.synchronizedList(new ArrayList<>());
+
+		try (ResourceCheckEngine resourceCheckEngine = new ResourceCheckEngine(parallelism, 30)) {
+			CompletableFuture<Void> streamChecked = CompletableFuture.runAsync(
+				() -> resourceCheckEngine.checkResources(resources, checkResults::add)
+			);
+			int inFlightWindow = parallelism * IN_FLIGHT_CHECKS_PER_WORKER;
+			for (int attempt = 0; attempt < 50 && pulledResources.get() < inFlightWindow; attempt++) {
+				sleep(100);
+			}
+			// Give the engine time to pull beyond its window if it were going to
+			sleep(500);
+
+			assertThat(pulledResources.get(), equalTo(inFlightWindow));
+			assertThat(checkResults, is(empty()));
+
+			responsesReleased.countDown();
+			streamChecked.get(30, TimeUnit.SECONDS);
+		}
+
+		assertThat(pulledResources.get(), equalTo(resourceCount));
+		assertThat(checkResults.size(), equalTo(resourceCount));
+	}
+
+	private Resource newResource(String resourceType, String path) {
+		return TestResources.newResource(resourceType, this.httpServer.getURL(path));
+	}
+
+	private static void sleep(long millis) {
+		try {
+			TimeUnit.MILLISECONDS.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
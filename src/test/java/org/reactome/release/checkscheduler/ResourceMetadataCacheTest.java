@@ -0,0 +1,184 @@
+package org.reactome.release.checkscheduler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockftpserver.fake.FakeFtpServer;
+import org.mockftpserver.fake.UserAccount;
+import org.mockftpserver.fake.filesystem.DirectoryEntry;
+import org.mockftpserver.fake.filesystem.FileEntry;
+import org.mockftpserver.fake.filesystem.UnixFakeFileSystem;
+import org.reactome.release.Resource;
+import org.reactome.release.resourcechecker.FTPFileResourceChecker;
+import org.reactome.release.resourcechecker.FTPSessionPool;
+import org.reactome.release.resourcechecker.HTTPFileResourceChecker;
+import org.reactome.release.resourcechecker.LocalHttpServer;
+import org.reactome.release.resourcechecker.ResourceMetadata;
+import org.reactome.release.resourcechecker.TestResources;
+
+/**
+ * Re-use of cached reports for resources a local HTTP or FTP server reports as unchanged, and full checks of
+ * resources which have changed or whose cached entry is older than the maximum age.
+ */
+class ResourceMetadataCacheTest {
+	private static final String ENTITY_TAG = "\"v1\"";
+	private static final String MODIFICATION_TIME = "20200101120000";
+	private static final String FILE_CONTENT = "cached file";
+	private static final long MAX_AGE_SECONDS = 3600;
+
+	@TempDir
+	Path cacheDirectory;
+
+	private LocalHttpServer httpServer;
+	private FakeFtpServer fakeFtpServer;
+	private final List<String> ifNoneMatchHeaders = Collections.synchronizedList(new ArrayList<>());
+
+	@AfterEach
+	void stopServers() throws IOException {
+		if (this.httpServer != null) {
+			this.httpServer.close();
+		}
+		if (this.fakeFtpServer != null) {
+			FTPSessionPool.getSharedInstance().close();
+			this.fakeFtpServer.stop();
+		}
+	}
+
+	@Test
+	void reusesCachedReportWhenServerAnswersNotModified() throws IOException {
+		Resource resource = newHttpResource(304);
+		ResourceMetadataCache resourceMetadataCache = newCache(MAX_AGE_SECONDS);
+		resourceMetadataCache.record(resource, ResourceMetadata.forHttp(ENTITY_TAG, null, 1024), passedReport());
+
+		JsonObject cachedReport = resourceMetadataCache.getUnchangedReport(new HTTPFileResourceChecker(resource));
+
+		assertThat(cachedReport, is(notNullValue()));
+		assertThat(cachedReport.get("Passed Checks").getAsBoolean(), is(true));
+		assertThat(cachedReport.has("Cached Report From"), is(true));
+		assertThat(this.ifNoneMatchHeaders, contains(ENTITY_TAG));
+		assertThat(resourceMetadataCache.getHitCount(), equalTo(1L));
+		assertThat(resourceMetadataCache.getMissCount(), equalTo(0L));
+	}
+
+	@Test
+	void checksResourceAgainWhenServerAnswersWithNewVersion() throws IOException {
+		Resource resource = newHttpResource(200);
+		ResourceMetadataCache resourceMetadataCache = newCache(MAX_AGE_SECONDS);
+		resourceMetadataCache.record(resource, ResourceMetadata.forHttp(ENTITY_TAG, null, 1024), passedReport());
+
+		assertThat(resourceMetadataCache.getUnchangedReport(new HTTPFileResourceChecker(resource)), is(nullValue()));
+		assertThat(this.ifNoneMatchHeaders, contains(ENTITY_TAG));
+		assertThat(resourceMetadataCache.getHitCount(), equalTo(0L));
+		assertThat(resourceMetadataCache.getMissCount(), equalTo(1L));
+	}
+
+	@Test
+	void checksResourceAgainWhenCachedEntryIsOlderThanMaximumAge() throws Exception {
+		Resource resource = newHttpResource(304);
+		ResourceMetadataCache previousRunCache = newCache(1);
+		previousRunCache.record(resource, ResourceMetadata.forHttp(ENTITY_TAG, null, 1024), passedReport());
+		previousRunCache.save();
+		TimeUnit.MILLISECONDS.sleep(1100);
+
+		ResourceMetadataCache resourceMetadataCache = newCache(1);
+
+		assertThat(resourceMetadataCache.hasFreshEntry(resource), is(false));
+		assertThat(resourceMetadataCache.getUnchangedReport(new HTTPFileResourceChecker(resource)), is(nullValue()));
+		// An expired entry is not worth a conditional request
+		assertThat(this.ifNoneMatchHeaders, is(empty()));
+		assertThat(resourceMetadataCache.getMissCount(), equalTo(1L));
+	}
+
+	@Test
+	void reusesCachedReportWhenFtpModificationTimeAndSizeAreUnchanged() throws IOException {
+		Resource resource = newFtpResource();
+		ResourceMetadataCache resourceMetadataCache = newCache(MAX_AGE_SECONDS);
+		resourceMetadataCache.record(
+			resource, ResourceMetadata.forFtp(MODIFICATION_TIME, FILE_CONTENT.length()), passedReport()
+		);
+
+		assertThat(
+			resourceMetadataCache.getUnchangedReport(new FTPFileResourceChecker(resource)), is(notNullValue())
+		);
+		assertThat(resourceMetadataCache.getHitCount(), equalTo(1L));
+	}
+
+	@Test
+	void checksResourceAgainWhenFtpSizeHasChanged() throws IOException {
+		Resource resource = newFtpResource();
+		ResourceMetadataCache resourceMetadataCache = newCache(MAX_AGE_SECONDS);
+		resourceMetadataCache.record(
+			resource, ResourceMetadata.forFtp(MODIFICATION_TIME, FILE_CONTENT.length() + 1), passedReport()
+		);
+
+		assertThat(resourceMetadataCache.getUnchangedReport(new FTPFileResourceChecker(resource)), is(nullValue()));
+		assertThat(resourceMetadataCache.getMissCount(), equalTo(1L));
+	}
+
+	private ResourceMetadataCache newCache(long maxAgeSeconds) throws IOException {
+		return ResourceMetadataCache.load(this.cacheDirectory.resolve("metadata-cache.json"), maxAgeSeconds);
+	}
+
+	/**
+	 * Starts an HTTP server answering conditional requests with the given status (and every other request with 200)
+	 * and returns a file resource on it.
+	 */
+	private Resource newHttpResource(int conditionalResponseCode) throws IOException {
+		this.httpServer = new LocalHttpServer((request, response) -> {
+			String ifNoneMatch = request.getHeader("If-None-Match");
+			if (ifNoneMatch != null) {
+				this.ifNoneMatchHeaders.add(ifNoneMatch);
+			}
+			if (ifNoneMatch != null && conditionalResponseCode == 304) {
+				response.setHeader("ETag", ENTITY_TAG).sendHeaders(304, "Not Modified");
+			} else {
+				response.setHeader("ETag", "\"v2\"").setHeader("Content-Length", "2048").sendHeaders(200, "OK");
+			}
+		});
+		return TestResources.newResource("File", this.httpServer.getURL("/file.gz"));
+	}
+
+	/**
+	 * Starts an FTP server reporting a fixed modification time for its file and returns a file resource on it.
+	 */
+	private Resource newFtpResource() {
+		UnixFakeFileSystem fileSystem = new UnixFakeFileSystem();
+		fileSystem.add(new DirectoryEntry("/pub"));
+		fileSystem.add(new FileEntry("/pub/file.gz", FILE_CONTENT));
+
+		this.fakeFtpServer = new FakeFtpServer();
+		this.fakeFtpServer.setServerControlPort(0);
+		this.fakeFtpServer.setFileSystem(fileSystem);
+		this.fakeFtpServer.addUserAccount(new UserAccount("anonymous", "help@reactome.org", "/"));
+		this.fakeFtpServer.setCommandHandler("MDTM", (command, session) ->
+			session.sendReply(213, MODIFICATION_TIME)
+		);
+		this.fakeFtpServer.start();
+		return TestResources.newResource(
+			"File", "ftp://localhost:" + this.fakeFtpServer.getServerControlPort() + "/pub/file.gz"
+		);
+	}
+
+	private static JsonObject passedReport() {
+		JsonObject reportJson = new JsonObject();
+		reportJson.addProperty("Passed Checks", true);
+		return reportJson;
+	}
+}
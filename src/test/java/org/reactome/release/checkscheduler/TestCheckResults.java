@@ -0,0 +1,49 @@
+package org.reactome.release.checkscheduler;
+
+import com.google.gson.JsonObject;
+
+import org.reactome.release.Resource;
+
+/**
+ * Builds check results for tests outside the engine's package, such as those of the report sinks.
+ */
+public final class TestCheckResults {
+	private TestCheckResults() {}
+
+	/**
+	 * Returns the result of a completed check whose report has the passed checks attribute given.
+	 *
+	 * @param resource Resource checked
+	 * @param passedChecks <code>true</code> if the report should pass; <code>false</code> otherwise
+	 * @param elapsedMillis Time the check took
+	 * @return Completed check result
+	 */
+	public static ResourceCheckResult completed(Resource resource, boolean passedChecks, long elapsedMillis) {
+		JsonObject report = new JsonObject();
+		report.addProperty("Passed Checks", passedChecks);
+		return ResourceCheckResult.completed(resource, report, elapsedMillis);
+	}
+
+	/**
+	 * Returns the result of a check which failed with the cause given.
+	 *
+	 * @param resource Resource checked
+	 * @param cause Reason the check failed
+	 * @param elapsedMillis Time the check took
+	 * @return Failed check result
+	 */
+	public static ResourceCheckResult failed(Resource resource, Throwable cause, long elapsedMillis) {
+		return ResourceCheckResult.failed(resource, cause, elapsedMillis);
+	}
+
+	/**
+	 * Returns the result of a check skipped for the reason given.
+	 *
+	 * @param resource Resource whose check was skipped
+	 * @param reason Reason the check was skipped
+	 * @return Skipped check result
+	 */
+	public static ResourceCheckResult skipped(Resource resource, String reason) {
+		return ResourceCheckResult.skipped(resource, reason);
+	}
+}
@@ -0,0 +1,77 @@
+package org.reactome.release.report;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reactome.release.Resource;
+import org.reactome.release.checkscheduler.TestCheckResults;
+import org.reactome.release.resourcechecker.TestResources;
+
+/**
+ * Results streamed into the "Resources" array of one JSON document, completed with the release step summary when
+ * the sink is closed.
+ */
+class JSONReportSinkTest {
+	@TempDir
+	Path reportDirectory;
+
+	@Test
+	void writesResourcesAndSummaryAsOneDocument() throws IOException {
+		Path reportFile = this.reportDirectory.resolve("report.json");
+		Resource passedResource = TestResources.newResource("File", "https://example.org/a.gz");
+		Resource skippedResource = TestResources.newResource("Web Page", "https://example.org/page");
+
+		try (JSONReportSink reportSink = new JSONReportSink(reportFile)) {
+			reportSink.write(TestCheckResults.completed(passedResource, true, 10));
+			reportSink.write(TestCheckResults.skipped(skippedResource, "blocking release step failed"));
+		}
+
+		JsonObject reportJson = new JsonParser().parse(
+			new String(Files.readAllBytes(reportFile), StandardCharsets.UTF_8)
+		).getAsJsonObject();
+
+		JsonArray resourcesJson = reportJson.getAsJsonArray("Resources");
+		assertThat(resourcesJson.size(), equalTo(2));
+		assertThat(
+			resourcesJson.get(0).getAsJsonObject().get("Resource URL").getAsString(),
+			equalTo("https://example.org/a.gz")
+		);
+		assertThat(
+			resourcesJson.get(1).getAsJsonObject().getAsJsonObject("Report").get("Check Status").getAsString(),
+			equalTo("Skipped")
+		);
+
+		JsonObject summaryJson = reportJson.getAsJsonObject("Summary");
+		assertThat(summaryJson.get("Passed").getAsInt(), equalTo(1));
+		assertThat(summaryJson.get("Failed").getAsInt(), equalTo(0));
+		assertThat(summaryJson.get("Skipped").getAsInt(), equalTo(1));
+		assertThat(
+			summaryJson.getAsJsonObject("Release Steps").getAsJsonObject("Test Step").get("Skipped").getAsInt(),
+			equalTo(1)
+		);
+	}
+
+	@Test
+	void writesEmptyDocumentWhenNoResultsArrive() throws IOException {
+		Path reportFile = this.reportDirectory.resolve("report.json");
+
+		new JSONReportSink(reportFile).close();
+
+		JsonObject reportJson = new JsonParser().parse(
+			new String(Files.readAllBytes(reportFile), StandardCharsets.UTF_8)
+		).getAsJsonObject();
+		assertThat(reportJson.getAsJsonArray("Resources").size(), equalTo(0));
+		assertThat(reportJson.getAsJsonObject("Summary").get("Passed").getAsInt(), equalTo(0));
+	}
+}
@@ -0,0 +1,54 @@
+package org.reactome.release.report;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reactome.release.checkscheduler.TestCheckResults;
+import org.reactome.release.resourcechecker.TestResources;
+
+/**
+ * Results written as one complete JSON document per line, with the resource's attributes and its report.
+ */
+class NDJSONReportSinkTest {
+	@TempDir
+	Path reportDirectory;
+
+	@Test
+	void writesEachResultAsOneJsonLine() throws IOException {
+		Path reportFile = this.reportDirectory.resolve("report.ndjson");
+
+		try (NDJSONReportSink reportSink = new NDJSONReportSink(reportFile)) {
+			reportSink.write(
+				TestCheckResults.completed(TestResources.newResource("File", "https://example.org/a.gz"), true, 10)
+			);
+			reportSink.write(TestCheckResults.failed(
+				TestResources.newResource("Web Page", "https://example.org/page"),
+				new IOException("Connection\nrefused"), 20
+			));
+		}
+
+		List<String> lines = Files.readAllLines(reportFile, StandardCharsets.UTF_8);
+		assertThat(lines, hasSize(2));
+
+		JsonObject passedJson = new JsonParser().parse(lines.get(0)).getAsJsonObject();
+		assertThat(passedJson.get("Resource URL").getAsString(), equalTo("https://example.org/a.gz"));
+		assertThat(passedJson.getAsJsonObject("Report").get("Passed Checks").getAsBoolean(), equalTo(true));
+
+		JsonObject failedReportJson = new JsonParser().parse(lines.get(1)).getAsJsonObject().getAsJsonObject("Report");
+		assertThat(failedReportJson.get("Passed Checks").getAsBoolean(), equalTo(false));
+		assertThat(failedReportJson.get("Check Status").getAsString(), equalTo("Failed"));
+		assertThat(failedReportJson.get("Error").getAsString(), equalTo("Connection\nrefused"));
+	}
+}
@@ -0,0 +1,113 @@
+package org.reactome.release.report;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.reactome.release.checkscheduler.ResourceCheckResult;
+import org.reactome.release.checkscheduler.TestCheckResults;
+import org.reactome.release.resourcechecker.TestResources;
+
+/**
+ * Results written to every sink, a sink which fails to write being skipped for the rest of the run without stopping
+ * the others, and the first failure being thrown once every sink has been closed.
+ */
+class ReportWriterTest {
+	@Test
+	void keepsWritingToOtherSinksAfterOneFailsAndThrowsFailureOnClose() {
+		RecordingReportSink failingReportSink = new RecordingReportSink(1, false);
+		RecordingReportSink reportSink = new RecordingReportSink(-1, false);
+		ReportWriter reportWriter = new ReportWriter(Arrays.asList(failingReportSink, reportSink));
+
+		for (int resultNumber = 0; resultNumber < 3; resultNumber++) {
+			reportWriter.accept(passedResult());
+		}
+
+		// The failing sink is not written to again once its second write has failed
+		assertThat(failingReportSink.writeAttempts, equalTo(2));
+		assertThat(reportSink.writeAttempts, equalTo(3));
+		assertThat(reportWriter.getReleaseStepSummary().getPassedCount(), equalTo(3));
+
+		IOException closeFailure = assertThrows(IOException.class, reportWriter::close);
+		assertThat(closeFailure, is(sameInstance(failingReportSink.writeFailure)));
+		assertThat(failingReportSink.closed, is(true));
+		assertThat(reportSink.closed, is(true));
+	}
+
+	@Test
+	void closesEverySinkAndSuppressesLaterCloseFailures() {
+		RecordingReportSink failingReportSink = new RecordingReportSink(0, true);
+		RecordingReportSink otherFailingReportSink = new RecordingReportSink(-1, true);
+		RecordingReportSink reportSink = new RecordingReportSink(-1, false);
+		ReportWriter reportWriter = new ReportWriter(
+			Arrays.asList(failingReportSink, otherFailingReportSink, reportSink)
+		);
+		reportWriter.accept(passedResult());
+
+		IOException closeFailure = assertThrows(IOException.class, reportWriter::close);
+
+		assertThat(closeFailure, is(sameInstance(failingReportSink.writeFailure)));
+		// A runtime exception thrown while completing a sink's document is reported as an IOException
+		assertThat(closeFailure.getSuppressed(), arrayWithSize(2));
+		assertThat(closeFailure.getSuppressed()[0].getCause(), is(sameInstance(failingReportSink.closeFailure)));
+		assertThat(reportSink.closed, is(true));
+	}
+
+	@Test
+	void closesWithoutFailureWhenEverySinkIsWritten() throws IOException {
+		RecordingReportSink reportSink = new RecordingReportSink(-1, false);
+		ReportWriter reportWriter = new ReportWriter(Collections.singletonList(reportSink));
+
+		reportWriter.accept(passedResult());
+		reportWriter.close();
+
+		assertThat(reportSink.writeAttempts, equalTo(1));
+		assertThat(reportSink.closed, is(true));
+	}
+
+	private static ResourceCheckResult passedResult() {
+		return TestCheckResults.completed(TestResources.newResource("File", "https://example.org/a.gz"), true, 10);
+	}
+
+	/**
+	 * Counts the writes attempted on it, failing the write with the given index (none if negative) and optionally
+	 * failing to close.
+	 */
+	private static class RecordingReportSink implements ReportSink {
+		private final int failingWriteIndex;
+		private final boolean failOnClose;
+		private final IOException writeFailure = new IOException("Disk full");
+		private final IllegalStateException closeFailure = new IllegalStateException("Document incomplete");
+		private int writeAttempts;
+		private boolean closed;
+
+		private RecordingReportSink(int failingWriteIndex, boolean failOnClose) {
+			this.failingWriteIndex = failingWriteIndex;
+			this.failOnClose = failOnClose;
+		}
+
+		@Override
+		public void write(ResourceCheckResult checkResult) throws IOException {
+			this.writeAttempts += 1;
+			if (this.writeAttempts - 1 == this.failingWriteIndex) {
+				throw this.writeFailure;
+			}
+		}
+
+		@Override
+		public void close() {
+			this.closed = true;
+			if (this.failOnClose) {
+				throw this.closeFailure;
+			}
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package org.reactome.release.report;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reactome.release.checkscheduler.TestCheckResults;
+import org.reactome.release.resourcechecker.TestResources;
+
+/**
+ * The header row and one tab separated row per result, with tabs and line breaks in values replaced so each result
+ * stays on its own row.
+ */
+class TSVReportSinkTest {
+	@TempDir
+	Path reportDirectory;
+
+	@Test
+	void writesHeaderAndOneRowPerResult() throws IOException {
+		Path reportFile = this.reportDirectory.resolve("report.tsv");
+
+		try (TSVReportSink reportSink = new TSVReportSink(reportFile)) {
+			reportSink.write(
+				TestCheckResults.completed(TestResources.newResource("File", "https://example.org/a.gz"), true, 10)
+			);
+			reportSink.write(TestCheckResults.failed(
+				TestResources.newResource("Web Page", "https://example.org/page"),
+				new IOException("Connection\trefused\r\nby host"), 20
+			));
+		}
+
+		List<String> lines = Files.readAllLines(reportFile, StandardCharsets.UTF_8);
+		assertThat(lines, hasSize(3));
+		assertThat(Arrays.asList(lines.get(0).split("\t")), contains(
+			"Release Step", "Resource", "Resource Type", "Resource URL", "Check Status", "Passed Checks",
+			"Elapsed Milliseconds", "Error"
+		));
+		// The trailing empty error column is kept by the negative split limit
+		assertThat(Arrays.asList(lines.get(1).split("\t", -1)), contains(
+			"Test Step", "test_resource", "File", "https://example.org/a.gz", "Completed", "true", "10", ""
+		));
+		assertThat(Arrays.asList(lines.get(2).split("\t", -1)), contains(
+			"Test Step", "test_resource", "Web Page", "https://example.org/page", "Failed", "false", "20",
+			"Connection refused by host"
+		));
+	}
+}
@@ -0,0 +1,274 @@
+package org.reactome.release.resourcechecker;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactome.release.Resource;
+
+/**
+ * Checks made through the {@link AsyncHttpClientBackend} against local HTTP/1.1 and HTTP/2 (cleartext) servers,
+ * comparing each report with the one made through <code>HttpURLConnection</code> and checking a trickling body is
+ * bounded by the request timeout and a cancelled snapshot cancels its request.
+ */
+class AsyncHttpClientBackendTest {
+	private static final String EXPECTED_TEXT = "Reactome expected text";
+	private static final String ERROR_TEXT = "Reactome error text";
+	private static final String ENTITY_TAG = "\"file-version-1\"";
+	private static final int FILE_SIZE_IN_BYTES = 64 * 1024;
+	private static final int BODY_PADDING_IN_BYTES = 256 * 1024;
+	private static final long REQUEST_TIMEOUT_SECONDS = 2;
+
+	private Server http1Server;
+	private Server http2Server;
+	private Set<String> requestProtocols;
+	private CountDownLatch trickleAbandoned;
+
+	@BeforeEach
+	void startServers() throws Exception {
+		this.requestProtocols = ConcurrentHashMap.newKeySet();
+		this.trickleAbandoned = new CountDownLatch(1);
+		this.http1Server = startServer(false);
+		this.http2Server = startServer(true);
+	}
+
+	@AfterEach
+	void stopServers() throws Exception {
+		AsyncHttpClientBackend asyncHttpClientBackend = AsyncHttpClientBackend.getSharedInstance();
+		if (asyncHttpClientBackend != null) {
+			asyncHttpClientBackend.close();
+		}
+		AsyncHttpClientBackend.setSharedInstance(null);
+		this.http1Server.stop();
+		this.http2Server.stop();
+	}
+
+	@Test
+	void fileReportMatchesHttpURLConnectionOverHttp1AndHttp2() throws Exception {
+		assertReportsMatch("File", "/file", null, null, HTTPFileResourceChecker::new);
+	}
+
+	@Test
+	void restfulAPIReportMatchesHttpURLConnectionOverHttp1AndHttp2() throws Exception {
+		assertReportsMatch("REST EndPoint", "/rest", EXPECTED_TEXT, ERROR_TEXT, RESTfulAPIResourceChecker::new);
+	}
+
+	@Test
+	void missingResourceReportMatchesHttpURLConnectionOverHttp1AndHttp2() throws Exception {
+		assertReportsMatch("REST EndPoint", "/missing", EXPECTED_TEXT, ERROR_TEXT, RESTfulAPIResourceChecker::new);
+	}
+
+	@Test
+	void webPageReportMatchesHttpURLConnectionOverHttp1AndHttp2() throws Exception {
+		assertReportsMatch("Web Page", "/error-page", EXPECTED_TEXT, ERROR_TEXT, WebPageResourceChecker::new);
+	}
+
+	@Test
+	void tricklingBodyFailsWithinRequestTimeout() throws Exception {
+		try (AsyncHttpClientBackend asyncHttpClientBackend = newBackend()) {
+			for (Server server : new Server[] {this.http1Server, this.http2Server}) {
+				CompletableFuture<HttpResponseSnapshot> responseSnapshotFuture =
+					asyncHttpClientBackend.fetchResponseSnapshot(
+						getURI(server, "/trickle"), new ResponseTextMatcher(EXPECTED_TEXT, ERROR_TEXT)
+					);
+
+				long requestStartNanos = System.nanoTime();
+				ExecutionException failure = null;
+				try {
+					responseSnapshotFuture.get(REQUEST_TIMEOUT_SECONDS * 5, TimeUnit.SECONDS);
+				} catch (ExecutionException e) {
+					failure = e;
+				}
+
+				assertThat(
+					TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - requestStartNanos),
+					lessThan(REQUEST_TIMEOUT_SECONDS * 2)
+				);
+				assertThat(failure != null ? failure.getCause() : null, instanceOf(IOException.class));
+			}
+		}
+	}
+
+	@Test
+	void cancellingSnapshotCancelsRequest() throws Exception {
+		try (AsyncHttpClientBackend asyncHttpClientBackend = new AsyncHttpClientBackend(2, 60)) {
+			CompletableFuture<HttpResponseSnapshot> responseSnapshotFuture =
+				asyncHttpClientBackend.fetchResponseSnapshot(
+					getURI(this.http1Server, "/trickle"), new ResponseTextMatcher(EXPECTED_TEXT, ERROR_TEXT)
+				);
+			// Waits for the body to start trickling before cancelling
+			Thread.sleep(500);
+
+			responseSnapshotFuture.cancel(true);
+
+			assertThat(this.trickleAbandoned.await(10, TimeUnit.SECONDS), equalTo(true));
+		}
+	}
+
+	/**
+	 * Checks the resource on each server through <code>HttpURLConnection</code> and then through the asynchronous
+	 * backend, asserting the reports are the same and the HTTP/2 server's requests were made over HTTP/2.
+	 */
+	private void assertReportsMatch(
+		String resourceType,
+		String path,
+		String expectedResponseText,
+		String errorResponseText,
+		Function<Resource, ? extends HTTPResourceChecker> checkerConstructor
+	) throws Exception {
+		for (Server server : new Server[] {this.http1Server, this.http2Server}) {
+			JsonObject resourceJson = TestResources.newResourceJson(resourceType, getURI(server, path).toString());
+			if (expectedResponseText != null) {
+				resourceJson.addProperty("Expected Response Text", expectedResponseText);
+			}
+			if (errorResponseText != null) {
+				resourceJson.addProperty("Error Response Text", errorResponseText);
+			}
+
+			AsyncHttpClientBackend.setSharedInstance(null);
+			JsonObject httpURLConnectionReport = checkerConstructor.apply(new Resource(resourceJson)).getReport();
+
+			try (AsyncHttpClientBackend asyncHttpClientBackend = newBackend()) {
+				AsyncHttpClientBackend.setSharedInstance(asyncHttpClientBackend);
+				// The first request upgrades the connection to HTTP/2 where the server allows it and the second is
+				// sent over the upgraded connection
+				for (int request = 0; request < 2; request++) {
+					HTTPResourceChecker asyncChecker = checkerConstructor.apply(new Resource(resourceJson));
+					asyncChecker.getResponseSnapshotHolder().prefetch()
+						.get(REQUEST_TIMEOUT_SECONDS * 5, TimeUnit.SECONDS);
+
+					assertThat(asyncChecker.getReport(), equalTo(httpURLConnectionReport));
+				}
+			} finally {
+				AsyncHttpClientBackend.setSharedInstance(null);
+			}
+		}
+
+		assertThat(this.requestProtocols, hasItem("HTTP/2.0"));
+	}
+
+	private static AsyncHttpClientBackend newBackend() {
+		return new AsyncHttpClientBackend(2, REQUEST_TIMEOUT_SECONDS);
+	}
+
+	private static URI getURI(Server server, String path) {
+		return URI.create(
+			"http://localhost:" + ((ServerConnector) server.getConnectors()[0]).getLocalPort() + path
+		);
+	}
+
+	private Server startServer(boolean http2Enabled) throws Exception {
+		Server server = new Server();
+		HttpConfiguration httpConfiguration = new HttpConfiguration();
+		ServerConnector serverConnector = http2Enabled ?
+			new ServerConnector(
+				server,
+				new HttpConnectionFactory(httpConfiguration),
+				new HTTP2CServerConnectionFactory(httpConfiguration)
+			) :
+			new ServerConnector(server, new HttpConnectionFactory(httpConfiguration));
+		serverConnector.setHost("localhost");
+		serverConnector.setPort(0);
+		server.addConnector(serverConnector);
+		server.setHandler(new AbstractHandler() {
+			@Override
+			public void handle(
+				String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response
+			) throws IOException {
+				baseRequest.setHandled(true);
+				requestProtocols.add(request.getProtocol());
+				AsyncHttpClientBackendTest.this.handle(target, request.getMethod(), response);
+			}
+		});
+		server.start();
+		return server;
+	}
+
+	private void handle(String path, String method, HttpServletResponse response) throws IOException {
+		switch (path) {
+			case "/file":
+				response.setHeader("ETag", ENTITY_TAG);
+				response.setContentLengthLong(FILE_SIZE_IN_BYTES);
+				if (!method.equals("HEAD")) {
+					response.getOutputStream().write(new byte[FILE_SIZE_IN_BYTES]);
+				}
+				break;
+			case "/rest":
+				// The expected text is after enough padding to arrive in a later block of the body
+				writeText(response, HttpServletResponse.SC_OK, padding() + EXPECTED_TEXT);
+				break;
+			case "/missing":
+				writeText(response, HttpServletResponse.SC_NOT_FOUND, ERROR_TEXT);
+				break;
+			case "/error-page":
+				writeText(response, HttpServletResponse.SC_OK, "<html>" + padding() + ERROR_TEXT + "</html>");
+				break;
+			case "/trickle":
+				trickle(response);
+				break;
+			default:
+				response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+		}
+	}
+
+	private static void writeText(HttpServletResponse response, int statusCode, String text) throws IOException {
+		byte[] body = text.getBytes(StandardCharsets.UTF_8);
+		response.setStatus(statusCode);
+		response.setContentType("text/plain");
+		response.setContentLength(body.length);
+		response.getOutputStream().write(body);
+	}
+
+	/**
+	 * Sends one byte of a body without the expected text every 100 milliseconds until the client goes away.
+	 */
+	private void trickle(HttpServletResponse response) throws IOException {
+		response.setContentType("text/plain");
+		OutputStream responseBody = response.getOutputStream();
+		try {
+			for (int bytesSent = 0; bytesSent < 600; bytesSent++) {
+				responseBody.write('.');
+				responseBody.flush();
+				Thread.sleep(100);
+			}
+		} catch (IOException e) {
+			this.trickleAbandoned.countDown();
+			throw e;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static String padding() {
+		return String.join("", Collections.nCopies(BODY_PADDING_IN_BYTES, "x"));
+	}
+}
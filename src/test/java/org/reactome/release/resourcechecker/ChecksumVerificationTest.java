@@ -0,0 +1,106 @@
+package org.reactome.release.resourcechecker;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactome.release.Resource;
+
+/**
+ * Verification of downloaded files against expected checksums, and the report of a file which was not downloaded.
+ */
+class ChecksumVerificationTest {
+	private LocalHttpServer checksumFileServer;
+	private AtomicInteger checksumFileRequests;
+
+	@BeforeEach
+	void startServer() throws IOException {
+		this.checksumFileRequests = new AtomicInteger();
+		this.checksumFileServer = new LocalHttpServer((request, response) -> {
+			this.checksumFileRequests.incrementAndGet();
+			byte[] checksumFile = "00001     1 file.gz\n".getBytes(StandardCharsets.UTF_8);
+			response.setHeader("Content-Length", Integer.toString(checksumFile.length))
+				.sendHeaders(200, "OK")
+				.write(checksumFile);
+		});
+	}
+
+	@AfterEach
+	void stopServer() throws IOException {
+		this.checksumFileServer.close();
+	}
+
+	@Test
+	void fileWhichWasNotDownloadedIsReportedAsNotVerifiedWithoutFetchingChecksumFile() {
+		ChecksumVerification checksumVerification = new ChecksumVerification(newResourceWithChecksumFile());
+
+		JsonObject checksumReport = checksumVerification.getReport();
+
+		assertThat(checksumReport.get("Status").getAsString(), equalTo("Not Downloaded"));
+		assertThat(checksumReport.get("Checksum Matches"), equalTo(JsonNull.INSTANCE));
+		assertThat(checksumVerification.getChecksumMatches(), nullValue());
+		assertThat(checksumVerification.isChecksumAcceptable(), equalTo(true));
+		assertThat(this.checksumFileRequests.get(), equalTo(0));
+	}
+
+	@Test
+	void downloadedFileIsVerifiedAgainstChecksumFile() throws IOException {
+		ChecksumVerification checksumVerification = new ChecksumVerification(newResourceWithChecksumFile());
+
+		download(checksumVerification, new byte[] {1});
+
+		assertThat(checksumVerification.getReport().get("Status").getAsString(), equalTo("Verified"));
+		assertThat(checksumVerification.isChecksumAcceptable(), equalTo(true));
+		assertThat(this.checksumFileRequests.get(), equalTo(1));
+	}
+
+	@Test
+	void zeroPaddedBsdSumMatchesComputedChecksum() throws IOException {
+		JsonObject resourceJson = TestResources.newResourceJson("File", "https://example.org/pub/file.gz");
+		resourceJson.addProperty("Expected Checksum", "00001     1");
+		resourceJson.addProperty("Checksum Algorithm", "sum");
+		ChecksumVerification checksumVerification = new ChecksumVerification(new Resource(resourceJson));
+
+		download(checksumVerification, new byte[] {1});
+
+		assertThat(checksumVerification.getChecksumMatches(), equalTo(true));
+	}
+
+	@Test
+	void mismatchedChecksumIsNotAcceptable() throws IOException {
+		JsonObject resourceJson = TestResources.newResourceJson("File", "https://example.org/pub/file.gz");
+		resourceJson.addProperty("Expected Checksum", "00002     1");
+		resourceJson.addProperty("Checksum Algorithm", "sum");
+		ChecksumVerification checksumVerification = new ChecksumVerification(new Resource(resourceJson));
+
+		download(checksumVerification, new byte[] {1});
+
+		assertThat(checksumVerification.getReport().get("Status").getAsString(), equalTo("Mismatch"));
+		assertThat(checksumVerification.isChecksumAcceptable(), equalTo(false));
+	}
+
+	private Resource newResourceWithChecksumFile() {
+		JsonObject resourceJson = TestResources.newResourceJson("File", "https://example.org/pub/file.gz");
+		resourceJson.addProperty("Checksum URL", this.checksumFileServer.getURL("/pub/CHECKSUMS"));
+		return new Resource(resourceJson);
+	}
+
+	private static void download(ChecksumVerification checksumVerification, byte[] content) throws IOException {
+		try (InputStream contentStream = checksumVerification.track(new ByteArrayInputStream(content), null, 0)) {
+			contentStream.readAllBytes();
+		}
+		checksumVerification.completeDownload();
+	}
+}
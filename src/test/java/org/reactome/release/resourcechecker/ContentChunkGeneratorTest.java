@@ -0,0 +1,108 @@
+package org.reactome.release.resourcechecker;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+import org.reactome.release.resourcechecker.HTTPResourceChecker.ContentChunkGenerator;
+
+/**
+ * Chunked reads of content from a stream whose reads end part way through multi-byte UTF-8 characters.
+ */
+class ContentChunkGeneratorTest {
+	private static final int CHUNK_SIZE_IN_BYTES = 16;
+	// 15 ASCII bytes put the first byte of each 3 byte character at the end of a 16 byte read
+	private static final String CONTENT = "Reactome pathwa蛋白质 Ångström protéine";
+
+	@Test
+	void decodesCharacterSplitAcrossReads() {
+		CountingInputStream content = new CountingInputStream(CONTENT, CHUNK_SIZE_IN_BYTES);
+
+		StringBuilder decodedContent = new StringBuilder();
+		for (String contentChunk : newContentChunkGenerator(content)) {
+			decodedContent.append(contentChunk);
+		}
+
+		assertThat(decodedContent.toString(), equalTo(CONTENT));
+		assertThat(content.closed, is(true));
+	}
+
+	@Test
+	void returnsRawBytesOfEveryChunk() {
+		CountingInputStream content = new CountingInputStream(CONTENT, CHUNK_SIZE_IN_BYTES);
+
+		ByteArrayOutputStream rawContent = new ByteArrayOutputStream();
+		Iterator<ByteBuffer> byteChunkIterator = newContentChunkGenerator(content).byteChunks();
+		while (byteChunkIterator.hasNext()) {
+			ByteBuffer byteChunk = byteChunkIterator.next();
+			rawContent.write(byteChunk.array(), byteChunk.position(), byteChunk.remaining());
+		}
+
+		assertThat(rawContent.toByteArray(), equalTo(CONTENT.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	void hasNextDoesNotReadAnotherChunkWhenCalledAgain() {
+		CountingInputStream content = new CountingInputStream(CONTENT, CHUNK_SIZE_IN_BYTES);
+		Iterator<String> contentIterator = newContentChunkGenerator(content).iterator();
+
+		assertThat(contentIterator.hasNext(), is(true));
+		int readsForFirstChunk = content.reads;
+		assertThat(contentIterator.hasNext(), is(true));
+		assertThat(contentIterator.hasNext(), is(true));
+
+		assertThat(content.reads, equalTo(readsForFirstChunk));
+		assertThat(contentIterator.next(), equalTo("Reactome pathwa"));
+	}
+
+	@Test
+	void nextThrowsNoSuchElementExceptionOnceContentIsExhausted() {
+		CountingInputStream content = new CountingInputStream("Reactome", CHUNK_SIZE_IN_BYTES);
+		Iterator<String> contentIterator = newContentChunkGenerator(content).iterator();
+
+		assertThat(contentIterator.next(), equalTo("Reactome"));
+		assertThrows(NoSuchElementException.class, contentIterator::next);
+		assertThat(contentIterator.hasNext(), is(false));
+		assertThat(content.closed, is(true));
+	}
+
+	private static ContentChunkGenerator newContentChunkGenerator(CountingInputStream content) {
+		return new ContentChunkGenerator(content, CHUNK_SIZE_IN_BYTES, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Serves the UTF-8 bytes of the content at most a fixed number of bytes per read, counting the reads.
+	 */
+	private static class CountingInputStream extends ByteArrayInputStream {
+		private final int maxReadSizeInBytes;
+		private int reads;
+		private boolean closed;
+
+		private CountingInputStream(String content, int maxReadSizeInBytes) {
+			super(content.getBytes(StandardCharsets.UTF_8));
+			this.maxReadSizeInBytes = maxReadSizeInBytes;
+		}
+
+		@Override
+		public synchronized int read(byte[] buffer, int offset, int length) {
+			this.reads += 1;
+			return super.read(buffer, offset, Math.min(length, this.maxReadSizeInBytes));
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.closed = true;
+			super.close();
+		}
+	}
+}
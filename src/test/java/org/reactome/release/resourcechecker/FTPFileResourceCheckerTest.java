@@ -0,0 +1,142 @@
+package org.reactome.release.resourcechecker;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockftpserver.core.command.Command;
+import org.mockftpserver.core.command.CommandNames;
+import org.mockftpserver.core.command.ReplyCodes;
+import org.mockftpserver.core.session.Session;
+import org.mockftpserver.fake.FakeFtpServer;
+import org.mockftpserver.fake.UserAccount;
+import org.mockftpserver.fake.filesystem.DirectoryEntry;
+import org.mockftpserver.fake.filesystem.FileEntry;
+import org.mockftpserver.fake.filesystem.UnixFakeFileSystem;
+
+/**
+ * Downloads of an FTP file from a local server whose data connection drops part way through a transfer, checking
+ * the download resumes with REST from where the transfer stopped so the saved file is complete.
+ */
+class FTPFileResourceCheckerTest {
+	private static final String FILE_PATH = "/pub/file.gz";
+	private static final String MODIFICATION_TIME = "20200101120000";
+	private static final String RESTART_OFFSET_ATTRIBUTE = "restartOffset";
+	private static final int FILE_SIZE_IN_BYTES = 256 * 1024;
+	private static final int TRANSFER_ABORTED = 426;
+
+	@TempDir
+	Path downloadDirectory;
+
+	private byte[] fileContent;
+	private FakeFtpServer fakeFtpServer;
+	private List<Long> retrieveOffsets;
+	private AtomicInteger transfersToDrop;
+
+	@BeforeEach
+	void startServer() {
+		this.fileContent = new byte[FILE_SIZE_IN_BYTES];
+		new Random(42).nextBytes(this.fileContent);
+		this.retrieveOffsets = Collections.synchronizedList(new ArrayList<>());
+		this.transfersToDrop = new AtomicInteger();
+
+		UnixFakeFileSystem fileSystem = new UnixFakeFileSystem();
+		fileSystem.add(new DirectoryEntry("/pub"));
+		FileEntry fileEntry = new FileEntry(FILE_PATH);
+		fileEntry.setContents(this.fileContent);
+		fileSystem.add(fileEntry);
+
+		this.fakeFtpServer = new FakeFtpServer();
+		this.fakeFtpServer.setServerControlPort(0);
+		this.fakeFtpServer.setFileSystem(fileSystem);
+		this.fakeFtpServer.addUserAccount(new UserAccount("anonymous", "help@reactome.org", "/"));
+		this.fakeFtpServer.setCommandHandler("MDTM", (command, session) ->
+			session.sendReply(213, MODIFICATION_TIME)
+		);
+		this.fakeFtpServer.setCommandHandler(CommandNames.REST, (command, session) -> {
+			session.setAttribute(RESTART_OFFSET_ATTRIBUTE, Long.valueOf(command.getParameter(0)));
+			session.sendReply(ReplyCodes.REST_OK, "Restarting at " + command.getParameter(0));
+		});
+		this.fakeFtpServer.setCommandHandler(CommandNames.RETR, this::retrieve);
+		this.fakeFtpServer.start();
+	}
+
+	@AfterEach
+	void stopServer() {
+		FTPSessionPool.getSharedInstance().close();
+		this.fakeFtpServer.stop();
+	}
+
+	@Test
+	void resumesFromWhereTransferDroppedWithRestartOffset() throws IOException {
+		this.transfersToDrop.set(1);
+
+		Path downloadDestination = download();
+
+		assertThat(this.retrieveOffsets, contains(0L, (long) FILE_SIZE_IN_BYTES / 2));
+		assertThat(Files.readAllBytes(downloadDestination), equalTo(this.fileContent));
+	}
+
+	@Test
+	void restartsFromZeroWhenPartialDownloadIsForAnotherVersion() throws IOException {
+		Path downloadDestination = this.downloadDirectory.resolve("file.gz");
+		new PartialDownload(downloadDestination).writeFrom(
+			new ByteArrayInputStream(new byte[1000]), 0, "20190101120000"
+		);
+
+		download();
+
+		assertThat(this.retrieveOffsets, contains(0L));
+		assertThat(Files.readAllBytes(downloadDestination), equalTo(this.fileContent));
+	}
+
+	private Path download() throws IOException {
+		Path downloadDestination = this.downloadDirectory.resolve("file.gz");
+		new FTPFileResourceChecker(
+			TestResources.newResource(
+				"File", "ftp://localhost:" + this.fakeFtpServer.getServerControlPort() + FILE_PATH
+			)
+		).saveFileContents(downloadDestination);
+		return downloadDestination;
+	}
+
+	/**
+	 * Sends the file from the session's restart offset, dropping the data connection half way through the file while
+	 * transfers remain to be dropped.
+	 */
+	private void retrieve(Command command, Session session) {
+		Long restartOffset = (Long) session.getAttribute(RESTART_OFFSET_ATTRIBUTE);
+		session.removeAttribute(RESTART_OFFSET_ATTRIBUTE);
+		int offset = restartOffset != null ? restartOffset.intValue() : 0;
+		this.retrieveOffsets.add((long) offset);
+
+		boolean dropTransfer = this.transfersToDrop.getAndDecrement() > 0;
+		int endOffset = dropTransfer ? this.fileContent.length / 2 : this.fileContent.length;
+		byte[] transferContent = Arrays.copyOfRange(this.fileContent, offset, endOffset);
+
+		session.sendReply(ReplyCodes.TRANSFER_DATA_INITIAL_OK, "Opening binary data connection for " + FILE_PATH);
+		session.openDataConnection();
+		session.sendData(transferContent, transferContent.length);
+		session.closeDataConnection();
+		if (dropTransfer) {
+			session.sendReply(TRANSFER_ABORTED, "Connection closed; transfer aborted");
+		} else {
+			session.sendReply(ReplyCodes.TRANSFER_DATA_FINAL_OK, "Transfer complete");
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package org.reactome.release.resourcechecker;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.net.ftp.FTPClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockftpserver.core.command.Command;
+import org.mockftpserver.core.command.CommandHandler;
+import org.mockftpserver.core.command.CommandNames;
+import org.mockftpserver.core.session.Session;
+import org.mockftpserver.fake.FakeFtpServer;
+import org.mockftpserver.fake.UserAccount;
+import org.mockftpserver.fake.filesystem.DirectoryEntry;
+import org.mockftpserver.fake.filesystem.FileEntry;
+import org.mockftpserver.fake.filesystem.UnixFakeFileSystem;
+
+/**
+ * Sessions lent by the FTPSessionPool to checkers of files on a local server, counting the logins the server sees to
+ * tell a re-used session from a new one.
+ */
+class FTPSessionPoolTest {
+	private static final String MODIFICATION_TIME = "20200101120000";
+	private static final int SERVICE_NOT_AVAILABLE = 421;
+	private static final long IDLE_TIMEOUT_SECONDS = 1;
+
+	@TempDir
+	Path downloadDirectory;
+
+	private FakeFtpServer fakeFtpServer;
+	private AtomicInteger logins;
+	private FTPSessionPool.FTPSessionKey ftpSessionKey;
+
+	@BeforeEach
+	void startServer() {
+		this.logins = new AtomicInteger();
+
+		UnixFakeFileSystem fileSystem = new UnixFakeFileSystem();
+		fileSystem.add(new DirectoryEntry("/pub"));
+		fileSystem.add(new FileEntry("/pub/first.gz", "first"));
+		fileSystem.add(new FileEntry("/pub/second.gz", "second"));
+
+		this.fakeFtpServer = new FakeFtpServer();
+		this.fakeFtpServer.setServerControlPort(0);
+		this.fakeFtpServer.setFileSystem(fileSystem);
+		this.fakeFtpServer.addUserAccount(new UserAccount("anonymous", "help@reactome.org", "/"));
+		this.fakeFtpServer.setCommandHandler("MDTM", (command, session) ->
+			session.sendReply(213, MODIFICATION_TIME)
+		);
+		CommandHandler passHandler = this.fakeFtpServer.getCommandHandler(CommandNames.PASS);
+		this.fakeFtpServer.setCommandHandler(CommandNames.PASS, (command, session) -> {
+			this.logins.incrementAndGet();
+			passHandler.handleCommand(command, session);
+		});
+		this.fakeFtpServer.start();
+
+		this.ftpSessionKey = new FTPSessionPool.FTPSessionKey(
+			"localhost", this.fakeFtpServer.getServerControlPort(), "anonymous", "help@reactome.org"
+		);
+		FTPSessionPool.setSharedInstance(new FTPSessionPool(4, IDLE_TIMEOUT_SECONDS));
+	}
+
+	@AfterEach
+	void stopServer() {
+		FTPSessionPool.setSharedInstance(null);
+		this.fakeFtpServer.stop();
+	}
+
+	@Test
+	void reusesSessionAcrossCheckers() {
+		assertThat(newChecker("/pub/first.gz").getResourceMetadata(), is(notNullValue()));
+		assertThat(newChecker("/pub/second.gz").getResourceMetadata(), is(notNullValue()));
+
+		assertThat(this.logins.get(), equalTo(1));
+	}
+
+	@Test
+	void replacesIdleSessionWhichFailsNoop() throws IOException {
+		FTPSessionPool ftpSessionPool = FTPSessionPool.getSharedInstance();
+		FTPClient deadSession = ftpSessionPool.borrow(this.ftpSessionKey);
+		ftpSessionPool.release(this.ftpSessionKey, deadSession);
+		this.fakeFtpServer.setCommandHandler(CommandNames.NOOP, this::closeSession);
+
+		FTPClient replacementSession = ftpSessionPool.borrow(this.ftpSessionKey);
+
+		assertThat(replacementSession, is(not(sameInstance(deadSession))));
+		assertThat(replacementSession.isConnected(), is(true));
+		assertThat(deadSession.isConnected(), is(false));
+		assertThat(this.logins.get(), equalTo(2));
+	}
+
+	@Test
+	void closesSessionIdleForLongerThanIdleTimeout() throws Exception {
+		FTPSessionPool ftpSessionPool = FTPSessionPool.getSharedInstance();
+		FTPClient idleSession = ftpSessionPool.borrow(this.ftpSessionKey);
+		ftpSessionPool.release(this.ftpSessionKey, idleSession);
+		TimeUnit.MILLISECONDS.sleep(TimeUnit.SECONDS.toMillis(IDLE_TIMEOUT_SECONDS) + 200);
+
+		FTPClient newSession = ftpSessionPool.borrow(this.ftpSessionKey);
+
+		assertThat(newSession, is(not(sameInstance(idleSession))));
+		assertThat(idleSession.isConnected(), is(false));
+		assertThat(this.logins.get(), equalTo(2));
+	}
+
+	@Test
+	void doesNotReturnSessionWhichFailedDuringRequestToPool() {
+		Set<Session> retrieveSessions = Collections.newSetFromMap(new IdentityHashMap<>());
+		AtomicInteger retrieveAttempts = new AtomicInteger();
+		CommandHandler retrieveHandler = this.fakeFtpServer.getCommandHandler(CommandNames.RETR);
+		this.fakeFtpServer.setCommandHandler(CommandNames.RETR, (command, session) -> {
+			retrieveAttempts.incrementAndGet();
+			retrieveSessions.add(session);
+			retrieveHandler.handleCommand(command, session);
+		});
+
+		// The server still answers on the session after refusing the missing file, so only the checker failing the
+		// request keeps it from being lent out again
+		assertThrows(IOException.class, () ->
+			newChecker("/pub/missing.gz").saveFileContents(this.downloadDirectory.resolve("missing.gz"))
+		);
+		assertThat(retrieveAttempts.get(), greaterThan(1));
+		assertThat(retrieveSessions.size(), equalTo(retrieveAttempts.get()));
+
+		newChecker("/pub/first.gz").getResourceMetadata();
+		assertThat(this.logins.get(), equalTo(retrieveAttempts.get() + 1));
+	}
+
+	private FTPFileResourceChecker newChecker(String filePath) {
+		return new FTPFileResourceChecker(
+			TestResources.newResource("File", "ftp://localhost:" + this.fakeFtpServer.getServerControlPort() + filePath)
+		);
+	}
+
+	private void closeSession(Command command, Session session) {
+		session.sendReply(SERVICE_NOT_AVAILABLE, "Service not available, closing control connection");
+		session.close();
+	}
+}
@@ -0,0 +1,308 @@
+package org.reactome.release.resourcechecker;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Downloads of an HTTP file from a local server which drops, stalls or answers range requests in the ways a real
+ * provider might, checking the part file is resumed or restarted so the saved file is always complete, and the
+ * resolution of the file's size when its HEAD request fails.
+ */
+class HTTPFileResourceCheckerTest {
+	private static final String ENTITY_TAG = "\"file-version-1\"";
+	private static final String FILE_PATH = "/files/file.gz";
+
+	// Larger than one checkpointed transfer chunk, so a drop after the first chunk leaves progress to resume from
+	private static final int FILE_SIZE_IN_BYTES = 12 * 1024 * 1024;
+	private static final int DROP_AFTER_BYTES = 10 * 1024 * 1024;
+
+	@TempDir
+	Path downloadDirectory;
+
+	private byte[] fileContent;
+	private LocalHttpServer httpServer;
+	private List<String> rangeRequests;
+	private volatile LocalHttpServer.Handler fileGetHandler;
+	private volatile long advertisedFileSizeInBytes;
+	private volatile int headResponseCode;
+
+	@BeforeEach
+	void startServer() throws IOException {
+		this.fileContent = new byte[FILE_SIZE_IN_BYTES];
+		new Random(42).nextBytes(this.fileContent);
+		this.rangeRequests = Collections.synchronizedList(new ArrayList<>());
+		this.advertisedFileSizeInBytes = FILE_SIZE_IN_BYTES;
+		this.headResponseCode = 200;
+		this.httpServer = new LocalHttpServer(this::handle);
+	}
+
+	@AfterEach
+	void stopServer() throws IOException {
+		this.httpServer.close();
+		NetworkTimeouts.setSharedInstance(new NetworkTimeouts(300));
+		CheckMetrics.setSharedInstance(new CheckMetrics());
+	}
+
+	@Test
+	void resumesFromCheckpointWhenConnectionDropsMidTransfer() throws IOException {
+		this.fileGetHandler = (request, response) -> {
+			String range = request.getHeader("Range");
+			if (range == null) {
+				OutputStream responseBody = sendFileHeaders(response);
+				responseBody.write(this.fileContent, 0, DROP_AFTER_BYTES);
+				// Returning closes the connection short of the Content-Length
+			} else {
+				sendFileFrom(response, parseRangeStart(range));
+			}
+		};
+
+		Path downloadDestination = download();
+
+		assertThat(this.rangeRequests, hasSize(2));
+		assertThat(this.rangeRequests.get(0), equalTo(""));
+		assertThat(this.rangeRequests.get(1), startsWith("bytes="));
+		assertThat(this.rangeRequests.get(1), not(equalTo("bytes=0-")));
+		assertThat(Files.readAllBytes(downloadDestination), equalTo(this.fileContent));
+	}
+
+	@Test
+	void restartsFromZeroWhenStaleCheckpointAtFullLengthIsRejected() throws IOException {
+		Path downloadDestination = this.downloadDirectory.resolve("file.gz");
+		new PartialDownload(downloadDestination).writeFrom(
+			new ByteArrayInputStream(this.fileContent), 0, ENTITY_TAG
+		);
+		this.fileGetHandler = (request, response) -> {
+			if (request.getHeader("Range") != null) {
+				response.setHeader("Content-Range", "bytes */" + this.fileContent.length)
+					.setHeader("Content-Length", "0")
+					.sendHeaders(416, "Range Not Satisfiable");
+			} else {
+				sendFileFrom(response, 0);
+			}
+		};
+
+		download();
+
+		assertThat(this.rangeRequests, contains("bytes=" + FILE_SIZE_IN_BYTES + "-", ""));
+		assertThat(Files.readAllBytes(downloadDestination), equalTo(this.fileContent));
+	}
+
+	@Test
+	void restartsFromZeroWhenContentRangeDoesNotStartAtCheckpoint() throws IOException {
+		Path downloadDestination = this.downloadDirectory.resolve("file.gz");
+		new PartialDownload(downloadDestination).writeFrom(
+			new ByteArrayInputStream(Arrays.copyOf(this.fileContent, 1000)), 0, ENTITY_TAG
+		);
+		this.fileGetHandler = (request, response) -> {
+			if (request.getHeader("Range") != null) {
+				// Answers every range request with the whole file as a partial response
+				sendPartialFrom(response, 0);
+			} else {
+				sendFileFrom(response, 0);
+			}
+		};
+
+		download();
+
+		assertThat(this.rangeRequests, contains("bytes=1000-", ""));
+		assertThat(Files.readAllBytes(downloadDestination), equalTo(this.fileContent));
+	}
+
+	@Test
+	void doesNotRetryWhenDownloadThreadIsInterrupted() throws Exception {
+		// Bounds the stalled read in case the interrupt does not unblock it
+		NetworkTimeouts.setSharedInstance(new NetworkTimeouts(5));
+		CheckMetrics checkMetrics = new CheckMetrics();
+		CheckMetrics.setSharedInstance(checkMetrics);
+		CountDownLatch transferStarted = new CountDownLatch(1);
+		CountDownLatch releaseServer = new CountDownLatch(1);
+		this.fileGetHandler = (request, response) -> {
+			OutputStream responseBody = sendFileHeaders(response);
+			responseBody.write(this.fileContent, 0, 1024);
+			responseBody.flush();
+			transferStarted.countDown();
+			try {
+				releaseServer.await(30, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+
+		AtomicReference<Throwable> downloadFailure = new AtomicReference<>();
+		Thread downloadThread = new Thread(() -> {
+			try {
+				download();
+			} catch (Throwable e) {
+				downloadFailure.set(e);
+			}
+		});
+		downloadThread.start();
+		try {
+			assertThat(transferStarted.await(10, TimeUnit.SECONDS), equalTo(true));
+			downloadThread.interrupt();
+			downloadThread.join(TimeUnit.SECONDS.toMillis(20));
+		} finally {
+			releaseServer.countDown();
+		}
+
+		assertThat(downloadThread.isAlive(), equalTo(false));
+		assertThat(downloadFailure.get(), instanceOf(IOException.class));
+		assertThat(this.rangeRequests, hasSize(1));
+		assertThat(checkMetrics.getRetries(), equalTo(0L));
+	}
+
+	@Test
+	void doesNotFallBackToSingleStreamWhenParallelDownloadIsInterrupted() throws Exception {
+		NetworkTimeouts.setSharedInstance(new NetworkTimeouts(5));
+		// Advertises a file large enough to be split into ranges, of which only the first bytes are ever sent
+		this.advertisedFileSizeInBytes = 64L * 1024 * 1024;
+		CountDownLatch rangesStarted = new CountDownLatch(2);
+		CountDownLatch releaseServer = new CountDownLatch(1);
+		this.fileGetHandler = (request, response) -> {
+			OutputStream responseBody = response.setHeader("ETag", ENTITY_TAG)
+				.setHeader("Content-Length", Long.toString(this.advertisedFileSizeInBytes))
+				.sendHeaders(206, "Partial Content");
+			responseBody.write(this.fileContent, 0, 1024);
+			responseBody.flush();
+			rangesStarted.countDown();
+			try {
+				releaseServer.await(30, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+
+		HTTPFileResourceChecker.setParallelDownloadStreams(2);
+		AtomicReference<Throwable> downloadFailure = new AtomicReference<>();
+		Thread downloadThread = new Thread(() -> {
+			try {
+				download();
+			} catch (Throwable e) {
+				downloadFailure.set(e);
+			}
+		});
+		downloadThread.start();
+		try {
+			assertThat(rangesStarted.await(10, TimeUnit.SECONDS), equalTo(true));
+			downloadThread.interrupt();
+			downloadThread.join(TimeUnit.SECONDS.toMillis(20));
+		} finally {
+			releaseServer.countDown();
+			HTTPFileResourceChecker.setParallelDownloadStreams(4);
+		}
+
+		assertThat(downloadThread.isAlive(), equalTo(false));
+		assertThat(downloadFailure.get(), instanceOf(InterruptedIOException.class));
+		assertThat(this.rangeRequests, not(hasItem("")));
+	}
+
+	@Test
+	void resolvesFileSizeFromRangedGetWhenHeadIsNotAllowed() {
+		this.headResponseCode = 405;
+		this.fileGetHandler = (request, response) -> response
+			.setHeader("Content-Range", "bytes 0-0/" + this.fileContent.length)
+			.setHeader("Content-Length", "1")
+			.sendHeaders(206, "Partial Content")
+			.write(this.fileContent, 0, 1);
+
+		long fileSize = new HTTPFileResourceChecker(
+			TestResources.newResource("File", this.httpServer.getURL(FILE_PATH))
+		).getFileSize();
+
+		assertThat(fileSize, equalTo((long) FILE_SIZE_IN_BYTES));
+		assertThat(this.rangeRequests, contains("bytes=0-0"));
+	}
+
+	@Test
+	void doesNotRequestFileSizeAgainWhenFileIsMissing() {
+		this.headResponseCode = 404;
+
+		long fileSize = new HTTPFileResourceChecker(
+			TestResources.newResource("File", this.httpServer.getURL(FILE_PATH))
+		).getFileSize();
+
+		assertThat(fileSize, equalTo(-1L));
+		assertThat(this.rangeRequests, hasSize(0));
+	}
+
+	private Path download() throws IOException {
+		Path downloadDestination = this.downloadDirectory.resolve("file.gz");
+		new HTTPFileResourceChecker(
+			TestResources.newResource("File", this.httpServer.getURL(FILE_PATH))
+		).saveFileContents(downloadDestination);
+		return downloadDestination;
+	}
+
+	private void handle(LocalHttpServer.Request request, LocalHttpServer.Response response) throws IOException {
+		if (request.getMethod().equals("HEAD") && this.headResponseCode != 200) {
+			response.setHeader("Content-Length", "0").sendHeaders(this.headResponseCode, "HEAD Failed");
+			return;
+		} else if (request.getMethod().equals("HEAD")) {
+			response.setHeader("ETag", ENTITY_TAG)
+				.setHeader("Accept-Ranges", "bytes")
+				.setHeader("Content-Length", Long.toString(this.advertisedFileSizeInBytes))
+				.sendHeaders(200, "OK");
+			return;
+		}
+
+		String range = request.getHeader("Range");
+		this.rangeRequests.add(range != null ? range : "");
+		this.fileGetHandler.handle(request, response);
+	}
+
+	private OutputStream sendFileHeaders(LocalHttpServer.Response response) throws IOException {
+		return response.setHeader("ETag", ENTITY_TAG)
+			.setHeader("Content-Length", Integer.toString(this.fileContent.length))
+			.sendHeaders(200, "OK");
+	}
+
+	private void sendFileFrom(LocalHttpServer.Response response, int rangeStart) throws IOException {
+		if (rangeStart == 0) {
+			sendFileHeaders(response).write(this.fileContent);
+		} else {
+			sendPartialFrom(response, rangeStart);
+		}
+	}
+
+	private void sendPartialFrom(LocalHttpServer.Response response, int rangeStart) throws IOException {
+		int contentLength = this.fileContent.length - rangeStart;
+		response.setHeader("ETag", ENTITY_TAG)
+			.setHeader(
+				"Content-Range",
+				"bytes " + rangeStart + "-" + (this.fileContent.length - 1) + "/" + this.fileContent.length
+			)
+			.setHeader("Content-Length", Integer.toString(contentLength))
+			.sendHeaders(206, "Partial Content")
+			.write(this.fileContent, rangeStart, contentLength);
+	}
+
+	private static int parseRangeStart(String range) {
+		return Integer.parseInt(range.substring("bytes=".length(), range.indexOf('-')));
+	}
+}
@@ -0,0 +1,163 @@
+package org.reactome.release.resourcechecker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A minimal HTTP/1.1 server on a free loopback port for checker and engine tests.  Unlike the JDK's HTTP server, the
+ * handler writes the raw response to the socket, so a test can stall a response or drop the connection part way
+ * through the body as an unreliable provider would.  Every connection serves a single request and is then closed.
+ */
+public final class LocalHttpServer implements AutoCloseable {
+	private final ServerSocket serverSocket;
+	private final Handler handler;
+	private final Thread acceptThread;
+
+	/**
+	 * Starts a server passing every request to the handler on its own thread.
+	 *
+	 * @param handler Handler writing the response to each request
+	 * @throws IOException Thrown if the server socket can not be opened
+	 */
+	public LocalHttpServer(Handler handler) throws IOException {
+		this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		this.handler = handler;
+		this.acceptThread = new Thread(this::acceptConnections, "local-http-server");
+		this.acceptThread.setDaemon(true);
+		this.acceptThread.start();
+	}
+
+	/**
+	 * Returns the URL of the path on this server.
+	 *
+	 * @param path Absolute path (e.g. "/files/file.gz")
+	 * @return URL as a String
+	 */
+	public String getURL(String path) {
+		return "http://localhost:" + this.serverSocket.getLocalPort() + path;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.serverSocket.close();
+	}
+
+	private void acceptConnections() {
+		while (!this.serverSocket.isClosed()) {
+			try {
+				Socket socket = this.serverSocket.accept();
+				Thread connectionThread = new Thread(() -> serve(socket), "local-http-connection");
+				connectionThread.setDaemon(true);
+				connectionThread.start();
+			} catch (IOException e) {
+				// The server socket has been closed
+			}
+		}
+	}
+
+	private void serve(Socket socket) {
+		try (Socket connection = socket) {
+			BufferedReader requestReader = new BufferedReader(
+				new InputStreamReader(connection.getInputStream(), StandardCharsets.ISO_8859_1)
+			);
+			String[] requestLine = requestReader.readLine().split(" ");
+			Map<String, String> requestHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+			String headerLine;
+			while ((headerLine = requestReader.readLine()) != null && !headerLine.isEmpty()) {
+				int separatorIndex = headerLine.indexOf(':');
+				requestHeaders.put(
+					headerLine.substring(0, separatorIndex).trim(), headerLine.substring(separatorIndex + 1).trim()
+				);
+			}
+
+			this.handler.handle(
+				new Request(requestLine[0], requestLine[1], requestHeaders), new Response(connection.getOutputStream())
+			);
+		} catch (SocketException e) {
+			// The client closed the connection
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	public interface Handler {
+		void handle(Request request, Response response) throws IOException;
+	}
+
+	public static final class Request {
+		private final String method;
+		private final String path;
+		private final Map<String, String> headers;
+
+		private Request(String method, String path, Map<String, String> headers) {
+			this.method = method;
+			this.path = path;
+			this.headers = headers;
+		}
+
+		public String getMethod() {
+			return this.method;
+		}
+
+		public String getPath() {
+			return this.path;
+		}
+
+		/**
+		 * Returns the value of the request header, ignoring the case of its name, or <code>null</code> if it was not
+		 * sent.
+		 *
+		 * @param headerName Name of the header
+		 * @return Value of the header or null
+		 */
+		public String getHeader(String headerName) {
+			return this.headers.get(headerName);
+		}
+	}
+
+	public static final class Response {
+		private final OutputStream outputStream;
+		private final Map<String, String> headers = new LinkedHashMap<>();
+
+		private Response(OutputStream outputStream) {
+			this.outputStream = outputStream;
+		}
+
+		public Response setHeader(String headerName, String headerValue) {
+			this.headers.put(headerName, headerValue);
+			return this;
+		}
+
+		/**
+		 * Writes the status line and headers, with a "Connection: close" header, and returns the stream for the body.
+		 * Closing the connection before writing as many bytes as the Content-Length header drops the response.
+		 *
+		 * @param statusCode HTTP status code
+		 * @param reasonPhrase Reason phrase of the status line
+		 * @return Stream to which the body is written
+		 * @throws IOException Thrown if the headers can not be written
+		 */
+		public OutputStream sendHeaders(int statusCode, String reasonPhrase) throws IOException {
+			StringBuilder responseHead = new StringBuilder("HTTP/1.1 ")
+				.append(statusCode).append(' ').append(reasonPhrase).append("\r\n");
+			for (Map.Entry<String, String> header : this.headers.entrySet()) {
+				responseHead.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+			}
+			responseHead.append("Connection: close\r\n\r\n");
+
+			this.outputStream.write(responseHead.toString().getBytes(StandardCharsets.ISO_8859_1));
+			this.outputStream.flush();
+			return this.outputStream;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package org.reactome.release.resourcechecker;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.reactome.release.resourcechecker.ResponseTextMatcher.ResponseTextMatch;
+
+/**
+ * Matches of the expected and error response texts in bodies streamed in small reads, so texts fall across the
+ * boundaries between reads.
+ */
+class ResponseTextMatcherTest {
+	private static final int READ_SIZE_IN_BYTES = 8 * 1024;
+	private static final String EXPECTED_TEXT = "Reactome pathway";
+	private static final String ERROR_TEXT = "Service unavailable";
+
+	private final ResponseTextMatcher responseTextMatcher = new ResponseTextMatcher(EXPECTED_TEXT, ERROR_TEXT);
+
+	@Test
+	void findsTextSplitAcrossTwoReads() throws IOException {
+		String body = filler(READ_SIZE_IN_BYTES - EXPECTED_TEXT.length() / 2) + EXPECTED_TEXT + filler(100);
+		SmallReadInputStream content = new SmallReadInputStream(body, READ_SIZE_IN_BYTES);
+
+		ResponseTextMatch responseTextMatch = this.responseTextMatcher.match(content);
+
+		assertThat(responseTextMatch.isExpectedResponseTextFound(), is(true));
+		assertThat(responseTextMatch.isErrorResponseTextFound(), is(false));
+		assertThat(content.reads, equalTo(2));
+	}
+
+	@Test
+	void findsExpectedAndErrorTextsInOnePass() throws IOException {
+		String body = filler(1000) + ERROR_TEXT + filler(READ_SIZE_IN_BYTES * 2) + EXPECTED_TEXT + filler(1000);
+		SmallReadInputStream content = new SmallReadInputStream(body, READ_SIZE_IN_BYTES);
+
+		ResponseTextMatch responseTextMatch = this.responseTextMatcher.match(content);
+
+		assertThat(responseTextMatch.isExpectedResponseTextFound(), is(true));
+		assertThat(responseTextMatch.isErrorResponseTextFound(), is(true));
+		assertThat(content.bytesRead, equalTo((long) body.length()));
+		assertThat(content.closed, is(true));
+	}
+
+	@Test
+	void stopsReadingOnceAllTextsAreFound() throws IOException {
+		String body = EXPECTED_TEXT + ERROR_TEXT + filler(READ_SIZE_IN_BYTES * 10);
+		SmallReadInputStream content = new SmallReadInputStream(body, READ_SIZE_IN_BYTES);
+
+		ResponseTextMatch responseTextMatch = this.responseTextMatcher.match(content);
+
+		assertThat(responseTextMatch.isAnyResponseTextFound(), is(true));
+		assertThat(content.reads, equalTo(1));
+		assertThat(content.bytesRead, equalTo((long) READ_SIZE_IN_BYTES));
+		assertThat(content.closed, is(true));
+	}
+
+	@Test
+	void findsMultibyteTextSplitWithinCharacter() throws IOException {
+		String expectedText = "Ångström – 蛋白质";
+		ResponseTextMatcher multibyteTextMatcher = new ResponseTextMatcher(expectedText, "Fehler ü");
+		// Each read returns a single byte, so every multibyte character is split across reads
+		SmallReadInputStream content = new SmallReadInputStream("Gefunden: " + expectedText + " über", 1);
+
+		ResponseTextMatch responseTextMatch = multibyteTextMatcher.match(content);
+
+		assertThat(responseTextMatch.isExpectedResponseTextFound(), is(true));
+		assertThat(responseTextMatch.isErrorResponseTextFound(), is(false));
+	}
+
+	private static String filler(int length) {
+		StringBuilder filler = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			filler.append((char) ('a' + i % 26));
+		}
+		return filler.toString();
+	}
+
+	/**
+	 * Serves the UTF-8 bytes of a body at most a fixed number of bytes per read, counting the reads and bytes read.
+	 */
+	private static class SmallReadInputStream extends ByteArrayInputStream {
+		private final int maxReadSizeInBytes;
+		private int reads;
+		private long bytesRead;
+		private boolean closed;
+
+		private SmallReadInputStream(String body, int maxReadSizeInBytes) {
+			super(body.getBytes(StandardCharsets.UTF_8));
+			this.maxReadSizeInBytes = maxReadSizeInBytes;
+		}
+
+		@Override
+		public synchronized int read(byte[] buffer, int offset, int length) {
+			int bytesReadNow = super.read(buffer, offset, Math.min(length, this.maxReadSizeInBytes));
+			if (bytesReadNow > 0) {
+				this.reads += 1;
+				this.bytesRead += bytesReadNow;
+			}
+			return bytesReadNow;
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.closed = true;
+			super.close();
+		}
+	}
+}
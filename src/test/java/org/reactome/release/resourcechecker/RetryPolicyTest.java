@@ -0,0 +1,110 @@
+package org.reactome.release.resourcechecker;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Retries of operations whose delay (such as a server's Retry-After) would run past the deadline of the check they
+ * belong to, and retries within it.
+ */
+class RetryPolicyTest {
+	private static final long RETRY_AFTER_MILLIS = 30000;
+
+	private final RetryPolicy retryPolicy = new RetryPolicy(3, 10, RETRY_AFTER_MILLIS, 10, 60);
+	private final AtomicInteger attempts = new AtomicInteger();
+
+	@Test
+	void returnsLastResponseWhenRetryDelayPassesCheckDeadline() throws Exception {
+		long startNanos = System.nanoTime();
+
+		String response = executeWithinDeadline(
+			this.retryPolicy, deadlineInSeconds(1), this::respond, this::retryAfter
+		);
+
+		assertThat(response, equalTo("503 response 1"));
+		assertThat(this.attempts.get(), equalTo(1));
+		assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos), lessThan(1L));
+	}
+
+	@Test
+	void throwsLastFailureWhenRetryDelayPassesCheckDeadline() {
+		// The backoff delay is random, so the check's deadline has already passed to leave no time for any retry
+		UncheckedIOException failure = assertThrows(UncheckedIOException.class, () -> executeWithinDeadline(
+			this.retryPolicy,
+			deadlineInSeconds(0),
+			() -> {
+				this.attempts.incrementAndGet();
+				throw new SocketTimeoutException("Read timed out");
+			},
+			response -> RetryPolicy.ResultClassifier.NO_RETRY
+		));
+
+		assertThat(failure.getCause(), instanceOf(SocketTimeoutException.class));
+		assertThat(this.attempts.get(), equalTo(1));
+	}
+
+	@Test
+	void asynchronousOperationReturnsLastResponseWhenRetryDelayPassesCheckDeadline() throws Exception {
+		CompletableFuture<String> responseFuture = RetryPolicy.runWithinDeadline(deadlineInSeconds(1), () ->
+			this.retryPolicy.executeAsync(
+				"example.org", () -> CompletableFuture.completedFuture(respond()), this::retryAfter
+			)
+		);
+
+		assertThat(responseFuture.get(1, TimeUnit.SECONDS), equalTo("503 response 1"));
+		assertThat(this.attempts.get(), equalTo(1));
+	}
+
+	@Test
+	void retriesWithinCheckDeadline() throws Exception {
+		String response = executeWithinDeadline(this.retryPolicy, deadlineInSeconds(60), this::respond, response1 ->
+			this.attempts.get() < 2 ? 10 : RetryPolicy.ResultClassifier.NO_RETRY
+		);
+
+		assertThat(response, equalTo("503 response 2"));
+		assertThat(this.attempts.get(), equalTo(2));
+	}
+
+	/**
+	 * Runs the operation through the retry policy as part of a check with the deadline, rethrowing its failure
+	 * unchecked.
+	 */
+	private static String executeWithinDeadline(
+		RetryPolicy retryPolicy,
+		long deadlineNanos,
+		RetryPolicy.Operation<String> operation,
+		RetryPolicy.ResultClassifier<String> resultClassifier
+	) {
+		return RetryPolicy.runWithinDeadline(deadlineNanos, () -> {
+			try {
+				return retryPolicy.execute("example.org", operation, resultClassifier);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	private String respond() {
+		return "503 response " + this.attempts.incrementAndGet();
+	}
+
+	private long retryAfter(String response) {
+		return RETRY_AFTER_MILLIS;
+	}
+
+	private static long deadlineInSeconds(long seconds) {
+		return System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+	}
+}
@@ -0,0 +1,43 @@
+package org.reactome.release.resourcechecker;
+
+import com.google.gson.JsonObject;
+
+import org.reactome.release.Resource;
+
+/**
+ * Builds resources for checker tests with placeholder values for the attributes the checks do not use.
+ */
+public final class TestResources {
+	private TestResources() {}
+
+	/**
+	 * Returns a resource of the given type at the URL.
+	 *
+	 * @param resourceType Resource type as it appears in the resources file (e.g. "File")
+	 * @param resourceURL URL of the resource
+	 * @return New Resource
+	 */
+	public static Resource newResource(String resourceType, String resourceURL) {
+		return new Resource(newResourceJson(resourceType, resourceURL));
+	}
+
+	/**
+	 * Returns the attributes of a resource of the given type at the URL, to which a test may add optional attributes
+	 * before constructing the resource.
+	 *
+	 * @param resourceType Resource type as it appears in the resources file (e.g. "File")
+	 * @param resourceURL URL of the resource
+	 * @return Resource attributes as JSON
+	 */
+	public static JsonObject newResourceJson(String resourceType, String resourceURL) {
+		JsonObject resourceJson = new JsonObject();
+		resourceJson.addProperty("Release Step", "Test Step");
+		resourceJson.addProperty("Main Program", "TestProgram");
+		resourceJson.addProperty("Dependency in Source Code", "None");
+		resourceJson.addProperty("Resource", "test_resource");
+		resourceJson.addProperty("Resource Description", "Test resource");
+		resourceJson.addProperty("Resource Type", resourceType);
+		resourceJson.addProperty("Resource URL", resourceURL);
+		return resourceJson;
+	}
+}
@@ -0,0 +1,205 @@
+package org.reactome.release.resourcechecker;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Borrowing and returning of browser sessions and the retry of a page action on a new session, with stub WebDrivers
+ * standing in for real browsers.
+ */
+class WebDriverPoolTest {
+	private List<StubWebDriver> createdWebDrivers;
+	private CheckMetrics checkMetrics;
+
+	@BeforeEach
+	void resetMetrics() {
+		this.createdWebDrivers = new ArrayList<>();
+		this.checkMetrics = new CheckMetrics();
+		CheckMetrics.setSharedInstance(this.checkMetrics);
+	}
+
+	@AfterEach
+	void restoreMetrics() {
+		CheckMetrics.setSharedInstance(new CheckMetrics());
+	}
+
+	@Test
+	void reusesReturnedSessionForNextPage() {
+		try (WebDriverPool webDriverPool = newWebDriverPool(1, 10)) {
+			WebDriver firstWebDriver = webDriverPool.withWebDriver(webDriver -> webDriver);
+			WebDriver secondWebDriver = webDriverPool.withWebDriver(webDriver -> webDriver);
+
+			assertThat(secondWebDriver, equalTo(firstWebDriver));
+			assertThat(this.createdWebDrivers, hasSize(1));
+			assertThat(this.createdWebDrivers.get(0).quit, equalTo(false));
+		}
+	}
+
+	@Test
+	void replacesSessionAfterMaximumPages() {
+		try (WebDriverPool webDriverPool = newWebDriverPool(1, 2)) {
+			for (int page = 0; page < 3; page++) {
+				webDriverPool.withWebDriver(WebDriver::getPageSource);
+			}
+
+			assertThat(this.createdWebDrivers, hasSize(2));
+			assertThat(this.createdWebDrivers.get(0).quit, equalTo(true));
+			assertThat(this.createdWebDrivers.get(1).quit, equalTo(false));
+		}
+	}
+
+	@Test
+	void retriesPageActionOnNewSessionAfterWebDriverException() {
+		try (WebDriverPool webDriverPool = newWebDriverPool(1, 10)) {
+			String pageSource = webDriverPool.withWebDriver(webDriver -> {
+				if (webDriver == this.createdWebDrivers.get(0)) {
+					throw new WebDriverException("Browser crashed");
+				}
+				return webDriver.getPageSource();
+			});
+
+			assertThat(pageSource, equalTo("page from browser 2"));
+			assertThat(this.createdWebDrivers, hasSize(2));
+			assertThat(this.createdWebDrivers.get(0).quit, equalTo(true));
+			assertThat(this.checkMetrics.getRetries(), equalTo(1L));
+		}
+	}
+
+	@Test
+	void releasesSessionsWhenRetryAlsoFails() {
+		try (WebDriverPool webDriverPool = newWebDriverPool(1, 10)) {
+			assertThrows(WebDriverException.class, () -> webDriverPool.withWebDriver(webDriver -> {
+				throw new WebDriverException("Browser crashed");
+			}));
+
+			assertThat(this.createdWebDrivers, hasSize(2));
+			assertThat(this.createdWebDrivers.get(0).quit, equalTo(true));
+			assertThat(this.createdWebDrivers.get(1).quit, equalTo(true));
+			// The only permit of the pool has been returned, so a further page can be loaded
+			assertThat(webDriverPool.withWebDriver(WebDriver::getPageSource), equalTo("page from browser 3"));
+		}
+	}
+
+	@Test
+	void returnsSessionWithoutRetryAfterOtherException() {
+		try (WebDriverPool webDriverPool = newWebDriverPool(1, 10)) {
+			assertThrows(IllegalArgumentException.class, () -> webDriverPool.withWebDriver(webDriver -> {
+				throw new IllegalArgumentException("Not a browser failure");
+			}));
+
+			assertThat(webDriverPool.withWebDriver(WebDriver::getPageSource), equalTo("page from browser 1"));
+			assertThat(this.createdWebDrivers, hasSize(1));
+			assertThat(this.checkMetrics.getRetries(), equalTo(0L));
+		}
+	}
+
+	@Test
+	void closeQuitsIdleSessions() {
+		WebDriverPool webDriverPool = newWebDriverPool(2, 10);
+		webDriverPool.withWebDriver(WebDriver::getPageSource);
+
+		webDriverPool.close();
+
+		assertThat(this.createdWebDrivers, hasSize(1));
+		assertThat(this.createdWebDrivers.get(0).quit, equalTo(true));
+		assertThrows(IllegalStateException.class, () -> webDriverPool.withWebDriver(WebDriver::getPageSource));
+	}
+
+	private WebDriverPool newWebDriverPool(int poolSize, int maxPagesPerSession) {
+		return new WebDriverPool(poolSize, maxPagesPerSession, 1, () -> {
+			StubWebDriver stubWebDriver = new StubWebDriver(
+				"page from browser " + (this.createdWebDrivers.size() + 1)
+			);
+			this.createdWebDrivers.add(stubWebDriver);
+			return stubWebDriver;
+		});
+	}
+
+	/**
+	 * WebDriver whose page source is fixed and which records whether it has been quit.
+	 */
+	private static class StubWebDriver implements WebDriver {
+		private final String pageSource;
+		private boolean quit;
+
+		private StubWebDriver(String pageSource) {
+			this.pageSource = pageSource;
+		}
+
+		@Override
+		public void get(String url) {}
+
+		@Override
+		public String getCurrentUrl() {
+			return null;
+		}
+
+		@Override
+		public String getTitle() {
+			return null;
+		}
+
+		@Override
+		public List<WebElement> findElements(By by) {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public WebElement findElement(By by) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public String getPageSource() {
+			return this.pageSource;
+		}
+
+		@Override
+		public void close() {}
+
+		@Override
+		public void quit() {
+			this.quit = true;
+		}
+
+		@Override
+		public Set<String> getWindowHandles() {
+			return Collections.emptySet();
+		}
+
+		@Override
+		public String getWindowHandle() {
+			return null;
+		}
+
+		@Override
+		public TargetLocator switchTo() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Navigation navigate() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Options manage() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}